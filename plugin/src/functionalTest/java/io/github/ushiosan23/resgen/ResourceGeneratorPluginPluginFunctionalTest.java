@@ -1,52 +1,280 @@
-/*
- * This Java source file was generated by the Gradle 'init' task.
- */
 package io.github.ushiosan23.resgen;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.Writer;
-import java.io.FileWriter;
-import java.nio.file.Files;
-
-import org.gradle.testkit.runner.GradleRunner;
 import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
- * A simple functional test for the 'com.github.ushiosan23.resgen.greeting' plugin.
+ * Functional tests of the plugin. Each test builds a copy of the example resource tree,
+ * compiles the generated classes and runs a main class that uses them.
  */
 class ResourceGeneratorPluginPluginFunctionalTest {
 
+    /**
+     * Example resources, relative to the plugin project
+     */
+    private static final Path EXAMPLE_RESOURCES = Paths.get("..", "example", "src", "main", "resources");
+
+    @Test
+    void javaFileResolvesLocations(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir, "generationType = GeneratorType.JAVA_FILE");
+        writeMain(projectDir,
+            "System.out.println(\"idOf=\" + (Res.idOf(\"icons/icon.svg\") == Res.icons_icon_svg));",
+            "System.out.println(\"missing=\" + Res.idOf(\"missing.txt\"));",
+            "long icons = Res.idsUnder(\"icons/\");",
+            "System.out.println(\"idsUnder=\" + (Res.rangeEnd(icons) - Res.rangeStart(icons)));",
+            "long prefix = Res.list(\"icons/icon\");",
+            "System.out.println(\"list=\" + (Res.rangeEnd(prefix) - Res.rangeStart(prefix)));",
+            "System.out.println(\"location=\" + Res.getRegisteredResource(Res.idAt(Res.rangeStart(prefix))));");
+
+        String output = run(projectDir).getOutput();
+        assertTrue(output.contains("idOf=true"), output);
+        assertTrue(output.contains("missing=-1"), output);
+        assertTrue(output.contains("idsUnder=3"), output);
+        assertTrue(output.contains("list=2"), output);
+        assertTrue(output.contains("icons/icon%20with%20spaces.svg"), output);
+    }
+
+    @Test
+    void nestedFileUsesUniqueNames(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir, "generationType = GeneratorType.JAVA_NESTED_FILE");
+        // Both directories and the root file have the same identifier
+        writeResource(projectDir, "a.b/x.txt", "dot");
+        writeResource(projectDir, "a_b/x.txt", "underscore");
+        writeResource(projectDir, "a_b", "file");
+        writeMain(projectDir,
+            "System.out.println(\"icon=\" + Res.getRegisteredResource(Res.icons.icon_svg).toString().endsWith(\"/icons/icon.svg\"));",
+            "System.out.println(\"dot=\" + read(Res.getRegisteredResourceAsStream(Res.a_b$1.x_txt)));",
+            "System.out.println(\"underscore=\" + read(Res.getRegisteredResourceAsStream(Res.a_b$2.x_txt)));",
+            "System.out.println(\"file=\" + read(Res.getRegisteredResourceAsStream(Res.a_b)));");
+
+        String output = run(projectDir).getOutput();
+        assertTrue(output.contains("icon=true"), output);
+        assertTrue(output.contains("dot=dot"), output);
+        assertTrue(output.contains("underscore=underscore"), output);
+        assertTrue(output.contains("file=file"), output);
+    }
+
+    @Test
+    void nestedIdsAreUniqueInTheTree(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir, "generationType = GeneratorType.JAVA_NESTED_FILE");
+        writeMain(projectDir,
+            "java.util.Set<Integer> ids = new java.util.HashSet<>();",
+            "ids.add(Res.this_txt);",
+            "ids.add(Res.icons.icon_svg);",
+            "ids.add(Res.ini.base_ini);",
+            "ids.add(Res.xml.configuration_xml);",
+            "System.out.println(\"unique=\" + ids.size());",
+            "// Ids of the root class and a directory class resolve their own resources",
+            "System.out.println(\"root=\" + Res.getRegisteredResource(Res.this_txt).toString().endsWith(\"/this.txt\"));",
+            "System.out.println(\"ini=\" + Res.getRegisteredResource(Res.ini.base_ini).toString().endsWith(\"/ini/base.ini\"));",
+            "try {",
+            "    Res.getRegisteredResource(Integer.MAX_VALUE);",
+            "} catch (IndexOutOfBoundsException err) {",
+            "    System.out.println(\"unknown=\" + err.getMessage());",
+            "}");
+
+        String output = run(projectDir).getOutput();
+        assertTrue(output.contains("unique=4"), output);
+        assertTrue(output.contains("root=true"), output);
+        assertTrue(output.contains("ini=true"), output);
+        assertTrue(output.contains("unknown=Resource " + Integer.MAX_VALUE + " not found"), output);
+    }
+
+    @Test
+    void stableIdsSurviveNewResources(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir, "generationType = GeneratorType.JAVA_FILE", "stableIds = true");
+        writeMain(projectDir, "System.out.println(\"iconId=\" + Res.icons_icon_svg + \";\");");
+
+        String first = run(projectDir).getOutput();
+        assertTrue(Files.isRegularFile(projectDir.resolve("resgen/resource-ids.txt")));
+        // New location sorted before the existing ones
+        writeResource(projectDir, "icons/0first.svg", "<svg/>");
+        String second = run(projectDir).getOutput();
+
+        assertEquals(extract(first, "iconId="), extract(second, "iconId="));
+    }
+
+    @Test
+    void offHeapAndBytecodeIdsLoad(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir,
+            "generationType = GeneratorType.JAVA_FILE",
+            "offHeapResources = ['icons/**']",
+            "bytecodeIds = true");
+        writeMain(projectDir,
+            "System.out.println(\"ids=\" + Class.forName(\"com.example.ResIds\").isAssignableFrom(Res.class));",
+            "System.out.println(\"offHeap=\" + Res.OffHeap.contains(Res.icons_icon_svg));",
+            "System.out.println(\"onHeap=\" + Res.OffHeap.contains(Res.this_txt));",
+            "System.out.println(\"bytes=\" + Res.OffHeap.getBuffer(Res.icons_icon_svg).remaining() + \";\");");
+
+        String output = run(projectDir).getOutput();
+        long size = Files.size(EXAMPLE_RESOURCES.resolve("icons/icon.svg"));
+        assertTrue(output.contains("ids=true"), output);
+        assertTrue(output.contains("offHeap=true"), output);
+        assertTrue(output.contains("onHeap=false"), output);
+        // Svg resources may be minified, so the buffer is never larger than the source
+        assertTrue(Long.parseLong(extract(output, "bytes=")) <= size, output);
+    }
+
+    @Test
+    void streamFileLoadsConstantParts(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir, "generationType = GeneratorType.JAVA_STREAM_FILE");
+        writeMain(projectDir,
+            "System.out.println(\"parts=\" + Class.forName(\"com.example.ResConstants0\").isAssignableFrom(Res.class));",
+            "System.out.println(\"icon=\" + read(Res.getRegisteredResourceAsStream(Res.icons_icon_svg)).isEmpty());");
+
+        String output = run(projectDir).getOutput();
+        assertTrue(output.contains("parts=true"), output);
+        assertTrue(output.contains("icon=false"), output);
+    }
+
     @Test
-    void canRunTask() throws IOException {
-        // Setup the test build
-        File projectDir = new File("build/functionalTest");
-        Files.createDirectories(projectDir.toPath());
-        writeString(new File(projectDir, "settings.gradle"), "");
-        writeString(new File(projectDir, "build.gradle"),
-            "plugins {" +
-                "  id('com.github.ushiosan23.resgen.greeting')" +
-                "}");
+    void javaFileRejectsCollidingNames(@TempDir Path projectDir) throws IOException {
+        assertCollisionFails(projectDir, "GeneratorType.JAVA_FILE");
+    }
 
-        // Run the build
-        GradleRunner runner = GradleRunner.create();
-        runner.forwardOutput();
-        runner.withPluginClasspath();
-        runner.withArguments("greeting");
-        runner.withProjectDir(projectDir);
-        BuildResult result = runner.build();
+    @Test
+    void streamFileRejectsCollidingNames(@TempDir Path projectDir) throws IOException {
+        assertCollisionFails(projectDir, "GeneratorType.JAVA_STREAM_FILE");
+    }
+
+    @Test
+    void propertiesFileResolvesKeys(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir, "generationType = GeneratorType.PROPERTIES_FILE");
+        writeMain(projectDir,
+            "String expected = read(Res.getResourceAsStream(\"icons/icon.svg\"));",
+            "System.out.println(\"icon=\" + read(Res.getRegisteredResourceAsStream(\"icons.icon_svg\")).equals(expected));",
+            "System.out.println(\"nested=\" + Res.getRegisteredResource(\"ini.base_ini\").toString().endsWith(\"/ini/base.ini\"));",
+            "try {",
+            "    Res.getRegisteredResource(\"missing_txt\");",
+            "} catch (NullPointerException err) {",
+            "    System.out.println(\"missing=\" + err.getMessage() + \";\");",
+            "}");
+
+        String output = run(projectDir).getOutput();
+        assertTrue(output.contains("icon=true"), output);
+        assertTrue(output.contains("nested=true"), output);
+        assertEquals("missing_txt resource not found", extract(output, "missing="));
+    }
+
+    @Test
+    void devModeReadsTheIndexFile(@TempDir Path projectDir) throws IOException {
+        setupProject(projectDir, "generationType = GeneratorType.JAVA_FILE", "devMode = true");
+        // The copied index adds a location with a line break, the system property replaces the build index
+        writeMain(projectDir,
+            "java.nio.file.Path index = java.nio.file.Paths.get(\"build/resgen/dev-index.txt\");",
+            "java.nio.file.Path copy = java.nio.file.Paths.get(\"build/copied-index.txt\");",
+            "java.nio.file.Files.writeString(copy, java.nio.file.Files.readString(index) + \"999\\tline\\\\nbreak.txt\\n\");",
+            "System.setProperty(\"resgen.devIndex.com.example\", copy.toAbsolutePath().toString());",
+            "System.out.println(\"idOf=\" + (Res.idOf(\"icons/icon.svg\") == Res.icons_icon_svg));",
+            "System.out.println(\"copied=\" + Res.idOf(\"line\\nbreak.txt\") + \";\");",
+            "System.out.println(\"icon=\" + read(Res.getRegisteredResourceAsStream(Res.icons_icon_svg)).isEmpty());");
 
-        // Verify the result
-        assertTrue(result.getOutput().contains("Hello from plugin 'com.github.ushiosan23.resgen.greeting'"));
+        String output = run(projectDir).getOutput();
+        assertTrue(Files.isRegularFile(projectDir.resolve("build/resgen/dev-index.txt")));
+        assertTrue(output.contains("idOf=true"), output);
+        assertEquals("999", extract(output, "copied="));
+        assertTrue(output.contains("icon=false"), output);
     }
 
-    private void writeString(File file, String string) throws IOException {
-        try (Writer writer = new FileWriter(file)) {
-            writer.write(string);
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    private static void assertCollisionFails(Path projectDir, String type) throws IOException {
+        setupProject(projectDir, "generationType = " + type);
+        // Both locations have the constant name a_b
+        writeResource(projectDir, "a.b", "dot");
+        writeResource(projectDir, "a_b", "underscore");
+        writeMain(projectDir, "System.out.println(Res.a_b);");
+
+        String output = GradleRunner.create()
+            .withPluginClasspath()
+            .withArguments("run", "--stacktrace")
+            .withProjectDir(projectDir.toFile())
+            .buildAndFail()
+            .getOutput();
+        assertTrue(output.contains("Resources \"a.b\" and \"a_b\" have the same constant name \"a_b\""), output);
+    }
+
+    private static void setupProject(Path projectDir, String... options) throws IOException {
+        writeString(projectDir.resolve("settings.gradle"), "rootProject.name = 'example'\n");
+        writeString(projectDir.resolve("build.gradle"),
+            "import io.github.ushiosan23.resgen.config.GeneratorType\n\n" +
+                "plugins {\n" +
+                "    id 'java'\n" +
+                "    id 'application'\n" +
+                "    id 'io.github.ushiosan23.resgen'\n" +
+                "}\n\n" +
+                "application {\n" +
+                "    mainClass = 'com.example.Main'\n" +
+                "}\n\n" +
+                "resgen {\n" +
+                "    targetPackage = 'com.example'\n" +
+                "    " + String.join("\n    ", options) + "\n" +
+                "}\n");
+        // Copy the example resource tree
+        Path resources = projectDir.resolve("src/main/resources");
+        try (Stream<Path> walker = Files.walk(EXAMPLE_RESOURCES)) {
+            for (Path source : (Iterable<Path>) walker::iterator) {
+                Path target = resources.resolve(EXAMPLE_RESOURCES.relativize(source).toString());
+                if (Files.isDirectory(source)) Files.createDirectories(target);
+                else Files.copy(source, target);
+            }
         }
     }
 
+    private static void writeMain(Path projectDir, String... statements) throws IOException {
+        writeString(projectDir.resolve("src/main/java/com/example/Main.java"),
+            "package com.example;\n\n" +
+                "public class Main {\n\n" +
+                "    public static void main(String[] args) throws Exception {\n" +
+                "        " + String.join("\n        ", statements) + "\n" +
+                "    }\n\n" +
+                "    static String read(java.io.InputStream stream) throws java.io.IOException {\n" +
+                "        try (java.io.InputStream input = stream) {\n" +
+                "            java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();\n" +
+                "            byte[] buffer = new byte[4096];\n" +
+                "            for (int count; (count = input.read(buffer)) != -1; ) output.write(buffer, 0, count);\n" +
+                "            return new String(output.toByteArray(), java.nio.charset.StandardCharsets.UTF_8);\n" +
+                "        }\n" +
+                "    }\n\n" +
+                "}\n");
+    }
+
+    private static void writeResource(Path projectDir, String location, String content) throws IOException {
+        writeString(projectDir.resolve("src/main/resources").resolve(location), content);
+    }
+
+    private static BuildResult run(Path projectDir) {
+        return GradleRunner.create()
+            .forwardOutput()
+            .withPluginClasspath()
+            .withArguments("run", "--stacktrace")
+            .withProjectDir(projectDir.toFile())
+            .build();
+    }
+
+    private static String extract(String output, String prefix) {
+        int start = output.indexOf(prefix);
+        assertTrue(start != -1, output);
+        start += prefix.length();
+        return output.substring(start, output.indexOf(';', start));
+    }
+
+    private static void writeString(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
 }
@@ -1,16 +1,73 @@
 package io.github.ushiosan23.resgen;
 
 import io.github.ushiosan23.resgen.config.DependencyManagerOptions;
+import io.github.ushiosan23.resgen.config.GeneratorType;
 import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.task.AggregateResourcesTask;
+import io.github.ushiosan23.resgen.task.EmitResourcesTask;
+import io.github.ushiosan23.resgen.task.FingerprintResourcesTask;
 import io.github.ushiosan23.resgen.task.GenerateResourcesTask;
+import io.github.ushiosan23.resgen.task.MinifyResourcesTask;
+import io.github.ushiosan23.resgen.task.ScanResourcesTask;
+import io.github.ushiosan23.resgen.task.WatchResourcesTask;
+import io.github.ushiosan23.resgen.utils.JarAligner;
 import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceFilter;
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.Copy;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.TaskContainer;
+import org.gradle.api.tasks.TaskInputs;
+import org.gradle.api.tasks.TaskOutputs;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.bundling.Jar;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 public class ResourceGeneratorEntry implements Plugin<Project> {
 
+    /* ------------------------------------------------------------------
+     * Constants
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Global index task name
+     */
+    public static final String AGGREGATE_TASK_NAME = "aggregateResources";
+
+    /**
+     * Resource scan task name
+     */
+    public static final String SCAN_TASK_NAME = "scanResources";
+
+    /**
+     * Development watcher task name
+     */
+    public static final String WATCH_TASK_NAME = "watchResources";
+
+    /**
+     * Text resource minification task name
+     */
+    public static final String MINIFY_TASK_NAME = "minifyResources";
+
+    /**
+     * Fingerprinted copies task name
+     */
+    public static final String FINGERPRINT_TASK_NAME = "fingerprintResources";
+
     /* ------------------------------------------------------------------
      * Internal Properties
      * ------------------------------------------------------------------ */
@@ -30,6 +87,17 @@ public class ResourceGeneratorEntry implements Plugin<Project> {
      */
     private Task generateResourceTask;
 
+    /**
+     * Resource scan task
+     */
+    private TaskProvider<ScanResourcesTask> scanResourcesTask;
+
+    /**
+     * Emit tasks of the outputs that are not the main class
+     */
+    private final Map<EmitResourcesTask.Emitter, TaskProvider<EmitResourcesTask>> emitTasks =
+        new EnumMap<>(EmitResourcesTask.Emitter.class);
+
     /* ------------------------------------------------------------------
      * Methods
      * ------------------------------------------------------------------ */
@@ -47,12 +115,371 @@ public class ResourceGeneratorEntry implements Plugin<Project> {
             .create("resgenDependencies", DependencyManagerOptions.class, project);
         pluginOptions = project.getExtensions()
             .create("resgen", ResourceGenerationOptions.class, project, dependencyOptions);
+        // Scan stage, skipped while the resources do not change
+        registerScanTask(project);
         // Register a task
         generateResourceTask = project
             .getTasks()
             .register("generateResources", GenerateResourcesTask.class, pluginOptions)
             .get();
+        generateResourceTask.dependsOn(scanResourcesTask);
+        registerGenerationInputs(project);
         project.getTasks().getByName("compileJava", closure -> closure.dependsOn(generateResourceTask));
+        // Indexed dependencies must be available before generation
+        generateResourceTask.dependsOn(project.provider(() -> pluginOptions.getIndexedDependencies().isEmpty() ?
+            Collections.emptyList() :
+            project.getConfigurations().getByName(JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME)));
+        // Properties index is written to the resource directory
+        project.getTasks().named(JavaPlugin.PROCESS_RESOURCES_TASK_NAME, task ->
+            task.dependsOn(project.provider(() -> pluginOptions.getGenerationType() == GeneratorType.PROPERTIES_FILE ?
+                generateResourceTask :
+                Collections.emptyList())));
+        // Other outputs are emitted by their own tasks
+        registerEmitTasks(project);
+        // Bytecode resource ids
+        registerGeneratedClasses(project);
+        // Minified copies replace the original resources
+        registerMinifyTask(project);
+        // Off-heap arenas read the minified copies
+        generateResourceTask.dependsOn(project.provider(() ->
+            !pluginOptions.getOffHeapResources().isEmpty() && pluginOptions.getMinifyResources() ?
+                project.getTasks().named(MINIFY_TASK_NAME) :
+                Collections.emptyList()));
+        // Fingerprinted copies are packaged next to the originals
+        registerFingerprintTask(project);
+        // Stored resources are aligned inside the jar
+        registerStoredResources(project);
+        // Development index watcher
+        project.getTasks()
+            .register(WATCH_TASK_NAME, WatchResourcesTask.class, pluginOptions)
+            .configure(task -> task.dependsOn(generateResourceTask));
+        // Global index
+        registerAggregateTask(project);
+        // Development index has no packaging tables
+        project.afterEvaluate(p -> checkDevMode());
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Reject the options whose generated API reads packaging tables when the development index replaces them.
+     * The development class only has the lookup and listing methods of the production class.
+     *
+     * @throws GradleException If development mode is combined with a packaging option
+     */
+    private void checkDevMode() {
+        GeneratorType type = pluginOptions.getGenerationType();
+        if (!pluginOptions.getDevMode() || (type != GeneratorType.JAVA_FILE && type != GeneratorType.JAVA_STREAM_FILE))
+            return;
+        List<String> options = new ArrayList<>();
+        if (!pluginOptions.getOffHeapResources().isEmpty()) options.add("offHeapResources");
+        if (!pluginOptions.getLineIndexedResources().isEmpty()) options.add("lineIndexedResources");
+        if (!pluginOptions.getStoredResources().isEmpty()) options.add("storedResources");
+        if (!pluginOptions.getFingerprintedResources().isEmpty()) options.add("fingerprintedResources");
+        if (!options.isEmpty())
+            throw new GradleException("devMode cannot be combined with " + String.join(", ", options));
+    }
+
+    /**
+     * Register the resource scan task. Its index is the only input of the emit tasks
+     * that do not read resource content.
+     *
+     * @param project Current project
+     */
+    private void registerScanTask(@NotNull Project project) {
+        Path propertiesFile = PluginUtils.resolvePropertiesPath(project);
+        scanResourcesTask = project.getTasks()
+            .register(SCAN_TASK_NAME, ScanResourcesTask.class, pluginOptions);
+        scanResourcesTask.configure(task -> {
+            // The generated properties file does not invalidate the scan
+            task.getInputs().files(project.files(project.provider(() -> PluginUtils.getResourceDirectories(project)))
+                .getAsFileTree()
+                .filter(file -> !file.toPath().equals(propertiesFile)));
+            task.getInputs().property("includes", project.provider(pluginOptions::getIncludes));
+            task.getInputs().property("excludes", project.provider(pluginOptions::getExcludes));
+            task.getOutputs().file(PluginUtils.resolveScanIndexPath(project).toFile());
+        });
+    }
+
+    /**
+     * Declare the inputs and outputs of the generation task, so it is skipped while the scan index
+     * and the options do not change. Resource content is only an input of the emit tasks that read it.
+     *
+     * @param project Current project
+     */
+    private void registerGenerationInputs(@NotNull Project project) {
+        Path propertiesFile = PluginUtils.resolvePropertiesPath(project);
+        TaskInputs inputs = generateResourceTask.getInputs();
+        inputs.property("options", project.provider(pluginOptions::getGenerationInputs));
+        inputs.file(PluginUtils.resolveScanIndexPath(project).toFile());
+        inputs.files(project.provider(() -> pluginOptions.getFingerprintedResources().isEmpty() ?
+            Collections.emptyList() :
+            List.of(PluginUtils.resolveFingerprintsPath(project).toFile())));
+        inputs.files(project.provider(() -> pluginOptions.getMinifyResources() &&
+            !pluginOptions.getOffHeapResources().isEmpty() ?
+            List.of(PluginUtils.resolveMinifiedResourcesPath(project).toFile()) :
+            Collections.emptyList()));
+        inputs.files(project.provider(() -> pluginOptions.getIndexedDependencies().isEmpty() ?
+            Collections.emptyList() :
+            project.getConfigurations().getByName(JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME)));
+
+        TaskOutputs outputs = generateResourceTask.getOutputs();
+        outputs.files(project.provider(() -> {
+            Path sourcePath = PluginUtils.resolveJavaPath(project)
+                .resolve(pluginOptions.getTargetPackage().replace('.', '/'));
+            return sourcePath.resolve(PluginUtils.OUTPUT_FILE_NAME + ".java").toFile();
+        }));
+        outputs.file(propertiesFile.toFile());
+        outputs.file(PluginUtils.resolveIdsPath(project).toFile());
+        outputs.file(PluginUtils.resolveDevIndexPath(project).toFile());
+        outputs.file(PluginUtils.resolveReportPath(project).toFile());
+        outputs.dir(PluginUtils.resolveGeneratedClassesPath(project).toFile());
+        outputs.dir(PluginUtils.resolveGeneratedStubsPath(project).toFile());
+    }
+
+    /**
+     * Register one emit task for each output that is not the main class. Each task has its own
+     * inputs and outputs, so Gradle skips, caches and schedules it separately.
+     *
+     * @param project Current project
+     */
+    private void registerEmitTasks(@NotNull Project project) {
+        Path propertiesFile = PluginUtils.resolvePropertiesPath(project);
+        for (EmitResourcesTask.Emitter emitter : EmitResourcesTask.Emitter.values()) {
+            TaskProvider<EmitResourcesTask> emitTask = project.getTasks()
+                .register(emitter.getTaskName(), EmitResourcesTask.class, pluginOptions, emitter);
+            emitTask.configure(task -> {
+                task.dependsOn(scanResourcesTask);
+                TaskInputs inputs = task.getInputs();
+                inputs.property("options", project.provider(() -> emitter.getInputs(pluginOptions)));
+                inputs.file(PluginUtils.resolveScanIndexPath(project).toFile());
+                // The generated properties file is an output of the generation task
+                inputs.files(project.files(project.provider(() ->
+                        emitter.readsResourceContent() && emitter.isEnabled(pluginOptions) ?
+                            PluginUtils.getResourceDirectories(project) :
+                            Collections.emptyList()))
+                    .getAsFileTree()
+                    .filter(file -> !file.toPath().equals(propertiesFile)));
+                task.getOutputs().files(project.provider(() -> emitter.getOutputs(project, pluginOptions)));
+            });
+            emitTasks.put(emitter, emitTask);
+        }
+        // Minified copies replace the original resources
+        for (EmitResourcesTask.Emitter emitter : List.of(
+            EmitResourcesTask.Emitter.ASSET_MANIFEST,
+            EmitResourcesTask.Emitter.LINE_INDEXES)) {
+            emitTasks.get(emitter).configure(task -> {
+                task.dependsOn(project.provider(() ->
+                    emitter.isEnabled(pluginOptions) && pluginOptions.getMinifyResources() ?
+                        project.getTasks().named(MINIFY_TASK_NAME) :
+                        Collections.emptyList()));
+                task.getInputs().files(project.provider(() ->
+                    emitter.isEnabled(pluginOptions) && pluginOptions.getMinifyResources() ?
+                        List.of(PluginUtils.resolveMinifiedResourcesPath(project).toFile()) :
+                        Collections.emptyList()));
+            });
+        }
+        // Archive name is recorded in the manifest, and the budget reads the previous manifest first
+        emitTasks.get(EmitResourcesTask.Emitter.INDEX_MANIFEST).configure(task -> {
+            task.getInputs().property("archiveName", project.getTasks()
+                .named(JavaPlugin.JAR_TASK_NAME, Jar.class)
+                .flatMap(Jar::getArchiveFileName));
+            task.mustRunAfter(generateResourceTask);
+        });
+        // Generated classes are compiled with the main class
+        project.getTasks().getByName("compileJava", closure -> {
+            for (EmitResourcesTask.Emitter emitter : EmitResourcesTask.Emitter.values()) {
+                if (emitter.isSource()) closure.dependsOn(emitTasks.get(emitter));
+            }
+        });
+        // Native image configuration, asset manifest and line indexes are packaged with the resources.
+        // Disabled emitters delete their outputs, so they always run before the copy.
+        project.getTasks().named(JavaPlugin.PROCESS_RESOURCES_TASK_NAME, Copy.class, task -> {
+            task.from(PluginUtils.resolveGeneratedResourcesPath(project).toFile());
+            for (EmitResourcesTask.Emitter emitter : EmitResourcesTask.Emitter.values()) {
+                if (!emitter.isSource() && emitter != EmitResourcesTask.Emitter.INDEX_MANIFEST)
+                    task.dependsOn(emitTasks.get(emitter));
+            }
+        });
+    }
+
+    /**
+     * Rewrite the project jar when it is created, so the stored resources are uncompressed
+     * and page aligned. The jar task has a single compression method for all entries.
+     * The action is only attached when patterns are configured.
+     *
+     * @param project Current project
+     */
+    private void registerStoredResources(@NotNull Project project) {
+        project.afterEvaluate(p -> {
+            List<String> patterns = pluginOptions.getStoredResources();
+            if (patterns.isEmpty()) return;
+            p.getTasks().named(JavaPlugin.JAR_TASK_NAME, Jar.class, task -> {
+                task.getInputs().property("resgenStoredResources", patterns);
+                task.doLast(new AlignStoredResources(patterns));
+            });
+        });
+    }
+
+    /**
+     * Add the generated classes directory to the main source set. The directory is part of the
+     * compile classpath and of the source set output, so it is packaged like the compiled classes.
+     *
+     * @param project Current project
+     */
+    private void registerGeneratedClasses(@NotNull Project project) {
+        Path classesDir = PluginUtils.resolveGeneratedClassesPath(project);
+        SourceSet mainSourceSet = PluginUtils.getMainSourceSet(project);
+        mainSourceSet.getOutput().dir(Map.of("builtBy", generateResourceTask), classesDir.toFile());
+        project.getDependencies().add(
+            JavaPlugin.COMPILE_ONLY_CONFIGURATION_NAME,
+            project.files(classesDir.toFile()).builtBy(generateResourceTask));
+    }
+
+    /**
+     * Register the minification task and package its output instead of the original resources
+     *
+     * @param project Current project
+     */
+    private void registerMinifyTask(@NotNull Project project) {
+        Path minifiedDir = PluginUtils.resolveMinifiedResourcesPath(project);
+        TaskProvider<MinifyResourcesTask> minifyTask = project.getTasks()
+            .register(MINIFY_TASK_NAME, MinifyResourcesTask.class);
+        minifyTask.configure(task -> {
+            task.dependsOn(scanResourcesTask);
+            task.getInputs().files(project.provider(() -> PluginUtils.getResourceDirectories(project)));
+            task.getInputs().file(PluginUtils.resolveScanIndexPath(project).toFile());
+            task.getOutputs().dir(minifiedDir.toFile());
+        });
+        project.getTasks().named(JavaPlugin.PROCESS_RESOURCES_TASK_NAME, Copy.class, task -> {
+            task.from(project.provider(() -> pluginOptions.getMinifyResources() ?
+                minifiedDir.toFile() :
+                Collections.emptyList()));
+            task.dependsOn(project.provider(() -> pluginOptions.getMinifyResources() ?
+                minifyTask :
+                Collections.emptyList()));
+            // Originals with a minified copy are skipped
+            task.eachFile(details -> {
+                if (!pluginOptions.getMinifyResources() || details.getFile().toPath().startsWith(minifiedDir)) return;
+                if (Files.isRegularFile(minifiedDir.resolve(details.getRelativeSourcePath().getPathString())))
+                    details.exclude();
+            });
+        });
+    }
+
+    /**
+     * Register the fingerprint task. Its names are read by the main index and the asset manifest.
+     *
+     * @param project Current project
+     */
+    private void registerFingerprintTask(@NotNull Project project) {
+        Path fingerprintedDir = PluginUtils.resolveFingerprintedResourcesPath(project);
+        TaskProvider<FingerprintResourcesTask> fingerprintTask = project.getTasks()
+            .register(FINGERPRINT_TASK_NAME, FingerprintResourcesTask.class, pluginOptions);
+        fingerprintTask.configure(task -> {
+            task.dependsOn(scanResourcesTask);
+            // Minified content is hashed when it replaces the original
+            task.dependsOn(project.provider(() -> pluginOptions.getMinifyResources() ?
+                project.getTasks().named(MINIFY_TASK_NAME) :
+                Collections.emptyList()));
+            task.getInputs().files(project.provider(() -> PluginUtils.getResourceDirectories(project)));
+            task.getInputs().file(PluginUtils.resolveScanIndexPath(project).toFile());
+            task.getInputs().property("patterns", project.provider(pluginOptions::getFingerprintedResources));
+            task.getInputs().property("minify", project.provider(pluginOptions::getMinifyResources));
+            task.getOutputs().dir(fingerprintedDir.toFile());
+            task.getOutputs().file(PluginUtils.resolveFingerprintsPath(project).toFile());
+        });
+        generateResourceTask.dependsOn(project.provider(() -> pluginOptions.getFingerprintedResources().isEmpty() ?
+            Collections.emptyList() :
+            fingerprintTask));
+        emitTasks.get(EmitResourcesTask.Emitter.ASSET_MANIFEST).configure(task -> {
+            task.dependsOn(project.provider(() -> pluginOptions.getFingerprintedResources().isEmpty() ?
+                Collections.emptyList() :
+                fingerprintTask));
+            task.getInputs().files(project.provider(() -> pluginOptions.getFingerprintedResources().isEmpty() ?
+                Collections.emptyList() :
+                List.of(PluginUtils.resolveFingerprintsPath(project).toFile())));
+        });
+        project.getTasks().named(JavaPlugin.PROCESS_RESOURCES_TASK_NAME, Copy.class, task -> {
+            task.from(project.provider(() -> pluginOptions.getFingerprintedResources().isEmpty() ?
+                Collections.emptyList() :
+                fingerprintedDir.toFile()));
+            task.dependsOn(project.provider(() -> pluginOptions.getFingerprintedResources().isEmpty() ?
+                Collections.emptyList() :
+                fingerprintTask));
+        });
+    }
+
+    /**
+     * Register the global index task on the root project and attach the project manifest
+     *
+     * @param project Current project
+     */
+    private void registerAggregateTask(@NotNull Project project) {
+        Project rootProject = project.getRootProject();
+        TaskContainer rootTasks = rootProject.getTasks();
+        // Only one task for all projects
+        TaskProvider<AggregateResourcesTask> aggregateTask;
+        if (rootTasks.getNames().contains(AGGREGATE_TASK_NAME)) {
+            aggregateTask = rootTasks.named(AGGREGATE_TASK_NAME, AggregateResourcesTask.class);
+        } else {
+            aggregateTask = rootTasks.register(AGGREGATE_TASK_NAME, AggregateResourcesTask.class, task -> {
+                task.getTargetPackage().convention(PluginUtils.getJavaGroup(rootProject));
+                task.getOutputDirectory().convention(rootProject.getLayout()
+                    .getBuildDirectory()
+                    .dir("generated/sources/resgen/aggregate"));
+            });
+        }
+        aggregateTask.configure(task -> {
+            task.getManifests().from(PluginUtils.resolveManifestPath(project));
+            task.dependsOn(emitTasks.get(EmitResourcesTask.Emitter.INDEX_MANIFEST));
+        });
+        // Application project compiles the global index
+        project.afterEvaluate(p -> {
+            if (!pluginOptions.getAggregateIndex()) return;
+            PluginUtils.getMainSourceSet(p)
+                .getJava()
+                .srcDir(aggregateTask.flatMap(AggregateResourcesTask::getOutputDirectory));
+        });
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Jar action that stores and aligns the matching entries. It is a class instead of a lambda,
+     * so the jar task keeps its build cache and up-to-date checks.
+     */
+    private static final class AlignStoredResources implements Action<Task> {
+
+        /**
+         * Stored entry patterns
+         */
+        private final List<String> patterns;
+
+        /**
+         * Default constructor
+         *
+         * @param patterns Stored entry patterns
+         */
+        AlignStoredResources(@NotNull List<String> patterns) {
+            this.patterns = List.copyOf(patterns);
+        }
+
+        @Override
+        public void execute(@NotNull Task task) {
+            Path archive = ((Jar) task).getArchiveFile().get().getAsFile().toPath();
+            try {
+                int count = JarAligner.align(archive, new ResourceFilter(patterns, List.of()));
+                task.getLogger().info("Stored {} aligned resources in {}", count, archive.getFileName());
+            } catch (IOException err) {
+                throw new GradleException("Failed to align the resources of " + archive, err);
+            }
+        }
+
     }
 
 }
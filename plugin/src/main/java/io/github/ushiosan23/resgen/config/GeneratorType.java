@@ -9,5 +9,15 @@ public enum GeneratorType {
     /**
      * Generate a java file with all resources inside.
      */
-    JAVA_FILE
+    JAVA_FILE,
+    /**
+     * Generate a java file with all resources inside, writing each element
+     * while the resources are scanned. Recommended for very large resource directories.
+     */
+    JAVA_STREAM_FILE,
+    /**
+     * Generate a java file with one nested class per resource directory ({@code Res.icons.icon_svg}).
+     * Each directory has its own lazily initialized table.
+     */
+    JAVA_NESTED_FILE
 }
@@ -1,10 +1,19 @@
 package io.github.ushiosan23.resgen.config;
 
 import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceFilter;
 import org.gradle.api.Project;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 public abstract class ResourceGenerationOptions {
 
     /* ------------------------------------------------------------------
@@ -35,6 +44,136 @@ public abstract class ResourceGenerationOptions {
      */
     private final Property<String> targetPackage;
 
+    /**
+     * Property used to precompile configuration resources
+     */
+    private final Property<Boolean> precompileConfigurations;
+
+    /**
+     * Property used to keep resource ids between builds
+     */
+    private final Property<Boolean> stableIds;
+
+    /**
+     * Property used to reuse ids of removed resources
+     */
+    private final Property<Boolean> reuseFreedIds;
+
+    /**
+     * Property used to generate constants that are not inlined by the compiler
+     */
+    private final Property<Boolean> stableAbi;
+
+    /**
+     * Runtime dependencies whose resources are indexed
+     */
+    private final ListProperty<String> indexedDependencies;
+
+    /**
+     * Property used to include the global index inside the project sources
+     */
+    private final Property<Boolean> aggregateIndex;
+
+    /**
+     * Property used to generate a resource index that is reloaded at runtime
+     */
+    private final Property<Boolean> devMode;
+
+    /**
+     * Glob patterns of indexed resources
+     */
+    private final ListProperty<String> includes;
+
+    /**
+     * Glob patterns of ignored resources
+     */
+    private final ListProperty<String> excludes;
+
+    /**
+     * Property used to generate the native-image resource configuration
+     */
+    private final Property<Boolean> nativeImageConfig;
+
+    /**
+     * Property used to print the metrics summary
+     */
+    private final Property<Boolean> logMetrics;
+
+    /**
+     * Glob patterns of resources stored off-heap
+     */
+    private final ListProperty<String> offHeapResources;
+
+    /**
+     * Base locations of the precompiled message bundles
+     */
+    private final ListProperty<String> messageBundles;
+
+    /**
+     * Decoded object cache status
+     */
+    private final Property<Boolean> decoderCache;
+
+    /**
+     * Text resource minification status
+     */
+    private final Property<Boolean> minifyResources;
+
+    /**
+     * Bytecode resource ids status
+     */
+    private final Property<Boolean> bytecodeIds;
+
+    /**
+     * Direct resolution status
+     */
+    private final Property<Boolean> directResolution;
+
+    /**
+     * Asset manifest status
+     */
+    private final Property<Boolean> assetManifest;
+
+    /**
+     * Fingerprinted resource patterns
+     */
+    private final ListProperty<String> fingerprintedResources;
+
+    /**
+     * Line indexed resource patterns
+     */
+    private final ListProperty<String> lineIndexedResources;
+
+    /**
+     * Stored resource patterns
+     */
+    private final ListProperty<String> storedResources;
+
+    /**
+     * Maximum size of all resources
+     */
+    private final Property<Long> budgetTotalBytes;
+
+    /**
+     * Maximum number of resources
+     */
+    private final Property<Long> budgetFileCount;
+
+    /**
+     * Maximum size of a single resource
+     */
+    private final Property<Long> budgetFileBytes;
+
+    /**
+     * Maximum size by directory
+     */
+    private final MapProperty<String, Long> budgetDirectoryBytes;
+
+    /**
+     * Fail the build when the budget is exceeded
+     */
+    private final Property<Boolean> failOnBudget;
+
     /**
      * Dependency manager options
      */
@@ -65,6 +204,113 @@ public abstract class ResourceGenerationOptions {
             .getObjects()
             .property(String.class)
             .value(PluginUtils.getJavaGroup(project));
+        precompileConfigurations = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        stableIds = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        reuseFreedIds = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        stableAbi = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        indexedDependencies = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        aggregateIndex = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        devMode = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(project.getProviders()
+                .gradleProperty("resgen.devMode")
+                .map(Boolean::parseBoolean)
+                .orElse(false));
+        includes = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        excludes = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        nativeImageConfig = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        logMetrics = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        offHeapResources = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        messageBundles = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        decoderCache = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        minifyResources = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        bytecodeIds = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        directResolution = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        assetManifest = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(false);
+        fingerprintedResources = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        lineIndexedResources = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        storedResources = project
+            .getObjects()
+            .listProperty(String.class)
+            .empty();
+        budgetTotalBytes = project
+            .getObjects()
+            .property(Long.class)
+            .value(0L);
+        budgetFileCount = project
+            .getObjects()
+            .property(Long.class)
+            .value(0L);
+        budgetFileBytes = project
+            .getObjects()
+            .property(Long.class)
+            .value(0L);
+        budgetDirectoryBytes = project
+            .getObjects()
+            .mapProperty(String.class, Long.class)
+            .empty();
+        failOnBudget = project
+            .getObjects()
+            .property(Boolean.class)
+            .value(true);
     }
 
     /* ------------------------------------------------------------------
@@ -129,6 +375,571 @@ public abstract class ResourceGenerationOptions {
         generationType.set(type);
     }
 
+    /**
+     * Get precompile configurations status
+     *
+     * @return Returns {@code true} if configuration resources are converted to java classes
+     */
+    public boolean getPrecompileConfigurations() {
+        return precompileConfigurations.getOrElse(false);
+    }
+
+    /**
+     * Set precompile configurations status.
+     * When enabled, all {@code .properties}, {@code .ini} and xml properties resources
+     * are parsed at build time and stored as constants inside the {@code ResConfig} class.
+     *
+     * @param status Target status
+     */
+    public void setPrecompileConfigurations(boolean status) {
+        precompileConfigurations.set(status);
+    }
+
+    /**
+     * Get stable ids status
+     *
+     * @return Returns {@code true} if resource ids are persisted between builds.
+     * Always {@code true} in development mode.
+     */
+    public boolean getStableIds() {
+        return stableIds.getOrElse(false) || getDevMode();
+    }
+
+    /**
+     * Set stable ids status.
+     * When enabled, all assigned ids are stored in {@code resgen/resource-ids.txt}
+     * and existing resources keep their id when other resources are added or removed.
+     * Only used by {@link GeneratorType#JAVA_FILE} and {@link GeneratorType#JAVA_STREAM_FILE}.
+     *
+     * @param status Target status
+     */
+    public void setStableIds(boolean status) {
+        stableIds.set(status);
+    }
+
+    /**
+     * Get reuse freed ids status
+     *
+     * @return Returns {@code true} if ids of removed resources can be assigned again
+     */
+    public boolean getReuseFreedIds() {
+        return reuseFreedIds.getOrElse(false);
+    }
+
+    /**
+     * Set reuse freed ids status
+     *
+     * @param status Target status
+     */
+    public void setReuseFreedIds(boolean status) {
+        reuseFreedIds.set(status);
+    }
+
+    /**
+     * Get stable abi status
+     *
+     * @return Returns {@code true} if generated constants are initialized at class initialization
+     */
+    public boolean getStableAbi() {
+        return stableAbi.getOrElse(false);
+    }
+
+    /**
+     * Set stable abi status.
+     * When enabled, generated constants are not compile-time constants, so the compiler does not
+     * inline their values and the class abi only changes when a name is added or removed.
+     * Generated constants can no longer be used as {@code case} labels.
+     *
+     * @param status Target status
+     */
+    public void setStableAbi(boolean status) {
+        stableAbi.set(status);
+    }
+
+    /**
+     * Get indexed dependencies
+     *
+     * @return Dependency selectors
+     */
+    public List<String> getIndexedDependencies() {
+        return indexedDependencies.getOrElse(List.of());
+    }
+
+    /**
+     * Set runtime dependencies whose resources are indexed.
+     * Each selector has the {@code group:name} or {@code name} format.
+     * Resources are stored inside the {@code Res.Dependencies} class.
+     *
+     * @param selectors Dependency selectors
+     */
+    public void setIndexedDependencies(List<String> selectors) {
+        indexedDependencies.set(selectors);
+    }
+
+    /**
+     * Get aggregate index status
+     *
+     * @return Returns {@code true} if the global index is compiled with this project
+     */
+    public boolean getAggregateIndex() {
+        return aggregateIndex.getOrElse(false);
+    }
+
+    /**
+     * Set aggregate index status.
+     * When enabled, the {@code GlobalRes} class generated by the root project
+     * {@code aggregateResources} task is compiled with this project. Enable it only in the application module.
+     *
+     * @param status Target status
+     */
+    public void setAggregateIndex(boolean status) {
+        aggregateIndex.set(status);
+    }
+
+    /**
+     * Get development mode status
+     *
+     * @return Returns {@code true} if the generated index is reloaded at runtime
+     */
+    public boolean getDevMode() {
+        return devMode.getOrElse(false);
+    }
+
+    /**
+     * Set development mode status.
+     * When enabled, {@link GeneratorType#JAVA_FILE} and {@link GeneratorType#JAVA_STREAM_FILE}
+     * generate a {@code Res} class that reads its table from {@code build/resgen/dev-index.txt},
+     * which is kept up to date by the {@code watchResources} task. Stable ids are always used.
+     * By default it is taken from the {@code resgen.devMode} gradle property, so production builds
+     * keep the static tables.
+     *
+     * @param status Target status
+     */
+    public void setDevMode(boolean status) {
+        devMode.set(status);
+    }
+
+    /**
+     * Get include patterns
+     *
+     * @return Glob patterns of indexed resources
+     */
+    public List<String> getIncludes() {
+        return includes.getOrElse(List.of());
+    }
+
+    /**
+     * Set include patterns.
+     * Only resources whose location matches any pattern are indexed. Empty list indexes everything.
+     *
+     * @param patterns Glob patterns ({@code icons/**}, {@code *.txt})
+     */
+    public void setIncludes(List<String> patterns) {
+        includes.set(patterns);
+    }
+
+    /**
+     * Get exclude patterns
+     *
+     * @return Glob patterns of ignored resources
+     */
+    public List<String> getExcludes() {
+        return excludes.getOrElse(List.of());
+    }
+
+    /**
+     * Set exclude patterns. Resources whose location matches any pattern are not indexed.
+     *
+     * @param patterns Glob patterns
+     */
+    public void setExcludes(List<String> patterns) {
+        excludes.set(patterns);
+    }
+
+    /**
+     * Get resource filter built from the include and exclude patterns
+     *
+     * @return Resource filter
+     */
+    public ResourceFilter getResourceFilter() {
+        return new ResourceFilter(getIncludes(), getExcludes());
+    }
+
+    /**
+     * Get native image configuration status
+     *
+     * @return Returns {@code true} if the native-image resource configuration is generated
+     */
+    public boolean getNativeImageConfig() {
+        return nativeImageConfig.getOrElse(false);
+    }
+
+    /**
+     * Set native image configuration status.
+     * When enabled, {@code META-INF/native-image/<group>/<name>/resource-config.json} is generated
+     * with exactly the indexed resources and packaged with the project resources.
+     *
+     * @param status Target status
+     */
+    public void setNativeImageConfig(boolean status) {
+        nativeImageConfig.set(status);
+    }
+
+    /**
+     * Get log metrics status
+     *
+     * @return Returns {@code true} if the metrics summary is printed
+     */
+    public boolean getLogMetrics() {
+        return logMetrics.getOrElse(false);
+    }
+
+    /**
+     * Set log metrics status.
+     * Metrics are always written to {@code build/reports/resgen/metrics.json},
+     * when enabled a summary line is also printed after each generation.
+     *
+     * @param status Target status
+     */
+    public void setLogMetrics(boolean status) {
+        logMetrics.set(status);
+    }
+
+    /**
+     * Get off-heap resource patterns
+     *
+     * @return Glob patterns of resources stored off-heap
+     */
+    public List<String> getOffHeapResources() {
+        return offHeapResources.getOrElse(List.of());
+    }
+
+    /**
+     * Set off-heap resource patterns.
+     * Matching resources are loaded into direct buffers by the {@code Res.OffHeap} class
+     * and each one is returned as a read-only slice. Only used by {@link GeneratorType#JAVA_FILE}.
+     *
+     * @param patterns Glob patterns ({@code fonts/**}, {@code tables/*.bin})
+     */
+    public void setOffHeapResources(List<String> patterns) {
+        offHeapResources.set(patterns);
+    }
+
+    /**
+     * Get message bundles
+     *
+     * @return Bundle base locations
+     */
+    public List<String> getMessageBundles() {
+        return messageBundles.getOrElse(List.of());
+    }
+
+    /**
+     * Set message bundles.
+     * Each base location ({@code i18n/messages}) selects the {@code messages.properties} family
+     * ({@code messages_es.properties}, {@code messages-es-MX.properties}). A base ending with {@code /}
+     * selects a directory of locale files ({@code es_MX.properties}). Bundles are resolved at build time
+     * into the {@code ResMessages} class and a missing key fails the build.
+     *
+     * @param bases Bundle base locations
+     */
+    public void setMessageBundles(List<String> bases) {
+        messageBundles.set(bases);
+    }
+
+    /**
+     * Get decoded object cache status
+     *
+     * @return Decoder cache status
+     */
+    public boolean getDecoderCache() {
+        return decoderCache.getOrElse(false);
+    }
+
+    /**
+     * Set decoded object cache status.
+     * When enabled, the {@code Res} class gets {@code get(id, Decoder)}, which decodes a registered
+     * resource once and keeps the value by a soft reference.
+     * Only used by {@link GeneratorType#JAVA_FILE} and {@link GeneratorType#JAVA_STREAM_FILE}.
+     *
+     * @param status Target status
+     */
+    public void setDecoderCache(boolean status) {
+        decoderCache.set(status);
+    }
+
+    /**
+     * Get text resource minification status
+     *
+     * @return Minification status
+     */
+    public boolean getMinifyResources() {
+        return minifyResources.getOrElse(false);
+    }
+
+    /**
+     * Set text resource minification status.
+     * When enabled, the {@code minifyResources} task writes minified copies of the indexed
+     * json, xml, svg and html resources and {@code processResources} packages them instead of the originals.
+     *
+     * @param status Target status
+     */
+    public void setMinifyResources(boolean status) {
+        minifyResources.set(status);
+    }
+
+    /**
+     * Get bytecode resource ids status
+     *
+     * @return Bytecode ids status
+     */
+    public boolean getBytecodeIds() {
+        return bytecodeIds.getOrElse(false);
+    }
+
+    /**
+     * Set bytecode resource ids status.
+     * When enabled, the resource constants and the lookup tables are written directly as a
+     * {@code ResIds.class} interface, so javac only compiles a small {@code Res} class.
+     * Only used by {@link GeneratorType#JAVA_FILE}, it cannot be combined with stable abi.
+     *
+     * @param status Target status
+     */
+    public void setBytecodeIds(boolean status) {
+        bytecodeIds.set(status);
+    }
+
+    /**
+     * Get direct resolution status
+     *
+     * @return Direct resolution status
+     */
+    public boolean getDirectResolution() {
+        return directResolution.getOrElse(false);
+    }
+
+    /**
+     * Set direct resolution status.
+     * When enabled, registered resources are opened from the archive or directory that contains
+     * them, found once, instead of searching the whole class path on every lookup.
+     * Only used by {@link GeneratorType#JAVA_FILE}.
+     *
+     * @param status Target status
+     */
+    public void setDirectResolution(boolean status) {
+        directResolution.set(status);
+    }
+
+    /**
+     * Get asset manifest status
+     *
+     * @return Asset manifest status
+     */
+    public boolean getAssetManifest() {
+        return assetManifest.getOrElse(false);
+    }
+
+    /**
+     * Set asset manifest status.
+     * When enabled, {@code META-INF/resgen/assets.tsv} is packaged with the resources. It stores the
+     * size, hash, content type and precompressed variants of each packaged resource and is read by
+     * the {@code resgen-server} module.
+     *
+     * @param status Target status
+     */
+    public void setAssetManifest(boolean status) {
+        assetManifest.set(status);
+    }
+
+    /**
+     * Get fingerprinted resource patterns
+     *
+     * @return Glob patterns
+     */
+    public List<String> getFingerprintedResources() {
+        return fingerprintedResources.getOrElse(List.of());
+    }
+
+    /**
+     * Set fingerprinted resource patterns.
+     * Matching resources are also packaged with the content hash in their name ({@code icon.3f2a9c1d.svg}),
+     * and {@code Res.getFingerprintedLocation(id)} returns that name. Only used by {@link GeneratorType#JAVA_FILE}.
+     *
+     * @param patterns Glob patterns ({@code web/**}, {@code icons/*.svg})
+     */
+    public void setFingerprintedResources(List<String> patterns) {
+        fingerprintedResources.set(patterns);
+    }
+
+    /**
+     * Get line indexed resource patterns
+     *
+     * @return Glob patterns
+     */
+    public List<String> getLineIndexedResources() {
+        return lineIndexedResources.getOrElse(List.of());
+    }
+
+    /**
+     * Set line indexed resource patterns.
+     * The start of each line of the matching resources is recorded at build time, and {@code Res.Lines}
+     * reads any line without reading the previous ones. Only used by {@link GeneratorType#JAVA_FILE}.
+     *
+     * @param patterns Glob patterns ({@code data/*.csv})
+     */
+    public void setLineIndexedResources(List<String> patterns) {
+        lineIndexedResources.set(patterns);
+    }
+
+    /**
+     * Get stored resource patterns
+     *
+     * @return Glob patterns
+     */
+    public List<String> getStoredResources() {
+        return storedResources.getOrElse(List.of());
+    }
+
+    /**
+     * Set stored resource patterns.
+     * Matching resources are written to the jar without compression and aligned to the page size,
+     * and {@code Res.Stored} maps them directly from the archive. Only used by {@link GeneratorType#JAVA_FILE}.
+     *
+     * @param patterns Glob patterns ({@code data/**})
+     */
+    public void setStoredResources(List<String> patterns) {
+        storedResources.set(patterns);
+    }
+
+    /**
+     * Get maximum size of all resources
+     *
+     * @return Size in bytes, {@code 0} if there is no limit
+     */
+    public long getBudgetTotalBytes() {
+        return budgetTotalBytes.getOrElse(0L);
+    }
+
+    /**
+     * Set maximum size of all indexed resources. It is checked when the resources are generated.
+     *
+     * @param bytes Size in bytes, {@code 0} to disable the limit
+     */
+    public void setBudgetTotalBytes(long bytes) {
+        budgetTotalBytes.set(bytes);
+    }
+
+    /**
+     * Get maximum number of resources
+     *
+     * @return Resource count, {@code 0} if there is no limit
+     */
+    public long getBudgetFileCount() {
+        return budgetFileCount.getOrElse(0L);
+    }
+
+    /**
+     * Set maximum number of indexed resources
+     *
+     * @param count Resource count, {@code 0} to disable the limit
+     */
+    public void setBudgetFileCount(long count) {
+        budgetFileCount.set(count);
+    }
+
+    /**
+     * Get maximum size of a single resource
+     *
+     * @return Size in bytes, {@code 0} if there is no limit
+     */
+    public long getBudgetFileBytes() {
+        return budgetFileBytes.getOrElse(0L);
+    }
+
+    /**
+     * Set maximum size of a single indexed resource
+     *
+     * @param bytes Size in bytes, {@code 0} to disable the limit
+     */
+    public void setBudgetFileBytes(long bytes) {
+        budgetFileBytes.set(bytes);
+    }
+
+    /**
+     * Get maximum size by directory
+     *
+     * @return Sizes in bytes by directory
+     */
+    public Map<String, Long> getBudgetDirectoryBytes() {
+        return budgetDirectoryBytes.getOrElse(Map.of());
+    }
+
+    /**
+     * Set maximum size by directory. Each limit includes the subdirectories.
+     *
+     * @param bytes Sizes in bytes by directory ({@code "web" to 4_000_000L})
+     */
+    public void setBudgetDirectoryBytes(Map<String, Long> bytes) {
+        budgetDirectoryBytes.set(bytes);
+    }
+
+    /**
+     * Get budget failure status
+     *
+     * @return Budget failure status
+     */
+    public boolean getFailOnBudget() {
+        return failOnBudget.getOrElse(true);
+    }
+
+    /**
+     * Set budget failure status. When disabled, an exceeded budget is only reported as a warning.
+     *
+     * @param status Target status
+     */
+    public void setFailOnBudget(boolean status) {
+        failOnBudget.set(status);
+    }
+
+    /**
+     * Get all options that change the generated files. It is the options input
+     * of the generation task, so the task is skipped while they do not change.
+     *
+     * @return Option values by name
+     */
+    public Map<String, Object> getGenerationInputs() {
+        Map<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("injectDependencies", getInjectDependencies());
+        inputs.put("targetPackage", getTargetPackage());
+        inputs.put("generationType", getGenerationType());
+        inputs.put("precompileConfigurations", getPrecompileConfigurations());
+        inputs.put("stableIds", getStableIds());
+        inputs.put("reuseFreedIds", getReuseFreedIds());
+        inputs.put("stableAbi", getStableAbi());
+        inputs.put("indexedDependencies", new ArrayList<>(getIndexedDependencies()));
+        inputs.put("devMode", getDevMode());
+        inputs.put("includes", new ArrayList<>(getIncludes()));
+        inputs.put("excludes", new ArrayList<>(getExcludes()));
+        inputs.put("nativeImageConfig", getNativeImageConfig());
+        inputs.put("logMetrics", getLogMetrics());
+        inputs.put("offHeapResources", new ArrayList<>(getOffHeapResources()));
+        inputs.put("messageBundles", new ArrayList<>(getMessageBundles()));
+        inputs.put("decoderCache", getDecoderCache());
+        inputs.put("minifyResources", getMinifyResources());
+        inputs.put("bytecodeIds", getBytecodeIds());
+        inputs.put("directResolution", getDirectResolution());
+        inputs.put("assetManifest", getAssetManifest());
+        inputs.put("fingerprintedResources", new ArrayList<>(getFingerprintedResources()));
+        inputs.put("lineIndexedResources", new ArrayList<>(getLineIndexedResources()));
+        inputs.put("storedResources", new ArrayList<>(getStoredResources()));
+        inputs.put("budgetTotalBytes", getBudgetTotalBytes());
+        inputs.put("budgetFileCount", getBudgetFileCount());
+        inputs.put("budgetFileBytes", getBudgetFileBytes());
+        inputs.put("budgetDirectoryBytes", new TreeMap<>(getBudgetDirectoryBytes()));
+        inputs.put("failOnBudget", getFailOnBudget());
+        return inputs;
+    }
+
     /* ------------------------------------------------------------------
      * Internal methods
      * ------------------------------------------------------------------ */
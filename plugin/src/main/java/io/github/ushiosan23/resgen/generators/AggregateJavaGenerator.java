@@ -0,0 +1,206 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.utils.IndexManifest;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Generator of the global resource index. It merges the index manifests of all
+ * projects and fails if the same location is registered by more than one project.
+ */
+public final class AggregateJavaGenerator implements IGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Class loader lookup method name
+     */
+    private static final String loaderResourceName = "$loaderResource$";
+
+    /**
+     * Project manifests
+     */
+    private final List<IndexManifest> manifests;
+
+    /**
+     * Target java package
+     */
+    private final String targetPackage;
+
+    /**
+     * Output source directory
+     */
+    private final Path outputDirectory;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param manifests       Project manifests
+     * @param targetPackage   Target java package
+     * @param outputDirectory Output source directory
+     */
+    public AggregateJavaGenerator(
+        @NotNull List<IndexManifest> manifests,
+        @NotNull String targetPackage,
+        @NotNull Path outputDirectory) {
+        this.manifests = manifests;
+        this.targetPackage = targetPackage;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public void generate() throws IOException {
+        // Sort projects to keep the same ids in every build
+        List<IndexManifest> sortedManifests = new ArrayList<>(manifests);
+        sortedManifests.sort(Comparator.comparing(IndexManifest::getProjectPath));
+
+        // Merge and check collisions
+        Map<String, IndexManifest> owners = new TreeMap<>();
+        List<String> collisions = new ArrayList<>();
+        for (IndexManifest manifest : sortedManifests) {
+            for (String location : manifest.getResources().keySet()) {
+                IndexManifest previous = owners.putIfAbsent(location, manifest);
+                if (previous != null) {
+                    collisions.add(location + " (" + previous.getProjectPath() + ", " + manifest.getProjectPath() + ")");
+                }
+            }
+        }
+        if (!collisions.isEmpty()) {
+            throw new GradleException("Resources registered by more than one project:\n  " +
+                String.join("\n  ", collisions));
+        }
+
+        TypeSpec.Builder classSpec = TypeSpec.classBuilder(PluginUtils.OUTPUT_AGGREGATE_FILE_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc(CodeBlock.builder()
+                .add("Do not edit this file.\n")
+                .add("This file is generated automatically and if it is edited it may stop working correctly.")
+                .build());
+
+        // Archive table
+        CodeBlock.Builder archivesContent = CodeBlock.builder().add("{\n");
+        Map<IndexManifest, Integer> archiveIndexes = new HashMap<>();
+        for (IndexManifest manifest : sortedManifests) {
+            archiveIndexes.put(manifest, archiveIndexes.size());
+            archivesContent.add("$S,\n", manifest.getArchiveName());
+        }
+
+        // Resource constants and tables
+        CodeBlock.Builder archiveIndexContent = CodeBlock.builder().add("{\n");
+        CodeBlock.Builder entriesContent = CodeBlock.builder().add("{\n");
+        Set<String> usedNames = new HashSet<>();
+        int resourceCounter = 0;
+        for (Map.Entry<String, IndexManifest> entry : owners.entrySet()) {
+            String constantName = PluginUtils.toIdentifier(entry.getKey());
+            // Avoid duplicated names
+            String uniqueName = constantName;
+            for (int i = 1; !usedNames.add(uniqueName); i++) {
+                uniqueName = constantName + "$" + i;
+            }
+            classSpec.addField(FieldSpec.builder(int.class, uniqueName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L ($L)", entry.getKey().replace("*/", "*&#47;"), entry.getValue().getProjectPath())
+                .initializer("$L", resourceCounter++)
+                .build());
+            archiveIndexContent.add("$L, ", archiveIndexes.get(entry.getValue()));
+            entriesContent.add("$S,\n", entry.getKey());
+        }
+
+        classSpec
+            .addField(FieldSpec.builder(String[].class, DependencyIndexBuilder.artifactFilesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(archivesContent.add("}").build())
+                .build())
+            .addField(FieldSpec.builder(int[].class, DependencyIndexBuilder.artifactIndexName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(archiveIndexContent.add("\n}").build())
+                .build())
+            .addField(FieldSpec.builder(String[].class, DependencyIndexBuilder.entriesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(entriesContent.add("}").build())
+                .build())
+            .addType(DependencyIndexBuilder.generateClasspathHolder())
+            .addMethod(DependencyIndexBuilder.getRegisteredResourceMethod(
+                CodeBlock.of("$L(resourceId)", loaderResourceName),
+                false))
+            .addMethod(DependencyIndexBuilder.getRegisteredResourceAsStreamMethod(false))
+            .addMethod(loaderResourceMethod());
+
+        // Generate java file
+        JavaFile outFile = JavaFile.builder(targetPackage, classSpec.build())
+            .indent("\t")
+            .build();
+        // Write result
+        outFile.writeTo(outputDirectory);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate the lookup used when the archive is not a classpath element. The class loader of
+     * the index class may see the same location in several archives, so the owner archive is preferred.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec loaderResourceMethod() {
+        ClassName indexClass = ClassName.get(targetPackage, PluginUtils.OUTPUT_AGGREGATE_FILE_NAME);
+        return MethodSpec.methodBuilder(loaderResourceName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(URL.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("$T loader = $T.class.getClassLoader()", ClassLoader.class, indexClass)
+            .addStatement("$T entry = $L[resourceId]", String.class, DependencyIndexBuilder.entriesName)
+            .addStatement("$T archive = $S + $L[$L[resourceId]] + $S",
+                String.class, "/", DependencyIndexBuilder.artifactFilesName, DependencyIndexBuilder.artifactIndexName, "!/")
+            .beginControlFlow("try")
+            .addStatement("$T first = null", URL.class)
+            .beginControlFlow("for ($T urls = loader.getResources(entry); urls.hasMoreElements(); )",
+                ParameterizedTypeName.get(Enumeration.class, URL.class))
+            .addStatement("$T url = urls.nextElement()", URL.class)
+            .addStatement("if (url.toString().contains(archive)) return url")
+            .addStatement("if (first == null) first = url")
+            .endControlFlow()
+            .addComment("Exploded directories keep the loader order")
+            .addStatement("return first")
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("return loader.getResource(entry)")
+            .endControlFlow()
+            .build();
+    }
+
+}
@@ -0,0 +1,186 @@
+package io.github.ushiosan23.resgen.generators;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Generator of the asset manifest read by the {@code resgen-server} module. Sizes, hashes
+ * and content types are computed at build time from the packaged files, so the server
+ * answers {@code ETag}, {@code Content-Length} and {@code 304} without reading any resource.
+ * <p>
+ * File format, one resource per line. Precompressed variants ({@code .gz}, {@code .br})
+ * are listed by encoding and are also resources of the manifest:
+ * <pre>
+ * #resgen-assets 1
+ * css/app.css	5120	"1f0c...9a"	text/css; charset=utf-8	gzip,br
+ * </pre>
+ */
+public final class AssetManifestGenerator implements IGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Manifest location inside the packaged resources
+     */
+    public static final String MANIFEST_LOCATION = "META-INF/resgen/assets.tsv";
+
+    /**
+     * Format header
+     */
+    private static final String FORMAT_HEADER = "#resgen-assets 1";
+
+    /**
+     * Precompressed variant suffixes by encoding, in preference order
+     */
+    private static final Map<String, String> variantSuffixes = new LinkedHashMap<>();
+
+    /**
+     * Content types by extension
+     */
+    private static final Map<String, String> contentTypes = new HashMap<>();
+
+    /**
+     * Packaged file of each resource, sorted by location
+     */
+    private final SortedMap<String, Path> files;
+
+    /**
+     * Output manifest file
+     */
+    private final Path outputFile;
+
+    static {
+        variantSuffixes.put("br", ".br");
+        variantSuffixes.put("gzip", ".gz");
+        // Text types are always UTF-8 in the project resources
+        for (String[] entry : new String[][]{
+            {"html", "text/html"}, {"htm", "text/html"}, {"css", "text/css"}, {"js", "text/javascript"},
+            {"mjs", "text/javascript"}, {"txt", "text/plain"}, {"csv", "text/csv"}, {"md", "text/markdown"},
+            {"xml", "application/xml"}, {"svg", "image/svg+xml"}, {"json", "application/json"},
+            {"map", "application/json"}, {"properties", "text/plain"}}) {
+            contentTypes.put(entry[0], entry[1] + "; charset=utf-8");
+        }
+        for (String[] entry : new String[][]{
+            {"png", "image/png"}, {"jpg", "image/jpeg"}, {"jpeg", "image/jpeg"}, {"gif", "image/gif"},
+            {"webp", "image/webp"}, {"avif", "image/avif"}, {"ico", "image/x-icon"}, {"woff", "font/woff"},
+            {"woff2", "font/woff2"}, {"ttf", "font/ttf"}, {"otf", "font/otf"}, {"wasm", "application/wasm"},
+            {"pdf", "application/pdf"}, {"gz", "application/gzip"}, {"br", "application/octet-stream"}}) {
+            contentTypes.put(entry[0], entry[1]);
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param files      Packaged file of each resource
+     * @param outputFile Output manifest file
+     */
+    public AssetManifestGenerator(@NotNull Map<String, Path> files, @NotNull Path outputFile) {
+        this.files = new TreeMap<>(files);
+        this.outputFile = outputFile;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+        Files.createDirectories(outputFile.getParent());
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public void generate() throws IOException {
+        createIfIsNeed();
+        try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            writer.write(FORMAT_HEADER + "\n");
+            for (Map.Entry<String, Path> entry : files.entrySet()) {
+                String location = entry.getKey();
+                // Variants of this resource
+                StringJoiner encodings = new StringJoiner(",");
+                for (Map.Entry<String, String> variant : variantSuffixes.entrySet()) {
+                    if (files.containsKey(location + variant.getValue())) encodings.add(variant.getKey());
+                }
+                writer.write(location + "\t" +
+                    Files.size(entry.getValue()) + "\t" +
+                    "\"" + hash(entry.getValue()) + "\"\t" +
+                    contentType(location) + "\t" +
+                    encodings + "\n");
+            }
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get the content type of a resource
+     *
+     * @param location Resource location
+     *
+     * @return Content type, {@code application/octet-stream} if the extension is unknown
+     */
+    static @NotNull String contentType(@NotNull String location) {
+        String name = location.substring(location.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        String result = dot == -1 ? null : contentTypes.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+        return result == null ? "application/octet-stream" : result;
+    }
+
+    /**
+     * Hash a file. The first 128 bits of its SHA-256 are enough for an entity tag.
+     *
+     * @param file Target file
+     *
+     * @return Hexadecimal hash
+     *
+     * @throws IOException Error to read the file
+     */
+    private static @NotNull String hash(@NotNull Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder result = new StringBuilder(32);
+        byte[] hash = digest.digest();
+        for (int i = 0; i < 16; i++) {
+            result.append(String.format("%02x", hash[i]));
+        }
+        return result.toString();
+    }
+
+}
@@ -1,15 +1,28 @@
 package io.github.ushiosan23.resgen.generators;
 
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeSpec;
 import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceFilter;
+import io.github.ushiosan23.resgen.utils.ResourceIdStore;
+import io.github.ushiosan23.resgen.utils.ResourceIndex;
 import org.gradle.api.Project;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.lang.model.element.Modifier;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 public abstract class BaseGenerator implements IGenerator {
 
@@ -17,6 +30,11 @@ public abstract class BaseGenerator implements IGenerator {
      * Properties
      * ------------------------------------------------------------------ */
 
+    /**
+     * Method used to initialize non inlined constants
+     */
+    protected static final String handleMethodName = "$handle$";
+
     /**
      * Current project
      */
@@ -27,6 +45,16 @@ public abstract class BaseGenerator implements IGenerator {
      */
     protected final ResourceGenerationOptions pluginOptions;
 
+    /**
+     * Include and exclude filter of resources
+     */
+    protected final ResourceFilter resourceFilter;
+
+    /**
+     * Scanned resources. Created on demand if it is not given.
+     */
+    private ResourceIndex resourceIndex;
+
     /* ------------------------------------------------------------------
      * Constructors
      * ------------------------------------------------------------------ */
@@ -40,12 +68,146 @@ public abstract class BaseGenerator implements IGenerator {
     public BaseGenerator(@NotNull Project p, @NotNull ResourceGenerationOptions opt) {
         currentProject = p;
         pluginOptions = opt;
+        resourceFilter = opt.getResourceFilter();
     }
 
     /* ------------------------------------------------------------------
      * Base Methods
      * ------------------------------------------------------------------ */
 
+    /**
+     * Get all project resource directories
+     *
+     * @return Resource directories list
+     */
+    protected @NotNull List<Path> getResourceDirectories() {
+        return PluginUtils.getResourceDirectories(currentProject);
+    }
+
+    /**
+     * Set scanned resources, so the resource directories are not walked again
+     *
+     * @param index Resource index
+     */
+    public void setResourceIndex(@NotNull ResourceIndex index) {
+        resourceIndex = index;
+    }
+
+    /**
+     * Get scanned resources. If no index was given, the resource directories are scanned.
+     *
+     * @return Resource index
+     *
+     * @throws IOException Error to walk the resource directories
+     */
+    protected @NotNull ResourceIndex getResourceIndex() throws IOException {
+        if (resourceIndex == null) {
+            resourceIndex = ResourceIndex.scan(
+                getResourceDirectories(),
+                Set.of(PluginUtils.resolvePropertiesPath(currentProject)),
+                resourceFilter);
+        }
+        return resourceIndex;
+    }
+
+    /**
+     * Load persisted resource ids
+     *
+     * @return Id store or {@code null} if stable ids are disabled
+     *
+     * @throws IOException Error to read the ids file
+     */
+    protected @Nullable ResourceIdStore loadIdStore() throws IOException {
+        if (!pluginOptions.getStableIds()) return null;
+        return ResourceIdStore.load(PluginUtils.resolveIdsPath(currentProject), pluginOptions.getReuseFreedIds());
+    }
+
+    /**
+     * Generate constant initializer.
+     * If stable abi is enabled, the value is wrapped with the handle method so the compiler cannot inline it.
+     *
+     * @param format Value format
+     * @param value  Constant value
+     *
+     * @return Initializer code
+     */
+    protected @NotNull CodeBlock constantInitializer(@NotNull String format, @NotNull Object value) {
+        CodeBlock literal = CodeBlock.of(format, value);
+        if (!pluginOptions.getStableAbi()) return literal;
+        return CodeBlock.of("$L($L)", handleMethodName, literal);
+    }
+
+    /**
+     * Generate handle method spec. It only returns the given value. It is package-private,
+     * so the constant parts of the streaming generator can call it.
+     *
+     * @param type Value type
+     *
+     * @return method spec instance
+     */
+    protected @NotNull MethodSpec handleMethod(@NotNull Class<?> type) {
+        return MethodSpec.methodBuilder(handleMethodName)
+            .addModifiers(Modifier.STATIC)
+            .returns(type)
+            .addParameter(type, "value")
+            .addStatement("return value")
+            .build();
+    }
+
+    /**
+     * Insert the indexed dependencies class, if any dependency is selected
+     *
+     * @param builder Index class builder
+     *
+     * @throws IOException Error to read any artifact
+     */
+    protected void addDependencyIndex(TypeSpec.@NotNull Builder builder) throws IOException {
+        TypeSpec dependencies = new DependencyIndexBuilder(this).build();
+        if (dependencies != null) builder.addType(dependencies);
+    }
+
+    /**
+     * Add decoded object cache to the index class if it is enabled.
+     * The class must define {@code getRegisteredResourceAsStream(int)}.
+     *
+     * @param builder Index class
+     */
+    protected void addDecoderCache(TypeSpec.@NotNull Builder builder) {
+        if (!pluginOptions.getDecoderCache()) return;
+        new DecoderCacheBuilder(ClassName.get(pluginOptions.getTargetPackage(), PluginUtils.OUTPUT_FILE_NAME))
+            .addTo(builder);
+    }
+
+    /**
+     * Get base index class spec
+     *
+     * @param loaderName Loader variable name
+     *
+     * @return Returns base class specifications
+     */
+    protected TypeSpec.@NotNull Builder generateIndexClass(@NotNull String loaderName) {
+        // Generate base class name
+        TypeSpec.Builder builder = TypeSpec
+            .classBuilder(PluginUtils.OUTPUT_FILE_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc(CodeBlock.builder()
+                .add("Do not edit this file.\n")
+                .add("This file is generated automatically and if it is edited it may stop working correctly.")
+                .build())
+            .addField(
+                FieldSpec.builder(ClassLoader.class, loaderName)
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .addJavadoc("Current application context loader")
+                    .initializer("$T.getSystemClassLoader()", ClassLoader.class)
+                    .build()
+            );
+        // Non inlined resource ids
+        if (pluginOptions.getStableAbi()) {
+            builder.addMethod(handleMethod(int.class));
+        }
+        return builder;
+    }
+
     /**
      * Generate {@code getResource} method spec
      *
@@ -96,4 +258,152 @@ public abstract class BaseGenerator implements IGenerator {
         return builder.build();
     }
 
+    /**
+     * Generate {@code getRegisteredResource} method spec
+     *
+     * @param tableName Resource table variable name
+     *
+     * @return method spec instance
+     */
+    protected @NotNull MethodSpec getRegisteredResourceMethod(@NotNull String tableName) {
+        return getRegisteredResourceMethod(tableName, null);
+    }
+
+    /**
+     * Generate {@code getRegisteredResource} method spec
+     *
+     * @param tableName      Resource table variable name
+     * @param tableStatement Statement executed before the table is used, may declare the table variable
+     *
+     * @return method spec instance
+     */
+    protected @NotNull MethodSpec getRegisteredResourceMethod(
+        @NotNull String tableName,
+        @Nullable CodeBlock tableStatement) {
+        return getRegisteredResourceMethod(tableName, tableStatement, "getResource");
+    }
+
+    /**
+     * Generate {@code getRegisteredResource} method spec
+     *
+     * @param tableName      Resource table variable name
+     * @param tableStatement Statement executed before the table is used, may declare the table variable
+     * @param delegateName   Location method used to resolve the resource
+     *
+     * @return method spec instance
+     */
+    protected @NotNull MethodSpec getRegisteredResourceMethod(
+        @NotNull String tableName,
+        @Nullable CodeBlock tableStatement,
+        @NotNull String delegateName) {
+        return getRegisteredResourceByIdMethod(
+            "getRegisteredResource",
+            delegateName,
+            URL.class,
+            tableName,
+            tableStatement);
+    }
+
+    /**
+     * Generate {@code getRegisteredResourceAsStream} method spec
+     *
+     * @param tableName Resource table variable name
+     *
+     * @return method spec instance
+     */
+    protected @NotNull MethodSpec getRegisteredResourceAsStreamMethod(@NotNull String tableName) {
+        return getRegisteredResourceAsStreamMethod(tableName, null);
+    }
+
+    /**
+     * Generate {@code getRegisteredResourceAsStream} method spec
+     *
+     * @param tableName      Resource table variable name
+     * @param tableStatement Statement executed before the table is used, may declare the table variable
+     *
+     * @return method spec instance
+     */
+    protected @NotNull MethodSpec getRegisteredResourceAsStreamMethod(
+        @NotNull String tableName,
+        @Nullable CodeBlock tableStatement) {
+        return getRegisteredResourceAsStreamMethod(tableName, tableStatement, "getResourceAsStream");
+    }
+
+    /**
+     * Generate {@code getRegisteredResourceAsStream} method spec
+     *
+     * @param tableName      Resource table variable name
+     * @param tableStatement Statement executed before the table is used, may declare the table variable
+     * @param delegateName   Location method used to resolve the resource
+     *
+     * @return method spec instance
+     */
+    protected @NotNull MethodSpec getRegisteredResourceAsStreamMethod(
+        @NotNull String tableName,
+        @Nullable CodeBlock tableStatement,
+        @NotNull String delegateName) {
+        return getRegisteredResourceByIdMethod(
+            "getRegisteredResourceAsStream",
+            delegateName,
+            InputStream.class,
+            tableName,
+            tableStatement);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate a method that resolves a resource by its identifier
+     *
+     * @param methodName     Generated method name
+     * @param delegateName   Location method used to resolve the resource
+     * @param returnType     Method return type
+     * @param tableName      Resource table variable name
+     * @param tableStatement Statement executed before the table is used
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getRegisteredResourceByIdMethod(
+        @NotNull String methodName,
+        @NotNull String delegateName,
+        @NotNull Class<?> returnType,
+        @NotNull String tableName,
+        @Nullable CodeBlock tableStatement) {
+        // Generate builders
+        ParameterSpec.Builder resourceIdParam = ParameterSpec.builder(int.class, "resourceId");
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(methodName)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(returnType);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            builder.addAnnotation(NotNull.class);
+        }
+        // Add parameters
+        builder.addParameter(resourceIdParam.build());
+        if (tableStatement != null) builder.addStatement(tableStatement);
+        // Add logic
+        builder
+            .addStatement("resourceId = $T.abs(resourceId)", Math.class)
+            .beginControlFlow("if (resourceId >= $L.length || $L[resourceId] == null) ", tableName, tableName)
+            .addStatement(
+                "throw new $T($S + $L + $S)",
+                IndexOutOfBoundsException.class,
+                "Resource ",
+                "resourceId",
+                " not found")
+            .endControlFlow()
+            .addStatement("$T res = $L($L[resourceId])", returnType, delegateName, tableName)
+            .addStatement(
+                "$T.requireNonNull(res, $S + $L[resourceId] + $S)",
+                Objects.class,
+                "Resource ",
+                tableName,
+                " not found")
+            .addStatement("return res");
+        //Generate methodSpec
+        return builder.build();
+    }
+
 }
@@ -0,0 +1,328 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.utils.ClassFileWriter;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Collects the resource constants and the lookup tables of the {@code Res} class and writes
+ * them as the {@code ResIds} interface, directly as bytecode. {@code Res} implements the interface,
+ * so every constant keeps its name, and decodes its tables from string constants at class initialization.
+ * <p>
+ * The constant pool of a class file is limited, so constants are split in {@code ResIds0..N}
+ * parts and {@code ResIds} extends all of them.
+ */
+final class BytecodeTables {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Strings decoder method name
+     */
+    private static final String stringsDecoderName = "$strings$";
+
+    /**
+     * Integers decoder method name
+     */
+    private static final String intsDecoderName = "$ints$";
+
+    /**
+     * Longs decoder method name
+     */
+    private static final String longsDecoderName = "$longs$";
+
+    /**
+     * Pool entries reserved for the next constant: name, descriptor, value and string entry
+     */
+    private static final int constantPoolEntries = 4;
+
+    /**
+     * Target package
+     */
+    private final String packageName;
+
+    /**
+     * Interface name
+     */
+    private final ClassName idsClass;
+
+    /**
+     * Constants in declaration order. Values are {@link Integer} or {@link String}
+     */
+    private final Map<String, Object> constants = new LinkedHashMap<>();
+
+    /**
+     * Resource location of each resource constant
+     */
+    private final Map<String, String> locations = new HashMap<>();
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param packageName Target package
+     */
+    BytecodeTables(@NotNull String packageName) {
+        this.packageName = packageName;
+        this.idsClass = ClassName.get(packageName, PluginUtils.OUTPUT_IDS_CLASS_NAME);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Add a resource constant
+     *
+     * @param name     Constant name
+     * @param value    Resource id
+     * @param location Resource location
+     */
+    void addConstant(@NotNull String name, int value, @NotNull String location) {
+        constants.put(name, value);
+        locations.put(name, location);
+    }
+
+    /**
+     * Store a string table. {@code null} values are restored as {@code null}.
+     *
+     * @param name   Table variable name
+     * @param values Table content
+     *
+     * @return Table initializer
+     */
+    @NotNull CodeBlock strings(@NotNull String name, @NotNull List<String> values) {
+        List<String> elements = new ArrayList<>(values.size());
+        for (String value : values) {
+            // Locations never contain the NUL character, the empty string is null
+            elements.add((value == null ? "" : value) + '\0');
+        }
+        return chunks(name, stringsDecoderName, values.size(), elements);
+    }
+
+    /**
+     * Store an {@code int} table. Each value is stored as two characters.
+     *
+     * @param name   Table variable name
+     * @param values Table content
+     *
+     * @return Table initializer
+     */
+    @NotNull CodeBlock ints(@NotNull String name, int @NotNull [] values) {
+        List<String> elements = new ArrayList<>(values.length);
+        for (int value : values) {
+            elements.add(new String(new char[]{(char) (value >>> 16), (char) value}));
+        }
+        return chunks(name, intsDecoderName, values.length, elements);
+    }
+
+    /**
+     * Store a {@code long} table. Each value is stored as four characters.
+     *
+     * @param name   Table variable name
+     * @param values Table content
+     *
+     * @return Table initializer
+     */
+    @NotNull CodeBlock longs(@NotNull String name, long @NotNull [] values) {
+        List<String> elements = new ArrayList<>(values.length);
+        for (long value : values) {
+            elements.add(new String(new char[]{
+                (char) (value >>> 48), (char) (value >>> 32), (char) (value >>> 16), (char) value}));
+        }
+        return chunks(name, longsDecoderName, values.length, elements);
+    }
+
+    /**
+     * Implement the interface and add the table decoders to the index class
+     *
+     * @param classSpec Index class
+     */
+    void addTo(TypeSpec.@NotNull Builder classSpec) {
+        classSpec
+            .addSuperinterface(idsClass)
+            .addMethod(MethodSpec.methodBuilder(stringsDecoderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(String[].class)
+                .addParameter(int.class, "size")
+                .addParameter(String[].class, "chunks")
+                .varargs()
+                .addStatement("$T[] result = new $T[size]", String.class, String.class)
+                .addStatement("int index = 0")
+                .beginControlFlow("for ($T chunk : chunks)", String.class)
+                .beginControlFlow("for (int start = 0, end; (end = chunk.indexOf(0, start)) != -1; start = end + 1)")
+                .addStatement("result[index++] = end == start ? null : chunk.substring(start, end)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return result")
+                .build())
+            .addMethod(MethodSpec.methodBuilder(intsDecoderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(int[].class)
+                .addParameter(int.class, "size")
+                .addParameter(String[].class, "chunks")
+                .varargs()
+                .addStatement("int[] result = new int[size]")
+                .addStatement("int index = 0")
+                .beginControlFlow("for ($T chunk : chunks)", String.class)
+                .beginControlFlow("for (int i = 0; i < chunk.length(); i += 2)")
+                .addStatement("result[index++] = chunk.charAt(i) << 16 | chunk.charAt(i + 1)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return result")
+                .build())
+            .addMethod(MethodSpec.methodBuilder(longsDecoderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(long[].class)
+                .addParameter(int.class, "size")
+                .addParameter(String[].class, "chunks")
+                .varargs()
+                .addStatement("long[] result = new long[size]")
+                .addStatement("int index = 0")
+                .beginControlFlow("for ($T chunk : chunks)", String.class)
+                .beginControlFlow("for (int i = 0; i < chunk.length(); i += 4)")
+                .addStatement("result[index++] = (long) chunk.charAt(i) << 48 | (long) chunk.charAt(i + 1) << 32 |\n"
+                    + "(long) chunk.charAt(i + 2) << 16 | chunk.charAt(i + 3)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return result")
+                .build());
+    }
+
+    /**
+     * Write the interface class files and the navigation source
+     *
+     * @param classesDir Generated classes directory
+     * @param stubsDir   Generated class sources directory
+     *
+     * @throws IOException Error to write any file
+     */
+    void write(@NotNull Path classesDir, @NotNull Path stubsDir) throws IOException {
+        deleteClasses(classesDir, packageName);
+        Path packageDir = classesDir.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(packageDir);
+        String internalName = packageName.isEmpty() ?
+            idsClass.simpleName() :
+            packageName.replace('.', '/') + "/" + idsClass.simpleName();
+
+        // Split constants by the constant pool limit
+        List<ClassFileWriter> parts = new ArrayList<>();
+        List<String> partNames = new ArrayList<>();
+        ClassFileWriter part = null;
+        for (Map.Entry<String, Object> constant : constants.entrySet()) {
+            if (part == null || part.getPoolSize() + constantPoolEntries >= ClassFileWriter.MAX_POOL_SIZE) {
+                partNames.add(internalName + parts.size());
+                part = new ClassFileWriter(partNames.get(parts.size()), List.of());
+                parts.add(part);
+            }
+            if (constant.getValue() instanceof Integer) part.addConstant(constant.getKey(), (Integer) constant.getValue());
+            else part.addConstant(constant.getKey(), (String) constant.getValue());
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            Files.write(packageDir.resolve(idsClass.simpleName() + i + ".class"), parts.get(i).toByteArray());
+        }
+        Files.write(packageDir.resolve(idsClass.simpleName() + ".class"),
+            new ClassFileWriter(internalName, partNames).toByteArray());
+
+        // Readable source, only the resource constants
+        TypeSpec.Builder stub = TypeSpec.interfaceBuilder(idsClass)
+            .addModifiers(Modifier.PUBLIC)
+            .addJavadoc("Navigation source of the generated {@code $L.class}. This file is not compiled.",
+                idsClass.simpleName());
+        for (Map.Entry<String, Object> constant : constants.entrySet()) {
+            String location = locations.get(constant.getKey());
+            if (location == null) continue;
+            stub.addField(FieldSpec.builder(int.class, constant.getKey())
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", location)
+                .initializer("$L", constant.getValue())
+                .build());
+        }
+        JavaFile.builder(packageName, stub.build())
+            .indent("\t")
+            .build()
+            .writeTo(stubsDir);
+    }
+
+    /**
+     * Delete previous interface class files, so a disabled or smaller index leaves no stale parts
+     *
+     * @param classesDir  Generated classes directory
+     * @param packageName Target package
+     *
+     * @throws IOException Error to delete the files
+     */
+    static void deleteClasses(@NotNull Path classesDir, @NotNull String packageName) throws IOException {
+        Path packageDir = classesDir.resolve(packageName.replace('.', '/'));
+        if (!Files.isDirectory(packageDir)) return;
+        try (Stream<Path> files = Files.list(packageDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().matches(PluginUtils.OUTPUT_IDS_CLASS_NAME + "\\d*\\.class"))
+                    Files.delete(file);
+            }
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Join encoded elements in string constants. An element is never split between two constants.
+     *
+     * @param name     Table variable name
+     * @param decoder  Decoder method name
+     * @param size     Number of elements
+     * @param elements Encoded elements
+     *
+     * @return Table initializer
+     */
+    private @NotNull CodeBlock chunks(
+        @NotNull String name,
+        @NotNull String decoder,
+        int size,
+        @NotNull List<String> elements) {
+        CodeBlock.Builder builder = CodeBlock.builder().add("$L($L", decoder, size);
+        StringBuilder chunk = new StringBuilder();
+        int chunkBytes = 0;
+        int chunkCount = 0;
+        for (String element : elements) {
+            int elementBytes = ClassFileWriter.encodedLength(element);
+            if (chunkBytes + elementBytes > ClassFileWriter.MAX_STRING_BYTES) {
+                addChunk(builder, name + chunkCount++, chunk.toString());
+                chunk.setLength(0);
+                chunkBytes = 0;
+            }
+            chunk.append(element);
+            chunkBytes += elementBytes;
+        }
+        if (chunk.length() > 0) addChunk(builder, name + chunkCount, chunk.toString());
+        return builder.add(")").build();
+    }
+
+    /**
+     * Register a string constant and reference it from the initializer
+     *
+     * @param builder Table initializer
+     * @param name    Constant name
+     * @param value   Constant value
+     */
+    private void addChunk(CodeBlock.@NotNull Builder builder, @NotNull String name, @NotNull String value) {
+        constants.put(name, value);
+        builder.add(",\n$T.$L", idsClass, name);
+    }
+
+}
@@ -0,0 +1,252 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Builds the class that opens registered resources from their archive or directory.
+ * The origin is resolved once, from the code source of the index class or, if it does not
+ * contain the resources, from the location of one registered resource. Every lookup is then
+ * a single jar entry or file check, without class loader delegation.
+ * Nested archives and unknown protocols keep using the class loader of the index class.
+ */
+final class CodeSourceBuilder {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generated class name
+     */
+    static final String ORIGIN_CLASS_NAME = "$Origin$";
+
+    /**
+     * Shared archive variable name
+     */
+    private static final String jarName = "JAR";
+
+    /**
+     * Archive url prefix variable name
+     */
+    private static final String jarUrlName = "JAR_URL";
+
+    /**
+     * Directory variable name
+     */
+    private static final String directoryName = "DIRECTORY";
+
+    /**
+     * Class loader variable name
+     */
+    private static final String loaderName = "LOADER";
+
+    /**
+     * Index class
+     */
+    private final ClassName indexClass;
+
+    /**
+     * Registered location used to check and find the origin
+     */
+    private final String anchor;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param indexClass Index class
+     * @param anchor     Any registered location
+     */
+    CodeSourceBuilder(@NotNull ClassName indexClass, @NotNull String anchor) {
+        this.indexClass = indexClass;
+        this.anchor = anchor;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get the resolution method of the generated class
+     *
+     * @param delegateName {@code getResource} or {@code getResourceAsStream}
+     *
+     * @return Method reference used by the index class
+     */
+    static @NotNull String delegate(@NotNull String delegateName) {
+        return ORIGIN_CLASS_NAME + "." + delegateName;
+    }
+
+    /**
+     * Generate origin class. It is initialized on the first registered lookup.
+     *
+     * @return Class specification
+     */
+    @NotNull TypeSpec build() {
+        // Anchor depth, used to remove the location from its url
+        int depth = anchor.split("/").length;
+        return TypeSpec.classBuilder(ORIGIN_CLASS_NAME)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("Archive or directory of the registered resources, resolved once")
+            .addField(FieldSpec.builder(ClassLoader.class, loaderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Loader of the index class. The system loader does not see the resources of\n")
+                .addJavadoc("plugin, web or application server class loaders.")
+                .initializer("$T.class.getClassLoader()", indexClass)
+                .build())
+            .addField(FieldSpec.builder(JarFile.class, jarName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Shared archive, never closed. {@code null} if the origin is not an archive.")
+                .build())
+            .addField(FieldSpec.builder(String.class, jarUrlName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .build())
+            .addField(FieldSpec.builder(Path.class, directoryName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .build())
+            .addStaticBlock(CodeBlock.builder()
+                .addStatement("$T origin = null", Object.class)
+                .beginControlFlow("try")
+                .addStatement("$T source = $T.class.getProtectionDomain().getCodeSource()", CodeSource.class, indexClass)
+                .addStatement("if (source != null) origin = open(toPath(source.getLocation(), 0))")
+                .addStatement("if (origin == null) origin = open(toPath($L.getResource($S), $L))", loaderName, anchor, depth)
+                .nextControlFlow("catch ($T | $T | $T | $T err)",
+                    IOException.class, URISyntaxException.class, SecurityException.class, IllegalArgumentException.class)
+                .addStatement("origin = null")
+                .endControlFlow()
+                .addStatement("$L = origin instanceof $T ? ($T) origin : null", jarName, JarFile.class, JarFile.class)
+                .addStatement("$L = $L == null ? null : $S + $T.get($L.getName()).toUri() + $S",
+                    jarUrlName, jarName, "jar:", Paths.class, jarName, "!/")
+                .addStatement("$L = origin instanceof $T ? ($T) origin : null", directoryName, Path.class, Path.class)
+                .build())
+            .addMethod(toPathMethod())
+            .addMethod(openMethod())
+            .addMethod(getResourceMethod())
+            .addMethod(getResourceAsStreamMethod())
+            .build();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate the method that converts a url to an archive or directory
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec toPathMethod() {
+        return MethodSpec.methodBuilder("toPath")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(Path.class)
+            .addParameter(URL.class, "url")
+            .addParameter(int.class, "depth")
+            .addException(URISyntaxException.class)
+            .addStatement("if (url == null) return null")
+            .addStatement("$T text = url.toString()", String.class)
+            .beginControlFlow("if (text.startsWith($S))", "jar:")
+            .addStatement("int separator = text.indexOf($S)", "!/")
+            .addComment("Nested archives are not plain files")
+            .addStatement("if (separator == -1 || text.indexOf($S, separator + 2) != -1) return null", "!/")
+            .addStatement("$T archive = new $T(text.substring(4, separator))", URI.class, URI.class)
+            .addStatement("return $S.equals(archive.getScheme()) ? $T.get(archive) : null", "file", Paths.class)
+            .endControlFlow()
+            .addStatement("if (!$S.equals(url.getProtocol())) return null", "file")
+            .addStatement("$T result = $T.get(url.toURI())", Path.class, Paths.class)
+            .addStatement("for (int i = 0; i < depth && result != null; i++) result = result.getParent()")
+            .addStatement("return result")
+            .build();
+    }
+
+    /**
+     * Generate the method that opens an origin if it contains the anchor
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec openMethod() {
+        return MethodSpec.methodBuilder("open")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(Object.class)
+            .addParameter(Path.class, "root")
+            .addException(IOException.class)
+            .addStatement("if (root == null) return null")
+            .addStatement("if ($T.isDirectory(root)) return $T.isRegularFile(root.resolve($S)) ? root : null",
+                Files.class, Files.class, anchor)
+            .addStatement("if (!$T.isRegularFile(root)) return null", Files.class)
+            .addStatement("$T jar = new $T(root.toFile())", JarFile.class, JarFile.class)
+            .addStatement("if (jar.getJarEntry($S) != null) return jar", anchor)
+            .addStatement("jar.close()")
+            .addStatement("return null")
+            .build();
+    }
+
+    /**
+     * Generate {@code getResource} method spec. Resources missing from the origin use the class loader.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getResourceMethod() {
+        return MethodSpec.methodBuilder("getResource")
+            .addModifiers(Modifier.STATIC)
+            .returns(URL.class)
+            .addParameter(String.class, "location")
+            .beginControlFlow("try")
+            .beginControlFlow("if ($L != null && $L.getJarEntry(location) != null)", jarName, jarName)
+            .addStatement("return new $T($L + new $T(null, null, location, null).getRawPath())",
+                URL.class, jarUrlName, URI.class)
+            .endControlFlow()
+            .beginControlFlow("if ($L != null)", directoryName)
+            .addStatement("$T file = $L.resolve(location)", Path.class, directoryName)
+            .addStatement("if ($T.isRegularFile(file)) return file.toUri().toURL()", Files.class)
+            .endControlFlow()
+            .nextControlFlow("catch ($T | $T err)", MalformedURLException.class, URISyntaxException.class)
+            .addComment("Resolved by the class loader")
+            .endControlFlow()
+            .addStatement("return $L.getResource(location)", loaderName)
+            .build();
+    }
+
+    /**
+     * Generate {@code getResourceAsStream} method spec. The shared archive is thread-safe.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getResourceAsStreamMethod() {
+        return MethodSpec.methodBuilder("getResourceAsStream")
+            .addModifiers(Modifier.STATIC)
+            .returns(InputStream.class)
+            .addParameter(String.class, "location")
+            .beginControlFlow("try")
+            .beginControlFlow("if ($L != null)", jarName)
+            .addStatement("$T entry = $L.getJarEntry(location)", JarEntry.class, jarName)
+            .addStatement("if (entry != null) return $L.getInputStream(entry)", jarName)
+            .nextControlFlow("else if ($L != null)", directoryName)
+            .addStatement("$T file = $L.resolve(location)", Path.class, directoryName)
+            .addStatement("if ($T.isRegularFile(file)) return $T.newInputStream(file)", Files.class, Files.class)
+            .endControlFlow()
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addComment("Resolved by the class loader")
+            .endControlFlow()
+            .addStatement("return $L.getResourceAsStream(location)", loaderName)
+            .build();
+    }
+
+}
@@ -0,0 +1,312 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.ConfigurationParser;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceIndex;
+import org.gradle.api.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Generator that parses configuration resources at build time and stores
+ * every entry as a typed constant inside the {@code ResConfig} class.
+ */
+public final class ConfigurationJavaGenerator extends BaseGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Keys array variable name
+     */
+    private static final String keysArrayName = "$keys$";
+
+    /**
+     * Values array variable name
+     */
+    private static final String valuesArrayName = "$values$";
+
+    /**
+     * Output file location
+     */
+    private final Path outputJavaFile;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor generator
+     *
+     * @param project Target project
+     * @param options Project options
+     */
+    public ConfigurationJavaGenerator(Project project, ResourceGenerationOptions options) {
+        super(project, options);
+        // Initialize properties
+        outputJavaFile = PluginUtils.resolveJavaPath(currentProject);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public void generate() throws IOException {
+        TypeSpec.Builder classSpec = TypeSpec.classBuilder(PluginUtils.OUTPUT_CONFIG_FILE_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc(CodeBlock.builder()
+                .add("Do not edit this file.\n")
+                .add("This file is generated automatically and if it is edited it may stop working correctly.")
+                .build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build());
+        // Non inlined values
+        if (pluginOptions.getStableAbi()) {
+            for (Class<?> type : new Class<?>[]{boolean.class, int.class, long.class, double.class, String.class}) {
+                classSpec.addMethod(handleMethod(type));
+            }
+        }
+
+        // Parse each configuration file, sorted by location
+        ResourceIndex index = getResourceIndex();
+        Set<String> usedClassNames = new HashSet<>();
+        usedClassNames.add(PluginUtils.OUTPUT_CONFIG_FILE_NAME);
+        for (Map.Entry<String, Path> entry : index.getFiles().entrySet()) {
+            Path file = entry.getValue();
+            if (!ConfigurationParser.isConfigurationFile(file)) continue;
+            Map<String, String> entries = ConfigurationParser.parse(file);
+            if (entries == null) continue;
+            Path relative = index.getRoot(entry.getKey()).relativize(file);
+            // Avoid duplicated names, "a.b.properties" and "a_b.properties" have the same identifier
+            String className = PluginUtils.toConstantName(relative);
+            String uniqueClassName = className;
+            for (int i = 1; !usedClassNames.add(uniqueClassName); i++) {
+                uniqueClassName = className + "$" + i;
+            }
+            classSpec.addType(generateConfigurationClass(uniqueClassName, relative, entries));
+        }
+
+        // Generate java file
+        JavaFile outFile = JavaFile.builder(pluginOptions.getTargetPackage(), classSpec.build())
+            .indent("\t")
+            .build();
+        // Write result
+        outFile.writeTo(outputJavaFile);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate a nested class with all entries of a single configuration file
+     *
+     * @param className Nested class name
+     * @param relative  Path relative to the resource directory
+     * @param entries   Sorted configuration entries
+     *
+     * @return Nested class specification
+     */
+    private @NotNull TypeSpec generateConfigurationClass(
+        @NotNull String className,
+        @NotNull Path relative,
+        @NotNull Map<String, String> entries) {
+        TypeSpec.Builder builder = TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("$L", PluginUtils.toResourceLocation(relative).replace("*/", "*&#47;"))
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build());
+
+        // Typed constants, the array tables names are reserved
+        Set<String> usedNames = new HashSet<>(Arrays.asList(keysArrayName, valuesArrayName, className));
+        CodeBlock.Builder keysContent = CodeBlock.builder().add("{\n");
+        CodeBlock.Builder valuesContent = CodeBlock.builder().add("{\n");
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String constantName = PluginUtils.toIdentifier(entry.getKey());
+            // Avoid duplicated names
+            String uniqueName = constantName;
+            for (int i = 1; !usedNames.add(uniqueName); i++) {
+                uniqueName = constantName + "$" + i;
+            }
+            builder.addField(generateTypedConstant(uniqueName, entry.getKey(), entry.getValue()));
+            keysContent.add("$S,\n", entry.getKey());
+            valuesContent.add("$S,\n", entry.getValue());
+        }
+
+        // Array tables
+        builder.addField(FieldSpec.builder(String[].class, keysArrayName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(keysContent.add("}").build())
+            .build());
+        builder.addField(FieldSpec.builder(String[].class, valuesArrayName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(valuesContent.add("}").build())
+            .build());
+
+        // Accessor methods
+        return builder
+            .addMethod(getValueMethod())
+            .addMethod(getValueOrDefaultMethod())
+            .addMethod(sizeMethod())
+            .addMethod(keyAtMethod())
+            .build();
+    }
+
+    /**
+     * Generate a constant with the value type
+     *
+     * @param name  Constant name
+     * @param key   Original key
+     * @param value Entry value
+     *
+     * @return Field specification
+     */
+    private @NotNull FieldSpec generateTypedConstant(@NotNull String name, @NotNull String key, @NotNull String value) {
+        FieldSpec.Builder builder;
+        Object typedValue = inferValue(value);
+        // Check value type
+        if (typedValue instanceof Boolean) {
+            builder = FieldSpec.builder(boolean.class, name).initializer(constantInitializer("$L", typedValue));
+        } else if (typedValue instanceof Integer) {
+            builder = FieldSpec.builder(int.class, name).initializer(constantInitializer("$L", typedValue));
+        } else if (typedValue instanceof Long) {
+            builder = FieldSpec.builder(long.class, name).initializer(constantInitializer("$LL", typedValue));
+        } else if (typedValue instanceof Double) {
+            builder = FieldSpec.builder(double.class, name).initializer(constantInitializer("$L", typedValue));
+        } else {
+            builder = FieldSpec.builder(String.class, name).initializer(constantInitializer("$S", value));
+        }
+        return builder
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("$L", key.replace("*/", "*&#47;"))
+            .build();
+    }
+
+    /**
+     * Infer value type. Only conversions that keep the same text representation are applied.
+     *
+     * @param value Text value
+     *
+     * @return Typed value or {@code null} if the value is a string
+     */
+    private static @Nullable Object inferValue(@NotNull String value) {
+        if (value.equals("true") || value.equals("false"))
+            return Boolean.parseBoolean(value);
+        try {
+            long number = Long.parseLong(value);
+            if (!Long.toString(number).equals(value)) return null;
+            if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) return (int) number;
+            return number;
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            double number = Double.parseDouble(value);
+            if (Double.isFinite(number) && Double.toString(number).equals(value)) return number;
+        } catch (NumberFormatException ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * Generate {@code get} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getValueMethod() {
+        ParameterSpec.Builder keyParam = ParameterSpec.builder(String.class, "key");
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("get")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(String.class);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            builder.addAnnotation(Nullable.class);
+            keyParam.addAnnotation(NotNull.class);
+        }
+        return builder
+            .addParameter(keyParam.build())
+            .addStatement("int index = $T.binarySearch($L, key)", Arrays.class, keysArrayName)
+            .addStatement("return index < 0 ? null : $L[index]", valuesArrayName)
+            .build();
+    }
+
+    /**
+     * Generate {@code get} method spec with default value
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getValueOrDefaultMethod() {
+        ParameterSpec.Builder keyParam = ParameterSpec.builder(String.class, "key");
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("get")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(String.class);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            keyParam.addAnnotation(NotNull.class);
+        }
+        return builder
+            .addParameter(keyParam.build())
+            .addParameter(String.class, "defaultValue")
+            .addStatement("int index = $T.binarySearch($L, key)", Arrays.class, keysArrayName)
+            .addStatement("return index < 0 ? defaultValue : $L[index]", valuesArrayName)
+            .build();
+    }
+
+    /**
+     * Generate {@code size} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec sizeMethod() {
+        return MethodSpec.methodBuilder("size")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(int.class)
+            .addStatement("return $L.length", keysArrayName)
+            .build();
+    }
+
+    /**
+     * Generate {@code keyAt} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec keyAtMethod() {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("keyAt")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(String.class);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            builder.addAnnotation(NotNull.class);
+        }
+        return builder
+            .addParameter(int.class, "index")
+            .addStatement("return $L[index]", keysArrayName)
+            .build();
+    }
+
+}
@@ -0,0 +1,272 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Builds the decoded object cache of the {@code Res} class. Decoded values are cached per
+ * resource id and decoder, kept by soft references, and concurrent first requests of the same
+ * value wait for a single decoding.
+ */
+final class DecoderCacheBuilder {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Decoder interface name
+     */
+    static final String DECODER_INTERFACE_NAME = "Decoder";
+
+    /**
+     * Cache holder class name
+     */
+    private static final String cacheHolderName = "$DecodedCache$";
+
+    /**
+     * Wait method name
+     */
+    private static final String awaitName = "$await$";
+
+    /**
+     * Index class
+     */
+    private final ClassName indexClass;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param indexClass Index class, used to open the resources
+     */
+    DecoderCacheBuilder(@NotNull ClassName indexClass) {
+        this.indexClass = indexClass;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Add decoder interface, cache and methods to the index class
+     *
+     * @param classSpec Index class
+     */
+    void addTo(TypeSpec.@NotNull Builder classSpec) {
+        classSpec
+            .addType(decoderInterface())
+            .addType(cacheHolder())
+            .addMethod(getMethod())
+            .addMethod(evictMethod())
+            .addMethod(clearCacheMethod())
+            .addMethod(awaitMethod());
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate decoder interface with the default decoders
+     *
+     * @return Interface specification
+     */
+    private @NotNull TypeSpec decoderInterface() {
+        TypeVariableName typeVariable = TypeVariableName.get("T");
+        ClassName decoderClass = indexClass.nestedClass(DECODER_INTERFACE_NAME);
+
+        CodeBlock textDecoder = CodeBlock.builder()
+            .add("stream -> {\n").indent()
+            .addStatement("$T output = new $T()", ByteArrayOutputStream.class, ByteArrayOutputStream.class)
+            .addStatement("byte[] buffer = new byte[8192]")
+            .addStatement("for (int read; (read = stream.read(buffer)) != -1; ) output.write(buffer, 0, read)")
+            .addStatement("return new $T(output.toByteArray(), $T.UTF_8)", String.class, StandardCharsets.class)
+            .unindent().add("}")
+            .build();
+        CodeBlock propertiesDecoder = CodeBlock.builder()
+            .add("stream -> {\n").indent()
+            .addStatement("$T properties = new $T()", Properties.class, Properties.class)
+            .addStatement("properties.load(stream)")
+            .addStatement("return properties")
+            .unindent().add("}")
+            .build();
+
+        return TypeSpec.interfaceBuilder(DECODER_INTERFACE_NAME)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariable(typeVariable)
+            .addAnnotation(FunctionalInterface.class)
+            .addJavadoc("Converts resource content to a value. Instances are cache keys, keep them as constants.")
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(decoderClass, ClassName.get(String.class)), "TEXT")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("UTF-8 text decoder")
+                .initializer(textDecoder)
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(decoderClass, ClassName.get(Properties.class)), "PROPERTIES")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Properties decoder")
+                .initializer(propertiesDecoder)
+                .build())
+            .addMethod(MethodSpec.methodBuilder("decode")
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .returns(typeVariable)
+                .addParameter(InputStream.class, "stream")
+                .addException(IOException.class)
+                .build())
+            .build();
+    }
+
+    /**
+     * Generate lazy cache holder. Values are {@link SoftReference} instances or the
+     * {@link FutureTask} that is decoding them.
+     *
+     * @return Class specification
+     */
+    private @NotNull TypeSpec cacheHolder() {
+        TypeName decoderType = ParameterizedTypeName.get(
+            indexClass.nestedClass(DECODER_INTERFACE_NAME),
+            WildcardTypeName.subtypeOf(Object.class));
+        TypeName valuesType = ParameterizedTypeName.get(ConcurrentHashMap.class, Integer.class, Object.class);
+        TypeName cacheType = ParameterizedTypeName.get(ClassName.get(ConcurrentHashMap.class), decoderType, valuesType);
+        return TypeSpec.classBuilder(cacheHolderName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addField(FieldSpec.builder(cacheType, "values")
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>()", ConcurrentHashMap.class)
+                .build())
+            .build();
+    }
+
+    /**
+     * Generate {@code get(int, Decoder)} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getMethod() {
+        TypeVariableName typeVariable = TypeVariableName.get("T");
+        TypeName decoderType = ParameterizedTypeName.get(indexClass.nestedClass(DECODER_INTERFACE_NAME), typeVariable);
+        TypeName valuesType = ParameterizedTypeName.get(ConcurrentHashMap.class, Integer.class, Object.class);
+        TypeName taskType = ParameterizedTypeName.get(ClassName.get(FutureTask.class), typeVariable);
+        return MethodSpec.methodBuilder("get")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+            .addJavadoc("Get a decoded resource. The value is decoded once and cached until memory is needed.\n\n")
+            .addJavadoc("@param resourceId Resource id\n")
+            .addJavadoc("@param decoder    Decoder used as part of the cache key\n")
+            .addJavadoc("@return Decoded value\n")
+            .addTypeVariable(typeVariable)
+            .returns(typeVariable)
+            .addParameter(int.class, "resourceId")
+            .addParameter(decoderType, "decoder")
+            .addStatement("$T cache = $L.values.computeIfAbsent(decoder, key -> new $T<>())", valuesType, cacheHolderName, ConcurrentHashMap.class)
+            .beginControlFlow("while (true)")
+            .addStatement("$T current = cache.get(resourceId)", Object.class)
+            .beginControlFlow("if (current instanceof $T)", SoftReference.class)
+            .addStatement("$T value = (($T<?>) current).get()", Object.class, SoftReference.class)
+            .addStatement("if (value != null) return ($T) value", typeVariable)
+            .addComment("Collected value, decode it again")
+            .addStatement("cache.remove(resourceId, current)")
+            .addStatement("continue")
+            .endControlFlow()
+            .beginControlFlow("if (current instanceof $T)", FutureTask.class)
+            .addComment("Another thread is decoding the value")
+            .addStatement("return ($T) $L(($T<?>) current)", typeVariable, awaitName, FutureTask.class)
+            .endControlFlow()
+            .addCode("$T task = new $T<>(() -> {\n", taskType, FutureTask.class)
+            .addCode("$>")
+            .beginControlFlow("try ($T stream = getRegisteredResourceAsStream(resourceId))", InputStream.class)
+            .addStatement("if (stream == null) throw new $T($S + resourceId)", IOException.class, "Unable to open resource ")
+            .addStatement("return decoder.decode(stream)")
+            .endControlFlow()
+            .addCode("$<")
+            .addStatement("})")
+            .addStatement("if (cache.putIfAbsent(resourceId, task) != null) continue")
+            .addStatement("task.run()")
+            .beginControlFlow("try")
+            .addStatement("$T value = $L(task)", typeVariable, awaitName)
+            .addStatement("cache.replace(resourceId, task, new $T<>(value))", SoftReference.class)
+            .addStatement("return value")
+            .nextControlFlow("finally")
+            .addComment("Failed values are not cached, errors included. No effect once the value is stored.")
+            .addStatement("cache.remove(resourceId, task)")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * Generate {@code evict} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec evictMethod() {
+        return MethodSpec.methodBuilder("evict")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Remove all decoded values of a resource\n")
+            .addParameter(int.class, "resourceId")
+            .addStatement("$L.values.values().forEach(cache -> cache.remove(resourceId))", cacheHolderName)
+            .build();
+    }
+
+    /**
+     * Generate {@code clearCache} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec clearCacheMethod() {
+        return MethodSpec.methodBuilder("clearCache")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Remove all decoded values\n")
+            .addStatement("$L.values.clear()", cacheHolderName)
+            .build();
+    }
+
+    /**
+     * Generate the method that waits for a decoding task
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec awaitMethod() {
+        TypeVariableName typeVariable = TypeVariableName.get("T");
+        return MethodSpec.methodBuilder(awaitName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addTypeVariable(typeVariable)
+            .returns(typeVariable)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(FutureTask.class), typeVariable), "task")
+            .addStatement("boolean interrupted = false")
+            .beginControlFlow("try")
+            .beginControlFlow("while (true)")
+            .beginControlFlow("try")
+            .addStatement("return task.get()")
+            .nextControlFlow("catch ($T err)", InterruptedException.class)
+            .addStatement("interrupted = true")
+            .endControlFlow()
+            .endControlFlow()
+            .nextControlFlow("catch ($T err)", ExecutionException.class)
+            .addStatement("$T cause = err.getCause()", Throwable.class)
+            .addStatement("if (cause instanceof $T) throw new $T(($T) cause)", IOException.class, UncheckedIOException.class, IOException.class)
+            .addStatement("if (cause instanceof $T) throw ($T) cause", RuntimeException.class, RuntimeException.class)
+            .addStatement("if (cause instanceof $T) throw ($T) cause", Error.class, Error.class)
+            .addStatement("throw new $T(cause)", IllegalStateException.class)
+            .nextControlFlow("finally")
+            .addStatement("if (interrupted) $T.currentThread().interrupt()", Thread.class)
+            .endControlFlow()
+            .build();
+    }
+
+}
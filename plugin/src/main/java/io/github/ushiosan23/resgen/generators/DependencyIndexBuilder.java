@@ -0,0 +1,325 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.plugins.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.element.Modifier;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds the {@code Res.Dependencies} class. It indexes the resources of selected
+ * runtime dependencies and stores the artifact and the entry of each one,
+ * so the resources are opened directly instead of searching the whole classpath.
+ */
+public final class DependencyIndexBuilder {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generated class name
+     */
+    public static final String DEPENDENCIES_CLASS_NAME = "Dependencies";
+
+    /**
+     * Artifact files variable name
+     */
+    static final String artifactFilesName = "$artifactFiles$";
+
+    /**
+     * Resource artifact index variable name
+     */
+    static final String artifactIndexName = "$artifactTable$";
+
+    /**
+     * Resource entries variable name
+     */
+    static final String entriesName = "$entryTable$";
+
+    /**
+     * Lazy classpath holder class name
+     */
+    static final String classpathHolderName = "$Classpath$";
+
+    /**
+     * Current project
+     */
+    private final Project currentProject;
+
+    /**
+     * Current options plugins
+     */
+    private final ResourceGenerationOptions pluginOptions;
+
+    /**
+     * Index class generator, used to write the constants
+     */
+    private final BaseGenerator generator;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param generator Index class generator. Constants follow its stable abi configuration.
+     */
+    DependencyIndexBuilder(@NotNull BaseGenerator generator) {
+        this.generator = generator;
+        currentProject = generator.currentProject;
+        pluginOptions = generator.pluginOptions;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate dependencies class
+     *
+     * @return Class specification or {@code null} if no dependency is selected
+     *
+     * @throws IOException Error to read any artifact
+     */
+    public @Nullable TypeSpec build() throws IOException {
+        List<String> selectors = pluginOptions.getIndexedDependencies();
+        if (selectors.isEmpty()) return null;
+
+        // Sort artifacts by file name to keep the same order in every build
+        List<ResolvedArtifact> artifacts = new ArrayList<>(currentProject.getConfigurations()
+            .getByName(JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME)
+            .getResolvedConfiguration()
+            .getResolvedArtifacts());
+        artifacts.sort(Comparator.comparing(artifact -> artifact.getFile().getName()));
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(DEPENDENCIES_CLASS_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("Resources of the indexed runtime dependencies");
+        CodeBlock.Builder artifactFiles = CodeBlock.builder().add("{\n");
+        CodeBlock.Builder artifactIndexes = CodeBlock.builder().add("{\n");
+        CodeBlock.Builder entries = CodeBlock.builder().add("{\n");
+        Set<String> usedNames = new HashSet<>();
+        int artifactCounter = 0;
+        int resourceCounter = 0;
+
+        for (ResolvedArtifact artifact : artifacts) {
+            File artifactFile = artifact.getFile();
+            ModuleVersionIdentifier module = artifact.getModuleVersion().getId();
+            // Only selected jar files
+            if (!artifactFile.isFile() || !isSelected(module, selectors))
+                continue;
+            artifactFiles.add("$S,\n", artifactFile.getName());
+
+            for (String entry : listResources(artifactFile)) {
+                String constantName = PluginUtils.toIdentifier(module.getName() + "/" + entry);
+                // Avoid duplicated names
+                String uniqueName = constantName;
+                for (int i = 1; !usedNames.add(uniqueName); i++) {
+                    uniqueName = constantName + "$" + i;
+                }
+                builder.addField(FieldSpec.builder(int.class, uniqueName)
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                    .addJavadoc("$L ($L)", entry.replace("*/", "*&#47;"), module)
+                    .initializer(generator.constantInitializer("$L", resourceCounter++))
+                    .build());
+                artifactIndexes.add("$L, ", artifactCounter);
+                entries.add("$S,\n", entry);
+            }
+            artifactCounter++;
+        }
+
+        // Tables
+        builder
+            .addField(FieldSpec.builder(String[].class, artifactFilesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(artifactFiles.add("}").build())
+                .build())
+            .addField(FieldSpec.builder(int[].class, artifactIndexName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(artifactIndexes.add("\n}").build())
+                .build())
+            .addField(FieldSpec.builder(String[].class, entriesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(entries.add("}").build())
+                .build());
+
+        ClassName indexClass = ClassName.get(pluginOptions.getTargetPackage(), PluginUtils.OUTPUT_FILE_NAME);
+        boolean annotate = pluginOptions.getInjectDependencies();
+        return builder
+            .addType(generateClasspathHolder())
+            .addMethod(getRegisteredResourceMethod(
+                CodeBlock.of("$T.getResource($L[resourceId])", indexClass, entriesName),
+                annotate))
+            .addMethod(getRegisteredResourceAsStreamMethod(annotate))
+            .build();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Check if module is selected
+     *
+     * @param module    Module identifier
+     * @param selectors Dependency selectors
+     *
+     * @return Returns {@code true} if any selector matches the module
+     */
+    private static boolean isSelected(@NotNull ModuleVersionIdentifier module, @NotNull List<String> selectors) {
+        String fullName = module.getGroup() + ":" + module.getName();
+        for (String selector : selectors) {
+            if (selector.equals(fullName) || selector.equals(module.getName()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get all resources of an artifact. Classes and {@code META-INF} entries are ignored.
+     *
+     * @param artifactFile Artifact file
+     *
+     * @return Sorted entry names
+     *
+     * @throws IOException Error to read the artifact
+     */
+    private static @NotNull List<String> listResources(@NotNull File artifactFile) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(artifactFile)) {
+            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry entry = zipEntries.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory() || name.endsWith(".class") || name.startsWith("META-INF/"))
+                    continue;
+                result.add(name);
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Generate lazy classpath holder. The classpath is read only once.
+     *
+     * @return Class specification
+     */
+    static @NotNull TypeSpec generateClasspathHolder() {
+        TypeName mapType = ParameterizedTypeName.get(Map.class, String.class, String.class);
+        MethodSpec scanMethod = MethodSpec.methodBuilder("scan")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(mapType)
+            .addStatement("$T result = new $T<>()", mapType, HashMap.class)
+            .beginControlFlow(
+                "for ($T element : $T.getProperty($S, $S).split($T.pathSeparator))",
+                String.class,
+                System.class,
+                "java.class.path",
+                "",
+                File.class)
+            .addStatement("if (element.isEmpty()) continue")
+            .addStatement("$T location = $T.get(element)", Path.class, Paths.class)
+            .addStatement("$T fileName = location.getFileName()", Path.class)
+            .addStatement("if (fileName != null) result.putIfAbsent(fileName.toString(), location.toUri().toString())")
+            .endControlFlow()
+            .addStatement("return result")
+            .build();
+
+        return TypeSpec.classBuilder(classpathHolderName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addField(FieldSpec.builder(mapType, "locations")
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .initializer("scan()")
+                .build())
+            .addMethod(scanMethod)
+            .build();
+    }
+
+    /**
+     * Generate {@code getRegisteredResource} method spec.
+     * Resources are resolved from the artifact tables.
+     *
+     * @param fallback Lookup used when the artifact is not a classpath element
+     * @param annotate Add nullability annotations
+     *
+     * @return method spec instance
+     */
+    static @NotNull MethodSpec getRegisteredResourceMethod(@NotNull CodeBlock fallback, boolean annotate) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getRegisteredResource")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(URL.class);
+        // Check if configuration contains injected dependencies
+        if (annotate) {
+            builder.addAnnotation(Nullable.class);
+        }
+        return builder
+            .addParameter(int.class, "resourceId")
+            .beginControlFlow("if (resourceId < 0 || resourceId >= $L.length)", entriesName)
+            .addStatement(
+                "throw new $T($S + resourceId + $S)",
+                IndexOutOfBoundsException.class,
+                "Resource ",
+                " not found")
+            .endControlFlow()
+            .addStatement(
+                "$T artifact = $L.locations.get($L[$L[resourceId]])",
+                String.class,
+                classpathHolderName,
+                artifactFilesName,
+                artifactIndexName)
+            .addComment("Artifact is not a classpath element (fat jars, custom loaders)")
+            .addStatement("if (artifact == null) return $L", fallback)
+            .beginControlFlow("try")
+            .addStatement("return new $T($S + artifact + $S + $L[resourceId])", URL.class, "jar:", "!/", entriesName)
+            .nextControlFlow("catch ($T err)", MalformedURLException.class)
+            .addStatement("throw new $T(err)", IllegalStateException.class)
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * Generate {@code getRegisteredResourceAsStream} method spec
+     *
+     * @param annotate Add nullability annotations
+     *
+     * @return method spec instance
+     */
+    static @NotNull MethodSpec getRegisteredResourceAsStreamMethod(boolean annotate) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getRegisteredResourceAsStream")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(InputStream.class);
+        // Check if configuration contains injected dependencies
+        if (annotate) {
+            builder.addAnnotation(Nullable.class);
+        }
+        return builder
+            .addParameter(int.class, "resourceId")
+            .addStatement("$T url = getRegisteredResource(resourceId)", URL.class)
+            .beginControlFlow("try")
+            .addStatement("return url == null ? null : url.openStream()")
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("return null")
+            .endControlFlow()
+            .build();
+    }
+
+}
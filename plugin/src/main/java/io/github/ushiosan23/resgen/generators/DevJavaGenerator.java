@@ -0,0 +1,521 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.DevIndex;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceIdStore;
+import org.gradle.api.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+/**
+ * Development java generator. The generated class reads the resource table from the
+ * development index file and reloads it when the file changes, so resources added while
+ * the application is running are available without a restart.
+ * Resources are resolved from the resource directories before the class loader.
+ * <p>
+ * The lookup and listing methods of the production class ({@code idOf}, {@code list}, {@code idsUnder},
+ * {@code idAt}) are backed by the reloaded table. Positions returned by {@code list} belong to the
+ * table that was current when it was called.
+ */
+public final class DevJavaGenerator extends BaseGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Minimum time between two index file checks
+     */
+    private static final long RELOAD_CHECK_NANOS = 250_000_000L;
+
+    /**
+     * Class loader variable name
+     */
+    private static final String classLoaderName = "$systemClassLoader$";
+
+    /**
+     * Index file variable name
+     */
+    private static final String indexFileName = "$devIndexFile$";
+
+    /**
+     * Table variable name
+     */
+    private static final String tableName = "$devTable$";
+
+    /**
+     * Resource ids by location variable name
+     */
+    private static final String idsName = "$devIds$";
+
+    /**
+     * Sorted locations variable name
+     */
+    private static final String sortedLocationsName = "$devSortedLocations$";
+
+    /**
+     * Resource id of each sorted location variable name
+     */
+    private static final String sortedIdsName = "$devSortedIds$";
+
+    /**
+     * Resource directories variable name
+     */
+    private static final String rootsName = "$devRoots$";
+
+    /**
+     * Index file modification variable name
+     */
+    private static final String lastModifiedName = "$devLastModified$";
+
+    /**
+     * Last check time variable name
+     */
+    private static final String lastCheckName = "$devLastCheck$";
+
+    /**
+     * Current table method name
+     */
+    private static final String currentTableName = "$devCurrentTable$";
+
+    /**
+     * Reload method name
+     */
+    private static final String reloadName = "$devReload$";
+
+    /**
+     * Location unescape method name
+     */
+    private static final String unescapeName = "$devUnescape$";
+
+    /**
+     * System property that replaces the index file of the build
+     */
+    public static final String INDEX_PROPERTY_PREFIX = "resgen.devIndex.";
+
+    /**
+     * Output file location
+     */
+    private final Path outputJavaFile;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor generator
+     *
+     * @param project Target project
+     * @param options Project options
+     */
+    public DevJavaGenerator(Project project, ResourceGenerationOptions options) {
+        super(project, options);
+        // Initialize properties
+        outputJavaFile = PluginUtils.resolveJavaPath(currentProject);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public void generate() throws IOException {
+        // Development mode always keeps ids, compiled constants must stay valid after a reload
+        ResourceIdStore idStore = Objects.requireNonNull(loadIdStore());
+        DevIndex index = new DevIndex(
+            getResourceDirectories(),
+            Set.of(PluginUtils.resolvePropertiesPath(currentProject)),
+            resourceFilter);
+        index.scan();
+
+        TypeSpec.Builder classSpec = generateIndexClass(classLoaderName);
+        for (String location : index.getLocations()) {
+            classSpec.addField(FieldSpec.builder(int.class, PluginUtils.toIdentifier(location))
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", location)
+                .initializer(constantInitializer("$L", idStore.idOf(location)))
+                .build());
+        }
+
+        // Reload state
+        Path indexFile = PluginUtils.resolveDevIndexPath(currentProject);
+        classSpec
+            .addField(FieldSpec.builder(String.class, indexFileName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.getProperty($S, $S)",
+                    System.class,
+                    INDEX_PROPERTY_PREFIX + pluginOptions.getTargetPackage(),
+                    indexFile.toAbsolutePath().toString())
+                .build())
+            .addField(FieldSpec.builder(String[].class, tableName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .initializer("new $T[0]", String.class)
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(Map.class, String.class, Integer.class), idsName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .initializer("$T.emptyMap()", Collections.class)
+                .build())
+            .addField(FieldSpec.builder(String[].class, sortedLocationsName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .initializer("new $T[0]", String.class)
+                .build())
+            .addField(FieldSpec.builder(int[].class, sortedIdsName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .initializer("new int[0]")
+                .build())
+            .addField(FieldSpec.builder(String[].class, rootsName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .initializer("new $T[0]", String.class)
+                .build())
+            .addField(FieldSpec.builder(FileTime.class, lastModifiedName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .build())
+            .addField(FieldSpec.builder(long.class, lastCheckName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+                .build());
+
+        // Methods
+        CodeBlock tableStatement = CodeBlock.of("$T[] table = $L()", String.class, currentTableName);
+        classSpec
+            .addMethod(currentTableMethod())
+            .addMethod(reloadMethod())
+            .addMethod(unescapeMethod())
+            .addMethod(getDevResourceMethod())
+            .addMethod(getDevResourceAsStreamMethod())
+            .addMethod(getRegisteredResourceMethod("table", tableStatement))
+            .addMethod(getRegisteredResourceAsStreamMethod("table", tableStatement))
+            .addMethod(idOfMethod())
+            .addMethod(idAtMethod())
+            .addMethod(RangeIndexBuilder.rangeStartMethod())
+            .addMethod(RangeIndexBuilder.rangeEndMethod())
+            .addMethod(listMethod())
+            .addMethod(idsUnderMethod());
+        addDecoderCache(classSpec);
+        addDependencyIndex(classSpec);
+
+        // Generate java file
+        JavaFile outFile = JavaFile.builder(pluginOptions.getTargetPackage(), classSpec.build())
+            .indent("\t")
+            .build();
+        // Write result
+        outFile.writeTo(outputJavaFile);
+        index.write(indexFile, idStore);
+        idStore.save();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate the method that returns the current table
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec currentTableMethod() {
+        return MethodSpec.methodBuilder(currentTableName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String[].class)
+            .beginControlFlow(
+                "if ($L == null || $T.nanoTime() - $L >= $LL)",
+                lastModifiedName,
+                System.class,
+                lastCheckName,
+                RELOAD_CHECK_NANOS)
+            .addStatement("$L()", reloadName)
+            .endControlFlow()
+            .addStatement("return $L", tableName)
+            .build();
+    }
+
+    /**
+     * Generate the method that reloads the index file. The new table replaces the old one at once,
+     * with the id map and the sorted locations derived from it.
+     * <p>
+     * A failed read is remembered with a modification time that no file has, so the next attempt waits
+     * for the check interval. The first failure is thrown, later ones keep the previous table.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec reloadMethod() {
+        TypeName listType = ParameterizedTypeName.get(List.class, String.class);
+        TypeName mapType = ParameterizedTypeName.get(Map.class, String.class, Integer.class);
+        // Decoded values may belong to changed resources
+        CodeBlock clearCacheStatement = pluginOptions.getDecoderCache() ?
+            CodeBlock.of("clearCache();\n") :
+            CodeBlock.of("");
+        return MethodSpec.methodBuilder(reloadName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.SYNCHRONIZED)
+            .addStatement("$L = $T.nanoTime()", lastCheckName, System.class)
+            .beginControlFlow("try")
+            .addStatement("$T file = $T.get($L)", Path.class, Paths.class, indexFileName)
+            .addStatement("$T modified = $T.getLastModifiedTime(file)", FileTime.class, Files.class)
+            .addStatement("if (modified.equals($L)) return", lastModifiedName)
+            .addStatement("$T roots = new $T<>()", listType, ArrayList.class)
+            .addStatement("$T table = new $T<>()", listType, ArrayList.class)
+            .beginControlFlow("for ($T line : $T.readAllLines(file, $T.UTF_8))", String.class, Files.class, StandardCharsets.class)
+            .beginControlFlow("if (line.startsWith($S))", DevIndex.ROOT_HEADER)
+            .addStatement("roots.add(line.substring($L))", DevIndex.ROOT_HEADER.length())
+            .addStatement("continue")
+            .endControlFlow()
+            .addStatement("int separator = line.indexOf('\\t')")
+            .addStatement("if (separator == -1) continue")
+            .addStatement("int id = $T.parseInt(line.substring(0, separator))", Integer.class)
+            .addStatement("while (table.size() <= id) table.add(null)")
+            .addStatement("table.set(id, $L(line.substring(separator + 1)))", unescapeName)
+            .endControlFlow()
+            .addStatement("$T[] newTable = table.toArray(new $T[0])", String.class, String.class)
+            .addStatement("$T ids = new $T<>()", mapType, HashMap.class)
+            .beginControlFlow("for (int id = 0; id < newTable.length; id++)")
+            .addStatement("if (newTable[id] != null) ids.put(newTable[id], id)")
+            .endControlFlow()
+            .addStatement("$T[] sortedLocations = ids.keySet().toArray(new $T[0])", String.class, String.class)
+            .addStatement("$T.sort(sortedLocations)", Arrays.class)
+            .addStatement("int[] sortedIds = new int[sortedLocations.length]")
+            .addStatement("for (int i = 0; i < sortedIds.length; i++) sortedIds[i] = ids.get(sortedLocations[i])")
+            .addStatement("$L = roots.toArray(new $T[0])", rootsName, String.class)
+            .addStatement("$L = ids", idsName)
+            .addStatement("$L = sortedLocations", sortedLocationsName)
+            .addStatement("$L = sortedIds", sortedIdsName)
+            .addStatement("$L = newTable", tableName)
+            .addStatement("$L = modified", lastModifiedName)
+            .addCode(clearCacheStatement)
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("boolean firstLoad = $L == null", lastModifiedName)
+            .addStatement("$L = $T.fromMillis($T.MIN_VALUE)", lastModifiedName, FileTime.class, Long.class)
+            .addStatement(
+                "if (firstLoad) throw new $T($S + $L, err)",
+                UncheckedIOException.class,
+                "Development index cannot be read: ",
+                indexFileName)
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * Generate the method that restores a location escaped by {@link PluginUtils#escapeLocation(String)}
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec unescapeMethod() {
+        return MethodSpec.methodBuilder(unescapeName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(String.class, "text")
+            .addException(IOException.class)
+            .addStatement("if (text.indexOf('\\\\') == -1) return text")
+            .addStatement("$T builder = new $T(text.length())", StringBuilder.class, StringBuilder.class)
+            .beginControlFlow("for (int i = 0; i < text.length(); i++)")
+            .addStatement("char value = text.charAt(i)")
+            .beginControlFlow("if (value != '\\\\')")
+            .addStatement("builder.append(value)")
+            .addStatement("continue")
+            .endControlFlow()
+            .addStatement("if (++i == text.length()) throw new $T($S + text)", IOException.class, "Invalid resource location: ")
+            .addStatement("value = text.charAt(i)")
+            .beginControlFlow("if (value == 'n')")
+            .addStatement("builder.append('\\n')")
+            .nextControlFlow("else if (value == 'r')")
+            .addStatement("builder.append('\\r')")
+            .nextControlFlow("else if (value == '\\\\' || value == '#')")
+            .addStatement("builder.append(value)")
+            .nextControlFlow("else")
+            .addStatement("throw new $T($S + text)", IOException.class, "Invalid resource location: ")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return builder.toString()")
+            .build();
+    }
+
+    /**
+     * Create a location parameter
+     *
+     * @param name Parameter name
+     *
+     * @return parameter spec instance
+     */
+    private @NotNull ParameterSpec stringParameter(@NotNull String name) {
+        ParameterSpec.Builder builder = ParameterSpec.builder(String.class, name);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            builder.addAnnotation(NotNull.class);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Generate {@code idOf} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec idOfMethod() {
+        return MethodSpec.methodBuilder("idOf")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get the id of a registered resource\n\n")
+            .addJavadoc("@param location Resource location\n")
+            .addJavadoc("@return Resource id or {@code -1} if the resource is not registered\n")
+            .returns(int.class)
+            .addParameter(stringParameter("location"))
+            .addStatement("$L()", currentTableName)
+            .addStatement("$T id = $L.get(location)", Integer.class, idsName)
+            .addStatement("return id == null ? -1 : id")
+            .build();
+    }
+
+    /**
+     * Generate {@code idAt} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec idAtMethod() {
+        return MethodSpec.methodBuilder("idAt")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get the resource id at a position of a range\n\n")
+            .addJavadoc("@param position Position between {@code rangeStart} and {@code rangeEnd}\n")
+            .addJavadoc("@return Resource id\n")
+            .returns(int.class)
+            .addParameter(int.class, "position")
+            .addStatement("return $L[position]", sortedIdsName)
+            .build();
+    }
+
+    /**
+     * Generate {@code list} method spec. Same binary searches as the production class, on the current table.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec listMethod() {
+        return MethodSpec.methodBuilder("list")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get all resources whose location starts with the prefix\n\n")
+            .addJavadoc("@param prefix Location prefix\n")
+            .addJavadoc("@return Packed range, use {@code rangeStart}, {@code rangeEnd} and {@code idAt}\n")
+            .returns(long.class)
+            .addParameter(stringParameter("prefix"))
+            .addStatement("$L()", currentTableName)
+            .addStatement("$T[] sorted = $L", String.class, sortedLocationsName)
+            .addStatement("int low = 0")
+            .addStatement("int high = sorted.length")
+            .addComment("First location not lower than the prefix")
+            .beginControlFlow("while (low < high)")
+            .addStatement("int middle = (low + high) >>> 1")
+            .addStatement("if (sorted[middle].compareTo(prefix) < 0) low = middle + 1")
+            .addStatement("else high = middle")
+            .endControlFlow()
+            .addStatement("int start = low")
+            .addStatement("high = sorted.length")
+            .addComment("First location that does not start with the prefix")
+            .beginControlFlow("while (low < high)")
+            .addStatement("int middle = (low + high) >>> 1")
+            .addStatement("if (sorted[middle].startsWith(prefix)) low = middle + 1")
+            .addStatement("else high = middle")
+            .endControlFlow()
+            .addStatement("return ((long) start << 32) | low")
+            .build();
+    }
+
+    /**
+     * Generate {@code idsUnder} method spec. Directories are not precomputed, so it lists the directory prefix.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec idsUnderMethod() {
+        return MethodSpec.methodBuilder("idsUnder")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get all resources inside a directory and its subdirectories\n\n")
+            .addJavadoc("@param directory Directory location, with or without the trailing slash\n")
+            .addJavadoc("@return Packed range, empty if the directory does not exist\n")
+            .returns(long.class)
+            .addParameter(stringParameter("directory"))
+            .addStatement("if (directory.isEmpty() || directory.equals($S)) return list($S)", "/", "")
+            .addStatement("return list(directory.endsWith($S) ? directory : directory + $S)", "/", "/")
+            .build();
+    }
+
+    /**
+     * Generate {@code getResource} method spec. Resource directories are checked before the class loader.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getDevResourceMethod() {
+        ParameterSpec.Builder locationParam = ParameterSpec.builder(String.class, "location");
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getResource")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(URL.class);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            builder.addAnnotation(Nullable.class);
+            locationParam.addAnnotation(NotNull.class);
+        }
+        return builder
+            .addParameter(locationParam.build())
+            .addStatement("$L()", currentTableName)
+            .beginControlFlow("for ($T root : $L)", String.class, rootsName)
+            .addStatement("$T file = $T.get(root, location)", Path.class, Paths.class)
+            .addStatement("if (!$T.isRegularFile(file)) continue", Files.class)
+            .beginControlFlow("try")
+            .addStatement("return file.toUri().toURL()")
+            .nextControlFlow("catch ($T ignored)", MalformedURLException.class)
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return $L.getResource(location)", classLoaderName)
+            .build();
+    }
+
+    /**
+     * Generate {@code getResourceAsStream} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getDevResourceAsStreamMethod() {
+        ParameterSpec.Builder locationParam = ParameterSpec.builder(String.class, "location");
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getResourceAsStream")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(InputStream.class);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            builder.addAnnotation(Nullable.class);
+            locationParam.addAnnotation(NotNull.class);
+        }
+        return builder
+            .addParameter(locationParam.build())
+            .addStatement("$T url = getResource(location)", URL.class)
+            .beginControlFlow("try")
+            .addStatement("return url == null ? null : url.openStream()")
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("return null")
+            .endControlFlow()
+            .build();
+    }
+
+}
@@ -3,23 +3,19 @@ package io.github.ushiosan23.resgen.generators;
 import com.squareup.javapoet.*;
 import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
 import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceFilter;
+import io.github.ushiosan23.resgen.utils.ResourceFingerprints;
+import io.github.ushiosan23.resgen.utils.ResourceIdStore;
+import org.gradle.api.GradleException;
 import org.gradle.api.Project;
-import org.gradle.api.file.SourceDirectorySet;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.lang.model.element.Modifier;
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.Locale;
-import java.util.Objects;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.*;
 
 public final class JavaGenerator extends BaseGenerator {
 
@@ -27,25 +23,6 @@ public final class JavaGenerator extends BaseGenerator {
      * Properties
      * ------------------------------------------------------------------ */
 
-    /**
-     * Used to check if constant starts with number
-     */
-    private static final Pattern startConstantPattern = Pattern.compile("^\\d");
-
-    /**
-     * All java reserved words
-     */
-    private static final String[] javaReservedWords = new String[]{
-            "abstract", "assert", "boolean", "break", "byte", "case",
-            "catch", "char", "class", "const", "continue", "default",
-            "double", "do", "else", "enum", "extends", "false", "final",
-            "finally", "float", "for", "goto", "if", "implements", "import",
-            "instanceof", "int", "interface", "long", "native", "new",
-            "null", "package", "private", "protected", "public", "return",
-            "short", "static", "strictfp", "super", "switch", "synchronized",
-            "this", "throw", "throws", "transient", "true", "try", "void", "volatile", "while"
-    };
-
     /**
      * Output file location
      */
@@ -61,11 +38,32 @@ public final class JavaGenerator extends BaseGenerator {
      */
     private static final String magicArrayName = "$magicArrayContent$";
 
+    /**
+     * Name lookup table variable name
+     */
+    private static final String lookupTableName = "$lookupTable$";
+
+    /**
+     * Fingerprinted names variable name. It has an uppercase letter, like every internal field,
+     * because resource constants are lowercase and may contain {@code $}.
+     */
+    private static final String fingerprintsName = "$fingerprintTable$";
+
     /**
      * Counter used to generate resources
      */
     private volatile long resourceCounter = 0;
 
+    /**
+     * Persisted resource ids. {@code null} if stable ids are disabled.
+     */
+    private ResourceIdStore idStore;
+
+    /**
+     * Bytecode constants and tables. {@code null} if bytecode ids are disabled.
+     */
+    private BytecodeTables bytecodeTables;
+
     /* ------------------------------------------------------------------
      * Constructors
      * ------------------------------------------------------------------ */
@@ -103,48 +101,89 @@ public final class JavaGenerator extends BaseGenerator {
      */
     @Override
     public synchronized void generate() throws IOException {
-        // Walk resources directory
-        SourceDirectorySet resourceDirSet = PluginUtils.getResourcesSourceSet(currentProject);
-        List<Path> resourceDirs = resourceDirSet.getSrcDirs()
-                .stream()
-                .map(File::toPath)
-                .toList();
-
-        TypeSpec.Builder classSpec = generateBaseClass();
-        CodeBlock.Builder elementsContent = CodeBlock.builder()
-                .add("new $T {\n", String[].class);
+        TypeSpec.Builder classSpec = generateIndexClass(classLoaderName);
+        Map<Long, String> tableContent = new TreeMap<>();
+        resourceCounter = 0;
+        idStore = loadIdStore();
+        bytecodeTables = createBytecodeTables();
+
+        // Sorted locations, so every directory is a contiguous range
+        SortedMap<String, Long> locations = getResourceIndex().getSizes();
 
         // Generate file storage
-        for (Path baseDir : resourceDirs) {
-            // Check if exists
-            if (!Files.exists(baseDir))
-                continue;
-            // Walk each directory
-            try (Stream<Path> walker = Files.walk(baseDir)) {
-                // Filter all results
-                walker
-                        .filter(Files::isRegularFile)
-                        .filter(p -> !p.toString().equals(outputJavaFile.toString()))
-                        .forEachOrdered(p -> {
-                            insertEachPathContent(baseDir, p, elementsContent);
-                            insertEachPathConstant(baseDir, p, classSpec);
-                        });
-            }
+        ResourceFilter offHeapFilter = new ResourceFilter(pluginOptions.getOffHeapResources(), List.of());
+        SortedMap<Long, Long> offHeapSizes = new TreeMap<>();
+        ResourceFilter linesFilter = new ResourceFilter(pluginOptions.getLineIndexedResources(), List.of());
+        SortedSet<Long> lineIndexedIds = new TreeSet<>();
+        ResourceFilter storedFilter = new ResourceFilter(pluginOptions.getStoredResources(), List.of());
+        SortedSet<Long> storedIds = new TreeSet<>();
+        int[] sortedOrder = new int[locations.size()];
+        int position = 0;
+        for (Map.Entry<String, Long> entry : locations.entrySet()) {
+            long resourceId = insertEachPathConstant(entry.getKey(), classSpec, tableContent);
+            sortedOrder[position++] = (int) resourceId;
+            if (!pluginOptions.getOffHeapResources().isEmpty() && offHeapFilter.isIncluded(entry.getKey()))
+                offHeapSizes.put(resourceId, packagedSize(entry.getKey(), entry.getValue()));
+            if (!pluginOptions.getLineIndexedResources().isEmpty() && linesFilter.isIncluded(entry.getKey()))
+                lineIndexedIds.add(resourceId);
+            if (!pluginOptions.getStoredResources().isEmpty() && storedFilter.isIncluded(entry.getKey()))
+                storedIds.add(resourceId);
         }
 
         // Generate magic array
-        elementsContent.add("}");
+        long tableSize = idStore == null ? resourceCounter : idStore.size();
         FieldSpec.Builder arrayContentSpec = FieldSpec.builder(String[].class, magicArrayName)
                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
-                .initializer(elementsContent.build());
+                .initializer(generateTableContent(tableContent, tableSize));
         classSpec.addField(arrayContentSpec.build());
+        int[] lookupTable = generateLookupTable(tableContent);
+        classSpec.addField(FieldSpec.builder(int[].class, lookupTableName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(bytecodeTables == null ?
+                        TableLiterals.ints(lookupTable) :
+                        bytecodeTables.ints(lookupTableName, lookupTable))
+                .build());
 
-        // Attach methods
+        // Attach methods, registered resources may skip the class loader
+        boolean direct = pluginOptions.getDirectResolution() && !locations.isEmpty();
         classSpec
                 .addMethod(getResourceMethod(classLoaderName))
                 .addMethod(getResourceAsStreamMethod(classLoaderName))
-                .addMethod(getRegisteredResourceMethod())
-                .addMethod(getRegisteredResourceAsStreamMethod());
+                .addMethod(getRegisteredResourceMethod(magicArrayName, null,
+                        direct ? CodeSourceBuilder.delegate("getResource") : "getResource"))
+                .addMethod(getRegisteredResourceAsStreamMethod(magicArrayName, null,
+                        direct ? CodeSourceBuilder.delegate("getResourceAsStream") : "getResourceAsStream"))
+                .addMethod(idOfMethod());
+        if (direct) {
+            ClassName indexClass = ClassName.get(pluginOptions.getTargetPackage(), PluginUtils.OUTPUT_FILE_NAME);
+            classSpec.addType(new CodeSourceBuilder(indexClass, locations.firstKey()).build());
+        }
+        new RangeIndexBuilder(
+                new ArrayList<>(locations.keySet()),
+                idStore == null ? null : sortedOrder,
+                magicArrayName,
+                pluginOptions.getInjectDependencies(),
+                bytecodeTables
+        ).addTo(classSpec);
+        if (!pluginOptions.getFingerprintedResources().isEmpty()) {
+            addFingerprints(classSpec, tableContent, tableSize);
+        }
+        if (!offHeapSizes.isEmpty()) {
+            ClassName indexClass = ClassName.get(pluginOptions.getTargetPackage(), PluginUtils.OUTPUT_FILE_NAME);
+            classSpec.addType(new OffHeapArenaBuilder(offHeapSizes, indexClass).build());
+        }
+        if (!lineIndexedIds.isEmpty()) {
+            ClassName indexClass = ClassName.get(pluginOptions.getTargetPackage(), PluginUtils.OUTPUT_FILE_NAME);
+            classSpec.addType(new LineIndexBuilder(lineIndexedIds, indexClass, magicArrayName, !storedIds.isEmpty()).build());
+        }
+        if (!storedIds.isEmpty()) {
+            ClassName indexClass = ClassName.get(pluginOptions.getTargetPackage(), PluginUtils.OUTPUT_FILE_NAME);
+            classSpec.addType(new StoredResourcesBuilder(storedIds, indexClass, magicArrayName).build());
+        }
+        addDecoderCache(classSpec);
+        addDependencyIndex(classSpec);
+        if (bytecodeTables != null) bytecodeTables.addTo(classSpec);
+        else TableLiterals.addTo(classSpec);
 
         // Generate java file
         JavaFile outFile = JavaFile.builder(pluginOptions.getTargetPackage(), classSpec.build())
@@ -152,6 +191,15 @@ public final class JavaGenerator extends BaseGenerator {
                 .build();
         // Write result
         outFile.writeTo(outputJavaFile);
+        // Write constants and tables as bytecode, or remove the previous class files
+        Path classesDir = PluginUtils.resolveGeneratedClassesPath(currentProject);
+        if (bytecodeTables != null) {
+            bytecodeTables.write(classesDir, PluginUtils.resolveGeneratedStubsPath(currentProject));
+        } else {
+            BytecodeTables.deleteClasses(classesDir, pluginOptions.getTargetPackage());
+        }
+        // Persist assigned ids
+        if (idStore != null) idStore.save();
     }
 
     /* ------------------------------------------------------------------
@@ -159,161 +207,202 @@ public final class JavaGenerator extends BaseGenerator {
      * ------------------------------------------------------------------ */
 
     /**
-     * @param p       Target file path
-     * @param builder Target method spec
+     * Create bytecode tables if they are enabled
+     *
+     * @return Bytecode tables or {@code null} if bytecode ids are disabled
      */
-    @Contract(pure = true)
-    private synchronized void insertEachPathContent(@NotNull Path base, Path p, CodeBlock.@NotNull Builder builder) {
-        // Generate relative path
-        Path relative = base.relativize(p);
-        String relativeString = relative.toString()
-                .replace("\\", "/")
-                .replace("\\/", "/");
-        // Insert element to builder
-        String expression = (resourceCounter + 1) % 4 == 0 ? "$S, \n" : "$S, ";
-        builder.add(expression, relativeString);
+    private @Nullable BytecodeTables createBytecodeTables() {
+        if (!pluginOptions.getBytecodeIds()) return null;
+        // Interface constants are always inlined by the compiler
+        if (pluginOptions.getStableAbi())
+            throw new GradleException("bytecodeIds cannot be combined with stableAbi");
+        return new BytecodeTables(pluginOptions.getTargetPackage());
     }
 
     /**
-     * @param p       Target file path
-     * @param builder Target type spec
+     * Get the size of a resource inside the packaged jar. Minified copies replace the original files,
+     * so the arena layout matches the bytes read at runtime.
+     *
+     * @param location   Resource location
+     * @param sourceSize Size of the original file
+     *
+     * @return Packaged size in bytes
+     *
+     * @throws IOException Error to read the size of the minified copy
      */
-    private synchronized void insertEachPathConstant(@NotNull Path base, Path p, TypeSpec.@NotNull Builder builder) {
-        // Generate relative path
-        Path relative = base.relativize(p);
-        String relativeLocation = relative.toString()
-                .replace("\\", "/")
-                .replace("\\/", "/");
-        String constantName = relative.toString()
-                .replace(".", "_")
-                .replace("\\", "_")
-                .replace("/", "_")
-                .replaceAll("-", "__")
-                .replaceAll("\\s", "_")
-                .toLowerCase(Locale.ROOT);
-
-
-        if (startConstantPattern.matcher(constantName).find())
-            constantName = "$" + constantName;
-
-        // Check if constant name is a java reserved word
-        for (String reserved : javaReservedWords) {
-            if (constantName.equals(reserved)) {
-                constantName = "$" + constantName + "$";
-                break;
+    private long packagedSize(@NotNull String location, long sourceSize) throws IOException {
+        if (!pluginOptions.getMinifyResources()) return sourceSize;
+        Path minified = PluginUtils.resolveMinifiedResourcesPath(currentProject).resolve(location);
+        return Files.isRegularFile(minified) ? Files.size(minified) : sourceSize;
+    }
+
+    /**
+     * Add the fingerprinted name table and its accessor. Resources without fingerprint are stored as {@code null}.
+     *
+     * @param classSpec    Index class
+     * @param tableContent Locations sorted by id
+     * @param tableSize    Table size
+     *
+     * @throws IOException Error to read the fingerprints file
+     */
+    private void addFingerprints(
+            TypeSpec.@NotNull Builder classSpec,
+            @NotNull Map<Long, String> tableContent,
+            long tableSize) throws IOException {
+        Map<String, String> names = ResourceFingerprints.read(PluginUtils.resolveFingerprintsPath(currentProject))
+                .getNames();
+        List<String> values = new ArrayList<>();
+        for (long id = 0; id < tableSize; id++) {
+            String location = tableContent.get(id);
+            values.add(location == null ? null : names.get(location));
+        }
+        CodeBlock initializer;
+        if (bytecodeTables != null) {
+            initializer = bytecodeTables.strings(fingerprintsName, values);
+        } else {
+            CodeBlock.Builder builder = CodeBlock.builder().add("new $T {\n", String[].class);
+            for (int i = 0; i < values.size(); i++) {
+                builder.add((i + 1) % 4 == 0 ? "$S, \n" : "$S, ", values.get(i));
             }
+            initializer = builder.add("}").build();
+        }
+        MethodSpec.Builder method = MethodSpec.methodBuilder("getFingerprintedLocation")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Get the content addressed location of a registered resource.\n")
+                .addJavadoc("It changes only when the content changes, so it can be cached forever.\n\n")
+                .addJavadoc("@param resourceId Resource id\n")
+                .addJavadoc("@return Fingerprinted location or the location if the resource is not fingerprinted\n")
+                .addJavadoc("@throws IndexOutOfBoundsException If the resource is not registered\n")
+                .returns(String.class)
+                .addParameter(int.class, "resourceId")
+                // Same check as the registered resource methods
+                .addStatement("resourceId = $T.abs(resourceId)", Math.class)
+                .beginControlFlow("if (resourceId >= $L.length || $L[resourceId] == null)", magicArrayName, magicArrayName)
+                .addStatement("throw new $T($S + resourceId + $S)", IndexOutOfBoundsException.class, "Resource ", " not found")
+                .endControlFlow()
+                .addStatement("$T result = $L[resourceId]", String.class, fingerprintsName)
+                .addStatement("return result == null ? $L[resourceId] : result", magicArrayName);
+        if (pluginOptions.getInjectDependencies()) method.addAnnotation(NotNull.class);
+        classSpec
+                .addField(FieldSpec.builder(String[].class, fingerprintsName)
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(initializer)
+                        .build())
+                .addMethod(method.build());
+    }
+
+    /**
+     * Generate table initializer. Unused ids are stored as {@code null}.
+     *
+     * @param tableContent Locations sorted by id
+     * @param tableSize    Table size
+     *
+     * @return Table initializer
+     */
+    private @NotNull CodeBlock generateTableContent(@NotNull Map<Long, String> tableContent, long tableSize) {
+        if (bytecodeTables != null) {
+            List<String> values = new ArrayList<>();
+            for (long id = 0; id < tableSize; id++) values.add(tableContent.get(id));
+            return bytecodeTables.strings(magicArrayName, values);
+        }
+        CodeBlock.Builder builder = CodeBlock.builder()
+                .add("new $T {\n", String[].class);
+        for (long id = 0; id < tableSize; id++) {
+            // Insert element to builder
+            String expression = (id + 1) % 4 == 0 ? "$S, \n" : "$S, ";
+            builder.add(expression, tableContent.get(id));
         }
+        return builder.add("}").build();
+    }
 
-        // Generate constant content
-        FieldSpec.Builder constant = FieldSpec.builder(int.class, constantName)
-                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
-                .addJavadoc("$L", relativeLocation)
-                .initializer("$L", resourceCounter++);
-        // Insert constant to type spec
-        builder.addField(constant.build());
+    /**
+     * Mix the string hash. The generated class uses the same function.
+     *
+     * @param location Resource location
+     *
+     * @return Mixed hash
+     */
+    private static int lookupHash(@NotNull String location) {
+        int hash = location.hashCode();
+        return hash ^ (hash >>> 16);
     }
 
     /**
-     * Get base class spec
+     * Generate the open addressing table used by {@code idOf}.
+     * Each slot stores {@code id + 1}, {@code 0} marks an empty slot.
+     * The table is at least twice the number of resources, so probe sequences stay short.
+     *
+     * @param tableContent Locations sorted by id
      *
-     * @return Returns base class specifications
+     * @return Table slots
      */
-    private TypeSpec.@NotNull Builder generateBaseClass() {
-        // Generate base class name
-        return TypeSpec
-                .classBuilder(PluginUtils.OUTPUT_FILE_NAME)
-                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-                .addJavadoc(CodeBlock.builder()
-                        .add("Do not edit this file.\n")
-                        .add("This file is generated automatically and if it is edited it may stop working correctly.")
-                        .build())
-                .addField(
-                        FieldSpec.builder(ClassLoader.class, classLoaderName)
-                                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
-                                .addJavadoc("Current application context loader")
-                                .initializer("$T.getSystemClassLoader()", ClassLoader.class)
-                                .build()
-                );
+    private int @NotNull [] generateLookupTable(@NotNull Map<Long, String> tableContent) {
+        int capacity = Integer.highestOneBit(Math.max(2, tableContent.size() * 2 - 1)) << 1;
+        int mask = capacity - 1;
+        int[] slots = new int[capacity];
+        for (Map.Entry<Long, String> entry : tableContent.entrySet()) {
+            int slot = lookupHash(entry.getValue()) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = (int) (entry.getKey() + 1);
+        }
+        return slots;
     }
 
     /**
-     * Generate {@code getRegisteredResource} method spec
+     * Generate {@code idOf} method spec. Lookup does not allocate, the string hash is cached by the string itself.
      *
      * @return method spec instance
      */
-    private @NotNull MethodSpec getRegisteredResourceMethod() {
-        // Generate builders
-        ParameterSpec.Builder resourceIdParam = ParameterSpec.builder(int.class, "resourceId");
-        MethodSpec.Builder builder = MethodSpec.methodBuilder("getRegisteredResource")
-                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
-                .returns(URL.class);
+    private @NotNull MethodSpec idOfMethod() {
+        ParameterSpec.Builder locationParam = ParameterSpec.builder(String.class, "location");
         // Check if configuration contains injected dependencies
         if (pluginOptions.getInjectDependencies()) {
-            builder.addAnnotation(NotNull.class);
+            locationParam.addAnnotation(NotNull.class);
         }
-        // Add parameters
-        builder.addParameter(resourceIdParam.build());
-        // Add logic
-        builder
-                .addStatement("resourceId = $T.abs(resourceId)", Math.class)
-                .beginControlFlow("if (resourceId > $L.length) ", magicArrayName)
-                .addStatement(
-                        "throw new $T($S + $L + $S)",
-                        IndexOutOfBoundsException.class,
-                        "Resource ",
-                        "resourceId",
-                        " not found")
+        return MethodSpec.methodBuilder("idOf")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addJavadoc("Get the id of a registered resource\n\n")
+                .addJavadoc("@param location Resource location\n")
+                .addJavadoc("@return Resource id or {@code -1} if the resource is not registered\n")
+                .returns(int.class)
+                .addParameter(locationParam.build())
+                .addStatement("int hash = location.hashCode()")
+                .addStatement("int mask = $L.length - 1", lookupTableName)
+                .addStatement("int slot = (hash ^ (hash >>> 16)) & mask")
+                .beginControlFlow("for (int entry; (entry = $L[slot]) != 0; slot = (slot + 1) & mask)", lookupTableName)
+                .addStatement("if (location.equals($L[entry - 1])) return entry - 1", magicArrayName)
                 .endControlFlow()
-                .addStatement("$T res = getResource($L[resourceId])", URL.class, magicArrayName)
-                .addStatement(
-                        "$T.requireNonNull(res, $S + $L[resourceId] + $S)",
-                        Objects.class,
-                        "Resource ",
-                        magicArrayName,
-                        " not found")
-                .addStatement("return res");
-        //Generate methodSpec
-        return builder.build();
+                .addStatement("return -1")
+                .build();
     }
 
     /**
-     * Generate {@code getRegisteredResourceAsStream} method spec
+     * @param relativeLocation Resource location
+     * @param builder          Target type spec
+     * @param tableContent     Table content by id
      *
-     * @return method spec instance
+     * @return Assigned resource id
      */
-    private @NotNull MethodSpec getRegisteredResourceAsStreamMethod() {
-        // Generate builders
-        ParameterSpec.Builder resourceIdParam = ParameterSpec.builder(int.class, "resourceId");
-        MethodSpec.Builder builder = MethodSpec.methodBuilder("getRegisteredResourceAsStream")
-                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
-                .returns(InputStream.class);
-        // Check if configuration contains injected dependencies
-        if (pluginOptions.getInjectDependencies()) {
-            builder.addAnnotation(NotNull.class);
+    private synchronized long insertEachPathConstant(
+            @NotNull String relativeLocation,
+            TypeSpec.@NotNull Builder builder,
+            @NotNull Map<Long, String> tableContent) {
+        String constantName = PluginUtils.toIdentifier(relativeLocation);
+        long resourceId = idStore == null ? resourceCounter++ : idStore.idOf(relativeLocation);
+        tableContent.put(resourceId, relativeLocation);
+        if (bytecodeTables != null) {
+            bytecodeTables.addConstant(constantName, (int) resourceId, relativeLocation);
+            return resourceId;
         }
-        // Add parameters
-        builder.addParameter(resourceIdParam.build());
-        // Add logic
-        builder
-                .addStatement("resourceId = $T.abs(resourceId)", Math.class)
-                .beginControlFlow("if (resourceId > $L.length) ", magicArrayName)
-                .addStatement(
-                        "throw new $T($S + $L + $S)",
-                        IndexOutOfBoundsException.class,
-                        "Resource ",
-                        "resourceId",
-                        " not found")
-                .endControlFlow()
-                .addStatement("$T res = getResourceAsStream($L[resourceId])", InputStream.class, magicArrayName)
-                .addStatement(
-                        "$T.requireNonNull(res, $S + $L[resourceId] + $S)",
-                        Objects.class,
-                        "Resource ",
-                        magicArrayName,
-                        " not found")
-                .addStatement("return res");
-        //Generate methodSpec
-        return builder.build();
+
+        // Generate constant content
+        FieldSpec.Builder constant = FieldSpec.builder(int.class, constantName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", relativeLocation)
+                .initializer(constantInitializer("$L", resourceId));
+        // Insert constant to type spec
+        builder.addField(constant.build());
+        return resourceId;
     }
 
 }
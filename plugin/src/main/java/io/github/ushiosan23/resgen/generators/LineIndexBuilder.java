@@ -0,0 +1,350 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.utils.LineIndex;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the {@code Res.Lines} class. The start of every line is recorded at build time
+ * ({@link LineIndex}), so a line is read with a single positional read of its bytes.
+ * Stored resources are read from the jar at their data offset ({@link StoredResourcesBuilder}), and other
+ * resources inside an archive are read from the start of their entry, without splitting the previous lines.
+ */
+final class LineIndexBuilder {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generated class name
+     */
+    static final String LINES_CLASS_NAME = "Lines";
+
+    /**
+     * Loaded index class name
+     */
+    private static final String tableClassName = "$LineTable$";
+
+    /**
+     * Resource ids variable name
+     */
+    private static final String idsName = "$ids$";
+
+    /**
+     * Loaded indexes variable name
+     */
+    private static final String tablesName = "$tables$";
+
+    /**
+     * Line indexed resource ids
+     */
+    private final SortedSet<Long> ids;
+
+    /**
+     * Index class
+     */
+    private final ClassName indexClass;
+
+    /**
+     * Resource table variable name of the index class
+     */
+    private final String tableName;
+
+    /**
+     * The index class contains stored resources
+     */
+    private final boolean stored;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param ids        Line indexed resource ids
+     * @param indexClass Index class, used to open the resources
+     * @param tableName  Resource table variable name
+     * @param stored     The index class contains stored resources
+     */
+    LineIndexBuilder(
+        @NotNull SortedSet<Long> ids,
+        @NotNull ClassName indexClass,
+        @NotNull String tableName,
+        boolean stored) {
+        this.ids = ids;
+        this.indexClass = indexClass;
+        this.tableName = tableName;
+        this.stored = stored;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate lines class
+     *
+     * @return Class specification
+     */
+    @NotNull TypeSpec build() {
+        ClassName tableClass = ClassName.get(indexClass.packageName(), indexClass.simpleName(), LINES_CLASS_NAME, tableClassName);
+        CodeBlock.Builder idsContent = CodeBlock.builder().add("{\n");
+        for (Long id : ids) {
+            idsContent.add("$L, ", id);
+        }
+        return TypeSpec.classBuilder(LINES_CLASS_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("Random access to the lines of text resources. The index of a resource is loaded on its first access.")
+            .addField(FieldSpec.builder(int[].class, idsName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(idsContent.add("\n}").build())
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(ConcurrentHashMap.class), ClassName.get(Integer.class), tableClass), tablesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>()", ConcurrentHashMap.class)
+                .build())
+            .addType(tableClass(tableClass))
+            .addMethod(containsMethod())
+            .addMethod(getLineCountMethod())
+            .addMethod(getLineMethod(tableClass))
+            .addMethod(tableMethod(tableClass))
+            .addMethod(loadMethod(tableClass))
+            .build();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate the loaded index class
+     *
+     * @param tableClass Loaded index class name
+     *
+     * @return Class specification
+     */
+    private @NotNull TypeSpec tableClass(@NotNull ClassName tableClass) {
+        return TypeSpec.classBuilder(tableClass)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addField(ByteBuffer.class, "offsets", Modifier.FINAL)
+            .addField(int.class, "width", Modifier.FINAL)
+            .addField(long.class, "count", Modifier.FINAL)
+            .addField(long.class, "size", Modifier.FINAL)
+            .addField(FieldSpec.builder(FileChannel.class, "channel", Modifier.FINAL)
+                .addJavadoc("Shared file or archive, never closed. {@code null} if the content cannot be read at any position.\n")
+                .build())
+            .addField(FieldSpec.builder(long.class, "base", Modifier.FINAL)
+                .addJavadoc("Content offset inside the channel\n")
+                .build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addParameter(ByteBuffer.class, "offsets")
+                .addParameter(int.class, "width")
+                .addParameter(long.class, "count")
+                .addParameter(long.class, "size")
+                .addParameter(FileChannel.class, "channel")
+                .addParameter(long.class, "base")
+                .addStatement("this.offsets = offsets")
+                .addStatement("this.width = width")
+                .addStatement("this.count = count")
+                .addStatement("this.size = size")
+                .addStatement("this.channel = channel")
+                .addStatement("this.base = base")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("offset")
+                .returns(long.class)
+                .addParameter(long.class, "line")
+                .addStatement("int position = (int) (line * width)")
+                .addStatement("return width == $L ? offsets.getInt(position) : offsets.getLong(position)", Integer.BYTES)
+                .build())
+            .build();
+    }
+
+    /**
+     * Generate {@code contains} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec containsMethod() {
+        return MethodSpec.methodBuilder("contains")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(boolean.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("return $T.binarySearch($L, resourceId) >= 0", Arrays.class, idsName)
+            .build();
+    }
+
+    /**
+     * Generate {@code getLineCount} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getLineCountMethod() {
+        return MethodSpec.methodBuilder("getLineCount")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get the number of lines of a resource\n\n")
+            .addJavadoc("@param resourceId Resource id\n")
+            .addJavadoc("@return Line count, {@code 0} if the resource is empty\n")
+            .returns(long.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("return table(resourceId).count")
+            .build();
+    }
+
+    /**
+     * Generate {@code getLine} method spec
+     *
+     * @param tableClass Loaded index class name
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getLineMethod(@NotNull ClassName tableClass) {
+        return MethodSpec.methodBuilder("getLine")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get a line of a resource. Csv resources are split by record, so quoted line breaks\n")
+            .addJavadoc("are part of the line.\n\n")
+            .addJavadoc("@param resourceId Resource id\n")
+            .addJavadoc("@param line       Line number, starting at zero\n")
+            .addJavadoc("@return Line content without its line break, decoded as UTF-8\n")
+            .returns(String.class)
+            .addParameter(int.class, "resourceId")
+            .addParameter(long.class, "line")
+            .addStatement("$T table = table(resourceId)", tableClass)
+            .beginControlFlow("if (line < 0 || line >= table.count)")
+            .addStatement("throw new $T($S + line + $S + resourceId)", IndexOutOfBoundsException.class, "Line ", " not found in resource ")
+            .endControlFlow()
+            .addStatement("long start = table.offset(line)")
+            .addStatement("long end = line + 1 < table.count ? table.offset(line + 1) : table.size")
+            .addStatement("byte[] content = new byte[$T.toIntExact(end - start)]", Math.class)
+            .beginControlFlow("try")
+            .beginControlFlow("if (table.channel != null)")
+            .addStatement("$T target = $T.wrap(content)", ByteBuffer.class, ByteBuffer.class)
+            .beginControlFlow("while (target.hasRemaining())")
+            .addStatement("if (table.channel.read(target, table.base + start + target.position()) == -1) throw new $T()", EOFException.class)
+            .endControlFlow()
+            .nextControlFlow("else")
+            .beginControlFlow("try ($T stream = $T.getRegisteredResourceAsStream(resourceId))", InputStream.class, indexClass)
+            .beginControlFlow("for (long position = 0; position < start; )")
+            .addStatement("long skipped = stream.skip(start - position)")
+            .beginControlFlow("if (skipped <= 0)")
+            .addStatement("if (stream.read() == -1) throw new $T()", EOFException.class)
+            .addStatement("skipped = 1")
+            .endControlFlow()
+            .addStatement("position += skipped")
+            .endControlFlow()
+            .beginControlFlow("for (int position = 0; position < content.length; )")
+            .addStatement("int read = stream.read(content, position, content.length - position)")
+            .addStatement("if (read == -1) throw new $T()", EOFException.class)
+            .addStatement("position += read")
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("throw new $T(err)", UncheckedIOException.class)
+            .endControlFlow()
+            .addStatement("int length = content.length")
+            .addStatement("if (length > 0 && content[length - 1] == '\\n') length--")
+            .addStatement("if (length > 0 && content[length - 1] == '\\r') length--")
+            .addStatement("return new $T(content, 0, length, $T.UTF_8)", String.class, StandardCharsets.class)
+            .build();
+    }
+
+    /**
+     * Generate the method that returns the loaded index of a resource
+     *
+     * @param tableClass Loaded index class name
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec tableMethod(@NotNull ClassName tableClass) {
+        return MethodSpec.methodBuilder("table")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(tableClass)
+            .addParameter(int.class, "resourceId")
+            .beginControlFlow("if (!contains(resourceId))")
+            .addStatement("throw new $T($S + resourceId + $S)", IllegalArgumentException.class, "Resource ", " is not line indexed")
+            .endControlFlow()
+            .addStatement("return $L.computeIfAbsent(resourceId, Lines::load)", tablesName)
+            .build();
+    }
+
+    /**
+     * Generate the stored entry branch of the load method
+     *
+     * @return Code block, empty if the index class has no stored resources
+     */
+    private @NotNull CodeBlock storedBranch() {
+        if (!stored) return CodeBlock.of("");
+        String storedClass = StoredResourcesBuilder.STORED_CLASS_NAME;
+        return CodeBlock.builder()
+            .nextControlFlow("else if ($L.contains(resourceId) && $L.getDataOffset(resourceId) != -1)", storedClass, storedClass)
+            .addStatement("channel = $L.$L", storedClass, StoredResourcesBuilder.ARCHIVE_NAME)
+            .addStatement("base = $L.getDataOffset(resourceId)", storedClass)
+            .build();
+    }
+
+    /**
+     * Generate the method that loads the index of a resource
+     *
+     * @param tableClass Loaded index class name
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec loadMethod(@NotNull ClassName tableClass) {
+        return MethodSpec.methodBuilder("load")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(tableClass)
+            .addParameter(Integer.class, "resourceId")
+            .addStatement("$T location = $T.$L[resourceId]", String.class, indexClass, tableName)
+            .beginControlFlow("try")
+            .addStatement("$T content = new $T()", ByteArrayOutputStream.class, ByteArrayOutputStream.class)
+            .beginControlFlow("try ($T stream = $T.getResourceAsStream($S + location + $S))",
+                InputStream.class, indexClass, LineIndex.INDEX_PREFIX, LineIndex.INDEX_SUFFIX)
+            .addStatement("if (stream == null) throw new $T($S + location + $S)", IllegalStateException.class, "Line index of ", " not found")
+            .addStatement("byte[] buffer = new byte[8192]")
+            .addStatement("for (int read; (read = stream.read(buffer)) != -1; ) content.write(buffer, 0, read)")
+            .endControlFlow()
+            .addStatement("$T index = $T.wrap(content.toByteArray())", ByteBuffer.class, ByteBuffer.class)
+            .addStatement("long size = index.getLong()")
+            .addStatement("long count = index.getLong()")
+            .addStatement("int width = index.getInt()")
+            .addComment("Plain files and stored entries are read at any position, other archive entries from their start")
+            .addStatement("$T channel = null", FileChannel.class)
+            .addStatement("long base = 0")
+            .addStatement("$T url = $T.getRegisteredResource(resourceId)", URL.class, indexClass)
+            .beginControlFlow("if ($S.equals(url.getProtocol()))", "file")
+            .addStatement("channel = $T.open($T.get(url.toURI()), $T.READ)", FileChannel.class, Paths.class, StandardOpenOption.class)
+            .beginControlFlow("if (channel.size() != size)")
+            .addStatement("channel.close()")
+            .addStatement("throw new $T($S + location + $S)", IllegalStateException.class, "Resource ", " changed after the build")
+            .endControlFlow()
+            .addCode(storedBranch())
+            .endControlFlow()
+            .addStatement("return new $T(index.slice().asReadOnlyBuffer(), width, count, size, channel, base)", tableClass)
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("throw new $T(err)", UncheckedIOException.class)
+            .nextControlFlow("catch ($T err)", URISyntaxException.class)
+            .addStatement("throw new $T(err)", IllegalStateException.class)
+            .endControlFlow()
+            .build();
+    }
+
+}
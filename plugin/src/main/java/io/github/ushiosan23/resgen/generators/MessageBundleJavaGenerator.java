@@ -0,0 +1,406 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.ConfigurationParser;
+import io.github.ushiosan23.resgen.utils.MessageBundleResolver;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Generator of precompiled locale message bundles. Each bundle is a family of
+ * {@code .properties} files ({@code messages.properties}, {@code messages_es.properties},
+ * {@code messages_es_MX.properties}) resolved at build time into one array per locale,
+ * stored inside the {@code ResMessages} class.
+ * <p>
+ * Each locale array lives in its own holder class, so only the used locales are loaded, and
+ * arrays are filled by chunk methods, so no static initializer reaches the method size limit.
+ */
+public final class MessageBundleJavaGenerator extends BaseGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Properties file extension
+     */
+    private static final String PROPERTIES_EXTENSION = ".properties";
+
+    /**
+     * Keys array variable name
+     */
+    private static final String keysArrayName = "$keys$";
+
+    /**
+     * Locales array variable name
+     */
+    private static final String localesArrayName = "$locales$";
+
+    /**
+     * Locale messages method name
+     */
+    private static final String messagesMethodName = "$messages$";
+
+    /**
+     * Locale holder class prefix
+     */
+    private static final String holderClassPrefix = "$messages";
+
+    /**
+     * Holder array variable name
+     */
+    private static final String valuesArrayName = "$values$";
+
+    /**
+     * Array elements assigned by each chunk method
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Output file location
+     */
+    private final Path outputJavaFile;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor generator
+     *
+     * @param project Target project
+     * @param options Project options
+     */
+    public MessageBundleJavaGenerator(Project project, ResourceGenerationOptions options) {
+        super(project, options);
+        // Initialize properties
+        outputJavaFile = PluginUtils.resolveJavaPath(currentProject);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public void generate() throws IOException {
+        TypeSpec.Builder classSpec = TypeSpec.classBuilder(PluginUtils.OUTPUT_MESSAGES_FILE_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc(CodeBlock.builder()
+                .add("Do not edit this file.\n")
+                .add("This file is generated automatically and if it is edited it may stop working correctly.")
+                .build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build());
+        // Non inlined values
+        if (pluginOptions.getStableAbi()) {
+            classSpec.addMethod(handleMethod(int.class));
+        }
+
+        SortedMap<String, Path> propertiesFiles = collectPropertiesFiles();
+        List<String> problems = new ArrayList<>();
+        for (String bundle : pluginOptions.getMessageBundles()) {
+            MessageBundleResolver resolver = new MessageBundleResolver();
+            String base = bundle.replace('\\', '/');
+            // Add each locale file of the family
+            for (Map.Entry<String, Path> entry : propertiesFiles.entrySet()) {
+                String tag = localeOf(base, entry.getKey());
+                if (tag == null) continue;
+                Map<String, String> messages = ConfigurationParser.parse(entry.getValue());
+                if (messages != null) resolver.add(tag, entry.getKey(), messages);
+            }
+            if (resolver.getLocales().isEmpty()) {
+                problems.add(bundle + ": no locale files found");
+                continue;
+            }
+            String[][] messages = resolver.resolve();
+            resolver.getProblems().forEach(problem -> problems.add(bundle + ": " + problem));
+            classSpec.addType(generateBundleClass(base, resolver, messages));
+        }
+        // Missing keys are build errors
+        if (!problems.isEmpty()) {
+            throw new GradleException("Invalid message bundles:\n  " + String.join("\n  ", problems));
+        }
+
+        // Generate java file
+        JavaFile outFile = JavaFile.builder(pluginOptions.getTargetPackage(), classSpec.build())
+            .indent("\t")
+            .build();
+        // Write result
+        outFile.writeTo(outputJavaFile);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Collect all indexed properties files
+     *
+     * @return Files by resource location
+     *
+     * @throws IOException Error to walk the resource directories
+     */
+    private @NotNull SortedMap<String, Path> collectPropertiesFiles() throws IOException {
+        SortedMap<String, Path> result = new TreeMap<>();
+        for (Map.Entry<String, Path> entry : getResourceIndex().getFiles().entrySet()) {
+            if (entry.getKey().endsWith(PROPERTIES_EXTENSION)) result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Get the locale of a file inside a bundle family.
+     * A base ending with {@code /} selects a directory of locale files ({@code i18n/es_MX.properties}).
+     *
+     * @param base     Bundle base location ({@code i18n/messages} or {@code i18n/})
+     * @param location Properties file location
+     *
+     * @return Locale tag or {@code null} if the file is not part of the family
+     */
+    private static String localeOf(@NotNull String base, @NotNull String location) {
+        int separator = base.lastIndexOf('/');
+        String directory = base.substring(0, separator + 1);
+        String baseName = base.substring(separator + 1);
+        if (!location.startsWith(directory)) return null;
+        String name = location.substring(directory.length(), location.length() - PROPERTIES_EXTENSION.length());
+        if (name.contains("/")) return null;
+        // Directory bundle, every file is a locale
+        if (baseName.isEmpty()) return name.isEmpty() ? null : MessageBundleResolver.normalizeLocale(name);
+        if (name.equals(baseName)) return "";
+        if (name.length() <= baseName.length() + 1 || !name.startsWith(baseName)) return null;
+        char localeSeparator = name.charAt(baseName.length());
+        if (localeSeparator != '_' && localeSeparator != '-') return null;
+        return MessageBundleResolver.normalizeLocale(name.substring(baseName.length() + 1));
+    }
+
+    /**
+     * Generate a nested class with all messages of a bundle
+     *
+     * @param base     Bundle base location
+     * @param resolver Bundle resolver
+     * @param messages Resolved messages
+     *
+     * @return Nested class specification
+     */
+    private @NotNull TypeSpec generateBundleClass(
+        @NotNull String base,
+        @NotNull MessageBundleResolver resolver,
+        @NotNull String[][] messages) {
+        String className = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        TypeSpec.Builder builder = TypeSpec.classBuilder(PluginUtils.toIdentifier(className.isEmpty() ? "root" : className))
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("$L", base)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build());
+
+        // Message ids
+        List<String> keys = resolver.getKeys();
+        Set<String> usedNames = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String constantName = PluginUtils.toIdentifier(keys.get(i));
+            // Avoid duplicated names
+            String uniqueName = constantName;
+            for (int j = 1; !usedNames.add(uniqueName); j++) {
+                uniqueName = constantName + "$" + j;
+            }
+            builder.addField(FieldSpec.builder(int.class, uniqueName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", keys.get(i).replace("*/", "*&#47;"))
+                .initializer(constantInitializer("$L", i))
+                .build());
+        }
+        addChunkedArray(builder, keysArrayName, keys);
+
+        // Locales and one holder class per locale
+        CodeBlock.Builder localesContent = CodeBlock.builder().add("{\n");
+        MethodSpec.Builder messagesMethod = MethodSpec.methodBuilder(messagesMethodName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String[].class)
+            .addParameter(int.class, "localeIndex")
+            .beginControlFlow("switch (localeIndex)");
+        List<String> locales = resolver.getLocales();
+        for (int i = 0; i < locales.size(); i++) {
+            String holderName = holderClassPrefix + i + "$";
+            localesContent.add("$S,\n", locales.get(i));
+            TypeSpec.Builder holder = TypeSpec.classBuilder(holderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", locales.get(i).isEmpty() ? "root" : locales.get(i));
+            addChunkedArray(holder, valuesArrayName, Arrays.asList(messages[i]));
+            builder.addType(holder.build());
+            messagesMethod.addStatement("case $L: return $L.$L", i, holderName, valuesArrayName);
+        }
+        messagesMethod
+            .addStatement("default: throw new $T(localeIndex)", ArrayIndexOutOfBoundsException.class)
+            .endControlFlow();
+
+        return builder
+            .addField(FieldSpec.builder(String[].class, localesArrayName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(localesContent.add("}").build())
+                .build())
+            .addMethod(messagesMethod.build())
+            .addMethod(localeIndexMethod())
+            .addMethod(getMessageMethod())
+            .addMethod(getLocaleMessageMethod())
+            .addMethod(sizeMethod())
+            .addMethod(keyAtMethod())
+            .build();
+    }
+
+    /**
+     * Add a string array filled by chunk methods. Each method assigns at most {@link #CHUNK_SIZE} elements.
+     *
+     * @param builder   Target class
+     * @param arrayName Array variable name
+     * @param values    Array content
+     */
+    private static void addChunkedArray(TypeSpec.@NotNull Builder builder, @NotNull String arrayName, @NotNull List<String> values) {
+        String loaderName = arrayName.substring(0, arrayName.length() - 1) + "Load$";
+        MethodSpec.Builder loader = MethodSpec.methodBuilder(loaderName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String[].class)
+            .addStatement("$T[] table = new $T[$L]", String.class, String.class, values.size());
+        for (int chunk = 0; chunk * CHUNK_SIZE < values.size(); chunk++) {
+            String chunkName = arrayName.substring(0, arrayName.length() - 1) + chunk + "$";
+            MethodSpec.Builder chunkMethod = MethodSpec.methodBuilder(chunkName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(String[].class, "table");
+            for (int i = chunk * CHUNK_SIZE; i < Math.min(values.size(), (chunk + 1) * CHUNK_SIZE); i++) {
+                chunkMethod.addStatement("table[$L] = $S", i, values.get(i));
+            }
+            builder.addMethod(chunkMethod.build());
+            loader.addStatement("$L(table)", chunkName);
+        }
+        builder
+            .addField(FieldSpec.builder(String[].class, arrayName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L()", loaderName)
+                .build())
+            .addMethod(loader.addStatement("return table").build());
+    }
+
+    /**
+     * Generate {@code localeIndex} method spec. Candidates are checked from the most specific.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec localeIndexMethod() {
+        return MethodSpec.methodBuilder("localeIndex")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Find the best locale of the bundle. Store the result to avoid the search on every message.\n\n")
+            .addJavadoc("@param locale Target locale\n")
+            .addJavadoc("@return Locale index or {@code -1} if neither the locale nor the root locale exist\n")
+            .returns(int.class)
+            .addParameter(Locale.class, "locale")
+            .addStatement("$T language = locale.getLanguage()", String.class)
+            .addStatement("$T country = locale.getCountry()", String.class)
+            .addStatement("$T variant = locale.getVariant()", String.class)
+            .addStatement("int index")
+            .beginControlFlow("if (!variant.isEmpty())")
+            .addStatement("index = $T.binarySearch($L, language + '_' + country + '_' + variant)", Arrays.class, localesArrayName)
+            .addStatement("if (index >= 0) return index")
+            .endControlFlow()
+            .beginControlFlow("if (!country.isEmpty())")
+            .addStatement("index = $T.binarySearch($L, language + '_' + country)", Arrays.class, localesArrayName)
+            .addStatement("if (index >= 0) return index")
+            .endControlFlow()
+            .beginControlFlow("if (!language.isEmpty())")
+            .addStatement("index = $T.binarySearch($L, language)", Arrays.class, localesArrayName)
+            .addStatement("if (index >= 0) return index")
+            .endControlFlow()
+            .addStatement("return $L.length > 0 && $L[0].isEmpty() ? 0 : -1", localesArrayName, localesArrayName)
+            .build();
+    }
+
+    /**
+     * Generate {@code get(int, int)} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getMessageMethod() {
+        return MethodSpec.methodBuilder("get")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(int.class, "localeIndex")
+            .addParameter(int.class, "messageId")
+            .addStatement("return $L(localeIndex)[messageId]", messagesMethodName)
+            .build();
+    }
+
+    /**
+     * Generate {@code get(Locale, int)} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getLocaleMessageMethod() {
+        return MethodSpec.methodBuilder("get")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(Locale.class, "locale")
+            .addParameter(int.class, "messageId")
+            .addStatement("int index = localeIndex(locale)")
+            .beginControlFlow("if (index == -1)")
+            .addStatement(
+                "throw new $T($S + locale, $T.class.getName(), $L[messageId])",
+                MissingResourceException.class,
+                "No messages for ",
+                ClassName.get(pluginOptions.getTargetPackage(), PluginUtils.OUTPUT_MESSAGES_FILE_NAME),
+                keysArrayName)
+            .endControlFlow()
+            .addStatement("return $L(index)[messageId]", messagesMethodName)
+            .build();
+    }
+
+    /**
+     * Generate {@code size} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec sizeMethod() {
+        return MethodSpec.methodBuilder("size")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(int.class)
+            .addStatement("return $L.length", keysArrayName)
+            .build();
+    }
+
+    /**
+     * Generate {@code keyAt} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec keyAtMethod() {
+        return MethodSpec.methodBuilder("keyAt")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(int.class, "messageId")
+            .addStatement("return $L[messageId]", keysArrayName)
+            .build();
+    }
+
+}
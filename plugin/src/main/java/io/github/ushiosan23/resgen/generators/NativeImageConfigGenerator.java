@@ -0,0 +1,127 @@
+package io.github.ushiosan23.resgen.generators;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generator of the GraalVM native-image resource configuration.
+ * Every indexed resource is registered with an exact pattern, so the image
+ * only embeds the resources that the {@code Res} class can reach.
+ */
+public final class NativeImageConfigGenerator implements IGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Configuration file name
+     */
+    public static final String CONFIG_FILE_NAME = "resource-config.json";
+
+    /**
+     * Indexed resource locations
+     */
+    private final List<String> locations;
+
+    /**
+     * Output configuration file
+     */
+    private final Path outputFile;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param locations  Indexed resource locations
+     * @param outputFile Output configuration file
+     */
+    public NativeImageConfigGenerator(@NotNull Collection<String> locations, @NotNull Path outputFile) {
+        this.locations = new ArrayList<>(locations);
+        this.outputFile = outputFile;
+        // Same file content in every build
+        Collections.sort(this.locations);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+        Files.createDirectories(outputFile.getParent());
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public void generate() throws IOException {
+        createIfIsNeed();
+        try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            writer.write("{\n  \"resources\": {\n    \"includes\": [");
+            for (int i = 0; i < locations.size(); i++) {
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write("      {\"pattern\": \"" + toJsonString(toExactPattern(locations.get(i))) + "\"}");
+            }
+            writer.write(locations.isEmpty() ? "]\n  }\n}\n" : "\n    ]\n  }\n}\n");
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Convert a location to a regular expression that only matches the location
+     *
+     * @param location Resource location
+     *
+     * @return Quoted regular expression
+     */
+    private static @NotNull String toExactPattern(@NotNull String location) {
+        // \E cannot appear inside a quoted block
+        return "\\Q" + location.replace("\\E", "\\E\\\\E\\Q") + "\\E";
+    }
+
+    /**
+     * Escape a json string
+     *
+     * @param text Text to escape
+     *
+     * @return Escaped text without the quotes
+     */
+    private static @NotNull String toJsonString(@NotNull String text) {
+        StringBuilder result = new StringBuilder(text.length() + 8);
+        for (char current : text.toCharArray()) {
+            if (current == '"' || current == '\\') {
+                result.append('\\').append(current);
+            } else if (current < 0x20) {
+                result.append(String.format("\\u%04x", (int) current));
+            } else {
+                result.append(current);
+            }
+        }
+        return result.toString();
+    }
+
+}
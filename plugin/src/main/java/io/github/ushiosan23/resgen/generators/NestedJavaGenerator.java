@@ -0,0 +1,356 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import org.gradle.api.Project;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Java generator that creates one nested class per resource directory.
+ * Each class contains its own constants and a lazily initialized table,
+ * so only the used directories are loaded by the JVM.
+ * <p>
+ * Ids are unique in the whole tree: every directory starts at its own base id, and the
+ * registered resource methods of {@code Res} find the directory table with a binary search.
+ */
+public final class NestedJavaGenerator extends BaseGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Class loader variable name
+     */
+    private static final String classLoaderName = "$systemClassLoader$";
+
+    /**
+     * Lazy table holder class name
+     */
+    private static final String tableHolderName = "$Table$";
+
+    /**
+     * Array variable name
+     */
+    private static final String magicArrayName = "$magicArrayContent$";
+
+    /**
+     * Directory base ids variable name
+     */
+    private static final String directoryBasesName = "$directoryBases$";
+
+    /**
+     * Directory table method name
+     */
+    private static final String directoryTableName = "$directoryTable$";
+
+    /**
+     * Location lookup method name
+     */
+    private static final String locationOfName = "$locationOf$";
+
+    /**
+     * Output file location
+     */
+    private final Path outputJavaFile;
+
+    /**
+     * Next resource id
+     */
+    private int nextId;
+
+    /**
+     * Base id of each directory with files, sorted
+     */
+    private final List<Integer> directoryBases = new ArrayList<>();
+
+    /**
+     * Table expression of each directory with files, relative to the root class
+     */
+    private final List<String> directoryTables = new ArrayList<>();
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor generator
+     *
+     * @param project Target project
+     * @param options Project options
+     */
+    public NestedJavaGenerator(Project project, ResourceGenerationOptions options) {
+        super(project, options);
+        // Initialize properties
+        outputJavaFile = PluginUtils.resolveJavaPath(currentProject);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public void generate() throws IOException {
+        DirectoryNode root = new DirectoryNode("");
+        // Generate directory tree
+        for (String location : getResourceIndex().getSizes().keySet()) {
+            root.insert(location);
+        }
+
+        // Generate root class
+        nextId = 0;
+        directoryBases.clear();
+        directoryTables.clear();
+        TypeSpec.Builder classSpec = generateIndexClass(classLoaderName)
+            .addMethod(getResourceMethod(classLoaderName))
+            .addMethod(getResourceAsStreamMethod(classLoaderName));
+        fillDirectoryClass(classSpec, root, "", Collections.singleton(PluginUtils.OUTPUT_FILE_NAME));
+        addDirectoryIndex(classSpec);
+        addDependencyIndex(classSpec);
+
+        // Generate java file
+        JavaFile outFile = JavaFile.builder(pluginOptions.getTargetPackage(), classSpec.build())
+            .indent("\t")
+            .build();
+        // Write result
+        outFile.writeTo(outputJavaFile);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Insert directory content into the class builder
+     *
+     * @param builder        Directory class builder
+     * @param node           Directory node
+     * @param classPath      Qualified name of the directory class relative to the root class, with a trailing dot
+     * @param enclosingNames Names of all enclosing classes
+     */
+    private void fillDirectoryClass(
+        TypeSpec.@NotNull Builder builder,
+        @NotNull DirectoryNode node,
+        @NotNull String classPath,
+        @NotNull Set<String> enclosingNames) {
+        // Fields and nested classes share one set, "Res.a.b" cannot tell a field from a class.
+        // Nested classes cannot use the name of any enclosing class either.
+        Set<String> usedNames = new HashSet<>(enclosingNames);
+        usedNames.add(tableHolderName);
+        // File constants, numbered from the directory base id
+        CodeBlock.Builder elementsContent = CodeBlock.builder()
+            .add("new $T {\n", String[].class);
+        int index = 0;
+        for (Map.Entry<String, String> file : node.files.entrySet()) {
+            builder.addField(FieldSpec.builder(int.class, uniqueName(file.getKey(), usedNames))
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", file.getValue().replace("*/", "*&#47;"))
+                .initializer(constantInitializer("$L", nextId + index))
+                .build());
+            elementsContent.add((index + 1) % 4 == 0 ? "$S, \n" : "$S, ", file.getValue());
+            index++;
+        }
+
+        // Lazy table, only loaded when a resource of this directory is requested
+        if (!node.files.isEmpty()) {
+            directoryBases.add(nextId);
+            directoryTables.add(classPath + tableHolderName + "." + magicArrayName);
+            nextId += index;
+            builder.addType(TypeSpec.classBuilder(tableHolderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(String[].class, magicArrayName)
+                    .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                    .initializer(elementsContent.add("}").build())
+                    .build())
+                .build());
+        }
+
+        // Directory classes
+        for (DirectoryNode child : node.directories.values()) {
+            String className = uniqueName(child.name, usedNames);
+            Set<String> childEnclosingNames = new HashSet<>(enclosingNames);
+            childEnclosingNames.add(className);
+
+            TypeSpec.Builder childSpec = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L/", child.location.replace("*/", "*&#47;"));
+            fillDirectoryClass(childSpec, child, classPath + className + ".", childEnclosingNames);
+            builder.addType(childSpec.build());
+        }
+    }
+
+    /**
+     * Add the registered resource methods to the root class. They are the only ones,
+     * so an id is always resolved by the table of the directory that declares it.
+     *
+     * @param classSpec Root class
+     */
+    private void addDirectoryIndex(TypeSpec.@NotNull Builder classSpec) {
+        CodeBlock.Builder basesContent = CodeBlock.builder().add("{\n");
+        // Parameter name has upper case letters, so it never hides a directory class
+        CodeBlock.Builder tableSwitch = CodeBlock.builder().beginControlFlow("switch (tableIndex)");
+        for (int i = 0; i < directoryBases.size(); i++) {
+            basesContent.add((i + 1) % 8 == 0 ? "$L,\n" : "$L, ", directoryBases.get(i));
+            tableSwitch.addStatement("case $L: return $L", i, directoryTables.get(i));
+        }
+        tableSwitch.addStatement("default: throw new $T(tableIndex)", ArrayIndexOutOfBoundsException.class)
+            .endControlFlow();
+
+        classSpec
+            .addField(FieldSpec.builder(int[].class, directoryBasesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(basesContent.add("\n}").build())
+                .build())
+            .addMethod(MethodSpec.methodBuilder(directoryTableName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(String[].class)
+                .addParameter(int.class, "tableIndex")
+                .addCode(tableSwitch.build())
+                .build())
+            .addMethod(MethodSpec.methodBuilder(locationOfName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(String.class)
+                .addParameter(int.class, "resourceId")
+                .addStatement("if (resourceId < 0 || resourceId >= $L) return null", nextId)
+                .addComment("Last directory whose base id is not greater than the id")
+                .addStatement("int directory = $T.binarySearch($L, resourceId)", Arrays.class, directoryBasesName)
+                .addStatement("if (directory < 0) directory = -directory - 2")
+                .addStatement("return $L(directory)[resourceId - $L[directory]]", directoryTableName, directoryBasesName)
+                .build())
+            .addMethod(registeredResourceMethod("getRegisteredResource", URL.class, "getResource"))
+            .addMethod(registeredResourceMethod("getRegisteredResourceAsStream", InputStream.class, "getResourceAsStream"));
+    }
+
+    /**
+     * Generate a method that resolves a resource by its id
+     *
+     * @param methodName   Generated method name
+     * @param returnType   Method return type
+     * @param delegateName Location method used to resolve the resource
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec registeredResourceMethod(
+        @NotNull String methodName,
+        @NotNull Class<?> returnType,
+        @NotNull String delegateName) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(methodName)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(returnType);
+        // Check if configuration contains injected dependencies
+        if (pluginOptions.getInjectDependencies()) {
+            builder.addAnnotation(NotNull.class);
+        }
+        return builder
+            .addParameter(int.class, "resourceId")
+            .addStatement("$T location = $L(resourceId)", String.class, locationOfName)
+            .beginControlFlow("if (location == null)")
+            .addStatement("throw new $T($S + resourceId + $S)", IndexOutOfBoundsException.class, "Resource ", " not found")
+            .endControlFlow()
+            .addStatement("$T res = $L(location)", returnType, delegateName)
+            .addStatement("$T.requireNonNull(res, $S + location + $S)", Objects.class, "Resource ", " not found")
+            .addStatement("return res")
+            .build();
+    }
+
+    /**
+     * Get a java identifier that is not used yet inside the class. {@code a.b} and {@code a_b}
+     * have the same identifier, so duplicates get a {@code $n} suffix.
+     *
+     * @param name      File or directory name
+     * @param usedNames Names already used inside the class
+     *
+     * @return Unique identifier
+     */
+    private static @NotNull String uniqueName(@NotNull String name, @NotNull Set<String> usedNames) {
+        String identifier = PluginUtils.toIdentifier(name);
+        // Avoid duplicated names
+        String uniqueName = identifier;
+        for (int i = 1; !usedNames.add(uniqueName); i++) {
+            uniqueName = identifier + "$" + i;
+        }
+        return uniqueName;
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal classes
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Resource directory tree node
+     */
+    private static final class DirectoryNode {
+
+        /**
+         * Directory name
+         */
+        final String name;
+
+        /**
+         * Directory location
+         */
+        final String location;
+
+        /**
+         * Sorted directory files. Key is the file name and value the resource location.
+         */
+        final Map<String, String> files = new TreeMap<>();
+
+        /**
+         * Sorted child directories
+         */
+        final Map<String, DirectoryNode> directories = new TreeMap<>();
+
+        /**
+         * Node constructor
+         *
+         * @param location Directory location
+         */
+        DirectoryNode(@NotNull String location) {
+            this.location = location;
+            this.name = location.substring(location.lastIndexOf('/') + 1);
+        }
+
+        /**
+         * Insert resource inside the tree
+         *
+         * @param resourceLocation Resource location with "/" separators
+         */
+        void insert(@NotNull String resourceLocation) {
+            DirectoryNode current = this;
+            String[] names = resourceLocation.split("/");
+            for (int i = 0; i < names.length - 1; i++) {
+                String directoryName = names[i];
+                String childLocation = current.location.isEmpty() ?
+                    directoryName : current.location + "/" + directoryName;
+                current = current.directories.computeIfAbsent(directoryName, k -> new DirectoryNode(childLocation));
+            }
+            current.files.put(names[names.length - 1], resourceLocation);
+        }
+
+    }
+
+}
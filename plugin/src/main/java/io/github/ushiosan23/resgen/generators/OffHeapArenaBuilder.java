@@ -0,0 +1,253 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Builds the {@code Res.OffHeap} class. Selected resources are copied once into a few
+ * direct buffers (arenas) and every resource is a read-only slice of its arena,
+ * so the bytes stay outside the java heap and are shared without copies.
+ */
+final class OffHeapArenaBuilder {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generated class name
+     */
+    static final String OFF_HEAP_CLASS_NAME = "OffHeap";
+
+    /**
+     * Maximum size of a single arena
+     */
+    static final long MAX_ARENA_SIZE = 1L << 30;
+
+    /**
+     * Resource ids variable name
+     */
+    private static final String idsName = "$ids$";
+
+    /**
+     * Arena of each resource variable name
+     */
+    private static final String arenaIndexName = "$arenaIndex$";
+
+    /**
+     * Resource offsets variable name
+     */
+    private static final String offsetsName = "$offsets$";
+
+    /**
+     * Resource lengths variable name
+     */
+    private static final String lengthsName = "$lengths$";
+
+    /**
+     * Arena sizes variable name
+     */
+    private static final String arenaSizesName = "$arenaSizes$";
+
+    /**
+     * Resource slices variable name
+     */
+    private static final String slicesName = "$slices$";
+
+    /**
+     * Resource sizes by id
+     */
+    private final SortedMap<Long, Long> sizes;
+
+    /**
+     * Index class
+     */
+    private final ClassName indexClass;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param sizes      Resource sizes by id
+     * @param indexClass Index class, used to open the resources
+     */
+    OffHeapArenaBuilder(@NotNull SortedMap<Long, Long> sizes, @NotNull ClassName indexClass) {
+        this.sizes = sizes;
+        this.indexClass = indexClass;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate off-heap class
+     *
+     * @return Class specification
+     */
+    @NotNull TypeSpec build() {
+        // Place each resource in the current arena or open a new one
+        CodeBlock.Builder ids = CodeBlock.builder().add("{\n");
+        CodeBlock.Builder arenaIndexes = CodeBlock.builder().add("{\n");
+        CodeBlock.Builder offsets = CodeBlock.builder().add("{\n");
+        CodeBlock.Builder lengths = CodeBlock.builder().add("{\n");
+        List<Long> arenaSizes = new ArrayList<>();
+        long arenaSize = 0;
+        for (Map.Entry<Long, Long> entry : sizes.entrySet()) {
+            long size = entry.getValue();
+            if (size > MAX_ARENA_SIZE) {
+                throw new GradleException("Resource " + entry.getKey() + " is too big to be stored off-heap (" + size + " bytes)");
+            }
+            if (arenaSize + size > MAX_ARENA_SIZE) {
+                arenaSizes.add(arenaSize);
+                arenaSize = 0;
+            }
+            ids.add("$L, ", entry.getKey());
+            arenaIndexes.add("$L, ", arenaSizes.size());
+            offsets.add("$L, ", arenaSize);
+            lengths.add("$L, ", size);
+            arenaSize += size;
+        }
+        arenaSizes.add(arenaSize);
+        CodeBlock.Builder arenas = CodeBlock.builder().add("{");
+        for (Long size : arenaSizes) {
+            arenas.add("$L, ", size);
+        }
+
+        return TypeSpec.classBuilder(OFF_HEAP_CLASS_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("Resources stored in direct buffers. All of them are loaded when the class is initialized.")
+            .addField(intArray(idsName, ids))
+            .addField(intArray(arenaIndexName, arenaIndexes))
+            .addField(intArray(offsetsName, offsets))
+            .addField(intArray(lengthsName, lengths))
+            .addField(FieldSpec.builder(int[].class, arenaSizesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(arenas.add("}").build())
+                .build())
+            .addField(FieldSpec.builder(ByteBuffer[].class, slicesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("load()")
+                .build())
+            .addMethod(loadMethod())
+            .addMethod(preloadMethod())
+            .addMethod(containsMethod())
+            .addMethod(getBufferMethod())
+            .build();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create a private int array field
+     *
+     * @param name    Field name
+     * @param content Array content without the closing brace
+     *
+     * @return field spec instance
+     */
+    private static @NotNull FieldSpec intArray(@NotNull String name, CodeBlock.@NotNull Builder content) {
+        return FieldSpec.builder(int[].class, name)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(content.add("\n}").build())
+            .build();
+    }
+
+    /**
+     * Generate the method that fills the arenas
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec loadMethod() {
+        return MethodSpec.methodBuilder("load")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(ByteBuffer[].class)
+            .addStatement("$T[] arenas = new $T[$L.length]", ByteBuffer.class, ByteBuffer.class, arenaSizesName)
+            .addStatement("for (int i = 0; i < arenas.length; i++) arenas[i] = $T.allocateDirect($L[i])", ByteBuffer.class, arenaSizesName)
+            .addStatement("$T[] result = new $T[$L.length]", ByteBuffer.class, ByteBuffer.class, idsName)
+            .addStatement("byte[] buffer = new byte[8192]")
+            .beginControlFlow("for (int i = 0; i < $L.length; i++)", idsName)
+            .addStatement("$T slice = arenas[$L[i]].duplicate()", ByteBuffer.class, arenaIndexName)
+            .addStatement("slice.limit($L[i] + $L[i])", offsetsName, lengthsName)
+            .addStatement("slice.position($L[i])", offsetsName)
+            .addStatement("slice = slice.slice()")
+            .beginControlFlow("try ($T stream = $T.getRegisteredResourceAsStream($L[i]))", InputStream.class, indexClass, idsName)
+            .addStatement("if (stream == null) throw new $T($S + $L[i] + $S)", IllegalStateException.class, "Resource ", idsName, " not found")
+            .beginControlFlow("for (int read; (read = stream.read(buffer)) != -1; )")
+            .addStatement("if (read > slice.remaining()) throw new $T($S + $L[i] + $S)", IllegalStateException.class, "Resource ", idsName, " changed after the build")
+            .addStatement("slice.put(buffer, 0, read)")
+            .endControlFlow()
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("throw new $T(err)", UncheckedIOException.class)
+            .endControlFlow()
+            .addStatement("if (slice.hasRemaining()) throw new $T($S + $L[i] + $S)", IllegalStateException.class, "Resource ", idsName, " changed after the build")
+            .addStatement("slice.flip()")
+            .addStatement("result[i] = slice.asReadOnlyBuffer()")
+            .endControlFlow()
+            .addStatement("return result")
+            .build();
+    }
+
+    /**
+     * Generate {@code preload} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec preloadMethod() {
+        return MethodSpec.methodBuilder("preload")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Load all off-heap resources. Call it at startup to avoid the cost on the first access.\n")
+            .build();
+    }
+
+    /**
+     * Generate {@code contains} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec containsMethod() {
+        return MethodSpec.methodBuilder("contains")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(boolean.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("return $T.binarySearch($L, resourceId) >= 0", Arrays.class, idsName)
+            .build();
+    }
+
+    /**
+     * Generate {@code getBuffer} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getBufferMethod() {
+        return MethodSpec.methodBuilder("getBuffer")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get the content of an off-heap resource\n\n")
+            .addJavadoc("@param resourceId Resource id\n")
+            .addJavadoc("@return Read-only buffer that shares the arena memory, with its own position and limit\n")
+            .returns(ByteBuffer.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("int index = $T.binarySearch($L, resourceId)", Arrays.class, idsName)
+            .addStatement("if (index < 0) throw new $T($S + resourceId + $S)", IllegalArgumentException.class, "Resource ", " is not stored off-heap")
+            .addStatement("return $L[index].duplicate()", slicesName)
+            .build();
+    }
+
+}
@@ -4,24 +4,19 @@ import com.squareup.javapoet.*;
 import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
 import io.github.ushiosan23.resgen.utils.PluginUtils;
 import org.gradle.api.Project;
-import org.gradle.api.file.SourceDirectorySet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.PropertyKey;
 
 import javax.lang.model.element.Modifier;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.List;
-import java.util.Objects;
-import java.util.Properties;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.*;
 
 public final class PropertiesJavaGenerator extends BaseGenerator {
 
@@ -85,40 +80,19 @@ public final class PropertiesJavaGenerator extends BaseGenerator {
     public void generate() throws IOException {
         // Create files if not exists
         createIfIsNeed();
-        // Walk resources directory
-        SourceDirectorySet resourceDirSet = PluginUtils.getResourcesSourceSet(currentProject);
-        List<Path> resourceDirs = resourceDirSet.getSrcDirs()
-            .stream()
-            .map(File::toPath)
-            .collect(Collectors.toList());
-
-        // Generate base properties object
-        Properties outResourceProps = new Properties();
-        // Iterate all paths
-        for (Path baseDir : resourceDirs) {
-            // Walk directory
-            try (Stream<Path> walker = Files.walk(baseDir)) {
-                walker
-                    .filter(Files::isRegularFile)
-                    .filter(path -> !path.toString().equals(outputPropertiesFile.toString()))
-                    .forEachOrdered(path -> {
-                        // Relativize location
-                        Path finalPath = baseDir.relativize(path);
-                        String keyName = finalPath.toString()
-                            .replace(".", "_")
-                            .replace("\\", ".")
-                            .replace("/", ".");
-                        String keyVal = finalPath.toString()
-                            .replace("\\", "/")
-                            .replace("\\/", "/");
-                        outResourceProps.setProperty(keyName, keyVal);
-                    });
-            }
+        // Sorted entries, same file content in every platform
+        SortedMap<String, String> outResourceProps = new TreeMap<>();
+        // Iterate all locations
+        for (String keyVal : getResourceIndex().getSizes().keySet()) {
+            String keyName = keyVal
+                .replace(".", "_")
+                .replace("/", ".");
+            outResourceProps.putIfAbsent(keyName, keyVal);
         }
 
         // Store properties
-        try (Writer stream = Files.newBufferedWriter(outputPropertiesFile)) {
-            outResourceProps.store(stream, null);
+        try (Writer stream = Files.newBufferedWriter(outputPropertiesFile, StandardCharsets.ISO_8859_1)) {
+            storeProperties(stream, outResourceProps);
         }
         // Store java class
         JavaFile javaFile = generateJavaFileSpec();
@@ -129,6 +103,72 @@ public final class PropertiesJavaGenerator extends BaseGenerator {
      * Internal methods
      * ------------------------------------------------------------------ */
 
+    /**
+     * Write properties without the timestamp comment that {@link Properties#store} adds.
+     * Entries are written in key order with {@code \n} line endings.
+     *
+     * @param writer  Target writer
+     * @param entries Sorted entries
+     *
+     * @throws IOException Error to write the content
+     */
+    private static void storeProperties(@NotNull Writer writer, @NotNull SortedMap<String, String> entries)
+        throws IOException {
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            writer.write(escapeProperty(entry.getKey(), true));
+            writer.write('=');
+            writer.write(escapeProperty(entry.getValue(), false));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Escape a properties key or value. Non ascii characters are written as unicode escapes,
+     * the same format {@link Properties#load(InputStream)} reads.
+     *
+     * @param text  Text to escape
+     * @param isKey Escape all spaces
+     *
+     * @return Escaped text
+     */
+    private static @NotNull String escapeProperty(@NotNull String text, boolean isKey) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char current = text.charAt(i);
+            switch (current) {
+                case ' ':
+                    result.append(i == 0 || isKey ? "\\ " : " ");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\f':
+                    result.append("\\f");
+                    break;
+                case '\\':
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    result.append('\\').append(current);
+                    break;
+                default:
+                    if (current < 0x20 || current > 0x7e) {
+                        result.append(String.format("\\u%04X", (int) current));
+                    } else {
+                        result.append(current);
+                    }
+            }
+        }
+        return result.toString();
+    }
+
     private @NotNull JavaFile generateJavaFileSpec() {
         return JavaFile.builder(pluginOptions.getTargetPackage(), generateBaseClass())
             .build();
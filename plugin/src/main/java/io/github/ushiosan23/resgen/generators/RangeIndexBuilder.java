@@ -0,0 +1,327 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the directory listing methods of the {@code Res} class. Locations are sorted,
+ * so every directory and every prefix is a contiguous range of positions.
+ * Ranges are returned as a single {@code long}: start in the high half, end (exclusive) in the low half.
+ */
+final class RangeIndexBuilder {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Sorted order variable name
+     */
+    private static final String sortedOrderName = "$sortedOrder$";
+
+    /**
+     * Directories variable name
+     */
+    private static final String directoriesName = "$directoryNames$";
+
+    /**
+     * Directory ranges variable name
+     */
+    private static final String directoryRangesName = "$directoryRanges$";
+
+    /**
+     * Sorted location method name
+     */
+    private static final String sortedLocationName = "$sortedLocation$";
+
+    /**
+     * Directory comparison method name
+     */
+    private static final String compareDirectoryName = "$compareDirectory$";
+
+    /**
+     * Sorted resource locations
+     */
+    private final List<String> locations;
+
+    /**
+     * Resource id of each sorted position. {@code null} if ids follow the sorted order.
+     */
+    private final int[] sortedOrder;
+
+    /**
+     * Location table variable name
+     */
+    private final String tableName;
+
+    /**
+     * Add nullability annotations
+     */
+    private final boolean annotate;
+
+    /**
+     * Bytecode tables. {@code null} if the tables are written as literals.
+     */
+    private final BytecodeTables bytecodeTables;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param locations   Sorted resource locations
+     * @param sortedOrder Resource id of each position or {@code null} if ids follow the sorted order
+     * @param tableName   Location table variable name (indexed by id)
+     * @param annotate    Add nullability annotations
+     * @param tables      Bytecode tables or {@code null} to write the tables as literals
+     */
+    RangeIndexBuilder(
+        @NotNull List<String> locations,
+        int @Nullable [] sortedOrder,
+        @NotNull String tableName,
+        boolean annotate,
+        @Nullable BytecodeTables tables) {
+        this.locations = locations;
+        this.sortedOrder = sortedOrder;
+        this.tableName = tableName;
+        this.annotate = annotate;
+        this.bytecodeTables = tables;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Add tables and methods to the index class
+     *
+     * @param classSpec Index class
+     */
+    void addTo(TypeSpec.@NotNull Builder classSpec) {
+        // Directory ranges, root directory is the empty string
+        Map<String, long[]> directories = new TreeMap<>();
+        directories.put("", new long[]{0, locations.size()});
+        for (int position = 0; position < locations.size(); position++) {
+            String location = locations.get(position);
+            for (int separator = location.indexOf('/'); separator != -1; separator = location.indexOf('/', separator + 1)) {
+                long[] range = directories.computeIfAbsent(location.substring(0, separator), k -> new long[]{0, 0});
+                if (range[1] == 0) range[0] = position;
+                range[1] = position + 1;
+            }
+        }
+
+        CodeBlock.Builder directoriesContent = CodeBlock.builder().add("{\n");
+        List<String> directoryNames = new ArrayList<>(directories.keySet());
+        long[] ranges = new long[directories.size()];
+        int index = 0;
+        for (Map.Entry<String, long[]> entry : directories.entrySet()) {
+            ranges[index++] = (entry.getValue()[0] << 32) | entry.getValue()[1];
+            directoriesContent.add("$S,\n", entry.getKey());
+        }
+        classSpec
+            .addField(FieldSpec.builder(String[].class, directoriesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(bytecodeTables == null ?
+                    directoriesContent.add("}").build() :
+                    bytecodeTables.strings(directoriesName, directoryNames))
+                .build())
+            .addField(FieldSpec.builder(long[].class, directoryRangesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(bytecodeTables == null ?
+                    TableLiterals.longs(ranges) :
+                    bytecodeTables.longs(directoryRangesName, ranges))
+                .build());
+
+        // Stable ids do not follow the sorted order
+        if (sortedOrder != null) {
+            classSpec.addField(FieldSpec.builder(int[].class, sortedOrderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(bytecodeTables == null ?
+                    TableLiterals.ints(sortedOrder) :
+                    bytecodeTables.ints(sortedOrderName, sortedOrder))
+                .build());
+        }
+
+        classSpec
+            .addMethod(idAtMethod())
+            .addMethod(rangeStartMethod())
+            .addMethod(rangeEndMethod())
+            .addMethod(listMethod())
+            .addMethod(idsUnderMethod())
+            .addMethod(sortedLocationMethod())
+            .addMethod(compareDirectoryMethod());
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create a location parameter
+     *
+     * @param name Parameter name
+     *
+     * @return parameter spec instance
+     */
+    private @NotNull ParameterSpec stringParameter(@NotNull String name) {
+        ParameterSpec.Builder builder = ParameterSpec.builder(String.class, name);
+        // Check if configuration contains injected dependencies
+        if (annotate) {
+            builder.addAnnotation(NotNull.class);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Generate {@code idAt} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec idAtMethod() {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("idAt")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get the resource id at a position of a range\n\n")
+            .addJavadoc("@param position Position between {@code rangeStart} and {@code rangeEnd}\n")
+            .addJavadoc("@return Resource id\n")
+            .returns(int.class)
+            .addParameter(int.class, "position");
+        return sortedOrder == null ?
+            builder.addStatement("return position").build() :
+            builder.addStatement("return $L[position]", sortedOrderName).build();
+    }
+
+    /**
+     * Generate {@code rangeStart} method spec
+     *
+     * @return method spec instance
+     */
+    static @NotNull MethodSpec rangeStartMethod() {
+        return MethodSpec.methodBuilder("rangeStart")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(int.class)
+            .addParameter(long.class, "range")
+            .addStatement("return (int) (range >>> 32)")
+            .build();
+    }
+
+    /**
+     * Generate {@code rangeEnd} method spec
+     *
+     * @return method spec instance
+     */
+    static @NotNull MethodSpec rangeEndMethod() {
+        return MethodSpec.methodBuilder("rangeEnd")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(int.class)
+            .addParameter(long.class, "range")
+            .addStatement("return (int) range")
+            .build();
+    }
+
+    /**
+     * Generate {@code list} method spec. Two binary searches, no allocation.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec listMethod() {
+        return MethodSpec.methodBuilder("list")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get all resources whose location starts with the prefix\n\n")
+            .addJavadoc("@param prefix Location prefix\n")
+            .addJavadoc("@return Packed range, use {@code rangeStart}, {@code rangeEnd} and {@code idAt}\n")
+            .returns(long.class)
+            .addParameter(stringParameter("prefix"))
+            .addStatement("int low = 0")
+            .addStatement("int high = $L.length", sortedOrder == null ? tableName : sortedOrderName)
+            .addComment("First location not lower than the prefix")
+            .beginControlFlow("while (low < high)")
+            .addStatement("int middle = (low + high) >>> 1")
+            .addStatement("if ($L(middle).compareTo(prefix) < 0) low = middle + 1", sortedLocationName)
+            .addStatement("else high = middle")
+            .endControlFlow()
+            .addStatement("int start = low")
+            .addStatement("high = $L.length", sortedOrder == null ? tableName : sortedOrderName)
+            .addComment("First location that does not start with the prefix")
+            .beginControlFlow("while (low < high)")
+            .addStatement("int middle = (low + high) >>> 1")
+            .addStatement("if ($L(middle).startsWith(prefix)) low = middle + 1", sortedLocationName)
+            .addStatement("else high = middle")
+            .endControlFlow()
+            .addStatement("return ((long) start << 32) | low")
+            .build();
+    }
+
+    /**
+     * Generate {@code idsUnder} method spec. Directory ranges are computed at build time.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec idsUnderMethod() {
+        return MethodSpec.methodBuilder("idsUnder")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get all resources inside a directory and its subdirectories\n\n")
+            .addJavadoc("@param directory Directory location, with or without the trailing slash\n")
+            .addJavadoc("@return Packed range, empty if the directory does not exist\n")
+            .returns(long.class)
+            .addParameter(stringParameter("directory"))
+            .addStatement("int length = directory.endsWith($S) ? directory.length() - 1 : directory.length()", "/")
+            .addStatement("int low = 0")
+            .addStatement("int high = $L.length - 1", directoriesName)
+            .beginControlFlow("while (low <= high)")
+            .addStatement("int middle = (low + high) >>> 1")
+            .addStatement("int compare = $L($L[middle], directory, length)", compareDirectoryName, directoriesName)
+            .addStatement("if (compare < 0) low = middle + 1")
+            .addStatement("else if (compare > 0) high = middle - 1")
+            .addStatement("else return $L[middle]", directoryRangesName)
+            .endControlFlow()
+            .addStatement("return 0L")
+            .build();
+    }
+
+    /**
+     * Generate the method that returns the location at a sorted position
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec sortedLocationMethod() {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(sortedLocationName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(int.class, "position");
+        return sortedOrder == null ?
+            builder.addStatement("return $L[position]", tableName).build() :
+            builder.addStatement("return $L[$L[position]]", tableName, sortedOrderName).build();
+    }
+
+    /**
+     * Generate the method that compares a directory with the first characters of a string.
+     * Same result as {@link String#compareTo(String)} without creating a substring.
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec compareDirectoryMethod() {
+        return MethodSpec.methodBuilder(compareDirectoryName)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(int.class)
+            .addParameter(String.class, "entry")
+            .addParameter(String.class, "directory")
+            .addParameter(int.class, "length")
+            .addStatement("int limit = $T.min(entry.length(), length)", Math.class)
+            .beginControlFlow("for (int i = 0; i < limit; i++)")
+            .addStatement("int difference = entry.charAt(i) - directory.charAt(i)")
+            .addStatement("if (difference != 0) return difference")
+            .endControlFlow()
+            .addStatement("return entry.length() - length")
+            .build();
+    }
+
+}
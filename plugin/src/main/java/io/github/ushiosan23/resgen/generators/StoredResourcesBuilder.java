@@ -0,0 +1,284 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.*;
+import io.github.ushiosan23.resgen.utils.JarAligner;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+
+/**
+ * Builds the {@code Res.Stored} class. Stored resources are written to the jar without compression
+ * and page aligned ({@link JarAligner}), so they are mapped directly from the archive.
+ * The data offsets are read from the archive once, and every local header is checked before it is used.
+ * Outside an archive, plain files are mapped and other resources are copied to the heap.
+ */
+final class StoredResourcesBuilder {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generated class name
+     */
+    static final String STORED_CLASS_NAME = "Stored";
+
+    /**
+     * Shared archive variable name
+     */
+    static final String ARCHIVE_NAME = "$archive$";
+
+    /**
+     * Resource ids variable name
+     */
+    private static final String idsName = "$ids$";
+
+    /**
+     * Data offsets variable name
+     */
+    private static final String offsetsName = "$offsets$";
+
+    /**
+     * Data sizes variable name
+     */
+    private static final String sizesName = "$sizes$";
+
+    /**
+     * Local file header signature
+     */
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    /**
+     * Local file header size without name and extra field
+     */
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    /**
+     * Stored resource ids
+     */
+    private final SortedSet<Long> ids;
+
+    /**
+     * Index class
+     */
+    private final ClassName indexClass;
+
+    /**
+     * Resource table variable name of the index class
+     */
+    private final String tableName;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param ids        Stored resource ids
+     * @param indexClass Index class, used to find the archive
+     * @param tableName  Resource table variable name
+     */
+    StoredResourcesBuilder(@NotNull SortedSet<Long> ids, @NotNull ClassName indexClass, @NotNull String tableName) {
+        this.ids = ids;
+        this.indexClass = indexClass;
+        this.tableName = tableName;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate stored class
+     *
+     * @return Class specification
+     */
+    @NotNull TypeSpec build() {
+        CodeBlock.Builder idsContent = CodeBlock.builder().add("{\n");
+        for (Long id : ids) {
+            idsContent.add("$L, ", id);
+        }
+        return TypeSpec.classBuilder(STORED_CLASS_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("Resources stored without compression in the jar, mapped without inflating them")
+            .addField(FieldSpec.builder(int[].class, idsName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(idsContent.add("\n}").build())
+                .build())
+            .addField(FieldSpec.builder(long[].class, offsetsName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Data offset of each resource in the archive, {@code -1} if it is not stored in the archive\n")
+                .initializer("new long[$L.length]", idsName)
+                .build())
+            .addField(FieldSpec.builder(long[].class, sizesName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new long[$L.length]", idsName)
+                .build())
+            .addField(FieldSpec.builder(FileChannel.class, ARCHIVE_NAME)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("Shared archive, never closed. {@code null} if the resources are not in a plain archive.\n")
+                .initializer("open()")
+                .build())
+            .addMethod(openMethod())
+            .addMethod(containsMethod())
+            .addMethod(getDataOffsetMethod())
+            .addMethod(mapMethod())
+            .build();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate the method that opens the archive and reads the data offsets
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec openMethod() {
+        return MethodSpec.methodBuilder("open")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(FileChannel.class)
+            .addStatement("$T.fill($L, -1)", Arrays.class, offsetsName)
+            .addStatement("$T archive = null", FileChannel.class)
+            .beginControlFlow("try")
+            .addStatement("$T text = $T.getRegisteredResource($L[0]).toString()", String.class, indexClass, idsName)
+            .addStatement("int separator = text.indexOf($S)", "!/")
+            .addComment("Nested archives are not plain files")
+            .addStatement("if (!text.startsWith($S) || separator == -1 || text.indexOf($S, separator + 2) != -1) return null", "jar:", "!/")
+            .addStatement("$T archiveUri = new $T(text.substring(4, separator))", URI.class, URI.class)
+            .addStatement("if (!$S.equals(archiveUri.getScheme())) return null", "file")
+            .addStatement("$T<$T, long[]> regions = new $T<>()", Map.class, String.class, HashMap.class)
+            .beginControlFlow("try ($T reader = new $T(new $T(new $T(text.substring(0, separator + 2) + $S).openStream(), $T.UTF_8)))",
+                BufferedReader.class, BufferedReader.class, InputStreamReader.class, URL.class, JarAligner.OFFSETS_LOCATION, StandardCharsets.class)
+            .addStatement("if (!$S.equals(reader.readLine())) return null", JarAligner.OFFSETS_HEADER)
+            .beginControlFlow("for ($T line; (line = reader.readLine()) != null; )", String.class)
+            .addStatement("if (line.isEmpty()) continue")
+            .addComment("Values are read from the end, names may contain tabs")
+            .addStatement("int sizeSeparator = line.lastIndexOf('\\t')")
+            .addStatement("int dataSeparator = line.lastIndexOf('\\t', sizeSeparator - 1)")
+            .addStatement("int headerSeparator = line.lastIndexOf('\\t', dataSeparator - 1)")
+            .addStatement("regions.put(line.substring(0, headerSeparator), new long[]{\n"
+                + "$T.parseLong(line.substring(headerSeparator + 1, dataSeparator)),\n"
+                + "$T.parseLong(line.substring(dataSeparator + 1, sizeSeparator)),\n"
+                + "$T.parseLong(line.substring(sizeSeparator + 1))})",
+                Long.class, Long.class, Long.class)
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("archive = $T.open($T.get(archiveUri), $T.READ)", FileChannel.class, Paths.class, StandardOpenOption.class)
+            .addStatement("$T header = $T.allocate($L).order($T.LITTLE_ENDIAN)", ByteBuffer.class, ByteBuffer.class, LOCAL_HEADER_SIZE, ByteOrder.class)
+            .beginControlFlow("for (int i = 0; i < $L.length; i++)", idsName)
+            .addStatement("long[] region = regions.get($T.$L[$L[i]])", indexClass, tableName, idsName)
+            .addStatement("if (region == null) continue")
+            .addComment("The local header must still describe a stored entry before the data")
+            .addStatement("header.clear()")
+            .addStatement("if (archive.read(header, region[0]) != $L) continue", LOCAL_HEADER_SIZE)
+            .addStatement("if (header.getInt(0) != 0x$L || header.getShort(8) != 0) continue", Integer.toHexString(LOCAL_HEADER_SIGNATURE))
+            .addStatement("if (region[0] + $L + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF) != region[1]) continue", LOCAL_HEADER_SIZE)
+            .addStatement("$L[i] = region[1]", offsetsName)
+            .addStatement("$L[i] = region[2]", sizesName)
+            .endControlFlow()
+            .addStatement("return archive")
+            .nextControlFlow("catch ($T | $T | $T err)", IOException.class, URISyntaxException.class, RuntimeException.class)
+            .addComment("Resolved by the class loader")
+            .addStatement("$T.fill($L, -1)", Arrays.class, offsetsName)
+            .beginControlFlow("try")
+            .addStatement("if (archive != null) archive.close()")
+            .nextControlFlow("catch ($T closeErr)", IOException.class)
+            .addStatement("err.addSuppressed(closeErr)")
+            .endControlFlow()
+            .addStatement("return null")
+            .endControlFlow()
+            .build();
+    }
+
+    /**
+     * Generate {@code contains} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec containsMethod() {
+        return MethodSpec.methodBuilder("contains")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(boolean.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("return $T.binarySearch($L, resourceId) >= 0", Arrays.class, idsName)
+            .build();
+    }
+
+    /**
+     * Generate {@code getDataOffset} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec getDataOffsetMethod() {
+        return MethodSpec.methodBuilder("getDataOffset")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get the position of a resource inside the jar\n\n")
+            .addJavadoc("@param resourceId Resource id\n")
+            .addJavadoc("@return Page aligned data offset or {@code -1} if the resource is not read from a jar\n")
+            .returns(long.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("int index = $T.binarySearch($L, resourceId)", Arrays.class, idsName)
+            .addStatement("if (index < 0) throw new $T($S + resourceId + $S)", IllegalArgumentException.class, "Resource ", " is not stored")
+            .addStatement("return $L[index]", offsetsName)
+            .build();
+    }
+
+    /**
+     * Generate {@code map} method spec
+     *
+     * @return method spec instance
+     */
+    private @NotNull MethodSpec mapMethod() {
+        return MethodSpec.methodBuilder("map")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc("Get the content of a stored resource. It is mapped from the jar or from its file,\n")
+            .addJavadoc("and copied to the heap only when the resource is inside another kind of archive.\n\n")
+            .addJavadoc("@param resourceId Resource id\n")
+            .addJavadoc("@return Read-only buffer\n")
+            .returns(ByteBuffer.class)
+            .addParameter(int.class, "resourceId")
+            .addStatement("int index = $T.binarySearch($L, resourceId)", Arrays.class, idsName)
+            .addStatement("if (index < 0) throw new $T($S + resourceId + $S)", IllegalArgumentException.class, "Resource ", " is not stored")
+            .beginControlFlow("try")
+            .beginControlFlow("if ($L[index] != -1)", offsetsName)
+            .addStatement("return $L.map($T.MapMode.READ_ONLY, $L[index], $L[index])", ARCHIVE_NAME, FileChannel.class, offsetsName, sizesName)
+            .endControlFlow()
+            .addStatement("$T url = $T.getRegisteredResource(resourceId)", URL.class, indexClass)
+            .beginControlFlow("if ($S.equals(url.getProtocol()))", "file")
+            .beginControlFlow("try ($T channel = $T.open($T.get(url.toURI()), $T.READ))",
+                FileChannel.class, FileChannel.class, Paths.class, StandardOpenOption.class)
+            .addStatement("return channel.map($T.MapMode.READ_ONLY, 0, channel.size())", FileChannel.class)
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("$T content = new $T()", ByteArrayOutputStream.class, ByteArrayOutputStream.class)
+            .beginControlFlow("try ($T stream = $T.getRegisteredResourceAsStream(resourceId))", InputStream.class, indexClass)
+            .addStatement("byte[] buffer = new byte[8192]")
+            .addStatement("for (int read; (read = stream.read(buffer)) != -1; ) content.write(buffer, 0, read)")
+            .endControlFlow()
+            .addStatement("return $T.wrap(content.toByteArray()).asReadOnlyBuffer()", ByteBuffer.class)
+            .nextControlFlow("catch ($T err)", IOException.class)
+            .addStatement("throw new $T(err)", UncheckedIOException.class)
+            .nextControlFlow("catch ($T err)", URISyntaxException.class)
+            .addStatement("throw new $T(err)", IllegalStateException.class)
+            .endControlFlow()
+            .build();
+    }
+
+}
@@ -0,0 +1,344 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceIdStore;
+import org.gradle.api.Project;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Java generator that writes every constant and table entry to disk while the resource index is read.
+ * The class model is never built in memory, so its size does not depend on the number of resources.
+ * <p>
+ * The constant pool of a class file is limited, so constants are written to the {@code ResConstants0..N}
+ * interfaces, which {@code Res} implements, and table chunks are nested classes with their own pool.
+ */
+public final class StreamingJavaGenerator extends BaseGenerator {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Number of table entries written inside each chunk method.
+     * Keeps every generated method far below the 64KB bytecode limit.
+     */
+    private static final int TABLE_CHUNK_SIZE = 2048;
+
+    /**
+     * Number of constants written inside each part interface.
+     * Keeps the constant pool and the stable abi initializer of every part below their limits.
+     */
+    private static final int PART_SIZE = 4096;
+
+    /**
+     * Class loader variable name
+     */
+    private static final String classLoaderName = "$systemClassLoader$";
+
+    /**
+     * Array variable name
+     */
+    private static final String magicArrayName = "$magicArrayContent$";
+
+    /**
+     * Field replaced by the streamed content
+     */
+    private static final String streamMarkerName = "$resgenStreamMarker$";
+
+    /**
+     * Output file location
+     */
+    private final Path outputJavaFile;
+
+    /**
+     * Counter used to generate resources
+     */
+    private long resourceCounter = 0;
+
+    /**
+     * Persisted resource ids. {@code null} if stable ids are disabled.
+     */
+    private ResourceIdStore idStore;
+
+    /**
+     * Current part interface writer. {@code null} between two parts.
+     */
+    private Writer partWriter;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor generator
+     *
+     * @param project Target project
+     * @param options Project options
+     */
+    public StreamingJavaGenerator(Project project, ResourceGenerationOptions options) {
+        super(project, options);
+        // Initialize properties
+        outputJavaFile = PluginUtils.resolveJavaPath(currentProject);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create files if it´s necessary
+     *
+     * @throws IOException Error to create files
+     */
+    @Override
+    public void createIfIsNeed() throws IOException {
+        Files.createDirectories(resolveClassFile().getParent());
+    }
+
+    /**
+     * Generate files and write all data
+     *
+     * @throws IOException Error to generate it
+     */
+    @Override
+    public synchronized void generate() throws IOException {
+        createIfIsNeed();
+        resourceCounter = 0;
+        idStore = loadIdStore();
+        deleteParts(resolveClassFile().getParent());
+
+        Path tableSpool = Files.createTempFile("resgen", ".table");
+        try {
+            // Constants go straight to the part files, table entries to the spool file
+            try (Writer tableWriter = Files.newBufferedWriter(tableSpool, StandardCharsets.UTF_8)) {
+                streamResources(tableWriter);
+                // Close last chunk
+                if (resourceCounter % TABLE_CHUNK_SIZE != 0) tableWriter.write("\t\t}\n\n\t}\n\n");
+            }
+            // Split the class skeleton around the streamed content
+            String skeleton = generateSkeleton();
+            int markerStart = skeleton.lastIndexOf('\n', skeleton.indexOf(streamMarkerName)) + 1;
+            int markerEnd = skeleton.indexOf('\n', markerStart) + 1;
+            try (Writer classWriter = Files.newBufferedWriter(resolveClassFile(), StandardCharsets.UTF_8)) {
+                classWriter.write(skeleton, 0, markerStart);
+                writeTableLoader(classWriter);
+                // Append all table chunks
+                try (Reader tableReader = Files.newBufferedReader(tableSpool, StandardCharsets.UTF_8)) {
+                    tableReader.transferTo(classWriter);
+                }
+                classWriter.write(skeleton, markerEnd, skeleton.length() - markerEnd);
+            }
+        } finally {
+            Files.deleteIfExists(tableSpool);
+        }
+        // Persist assigned ids
+        if (idStore != null) idStore.save();
+    }
+
+    /**
+     * Delete the part interfaces of a previous generation, so a smaller index or another
+     * generator leaves no stale parts
+     *
+     * @param packageDir Target package directory
+     *
+     * @throws IOException Error to delete the files
+     */
+    public static void deleteParts(@NotNull Path packageDir) throws IOException {
+        if (!Files.isDirectory(packageDir)) return;
+        try (Stream<Path> files = Files.list(packageDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().matches(PluginUtils.OUTPUT_PARTS_CLASS_NAME + "\\d+\\.java"))
+                    Files.delete(file);
+            }
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Write each indexed resource, sorted by location so ids do not depend on the file system
+     *
+     * @param tableWriter Table spool writer
+     *
+     * @throws IOException Error to read or write any element
+     */
+    private void streamResources(@NotNull Writer tableWriter) throws IOException {
+        try {
+            getResourceIndex().forEach((location, root, size) -> writeResource(location, tableWriter));
+            // Close last part
+            if (partWriter != null) partWriter.write("}\n");
+        } catch (UncheckedIOException err) {
+            throw err.getCause();
+        } finally {
+            if (partWriter != null) partWriter.close();
+            partWriter = null;
+        }
+    }
+
+    /**
+     * Write the constant and the table entry of a single resource
+     *
+     * @param location    Resource location
+     * @param tableWriter Table spool writer
+     */
+    private void writeResource(@NotNull String location, @NotNull Writer tableWriter) {
+        long entryIndex = resourceCounter++;
+        long resourceId = idStore == null ? entryIndex : idStore.idOf(location);
+        try {
+            // Constant
+            if (entryIndex % PART_SIZE == 0) openPart(entryIndex / PART_SIZE);
+            partWriter.write("\t/**\n\t * ");
+            partWriter.write(location.replace("*/", "*&#47;"));
+            partWriter.write("\n\t */\n\tint ");
+            partWriter.write(PluginUtils.toIdentifier(location));
+            partWriter.write(" = " + partInitializer(resourceId) + ";\n\n");
+            // Table entry
+            if (entryIndex % TABLE_CHUNK_SIZE == 0) {
+                tableWriter.write("\tprivate static final class " + chunkName(entryIndex / TABLE_CHUNK_SIZE) + " {\n\n");
+                tableWriter.write("\t\tstatic void fill(String[] table) {\n");
+            }
+            tableWriter.write("\t\t\ttable[" + resourceId + "] = ");
+            tableWriter.write(CodeBlock.of("$S", location).toString());
+            tableWriter.write(";\n");
+            if ((entryIndex + 1) % TABLE_CHUNK_SIZE == 0) tableWriter.write("\t\t}\n\n\t}\n\n");
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+
+    /**
+     * Close the current part interface and open the next one
+     *
+     * @param part Part index
+     *
+     * @throws IOException Error to write the files
+     */
+    private void openPart(long part) throws IOException {
+        if (partWriter != null) {
+            partWriter.write("}\n");
+            partWriter.close();
+        }
+        String packageName = pluginOptions.getTargetPackage();
+        partWriter = Files.newBufferedWriter(
+            resolveClassFile().resolveSibling(partName(part) + ".java"), StandardCharsets.UTF_8);
+        if (!packageName.isEmpty()) partWriter.write("package " + packageName + ";\n\n");
+        partWriter.write("/**\n * Resource constants of {@code " + PluginUtils.OUTPUT_FILE_NAME + "}, part " + part + ".\n");
+        partWriter.write(" * Do not edit this file, it is generated automatically.\n */\n");
+        partWriter.write("public interface " + partName(part) + " {\n\n");
+    }
+
+    /**
+     * Get the initializer of a part constant. Stable abi values are wrapped by the handle
+     * method of the index class, part interfaces cannot declare private methods.
+     *
+     * @param resourceId Resource id
+     *
+     * @return Initializer source
+     */
+    private @NotNull String partInitializer(long resourceId) {
+        if (!pluginOptions.getStableAbi()) return String.valueOf(resourceId);
+        return PluginUtils.OUTPUT_FILE_NAME + "." + handleMethodName + "(" + resourceId + ")";
+    }
+
+    /**
+     * Write table field and the method that fills it
+     *
+     * @param writer Class file writer
+     *
+     * @throws IOException Error to write content
+     */
+    private void writeTableLoader(@NotNull Writer writer) throws IOException {
+        long chunkCount = (resourceCounter + TABLE_CHUNK_SIZE - 1) / TABLE_CHUNK_SIZE;
+        long tableSize = idStore == null ? resourceCounter : idStore.size();
+        writer.write("\tprivate static final String[] " + magicArrayName + " = $loadTable$();\n\n");
+        writer.write("\tprivate static String[] $loadTable$() {\n");
+        writer.write("\t\tString[] table = new String[" + tableSize + "];\n");
+        for (long chunk = 0; chunk < chunkCount; chunk++) {
+            writer.write("\t\t" + chunkName(chunk) + ".fill(table);\n");
+        }
+        writer.write("\t\treturn table;\n\t}\n\n");
+    }
+
+    /**
+     * Generate class source without resources
+     *
+     * @return Class source with a marker field
+     *
+     * @throws IOException Error to read indexed dependencies
+     */
+    private @NotNull String generateSkeleton() throws IOException {
+        TypeSpec.Builder classSpec = generateIndexClass(classLoaderName);
+        for (long part = 0; part * PART_SIZE < resourceCounter; part++) {
+            classSpec.addSuperinterface(ClassName.get(pluginOptions.getTargetPackage(), partName(part)));
+        }
+        classSpec
+            .addField(FieldSpec.builder(int.class, streamMarkerName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("0")
+                .build())
+            .addMethod(getResourceMethod(classLoaderName))
+            .addMethod(getResourceAsStreamMethod(classLoaderName))
+            .addMethod(getRegisteredResourceMethod(magicArrayName))
+            .addMethod(getRegisteredResourceAsStreamMethod(magicArrayName));
+        addDecoderCache(classSpec);
+        addDependencyIndex(classSpec);
+
+        return JavaFile.builder(pluginOptions.getTargetPackage(), classSpec.build())
+            .indent("\t")
+            .build()
+            .toString();
+    }
+
+    /**
+     * Resolve generated class file
+     *
+     * @return Java file location
+     */
+    private @NotNull Path resolveClassFile() {
+        String packagePath = pluginOptions.getTargetPackage().replace('.', '/');
+        return outputJavaFile
+            .resolve(packagePath)
+            .resolve(PluginUtils.OUTPUT_FILE_NAME + ".java");
+    }
+
+    /**
+     * Get chunk class name
+     *
+     * @param chunk Chunk index
+     *
+     * @return Class name
+     */
+    private static @NotNull String chunkName(long chunk) {
+        return "$tableChunk" + chunk + "$";
+    }
+
+    /**
+     * Get part interface name
+     *
+     * @param part Part index
+     *
+     * @return Interface name
+     */
+    private static @NotNull String partName(long part) {
+        return PluginUtils.OUTPUT_PARTS_CLASS_NAME + part;
+    }
+
+}
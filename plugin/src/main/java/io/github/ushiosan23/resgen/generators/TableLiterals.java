@@ -0,0 +1,149 @@
+package io.github.ushiosan23.resgen.generators;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+import io.github.ushiosan23.resgen.utils.ClassFileWriter;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.Modifier;
+
+/**
+ * Numeric tables of the generated source. An array literal stores every element with its own
+ * instructions in the static initializer, which is limited to 64KB of bytecode. Tables are written
+ * as decimal string literals instead, so they live in the constant pool and are decoded at
+ * class initialization, like the {@link BytecodeTables} ones.
+ * <p>
+ * Every element ends with a comma and is never split between two literals:
+ * <pre>
+ * $longTable$(3, "0,4294967300,-1,")
+ * </pre>
+ */
+final class TableLiterals {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Integers decoder method name
+     */
+    private static final String intsDecoderName = "$intTable$";
+
+    /**
+     * Longs decoder method name
+     */
+    private static final String longsDecoderName = "$longTable$";
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * This class cannot be instantiated
+     */
+    private TableLiterals() {
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Store an {@code int} table
+     *
+     * @param values Table content
+     *
+     * @return Table initializer
+     */
+    static @NotNull CodeBlock ints(int @NotNull [] values) {
+        long[] elements = new long[values.length];
+        for (int i = 0; i < values.length; i++) elements[i] = values[i];
+        return chunks(intsDecoderName, elements);
+    }
+
+    /**
+     * Store a {@code long} table
+     *
+     * @param values Table content
+     *
+     * @return Table initializer
+     */
+    static @NotNull CodeBlock longs(long @NotNull [] values) {
+        return chunks(longsDecoderName, values);
+    }
+
+    /**
+     * Add the table decoders to the index class
+     *
+     * @param classSpec Index class
+     */
+    static void addTo(TypeSpec.@NotNull Builder classSpec) {
+        classSpec
+            .addMethod(MethodSpec.methodBuilder(intsDecoderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(int[].class)
+                .addParameter(int.class, "size")
+                .addParameter(String[].class, "chunks")
+                .varargs()
+                .addStatement("long[] values = $L(size, chunks)", longsDecoderName)
+                .addStatement("int[] result = new int[size]")
+                .addStatement("for (int i = 0; i < size; i++) result[i] = (int) values[i]")
+                .addStatement("return result")
+                .build())
+            .addMethod(MethodSpec.methodBuilder(longsDecoderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(long[].class)
+                .addParameter(int.class, "size")
+                .addParameter(String[].class, "chunks")
+                .varargs()
+                .addStatement("long[] result = new long[size]")
+                .addStatement("int index = 0")
+                .beginControlFlow("for ($T chunk : chunks)", String.class)
+                .addStatement("long value = 0")
+                .addStatement("boolean negative = false")
+                .beginControlFlow("for (int i = 0; i < chunk.length(); i++)")
+                .addStatement("char c = chunk.charAt(i)")
+                .beginControlFlow("if (c == ',')")
+                .addStatement("result[index++] = negative ? -value : value")
+                .addStatement("value = 0")
+                .addStatement("negative = false")
+                .nextControlFlow("else if (c == '-')")
+                .addStatement("negative = true")
+                .nextControlFlow("else")
+                .addStatement("value = value * 10 + (c - '0')")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return result")
+                .build());
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Join the elements in string literals of the maximum constant size
+     *
+     * @param decoder Decoder method name
+     * @param values  Table content
+     *
+     * @return Table initializer
+     */
+    private static @NotNull CodeBlock chunks(@NotNull String decoder, long @NotNull [] values) {
+        CodeBlock.Builder builder = CodeBlock.builder().add("$L($L", decoder, values.length);
+        StringBuilder chunk = new StringBuilder();
+        for (long value : values) {
+            String element = value + ",";
+            if (chunk.length() + element.length() > ClassFileWriter.MAX_STRING_BYTES) {
+                builder.add(",\n$S", chunk.toString());
+                chunk.setLength(0);
+            }
+            chunk.append(element);
+        }
+        if (chunk.length() > 0) builder.add(",\n$S", chunk.toString());
+        return builder.add(")").build();
+    }
+
+}
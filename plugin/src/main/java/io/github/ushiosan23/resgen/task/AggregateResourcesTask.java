@@ -0,0 +1,73 @@
+package io.github.ushiosan23.resgen.task;
+
+import io.github.ushiosan23.resgen.generators.AggregateJavaGenerator;
+import io.github.ushiosan23.resgen.utils.IndexManifest;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class AggregateResourcesTask extends DefaultTask {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Index manifests of all projects
+     *
+     * @return Manifest files
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getManifests();
+
+    /**
+     * Package of the global index class
+     *
+     * @return Java package name
+     */
+    @Input
+    public abstract Property<String> getTargetPackage();
+
+    /**
+     * Generated sources directory
+     *
+     * @return Output directory
+     */
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default task action
+     */
+    @TaskAction
+    public void taskAction() throws IOException {
+        List<IndexManifest> manifests = new ArrayList<>();
+        for (File manifestFile : getManifests().getFiles()) {
+            if (manifestFile.isFile()) manifests.add(IndexManifest.read(manifestFile.toPath()));
+        }
+        // Generate global index
+        new AggregateJavaGenerator(
+            manifests,
+            getTargetPackage().get(),
+            getOutputDirectory().get().getAsFile().toPath()
+        ).generate();
+    }
+
+}
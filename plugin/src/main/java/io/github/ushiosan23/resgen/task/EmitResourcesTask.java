@@ -0,0 +1,443 @@
+package io.github.ushiosan23.resgen.task;
+
+import io.github.ushiosan23.resgen.config.GeneratorType;
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.generators.AssetManifestGenerator;
+import io.github.ushiosan23.resgen.generators.BaseGenerator;
+import io.github.ushiosan23.resgen.generators.ConfigurationJavaGenerator;
+import io.github.ushiosan23.resgen.generators.MessageBundleJavaGenerator;
+import io.github.ushiosan23.resgen.generators.NativeImageConfigGenerator;
+import io.github.ushiosan23.resgen.utils.IndexManifest;
+import io.github.ushiosan23.resgen.utils.JarAligner;
+import io.github.ushiosan23.resgen.utils.LineIndex;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceFilter;
+import io.github.ushiosan23.resgen.utils.ResourceFingerprints;
+import io.github.ushiosan23.resgen.utils.ResourceIndex;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.bundling.Jar;
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Emit stage of the generation pipeline. Each emitter is its own task that reads the scan index,
+ * so Gradle checks its inputs and outputs separately: changing one option only reruns the
+ * emitters that use it. A disabled emitter deletes its outputs.
+ */
+public abstract class EmitResourcesTask extends DefaultTask {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Resources generation options
+     */
+    private final ResourceGenerationOptions options;
+
+    /**
+     * Generated output
+     */
+    private final Emitter emitter;
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     */
+    @Inject
+    public EmitResourcesTask(ResourceGenerationOptions opt, Emitter target) {
+        super();
+        // Initialize properties
+        options = opt;
+        emitter = target;
+    }
+
+    /**
+     * Get the generated output
+     *
+     * @return Task emitter
+     */
+    public @NotNull Emitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Default task action
+     */
+    @TaskAction
+    public void taskAction() throws IOException {
+        Project project = getProject();
+        if (!emitter.isEnabled(options)) {
+            for (File output : emitter.getOutputs(project, options)) delete(output.toPath());
+            return;
+        }
+        ResourceIndex index = ResourceIndex.read(PluginUtils.resolveScanIndexPath(project));
+        switch (emitter) {
+            case CONFIGURATION:
+                generate(new ConfigurationJavaGenerator(project, options), index);
+                break;
+            case MESSAGES:
+                generate(new MessageBundleJavaGenerator(project, options), index);
+                break;
+            case INDEX_MANIFEST:
+                writeManifest(index);
+                break;
+            case NATIVE_IMAGE_CONFIG:
+                writeNativeImageConfig(index);
+                break;
+            case ASSET_MANIFEST:
+                writeAssetManifest(index);
+                break;
+            case LINE_INDEXES:
+                writeLineIndexes(index);
+                break;
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Generate a file from the resource index
+     *
+     * @param generator Target generator
+     * @param index     Resource index
+     *
+     * @throws IOException Error to generate the file
+     */
+    private static void generate(
+        @NotNull BaseGenerator generator,
+        @NotNull ResourceIndex index) throws IOException {
+        generator.setResourceIndex(index);
+        generator.generate();
+    }
+
+    /**
+     * Write project index manifest
+     *
+     * @param index Resource index
+     *
+     * @throws IOException Error to write the manifest
+     */
+    private void writeManifest(ResourceIndex index) throws IOException {
+        Project project = getProject();
+        String archiveName = project.getTasks()
+            .named(JavaPlugin.JAR_TASK_NAME, Jar.class)
+            .get()
+            .getArchiveFileName()
+            .get();
+        IndexManifest.write(PluginUtils.resolveManifestPath(project), project.getPath(), archiveName, index);
+    }
+
+    /**
+     * Write native-image resource configuration
+     *
+     * @param index Resource index
+     *
+     * @throws IOException Error to write the configuration
+     */
+    private void writeNativeImageConfig(ResourceIndex index) throws IOException {
+        Project project = getProject();
+        Set<String> locations = new TreeSet<>();
+        ResourceFilter lineFilter = new ResourceFilter(options.getLineIndexedResources(), List.of());
+        boolean lineIndexes = !options.getLineIndexedResources().isEmpty();
+        index.forEach((location, root, size) -> {
+            locations.add(location);
+            // Line indexes are generated next to the resources and read by the generated class
+            if (lineIndexes && lineFilter.isIncluded(location))
+                locations.add(LineIndex.INDEX_PREFIX + location + LineIndex.INDEX_SUFFIX);
+        });
+        // Properties index is loaded by the generated class
+        if (options.getGenerationType() == GeneratorType.PROPERTIES_FILE) {
+            Path propertiesFile = PluginUtils.resolvePropertiesPath(project);
+            locations.add(propertiesFile.getFileName().toString());
+        }
+        if (!options.getStoredResources().isEmpty()) locations.add(JarAligner.OFFSETS_LOCATION);
+        if (options.getAssetManifest()) locations.add(AssetManifestGenerator.MANIFEST_LOCATION);
+        new NativeImageConfigGenerator(
+            locations,
+            PluginUtils.resolveNativeImagePath(project).resolve(NativeImageConfigGenerator.CONFIG_FILE_NAME)
+        ).generate();
+    }
+
+    /**
+     * Write the line index of each selected resource. Previous indexes are removed, and minified
+     * copies are indexed instead of the original files, like in the packaged resources.
+     *
+     * @param index Resource index
+     *
+     * @throws IOException Error to read any resource or to write an index
+     */
+    private void writeLineIndexes(ResourceIndex index) throws IOException {
+        Project project = getProject();
+        Path outputDir = PluginUtils.resolveGeneratedResourcesPath(project).resolve(LineIndex.INDEX_PREFIX);
+        delete(outputDir);
+        Path minifiedDir = PluginUtils.resolveMinifiedResourcesPath(project);
+        ResourceFilter filter = new ResourceFilter(options.getLineIndexedResources(), List.of());
+        index.forEach((location, root, size) -> {
+            if (!filter.isIncluded(location)) return;
+            Path file = root.resolve(location);
+            Path minified = minifiedDir.resolve(location);
+            if (options.getMinifyResources() && Files.isRegularFile(minified)) file = minified;
+            // Quoted line breaks are part of a csv record
+            LineIndex.scan(file, location.endsWith(".csv"))
+                .write(outputDir.resolve(location + LineIndex.INDEX_SUFFIX));
+        });
+    }
+
+    /**
+     * Write asset manifest. Minified copies replace the original files, like in the packaged resources,
+     * and fingerprinted copies are listed with the content of their resource.
+     *
+     * @param index Resource index
+     *
+     * @throws IOException Error to read any resource or to write the manifest
+     */
+    private void writeAssetManifest(ResourceIndex index) throws IOException {
+        Project project = getProject();
+        Path minifiedDir = PluginUtils.resolveMinifiedResourcesPath(project);
+        Map<String, Path> files = new TreeMap<>(index.getFiles());
+        if (options.getMinifyResources()) {
+            for (Map.Entry<String, Path> entry : files.entrySet()) {
+                Path minified = minifiedDir.resolve(entry.getKey());
+                if (Files.isRegularFile(minified)) entry.setValue(minified);
+            }
+        }
+        if (!options.getFingerprintedResources().isEmpty()) {
+            ResourceFingerprints fingerprints = ResourceFingerprints.read(PluginUtils.resolveFingerprintsPath(project));
+            for (Map.Entry<String, String> entry : fingerprints.getNames().entrySet()) {
+                Path file = files.get(entry.getKey());
+                if (file != null) files.put(entry.getValue(), file);
+            }
+        }
+        new AssetManifestGenerator(
+            files,
+            PluginUtils.resolveGeneratedResourcesPath(project).resolve(AssetManifestGenerator.MANIFEST_LOCATION)
+        ).generate();
+    }
+
+    /**
+     * Delete a file or a directory with all its content
+     *
+     * @param path Target path
+     *
+     * @throws IOException Error to delete any file
+     */
+    private static void delete(@NotNull Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> walker = Files.walk(path)) {
+            for (Path element : (Iterable<Path>) walker.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(element);
+            }
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Outputs of the emit stage
+     */
+    public enum Emitter {
+
+        /**
+         * {@code ResConfig} class
+         */
+        CONFIGURATION("generateResourceConfig", true),
+
+        /**
+         * {@code ResMessages} class
+         */
+        MESSAGES("generateResourceMessages", true),
+
+        /**
+         * Index manifest read by the global index
+         */
+        INDEX_MANIFEST("writeIndexManifest", false),
+
+        /**
+         * Native-image resource configuration
+         */
+        NATIVE_IMAGE_CONFIG("generateNativeImageConfig", false),
+
+        /**
+         * Sizes and hashes of the packaged resources
+         */
+        ASSET_MANIFEST("generateAssetManifest", false),
+
+        /**
+         * Line offsets of large text resources
+         */
+        LINE_INDEXES("generateLineIndexes", false);
+
+        /**
+         * Task name
+         */
+        private final String taskName;
+
+        /**
+         * The output is a source file of the main source set
+         */
+        private final boolean source;
+
+        /**
+         * Enum constructor
+         *
+         * @param taskName Task name
+         * @param source   The output is a source file
+         */
+        Emitter(@NotNull String taskName, boolean source) {
+            this.taskName = taskName;
+            this.source = source;
+        }
+
+        /**
+         * Get the task name
+         *
+         * @return Task name
+         */
+        public @NotNull String getTaskName() {
+            return taskName;
+        }
+
+        /**
+         * Check if the output is compiled with the project sources
+         *
+         * @return {@code true} for generated classes, {@code false} for packaged or build files
+         */
+        public boolean isSource() {
+            return source;
+        }
+
+        /**
+         * Check if the emitter is enabled by the options
+         *
+         * @param options Plugin options
+         *
+         * @return {@code true} if the output is generated
+         */
+        public boolean isEnabled(@NotNull ResourceGenerationOptions options) {
+            switch (this) {
+                case CONFIGURATION:
+                    return options.getPrecompileConfigurations();
+                case MESSAGES:
+                    return !options.getMessageBundles().isEmpty();
+                case NATIVE_IMAGE_CONFIG:
+                    return options.getNativeImageConfig();
+                case ASSET_MANIFEST:
+                    return options.getAssetManifest();
+                case LINE_INDEXES:
+                    return !options.getLineIndexedResources().isEmpty();
+                default:
+                    return true;
+            }
+        }
+
+        /**
+         * Check if the emitter reads the content of the resources instead of the scan index
+         *
+         * @return {@code true} if the resource files are inputs of the task
+         */
+        public boolean readsResourceContent() {
+            return this != INDEX_MANIFEST && this != NATIVE_IMAGE_CONFIG;
+        }
+
+        /**
+         * Get the options used by the emitter. It is the options input of the task,
+         * so other option changes do not rerun it.
+         *
+         * @param options Plugin options
+         *
+         * @return Option values by name
+         */
+        public @NotNull Map<String, Object> getInputs(@NotNull ResourceGenerationOptions options) {
+            Map<String, Object> inputs = new LinkedHashMap<>();
+            inputs.put("enabled", isEnabled(options));
+            switch (this) {
+                case CONFIGURATION:
+                    inputs.put("targetPackage", options.getTargetPackage());
+                    inputs.put("injectDependencies", options.getInjectDependencies());
+                    inputs.put("stableAbi", options.getStableAbi());
+                    break;
+                case MESSAGES:
+                    inputs.put("targetPackage", options.getTargetPackage());
+                    inputs.put("injectDependencies", options.getInjectDependencies());
+                    inputs.put("messageBundles", new ArrayList<>(options.getMessageBundles()));
+                    break;
+                case NATIVE_IMAGE_CONFIG:
+                    inputs.put("generationType", options.getGenerationType());
+                    inputs.put("lineIndexedResources", new ArrayList<>(options.getLineIndexedResources()));
+                    inputs.put("storedResources", !options.getStoredResources().isEmpty());
+                    inputs.put("assetManifest", options.getAssetManifest());
+                    break;
+                case ASSET_MANIFEST:
+                    inputs.put("minifyResources", options.getMinifyResources());
+                    inputs.put("fingerprintedResources", new ArrayList<>(options.getFingerprintedResources()));
+                    break;
+                case LINE_INDEXES:
+                    inputs.put("minifyResources", options.getMinifyResources());
+                    inputs.put("lineIndexedResources", new ArrayList<>(options.getLineIndexedResources()));
+                    break;
+                default:
+                    break;
+            }
+            return inputs;
+        }
+
+        /**
+         * Get the files written by the emitter
+         *
+         * @param project Current project
+         * @param options Plugin options
+         *
+         * @return Output files and directories
+         */
+        public @NotNull List<File> getOutputs(@NotNull Project project, @NotNull ResourceGenerationOptions options) {
+            Path sourcePath = PluginUtils.resolveJavaPath(project).resolve(options.getTargetPackage().replace('.', '/'));
+            switch (this) {
+                case CONFIGURATION:
+                    return List.of(sourcePath.resolve(PluginUtils.OUTPUT_CONFIG_FILE_NAME + ".java").toFile());
+                case MESSAGES:
+                    return List.of(sourcePath.resolve(PluginUtils.OUTPUT_MESSAGES_FILE_NAME + ".java").toFile());
+                case INDEX_MANIFEST:
+                    return List.of(PluginUtils.resolveManifestPath(project).toFile());
+                case NATIVE_IMAGE_CONFIG:
+                    return List.of(PluginUtils.resolveNativeImagePath(project)
+                        .resolve(NativeImageConfigGenerator.CONFIG_FILE_NAME)
+                        .toFile());
+                case ASSET_MANIFEST:
+                    return List.of(PluginUtils.resolveGeneratedResourcesPath(project)
+                        .resolve(AssetManifestGenerator.MANIFEST_LOCATION)
+                        .toFile());
+                default:
+                    return List.of(PluginUtils.resolveGeneratedResourcesPath(project)
+                        .resolve(LineIndex.INDEX_PREFIX)
+                        .toFile());
+            }
+        }
+
+    }
+
+}
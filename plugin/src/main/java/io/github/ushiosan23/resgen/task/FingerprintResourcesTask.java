@@ -0,0 +1,101 @@
+package io.github.ushiosan23.resgen.task;
+
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceFilter;
+import io.github.ushiosan23.resgen.utils.ResourceFingerprints;
+import io.github.ushiosan23.resgen.utils.ResourceIndex;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.tasks.TaskAction;
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+public abstract class FingerprintResourcesTask extends DefaultTask {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Resources generation options
+     */
+    private final ResourceGenerationOptions options;
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     */
+    @Inject
+    public FingerprintResourcesTask(ResourceGenerationOptions opt) {
+        super();
+        // Initialize properties
+        options = opt;
+    }
+
+    /**
+     * Default task action. Copies each selected resource to its fingerprinted name and
+     * writes the names used by the generated {@code Res} class.
+     */
+    @TaskAction
+    public void taskAction() throws IOException {
+        Project project = getProject();
+        Path outputDir = PluginUtils.resolveFingerprintedResourcesPath(project);
+        Path minifiedDir = PluginUtils.resolveMinifiedResourcesPath(project);
+        ResourceIndex index = ResourceIndex.read(PluginUtils.resolveScanIndexPath(project));
+        ResourceFilter filter = new ResourceFilter(options.getFingerprintedResources(), List.of());
+        clean(outputDir);
+
+        Map<String, String> names = new TreeMap<>();
+        for (Map.Entry<String, Path> entry : index.getFiles().entrySet()) {
+            String location = entry.getKey();
+            if (!filter.isIncluded(location)) continue;
+            // Hash the packaged content
+            Path source = entry.getValue();
+            Path minified = minifiedDir.resolve(location);
+            if (options.getMinifyResources() && Files.isRegularFile(minified)) source = minified;
+            String name = ResourceFingerprints.fingerprint(location, ResourceFingerprints.hash(source));
+            Path target = outputDir.resolve(name);
+            Files.createDirectories(target.getParent());
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            names.put(location, name);
+            getLogger().info("{} -> {}", location, name);
+        }
+        new ResourceFingerprints(names).write(PluginUtils.resolveFingerprintsPath(project));
+        getLogger().lifecycle("Fingerprinted {} resources", names.size());
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Delete previous fingerprinted copies
+     *
+     * @param outputDir Fingerprinted resources directory
+     *
+     * @throws IOException Error to delete the files
+     */
+    private static void clean(@NotNull Path outputDir) throws IOException {
+        if (!Files.exists(outputDir)) return;
+        try (Stream<Path> walker = Files.walk(outputDir)) {
+            for (Path path : (Iterable<Path>) walker.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+}
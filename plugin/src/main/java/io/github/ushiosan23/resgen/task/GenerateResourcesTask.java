@@ -1,14 +1,30 @@
 package io.github.ushiosan23.resgen.task;
 
+import io.github.ushiosan23.resgen.config.GeneratorType;
 import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
-import io.github.ushiosan23.resgen.generators.IGenerator;
+import io.github.ushiosan23.resgen.generators.BaseGenerator;
+import io.github.ushiosan23.resgen.generators.DevJavaGenerator;
 import io.github.ushiosan23.resgen.generators.JavaGenerator;
+import io.github.ushiosan23.resgen.generators.NestedJavaGenerator;
 import io.github.ushiosan23.resgen.generators.PropertiesJavaGenerator;
+import io.github.ushiosan23.resgen.generators.StreamingJavaGenerator;
+import io.github.ushiosan23.resgen.utils.GenerationMetrics;
+import io.github.ushiosan23.resgen.utils.IndexManifest;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceBudget;
+import io.github.ushiosan23.resgen.utils.ResourceIndex;
+import io.github.ushiosan23.resgen.utils.SortedSpool;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
 import org.gradle.api.tasks.TaskAction;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
 
 public abstract class GenerateResourcesTask extends DefaultTask {
 
@@ -40,21 +56,146 @@ public abstract class GenerateResourcesTask extends DefaultTask {
      */
     @TaskAction
     public void taskAction() throws IOException {
+        Project project = getProject();
+        GenerationMetrics metrics = new GenerationMetrics();
+        metrics.start();
+        // Scan phase, the index and its duration are written by the scan task
+        ResourceIndex index = ResourceIndex.read(PluginUtils.resolveScanIndexPath(project));
+        metrics.addScan(index.getDirectoryCount(), index.getFileCount(), index.getTotalBytes(), index.getScanNanos());
+        // Budget phase
+        long phaseStart = System.nanoTime();
+        checkBudget(index);
+        metrics.setBudgetNanos(System.nanoTime() - phaseStart);
+        // Naming phase
+        phaseStart = System.nanoTime();
+        checkNames(index, metrics);
+        metrics.setNamingNanos(System.nanoTime() - phaseStart);
+
         // Properties
-        IGenerator generator = null;
+        BaseGenerator generator = null;
         // Check generation type
         switch (options.getGenerationType()) {
             case PROPERTIES_FILE:
-                generator = new PropertiesJavaGenerator(getProject(), options);
+                generator = new PropertiesJavaGenerator(project, options);
                 break;
             case JAVA_FILE:
-                generator = new JavaGenerator(getProject(), options);
+                generator = options.getDevMode() ?
+                    new DevJavaGenerator(project, options) :
+                    new JavaGenerator(project, options);
+                break;
+            case JAVA_STREAM_FILE:
+                generator = options.getDevMode() ?
+                    new DevJavaGenerator(project, options) :
+                    new StreamingJavaGenerator(project, options);
+                break;
+            case JAVA_NESTED_FILE:
+                generator = new NestedJavaGenerator(project, options);
                 break;
         }
         // Check if generator is null
         if (generator == null) return;
-        // Launch generator
+        // Constant parts are only written by the streaming generator
+        if (!(generator instanceof StreamingJavaGenerator)) {
+            StreamingJavaGenerator.deleteParts(PluginUtils.resolveJavaPath(project)
+                .resolve(options.getTargetPackage().replace('.', '/')));
+        }
+        // Emit phase of the main class. Other outputs are written by their own emit tasks.
+        phaseStart = System.nanoTime();
+        generator.setResourceIndex(index);
         generator.generate();
+        metrics.setEmitNanos(System.nanoTime() - phaseStart);
+        writeMetrics(metrics);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Check the constant names of all resources. Locations that produce the same
+     * constant name are reported as collisions. Names are sorted in temporary files,
+     * so memory does not grow with the number of resources.
+     * <p>
+     * Flat classes declare one constant per resource, so a collision is an error there.
+     * A numeric suffix would depend on the other locations and move when a resource is added.
+     *
+     * @param index   Resource index
+     * @param metrics Generation metrics
+     *
+     * @throws IOException     Error to read the index or to write the sort files
+     * @throws GradleException If two resources of a flat class have the same constant name
+     */
+    private void checkNames(ResourceIndex index, GenerationMetrics metrics) throws IOException {
+        GeneratorType type = options.getGenerationType();
+        boolean flatConstants = type == GeneratorType.JAVA_FILE || type == GeneratorType.JAVA_STREAM_FILE;
+        try (SortedSpool spool = new SortedSpool(getTemporaryDir().toPath(), Comparator.naturalOrder())) {
+            // Identifiers never contain a tab, so equal identifiers are adjacent
+            index.forEach((location, root, size) ->
+                spool.add(PluginUtils.toIdentifier(location) + "\t" + PluginUtils.escapeLocation(location)));
+            String[] previous = {null, null};
+            spool.forEach(line -> {
+                int separator = line.indexOf('\t');
+                String name = line.substring(0, separator);
+                String location = PluginUtils.unescapeLocation(line.substring(separator + 1));
+                if (name.equals(previous[0])) {
+                    if (flatConstants) {
+                        throw new GradleException("Resources \"" + previous[1] + "\" and \"" + location +
+                            "\" have the same constant name \"" + name + "\". Rename or exclude one of them.");
+                    }
+                    metrics.addCollision();
+                }
+                previous[0] = name;
+                previous[1] = location;
+            });
+        }
+    }
+
+    /**
+     * Check the resource budget. The previous index manifest is read before the manifest task replaces it,
+     * so the report shows the growth since the last generation.
+     *
+     * @param index Resource index
+     */
+    private void checkBudget(ResourceIndex index) {
+        ResourceBudget budget = new ResourceBudget(
+            options.getBudgetTotalBytes(),
+            options.getBudgetFileCount(),
+            options.getBudgetFileBytes(),
+            options.getBudgetDirectoryBytes());
+        if (budget.isEmpty()) return;
+        Path manifestFile = PluginUtils.resolveManifestPath(getProject());
+        Map<String, Long> previous = null;
+        try {
+            if (Files.isRegularFile(manifestFile)) previous = IndexManifest.read(manifestFile).getResources();
+        } catch (IOException err) {
+            // Written by another plugin version, the report has no growth
+            getLogger().info("Previous index manifest ignored: {}", err.getMessage());
+        }
+        String report = budget.check(index.getSizes(), previous);
+        if (report == null) return;
+        if (options.getFailOnBudget()) throw new GradleException(report);
+        getLogger().warn(report);
+    }
+
+    /**
+     * Write metrics report with the size of all generated files
+     *
+     * @param metrics Generation metrics
+     *
+     * @throws IOException Error to write the report
+     */
+    private void writeMetrics(GenerationMetrics metrics) throws IOException {
+        Project project = getProject();
+        Path sourcePath = PluginUtils.resolveJavaPath(project).resolve(options.getTargetPackage().replace('.', '/'));
+        metrics.addWrittenFile(sourcePath.resolve(PluginUtils.OUTPUT_FILE_NAME + ".java"));
+        if (options.getGenerationType() == GeneratorType.PROPERTIES_FILE)
+            metrics.addWrittenFile(PluginUtils.resolvePropertiesPath(project));
+        metrics.stop();
+        metrics.write(PluginUtils.resolveReportPath(project));
+        // Optional summary
+        if (options.getLogMetrics()) {
+            getLogger().lifecycle(metrics.summary());
+        }
     }
 
 }
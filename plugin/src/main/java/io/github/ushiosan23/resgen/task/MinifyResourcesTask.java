@@ -0,0 +1,114 @@
+package io.github.ushiosan23.resgen.task;
+
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceIndex;
+import io.github.ushiosan23.resgen.utils.ResourceMinifier;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.tasks.TaskAction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public abstract class MinifyResourcesTask extends DefaultTask {
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default task action. Writes a minified copy of each indexed text resource
+     * when the copy is smaller than the original.
+     */
+    @TaskAction
+    public void taskAction() throws IOException {
+        Project project = getProject();
+        Path outputDir = PluginUtils.resolveMinifiedResourcesPath(project);
+        ResourceIndex index = ResourceIndex.read(PluginUtils.resolveScanIndexPath(project));
+        clean(outputDir);
+
+        long originalBytes = 0;
+        long minifiedBytes = 0;
+        int minifiedCount = 0;
+        for (Map.Entry<String, Path> entry : index.getFiles().entrySet()) {
+            String location = entry.getKey();
+            if (!ResourceMinifier.isSupported(location)) continue;
+            // Minify
+            byte[] original = Files.readAllBytes(entry.getValue());
+            byte[] minified = minify(location, original);
+            if (minified == null || minified.length >= original.length) {
+                getLogger().info("{}: kept unchanged", location);
+                continue;
+            }
+            Path target = outputDir.resolve(location);
+            Files.createDirectories(target.getParent());
+            Files.write(target, minified);
+            getLogger().info("{}: {} -> {} bytes", location, original.length, minified.length);
+            originalBytes += original.length;
+            minifiedBytes += minified.length;
+            minifiedCount++;
+        }
+        // Savings report
+        long saved = originalBytes - minifiedBytes;
+        getLogger().lifecycle("Minified {} resources, {} -> {} bytes ({}% saved)",
+            minifiedCount,
+            originalBytes,
+            minifiedBytes,
+            originalBytes == 0 ? 0 : saved * 100 / originalBytes);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Minify resource content. Only valid UTF-8 content is processed, so the
+     * bytes that are not removed are written unchanged.
+     *
+     * @param location Resource location
+     * @param content  Original content
+     *
+     * @return Minified content or {@code null} if the resource cannot be minified
+     */
+    private static byte @Nullable [] minify(@NotNull String location, byte @NotNull [] content) {
+        String text;
+        try {
+            text = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(content))
+                .toString();
+        } catch (CharacterCodingException err) {
+            return null;
+        }
+        String result = ResourceMinifier.minify(location, text);
+        return result == null ? null : result.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Delete previous minified resources
+     *
+     * @param outputDir Minified resources directory
+     *
+     * @throws IOException Error to delete the files
+     */
+    private static void clean(@NotNull Path outputDir) throws IOException {
+        if (!Files.exists(outputDir)) return;
+        try (Stream<Path> walker = Files.walk(outputDir)) {
+            for (Path path : (Iterable<Path>) walker.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+}
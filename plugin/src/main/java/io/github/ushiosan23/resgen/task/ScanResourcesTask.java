@@ -0,0 +1,56 @@
+package io.github.ushiosan23.resgen.task;
+
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceIndex;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.tasks.TaskAction;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.Set;
+
+public abstract class ScanResourcesTask extends DefaultTask {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Resources generation options
+     */
+    private final ResourceGenerationOptions options;
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     */
+    @Inject
+    public ScanResourcesTask(ResourceGenerationOptions opt) {
+        super();
+        // Initialize properties
+        options = opt;
+    }
+
+    /**
+     * Default task action. Walks the resource directories once and writes the
+     * resource index used by the emitters. Resources are sorted in temporary files,
+     * so memory does not grow with the number of resources.
+     */
+    @TaskAction
+    public void taskAction() throws IOException {
+        Project project = getProject();
+        ResourceIndex index = ResourceIndex.scan(
+            PluginUtils.getResourceDirectories(project),
+            Set.of(PluginUtils.resolvePropertiesPath(project)),
+            options.getResourceFilter(),
+            PluginUtils.resolveScanIndexPath(project),
+            getTemporaryDir().toPath());
+        getLogger().info("Scanned {} files in {} ms", index.getFileCount(), index.getScanNanos() / 1_000_000);
+    }
+
+}
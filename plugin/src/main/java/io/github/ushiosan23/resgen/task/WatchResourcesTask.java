@@ -0,0 +1,153 @@
+package io.github.ushiosan23.resgen.task;
+
+import io.github.ushiosan23.resgen.config.ResourceGenerationOptions;
+import io.github.ushiosan23.resgen.utils.DevIndex;
+import io.github.ushiosan23.resgen.utils.PluginUtils;
+import io.github.ushiosan23.resgen.utils.ResourceIdStore;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.UntrackedTask;
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+@UntrackedTask(because = "Runs until it is interrupted")
+public abstract class WatchResourcesTask extends DefaultTask {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Time without events before the index is written
+     */
+    private static final long DEBOUNCE_MILLIS = 300L;
+
+    /**
+     * Resources generation options
+     */
+    private final ResourceGenerationOptions options;
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     */
+    @Inject
+    public WatchResourcesTask(ResourceGenerationOptions opt) {
+        super();
+        // Initialize properties
+        options = opt;
+    }
+
+    /**
+     * Default task action. Watches the resource directories and updates the development
+     * index until the build is interrupted.
+     */
+    @TaskAction
+    public void taskAction() throws IOException {
+        Project project = getProject();
+        List<Path> roots = PluginUtils.getResourceDirectories(project);
+        Path indexFile = PluginUtils.resolveDevIndexPath(project);
+        ResourceIdStore idStore = ResourceIdStore.load(PluginUtils.resolveIdsPath(project), options.getReuseFreedIds());
+        DevIndex index = new DevIndex(roots, Set.of(PluginUtils.resolvePropertiesPath(project)), options.getResourceFilter());
+
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> keys = new HashMap<>();
+            for (Path root : roots) {
+                if (Files.isDirectory(root)) registerAll(watcher, root, keys);
+            }
+            index.scan();
+            update(index, indexFile, idStore);
+            getLogger().lifecycle("Watching {} resource directories, press Ctrl+C to stop", keys.size());
+
+            while (!Thread.currentThread().isInterrupted()) {
+                // Wait for the first event, then collect until the directories are quiet
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                boolean overflow = false;
+                while (key != null) {
+                    Path directory = keys.get(key);
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == OVERFLOW || directory == null) {
+                            overflow = true;
+                            continue;
+                        }
+                        Path child = directory.resolve((Path) event.context());
+                        if (event.kind() == ENTRY_DELETE) {
+                            index.remove(child);
+                        } else if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                            registerAll(watcher, child, keys);
+                            index.add(child);
+                        } else {
+                            index.add(child);
+                        }
+                        changed = true;
+                    }
+                    if (!key.reset()) keys.remove(key);
+                    key = watcher.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                // Events were lost, the whole tree is read again
+                if (overflow) {
+                    index.scan();
+                    changed = true;
+                }
+                if (changed) update(index, indexFile, idStore);
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Write the development index and the assigned ids
+     *
+     * @param index     Current index
+     * @param indexFile Index file location
+     * @param idStore   Resource id store
+     *
+     * @throws IOException Error to write the files
+     */
+    private void update(@NotNull DevIndex index, @NotNull Path indexFile, @NotNull ResourceIdStore idStore)
+        throws IOException {
+        index.write(indexFile, idStore);
+        idStore.save();
+        getLogger().lifecycle("Resource index updated ({} resources)", index.getLocations().size());
+    }
+
+    /**
+     * Register a directory and all its subdirectories
+     *
+     * @param watcher   Watch service
+     * @param directory Start directory
+     * @param keys      Registered directories
+     *
+     * @throws IOException Error to walk the directory
+     */
+    private static void registerAll(@NotNull WatchService watcher, @NotNull Path directory, @NotNull Map<WatchKey, Path> keys)
+        throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                keys.put(dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+}
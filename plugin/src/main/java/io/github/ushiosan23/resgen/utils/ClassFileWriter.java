@@ -0,0 +1,303 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer. It only creates public interfaces with {@code int} and
+ * {@code String} constants, which need no bytecode instructions: every value is stored
+ * in the constant pool and referenced by a {@code ConstantValue} attribute.
+ */
+public final class ClassFileWriter {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Maximum number of constant pool entries of a class file
+     */
+    public static final int MAX_POOL_SIZE = 65535;
+
+    /**
+     * Maximum length of a constant string, in modified UTF-8 bytes
+     */
+    public static final int MAX_STRING_BYTES = 65535;
+
+    /**
+     * Class file version (java 8)
+     */
+    private static final int CLASS_VERSION = 52;
+
+    /**
+     * Interface access flags: public, interface and abstract
+     */
+    private static final int INTERFACE_ACCESS = 0x0001 | 0x0200 | 0x0400;
+
+    /**
+     * Constant access flags: public, static and final
+     */
+    private static final int CONSTANT_ACCESS = 0x0001 | 0x0008 | 0x0010;
+
+    /**
+     * Constant pool tags
+     */
+    private static final int TAG_UTF8 = 1, TAG_INTEGER = 3, TAG_CLASS = 7, TAG_STRING = 8;
+
+    /**
+     * Serialized constant pool entries
+     */
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+    /**
+     * Index of each serialized entry
+     */
+    private final Map<String, Integer> poolIndexes = new HashMap<>();
+
+    /**
+     * Next constant pool index. Index 0 is never used.
+     */
+    private int nextPoolIndex = 1;
+
+    /**
+     * Class name index
+     */
+    private final int thisClass;
+
+    /**
+     * Super class index
+     */
+    private final int superClass;
+
+    /**
+     * Super interface indexes
+     */
+    private final List<Integer> interfaces = new ArrayList<>();
+
+    /**
+     * Fields: name index, descriptor index and value index
+     */
+    private final List<int[]> fields = new ArrayList<>();
+
+    /**
+     * {@code ConstantValue} attribute name index
+     */
+    private final int constantValueName;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param internalName    Interface internal name ({@code com/example/ResIds})
+     * @param superInterfaces Internal names of the extended interfaces
+     */
+    public ClassFileWriter(@NotNull String internalName, @NotNull List<String> superInterfaces) {
+        thisClass = classEntry(internalName);
+        superClass = classEntry("java/lang/Object");
+        for (String superInterface : superInterfaces) {
+            interfaces.add(classEntry(superInterface));
+        }
+        constantValueName = utf8Entry("ConstantValue");
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get the number of used constant pool entries
+     *
+     * @return Constant pool size
+     */
+    public int getPoolSize() {
+        return nextPoolIndex;
+    }
+
+    /**
+     * Get the length of a string inside the constant pool
+     *
+     * @param value Target string
+     *
+     * @return Length in modified UTF-8 bytes
+     */
+    public static int encodedLength(@NotNull String value) {
+        int result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            result += encodedLength(value.charAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * Get the length of a character inside the constant pool
+     *
+     * @param value Target character
+     *
+     * @return Length in modified UTF-8 bytes
+     */
+    public static int encodedLength(char value) {
+        if (value != 0 && value < 0x80) return 1;
+        return value < 0x800 ? 2 : 3;
+    }
+
+    /**
+     * Add an {@code int} constant
+     *
+     * @param name  Field name
+     * @param value Constant value
+     */
+    public void addConstant(@NotNull String name, int value) {
+        int valueIndex = entry("I" + value, out -> {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt(value);
+        });
+        fields.add(new int[]{utf8Entry(name), utf8Entry("I"), valueIndex});
+    }
+
+    /**
+     * Add a {@code String} constant
+     *
+     * @param name  Field name
+     * @param value Constant value, at most {@link #MAX_STRING_BYTES} encoded bytes
+     */
+    public void addConstant(@NotNull String name, @NotNull String value) {
+        if (encodedLength(value) > MAX_STRING_BYTES)
+            throw new IllegalArgumentException("Constant " + name + " is too long");
+        int utf8Index = utf8Entry(value);
+        int valueIndex = entry("S" + value, out -> {
+            out.writeByte(TAG_STRING);
+            out.writeShort(utf8Index);
+        });
+        fields.add(new int[]{utf8Entry(name), utf8Entry("Ljava/lang/String;"), valueIndex});
+    }
+
+    /**
+     * Create the class file content
+     *
+     * @return Class file bytes
+     */
+    public byte @NotNull [] toByteArray() {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(result)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            out.writeShort(nextPoolIndex);
+            pool.writeTo(out);
+            out.writeShort(INTERFACE_ACCESS);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.size());
+            for (int superInterface : interfaces) {
+                out.writeShort(superInterface);
+            }
+            // Fields with a single ConstantValue attribute
+            out.writeShort(fields.size());
+            for (int[] field : fields) {
+                out.writeShort(CONSTANT_ACCESS);
+                out.writeShort(field[0]);
+                out.writeShort(field[1]);
+                out.writeShort(1);
+                out.writeShort(constantValueName);
+                out.writeInt(2);
+                out.writeShort(field[2]);
+            }
+            // No methods and no class attributes
+            out.writeShort(0);
+            out.writeShort(0);
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        return result.toByteArray();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get or create a text entry
+     *
+     * @param value Entry text
+     *
+     * @return Entry index
+     */
+    private int utf8Entry(@NotNull String value) {
+        return entry("U" + value, out -> {
+            out.writeByte(TAG_UTF8);
+            // Same format as DataOutput#writeUTF, which rejects texts longer than 65535 bytes
+            out.writeUTF(value);
+        });
+    }
+
+    /**
+     * Get or create a class entry
+     *
+     * @param internalName Class internal name
+     *
+     * @return Entry index
+     */
+    private int classEntry(@NotNull String internalName) {
+        int nameIndex = utf8Entry(internalName);
+        return entry("C" + internalName, out -> {
+            out.writeByte(TAG_CLASS);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    /**
+     * Get or create a constant pool entry
+     *
+     * @param key    Unique entry key
+     * @param writer Entry serializer
+     *
+     * @return Entry index
+     */
+    private int entry(@NotNull String key, @NotNull EntryWriter writer) {
+        Integer index = poolIndexes.get(key);
+        if (index != null) return index;
+        if (nextPoolIndex >= MAX_POOL_SIZE) throw new IllegalStateException("Constant pool is full");
+        DataOutputStream out = new DataOutputStream(pool);
+        try {
+            writer.write(out);
+            out.flush();
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        poolIndexes.put(key, nextPoolIndex);
+        return nextPoolIndex++;
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Constant pool entry serializer
+     */
+    @FunctionalInterface
+    private interface EntryWriter {
+
+        /**
+         * Write the entry
+         *
+         * @param out Constant pool stream
+         *
+         * @throws IOException Error to write the entry
+         */
+        void write(@NotNull DataOutputStream out) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.InvalidPropertiesFormatException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+public final class ConfigurationParser {
+
+    private ConfigurationParser() {
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Check if the file can be parsed as a configuration file
+     *
+     * @param file Target file
+     *
+     * @return Returns {@code true} if the file extension is supported
+     */
+    public static boolean isConfigurationFile(@NotNull Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".properties") || name.endsWith(".ini") || name.endsWith(".xml");
+    }
+
+    /**
+     * Parse a configuration file
+     *
+     * @param file Target file
+     *
+     * @return Sorted map with all entries or {@code null} if the file is not a configuration file
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @Nullable Map<String, String> parse(@NotNull Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        // Ini files
+        if (name.endsWith(".ini")) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                return parseIni(reader);
+            }
+        }
+        // Properties files
+        Properties properties = new Properties();
+        if (name.endsWith(".properties")) {
+            try (InputStream stream = Files.newInputStream(file)) {
+                properties.load(stream);
+            }
+            return toSortedMap(properties);
+        }
+        // Only xml files with the properties format are supported
+        if (name.endsWith(".xml")) {
+            try (InputStream stream = Files.newInputStream(file)) {
+                properties.loadFromXML(stream);
+            } catch (InvalidPropertiesFormatException err) {
+                return null;
+            }
+            return toSortedMap(properties);
+        }
+        return null;
+    }
+
+    /**
+     * Parse ini content. Section entries are stored as {@code section.key}.
+     *
+     * @param reader Content reader
+     *
+     * @return Sorted map with all entries
+     *
+     * @throws IOException Error to read content
+     */
+    public static @NotNull Map<String, String> parseIni(@NotNull Reader reader) throws IOException {
+        Map<String, String> result = new TreeMap<>();
+        BufferedReader buffered = new BufferedReader(reader);
+        String section = "";
+        String line;
+        while ((line = buffered.readLine()) != null) {
+            line = line.trim();
+            // Ignore comments and empty lines
+            if (line.isEmpty() || line.startsWith(";") || line.startsWith("#"))
+                continue;
+            // Section declaration
+            if (line.startsWith("[") && line.endsWith("]")) {
+                section = line.substring(1, line.length() - 1).trim();
+                continue;
+            }
+            // Key value entry
+            int separator = indexOfSeparator(line);
+            String key = separator == -1 ? line : line.substring(0, separator).trim();
+            String value = separator == -1 ? "" : unquote(line.substring(separator + 1).trim());
+            result.put(section.isEmpty() ? key : section + "." + key, value);
+        }
+        return result;
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Convert properties to a sorted map
+     *
+     * @param properties Target properties
+     *
+     * @return Sorted map result
+     */
+    private static @NotNull Map<String, String> toSortedMap(@NotNull Properties properties) {
+        Map<String, String> result = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            result.put(key, properties.getProperty(key));
+        }
+        return result;
+    }
+
+    /**
+     * Find first key value separator
+     *
+     * @param line Target line
+     *
+     * @return Separator index or {@code -1} if line does not contain any separator
+     */
+    private static int indexOfSeparator(@NotNull String line) {
+        int equals = line.indexOf('=');
+        int colon = line.indexOf(':');
+        if (equals == -1) return colon;
+        if (colon == -1) return equals;
+        return Math.min(equals, colon);
+    }
+
+    /**
+     * Remove value quotes
+     *
+     * @param value Target value
+     *
+     * @return Value without quotes
+     */
+    private static @NotNull String unquote(@NotNull String value) {
+        if (value.length() >= 2) {
+            char first = value.charAt(0);
+            char last = value.charAt(value.length() - 1);
+            if ((first == '"' || first == '\'') && first == last)
+                return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,171 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Development resource index. It is read by the development {@code Res} class
+ * and replaced atomically every time the resources change.
+ * <p>
+ * File format, one element per line:
+ * <pre>
+ * #root /project/src/main/resources
+ * 0	icons/icon.svg
+ * </pre>
+ * Locations are escaped with {@link PluginUtils#escapeLocation(String)}, so a line break in a name
+ * does not split its line.
+ */
+public final class DevIndex {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Root directory header
+     */
+    public static final String ROOT_HEADER = "#root ";
+
+    /**
+     * Resource directories
+     */
+    private final List<Path> roots;
+
+    /**
+     * Files excluded from the index
+     */
+    private final Set<Path> excludedFiles;
+
+    /**
+     * Include and exclude filter of resources
+     */
+    private final ResourceFilter filter;
+
+    /**
+     * Current resource locations
+     */
+    private final SortedSet<String> locations = new TreeSet<>();
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param roots         Resource directories
+     * @param excludedFiles Files excluded from the index
+     * @param filter        Include and exclude filter of resources
+     */
+    public DevIndex(@NotNull List<Path> roots, @NotNull Set<Path> excludedFiles, @NotNull ResourceFilter filter) {
+        this.roots = roots;
+        this.excludedFiles = excludedFiles;
+        this.filter = filter;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get current locations
+     *
+     * @return Sorted resource locations
+     */
+    public @NotNull SortedSet<String> getLocations() {
+        return Collections.unmodifiableSortedSet(locations);
+    }
+
+    /**
+     * Scan all resource directories
+     *
+     * @throws IOException Error to walk the directories
+     */
+    public void scan() throws IOException {
+        locations.clear();
+        for (Path root : roots) {
+            if (Files.exists(root)) add(root);
+        }
+    }
+
+    /**
+     * Add a file or all files inside a directory
+     *
+     * @param path Absolute file or directory path
+     *
+     * @throws IOException Error to walk the directory
+     */
+    public void add(@NotNull Path path) throws IOException {
+        Path root = rootOf(path);
+        if (root == null) return;
+        try (Stream<Path> walker = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) walker::iterator) {
+                if (!Files.isRegularFile(file) || excludedFiles.contains(file)) continue;
+                String location = PluginUtils.toResourceLocation(root.relativize(file));
+                if (filter.isIncluded(location)) locations.add(location);
+            }
+        }
+    }
+
+    /**
+     * Remove a file or all files inside a directory
+     *
+     * @param path Absolute file or directory path
+     */
+    public void remove(@NotNull Path path) {
+        Path root = rootOf(path);
+        if (root == null) return;
+        String location = PluginUtils.toResourceLocation(root.relativize(path));
+        locations.remove(location);
+        locations.subSet(location + "/", location + "0").clear();
+    }
+
+    /**
+     * Write the index file atomically. Ids are taken from the id store.
+     *
+     * @param file  Index file location
+     * @param store Resource id store
+     *
+     * @throws IOException Error to write the file
+     */
+    public void write(@NotNull Path file, @NotNull ResourceIdStore store) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (Path root : roots) {
+                writer.write(ROOT_HEADER + root.toAbsolutePath() + "\n");
+            }
+            for (String location : locations) {
+                writer.write(store.idOf(location) + "\t" + PluginUtils.escapeLocation(location) + "\n");
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Find the resource directory of a path
+     *
+     * @param path Absolute path
+     *
+     * @return Resource directory or {@code null} if path is outside all directories
+     */
+    private Path rootOf(@NotNull Path path) {
+        for (Path root : roots) {
+            if (path.startsWith(root)) return root;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,252 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Metrics of a single {@code generateResources} run. Phases are measured in nanoseconds
+ * and written as a json report. The scan phase is measured by the {@code scanResources} task,
+ * so it is the duration of the scan that created the current index.
+ */
+public final class GenerationMetrics {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Visited directories
+     */
+    private long directories;
+
+    /**
+     * Visited files
+     */
+    private long files;
+
+    /**
+     * Size of all visited files
+     */
+    private long bytesSeen;
+
+    /**
+     * Constant names used by more than one resource
+     */
+    private long collisions;
+
+    /**
+     * Scan phase duration
+     */
+    private long scanNanos;
+
+    /**
+     * Budget phase duration
+     */
+    private long budgetNanos;
+
+    /**
+     * Naming and collision phase duration
+     */
+    private long namingNanos;
+
+    /**
+     * Emit phase duration
+     */
+    private long emitNanos;
+
+    /**
+     * Size of all generated files
+     */
+    private long bytesWritten;
+
+    /**
+     * Bytes allocated by the task thread. {@code -1} if the jvm does not support it.
+     */
+    private long allocatedBytes = -1;
+
+    /**
+     * Peak heap usage during the task
+     */
+    private long peakHeapBytes;
+
+    /**
+     * Allocated bytes of the task thread when the task started
+     */
+    private long startAllocatedBytes = -1;
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Start memory measurement. Heap peak values are reset.
+     */
+    public void start() {
+        for (MemoryPoolMXBean pool : heapPools()) {
+            pool.resetPeakUsage();
+        }
+        startAllocatedBytes = currentAllocatedBytes();
+    }
+
+    /**
+     * Stop memory measurement
+     */
+    public void stop() {
+        long currentAllocated = currentAllocatedBytes();
+        if (startAllocatedBytes != -1 && currentAllocated != -1)
+            allocatedBytes = currentAllocated - startAllocatedBytes;
+        peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+    }
+
+    /**
+     * Register the result of the scan task
+     *
+     * @param directoryCount Visited directories
+     * @param fileCount      Visited files
+     * @param bytes          Size of all visited files
+     * @param nanos          Scan duration in nanoseconds
+     */
+    public void addScan(long directoryCount, long fileCount, long bytes, long nanos) {
+        directories += directoryCount;
+        files += fileCount;
+        bytesSeen += bytes;
+        scanNanos += nanos;
+    }
+
+    /**
+     * Register a name collision
+     */
+    public void addCollision() {
+        collisions++;
+    }
+
+    /**
+     * Register a generated file
+     *
+     * @param file Generated file. Ignored if it does not exist.
+     *
+     * @throws IOException Error to read the file size
+     */
+    public void addWrittenFile(@NotNull Path file) throws IOException {
+        if (Files.isRegularFile(file)) bytesWritten += Files.size(file);
+    }
+
+    /**
+     * Set budget phase duration
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void setBudgetNanos(long nanos) {
+        budgetNanos = nanos;
+    }
+
+    /**
+     * Set naming phase duration
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void setNamingNanos(long nanos) {
+        namingNanos = nanos;
+    }
+
+    /**
+     * Set emit phase duration
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void setEmitNanos(long nanos) {
+        emitNanos = nanos;
+    }
+
+    /**
+     * Get a single line summary
+     *
+     * @return Summary text
+     */
+    public @NotNull String summary() {
+        return String.format(Locale.ROOT,
+            "resgen: %d files (%d bytes) in %d directories, scan %d ms, budget %d ms, naming %d ms (%d collisions), " +
+                "emit %d ms, %d bytes written",
+            files, bytesSeen, directories, scanNanos / 1_000_000, budgetNanos / 1_000_000, namingNanos / 1_000_000, collisions,
+            emitNanos / 1_000_000, bytesWritten);
+    }
+
+    /**
+     * Convert metrics to json
+     *
+     * @return Json object text
+     */
+    public @NotNull String toJson() {
+        return "{\n" +
+            "  \"directoriesVisited\": " + directories + ",\n" +
+            "  \"filesVisited\": " + files + ",\n" +
+            "  \"bytesSeen\": " + bytesSeen + ",\n" +
+            "  \"scanNanos\": " + scanNanos + ",\n" +
+            "  \"budgetNanos\": " + budgetNanos + ",\n" +
+            "  \"namingNanos\": " + namingNanos + ",\n" +
+            "  \"nameCollisions\": " + collisions + ",\n" +
+            "  \"emitNanos\": " + emitNanos + ",\n" +
+            "  \"bytesWritten\": " + bytesWritten + ",\n" +
+            "  \"allocatedBytes\": " + allocatedBytes + ",\n" +
+            "  \"peakHeapBytes\": " + peakHeapBytes + "\n" +
+            "}\n";
+    }
+
+    /**
+     * Write json report
+     *
+     * @param file Report location
+     *
+     * @throws IOException Error to write the file
+     */
+    public void write(@NotNull Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get heap memory pools
+     *
+     * @return Heap pools
+     */
+    private static @NotNull List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>(ManagementFactory.getMemoryPoolMXBeans());
+        pools.removeIf(pool -> pool.getType() != MemoryType.HEAP);
+        return pools;
+    }
+
+    /**
+     * Get bytes allocated by the current thread
+     *
+     * @return Allocated bytes or {@code -1} if the jvm does not support it
+     */
+    private static long currentAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) return -1;
+        return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
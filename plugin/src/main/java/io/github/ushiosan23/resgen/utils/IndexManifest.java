@@ -0,0 +1,206 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Resource index manifest of a single project.
+ * <p>
+ * File format, one element per line:
+ * <pre>
+ * #resgen-manifest 2
+ * #project :app
+ * #archive app-1.0.jar
+ * icons/icon.svg	512
+ * </pre>
+ * Locations are escaped with {@link PluginUtils#escapeLocation(String)}, so no resource line is read as a header.
+ */
+public final class IndexManifest {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Format header
+     */
+    private static final String FORMAT_HEADER = "#resgen-manifest 2";
+
+    /**
+     * Project header
+     */
+    private static final String PROJECT_HEADER = "#project ";
+
+    /**
+     * Archive header
+     */
+    private static final String ARCHIVE_HEADER = "#archive ";
+
+    /**
+     * Project path
+     */
+    private final String projectPath;
+
+    /**
+     * Project archive file name
+     */
+    private final String archiveName;
+
+    /**
+     * Resource sizes sorted by location
+     */
+    private final SortedMap<String, Long> resources;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param project   Project path
+     * @param archive   Project archive file name
+     * @param resources Resource sizes by location
+     */
+    public IndexManifest(@NotNull String project, @NotNull String archive, @NotNull Map<String, Long> resources) {
+        this.projectPath = project;
+        this.archiveName = archive;
+        this.resources = Collections.unmodifiableSortedMap(new TreeMap<>(resources));
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get project path
+     *
+     * @return Project path
+     */
+    public @NotNull String getProjectPath() {
+        return projectPath;
+    }
+
+    /**
+     * Get project archive file name
+     *
+     * @return Archive file name
+     */
+    public @NotNull String getArchiveName() {
+        return archiveName;
+    }
+
+    /**
+     * Get all resources
+     *
+     * @return Resource sizes sorted by location
+     */
+    public @NotNull SortedMap<String, Long> getResources() {
+        return resources;
+    }
+
+    /**
+     * Read manifest file
+     *
+     * @param file Manifest location
+     *
+     * @return Manifest instance
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @NotNull IndexManifest read(@NotNull Path file) throws IOException {
+        String project = "";
+        String archive = "";
+        Map<String, Long> resources = new TreeMap<>();
+        // Read all lines
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (!FORMAT_HEADER.equals(line))
+                throw new IOException("Unsupported index manifest format in " + file + ": " + line);
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                if (line.startsWith(PROJECT_HEADER)) {
+                    project = line.substring(PROJECT_HEADER.length());
+                } else if (line.startsWith(ARCHIVE_HEADER)) {
+                    archive = line.substring(ARCHIVE_HEADER.length());
+                } else if (!line.startsWith("#")) {
+                    int separator = line.lastIndexOf('\t');
+                    resources.put(PluginUtils.unescapeLocation(line.substring(0, separator)), Long.parseLong(line.substring(separator + 1)));
+                }
+            }
+        }
+        return new IndexManifest(project, archive, resources);
+    }
+
+    /**
+     * Write manifest file
+     *
+     * @param file Manifest location
+     *
+     * @throws IOException Error to write the file
+     */
+    public void write(@NotNull Path file) throws IOException {
+        try (Writer writer = openWriter(file, projectPath, archiveName)) {
+            for (Map.Entry<String, Long> entry : resources.entrySet()) {
+                writer.write(PluginUtils.escapeLocation(entry.getKey()) + "\t" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Write manifest file from a resource index. The resources are streamed from the index,
+     * so they are not kept in memory.
+     *
+     * @param file    Manifest location
+     * @param project Project path
+     * @param archive Project archive file name
+     * @param index   Resource index
+     *
+     * @throws IOException Error to read the index or to write the file
+     */
+    public static void write(
+        @NotNull Path file,
+        @NotNull String project,
+        @NotNull String archive,
+        @NotNull ResourceIndex index) throws IOException {
+        try (Writer writer = openWriter(file, project, archive)) {
+            index.forEach((location, root, size) ->
+                writer.write(PluginUtils.escapeLocation(location) + "\t" + size + "\n"));
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Create the manifest file and write its headers
+     *
+     * @param file    Manifest location
+     * @param project Project path
+     * @param archive Project archive file name
+     *
+     * @return Writer positioned after the headers
+     *
+     * @throws IOException Error to create the file
+     */
+    private static @NotNull Writer openWriter(@NotNull Path file, @NotNull String project, @NotNull String archive) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writer.write(FORMAT_HEADER + "\n");
+        writer.write(PROJECT_HEADER + project + "\n");
+        writer.write(ARCHIVE_HEADER + archive + "\n");
+        return writer;
+    }
+
+}
@@ -0,0 +1,247 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Rewrites an archive so selected entries are stored without compression and their data starts
+ * at a multiple of {@link #ALIGNMENT}, like {@code zipalign}. The padding is an extra field of the
+ * local header. The position of each stored entry is written in the last entry of the archive,
+ * so the generated class maps it without reading the central directory.
+ * <p>
+ * Offsets file format, one entry per line (header offset, data offset and size):
+ * <pre>
+ * #resgen-stored 1
+ * data/cities.csv	4000	4096	1048576
+ * </pre>
+ */
+public final class JarAligner {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Offsets file location inside the archive
+     */
+    public static final String OFFSETS_LOCATION = "META-INF/resgen/stored.tsv";
+
+    /**
+     * Data alignment, the page size of most systems
+     */
+    public static final int ALIGNMENT = 4096;
+
+    /**
+     * Offsets file format header. It is the only header line, entry names may start with {@code #}.
+     */
+    public static final String OFFSETS_HEADER = "#resgen-stored 1";
+
+    /**
+     * Extra field id of the alignment padding, the one used by {@code zipalign}
+     */
+    private static final short PADDING_EXTRA_ID = (short) 0xD935;
+
+    /**
+     * Minimum padding extra field size (id, size and alignment)
+     */
+    private static final int PADDING_EXTRA_SIZE = 6;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * This class cannot be instantiated
+     */
+    private JarAligner() {
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Store and align the matching entries of an archive. Other entries keep their compression method.
+     *
+     * @param archive Target archive, replaced when the rewrite finishes
+     * @param filter  Entries to store
+     *
+     * @return Number of stored entries
+     *
+     * @throws IOException Error to read or write the archive
+     */
+    public static int align(@NotNull Path archive, @NotNull ResourceFilter filter) throws IOException {
+        Path output = archive.resolveSibling(archive.getFileName() + ".resgen");
+        StringBuilder offsets = new StringBuilder(OFFSETS_HEADER + "\n");
+        int count = 0;
+        long time = -1;
+        try (ZipFile source = new ZipFile(archive.toFile());
+             CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(output)));
+             ZipOutputStream target = new ZipOutputStream(counter)) {
+            for (ZipEntry entry : Collections.list(source.entries())) {
+                if (entry.getName().equals(OFFSETS_LOCATION)) continue;
+                time = entry.getTime();
+                ZipEntry copy = new ZipEntry(entry.getName());
+                copy.setTime(entry.getTime());
+                if (entry.getComment() != null) copy.setComment(entry.getComment());
+                if (entry.isDirectory() || !filter.isIncluded(entry.getName())) {
+                    if (entry.getExtra() != null) copy.setExtra(entry.getExtra());
+                    if (entry.getMethod() == ZipEntry.STORED) store(copy, entry.getSize(), entry.getCrc());
+                    target.putNextEntry(copy);
+                    copy(source, entry, target);
+                    target.closeEntry();
+                    continue;
+                }
+                // Checksum first, stored entries need it in the local header
+                CRC32 crc = new CRC32();
+                long size = 0;
+                byte[] buffer = new byte[65536];
+                try (InputStream in = source.getInputStream(entry)) {
+                    for (int read; (read = in.read(buffer)) != -1; size += read) {
+                        crc.update(buffer, 0, read);
+                    }
+                }
+                store(copy, size, crc.getValue());
+                long headerOffset = counter.count;
+                copy.setExtra(paddingExtra(0));
+                long padding = (ALIGNMENT - (headerOffset + localHeaderSize(copy)) % ALIGNMENT) % ALIGNMENT;
+                copy.setExtra(paddingExtra((int) padding));
+                target.putNextEntry(copy);
+                if (counter.count % ALIGNMENT != 0)
+                    throw new IllegalStateException("Entry " + entry.getName() + " could not be aligned");
+                offsets.append(entry.getName()).append('\t')
+                    .append(headerOffset).append('\t')
+                    .append(counter.count).append('\t')
+                    .append(size).append('\n');
+                copy(source, entry, target);
+                target.closeEntry();
+                count++;
+            }
+            // Last entry, so it does not move the stored entries
+            ZipEntry offsetsEntry = new ZipEntry(OFFSETS_LOCATION);
+            if (time != -1) offsetsEntry.setTime(time);
+            target.putNextEntry(offsetsEntry);
+            target.write(offsets.toString().getBytes(StandardCharsets.UTF_8));
+            target.closeEntry();
+        } catch (IOException | RuntimeException err) {
+            Files.deleteIfExists(output);
+            throw err;
+        }
+        Files.move(output, archive, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Configure an entry without compression
+     *
+     * @param entry Target entry
+     * @param size  Content size
+     * @param crc   Content checksum
+     */
+    private static void store(@NotNull ZipEntry entry, long size, long crc) {
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc);
+    }
+
+    /**
+     * Copy the content of an entry
+     *
+     * @param source Source archive
+     * @param entry  Source entry
+     * @param target Target stream
+     *
+     * @throws IOException Error to read or write the content
+     */
+    private static void copy(@NotNull ZipFile source, @NotNull ZipEntry entry, @NotNull OutputStream target) throws IOException {
+        try (InputStream in = source.getInputStream(entry)) {
+            in.transferTo(target);
+        }
+    }
+
+    /**
+     * Create the padding extra field
+     *
+     * @param padding Padding bytes after the field header
+     *
+     * @return Extra field content
+     */
+    private static byte @NotNull [] paddingExtra(int padding) {
+        ByteBuffer extra = ByteBuffer.allocate(PADDING_EXTRA_SIZE + padding).order(ByteOrder.LITTLE_ENDIAN);
+        extra.putShort(PADDING_EXTRA_ID);
+        extra.putShort((short) (padding + 2));
+        extra.putShort((short) ALIGNMENT);
+        return extra.array();
+    }
+
+    /**
+     * Get the local header size of an entry. The header is written to a discarded stream,
+     * so fields added by the zip writer are included.
+     *
+     * @param entry Target entry
+     *
+     * @return Size in bytes
+     *
+     * @throws IOException Error to write the header
+     */
+    private static long localHeaderSize(@NotNull ZipEntry entry) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(OutputStream.nullOutputStream());
+        new ZipOutputStream(counter).putNextEntry(new ZipEntry(entry));
+        return counter.count;
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Stream that counts the written bytes
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        /**
+         * Written bytes
+         */
+        private long count;
+
+        /**
+         * Default constructor
+         *
+         * @param out Target stream
+         */
+        CountingOutputStream(@NotNull OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            out.write(value);
+            count++;
+        }
+
+        @Override
+        public void write(byte @NotNull [] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+
+    }
+
+}
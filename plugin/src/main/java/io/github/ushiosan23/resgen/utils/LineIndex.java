@@ -0,0 +1,180 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Start offset of every line of a text resource. Lines end with {@code \n}, {@code \r\n} or {@code \r}.
+ * In record mode (csv) line breaks inside double quotes do not start a new line.
+ * <p>
+ * Binary format, big-endian, read by the generated {@code Res.Lines} class:
+ * <pre>
+ * long  content size
+ * long  line count
+ * int   offset width (4 or 8)
+ * ...   line start offsets
+ * </pre>
+ */
+public final class LineIndex {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Index location prefix inside the packaged resources
+     */
+    public static final String INDEX_PREFIX = "META-INF/resgen/lines/";
+
+    /**
+     * Index location suffix
+     */
+    public static final String INDEX_SUFFIX = ".lines";
+
+    /**
+     * Header size in bytes
+     */
+    public static final int HEADER_SIZE = 20;
+
+    /**
+     * Content size
+     */
+    private final long size;
+
+    /**
+     * Line start offsets
+     */
+    private final long[] offsets;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param size    Content size
+     * @param offsets Line start offsets
+     */
+    private LineIndex(long size, long @NotNull [] offsets) {
+        this.size = size;
+        this.offsets = offsets;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Scan the lines of a file
+     *
+     * @param file    Target file
+     * @param records Ignore line breaks inside double quotes
+     *
+     * @return Index instance
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @NotNull LineIndex scan(@NotNull Path file, boolean records) throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+        long position = 0;
+        boolean lineStart = true;
+        boolean quoted = false;
+        int previous = -1;
+        byte[] buffer = new byte[65536];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                for (int i = 0; i < read; i++, position++) {
+                    byte current = buffer[i];
+                    // The new line starts after the \n of a \r\n pair
+                    if (lineStart && !(previous == '\r' && current == '\n')) {
+                        if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+                        offsets[count++] = position;
+                        lineStart = false;
+                    }
+                    if (records && current == '"') quoted = !quoted;
+                    if ((current == '\n' || current == '\r') && !quoted) lineStart = true;
+                    previous = current;
+                }
+            }
+        }
+        return new LineIndex(position, Arrays.copyOf(offsets, count));
+    }
+
+    /**
+     * Get content size
+     *
+     * @return Size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get line count
+     *
+     * @return Number of lines, {@code 0} if the content is empty
+     */
+    public int getLineCount() {
+        return offsets.length;
+    }
+
+    /**
+     * Get the start of a line
+     *
+     * @param line Line number, starting at zero
+     *
+     * @return Offset in bytes
+     */
+    public long getOffset(int line) {
+        return offsets[line];
+    }
+
+    /**
+     * Read index file
+     *
+     * @param file Index location
+     *
+     * @return Index instance
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @NotNull LineIndex read(@NotNull Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long size = in.readLong();
+            long[] offsets = new long[Math.toIntExact(in.readLong())];
+            int width = in.readInt();
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = width == Integer.BYTES ? in.readInt() : in.readLong();
+            }
+            return new LineIndex(size, offsets);
+        }
+    }
+
+    /**
+     * Write index file. Offsets use four bytes when the content is smaller than 2 GiB.
+     *
+     * @param file Index location
+     *
+     * @throws IOException Error to write the file
+     */
+    public void write(@NotNull Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        int width = size <= Integer.MAX_VALUE ? Integer.BYTES : Long.BYTES;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeLong(size);
+            out.writeLong(offsets.length);
+            out.writeInt(width);
+            for (long offset : offsets) {
+                if (width == Integer.BYTES) out.writeInt((int) offset);
+                else out.writeLong(offset);
+            }
+        }
+    }
+
+}
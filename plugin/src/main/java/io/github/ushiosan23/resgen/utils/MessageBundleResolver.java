@@ -0,0 +1,176 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Resolves a family of locale message files at build time. Every locale receives
+ * the value of each key following the {@code language_COUNTRY_variant}, {@code language_COUNTRY},
+ * {@code language}, root chain, so runtime lookup is a single array access.
+ */
+public final class MessageBundleResolver {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Messages by locale tag. The root locale uses the empty tag.
+     */
+    private final SortedMap<String, Map<String, String>> files = new TreeMap<>();
+
+    /**
+     * Resolution problems
+     */
+    private final List<String> problems = new ArrayList<>();
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Normalize a locale suffix. Both {@code _} and {@code -} are accepted as separators.
+     *
+     * @param suffix Locale suffix ({@code es_mx}, {@code es-MX}, {@code en})
+     *
+     * @return Locale tag ({@code es_MX}) or {@code null} if the suffix is not a locale
+     */
+    public static @Nullable String normalizeLocale(@NotNull String suffix) {
+        if (suffix.isEmpty()) return "";
+        String[] parts = suffix.split("[_-]", 3);
+        if (!parts[0].matches("[A-Za-z]{2,3}")) return null;
+        StringBuilder result = new StringBuilder(parts[0].toLowerCase(Locale.ROOT));
+        if (parts.length > 1) {
+            if (!parts[1].matches("[A-Za-z]{2}|[0-9]{3}")) return null;
+            result.append('_').append(parts[1].toUpperCase(Locale.ROOT));
+        }
+        if (parts.length > 2) {
+            if (parts[2].isEmpty()) return null;
+            result.append('_').append(parts[2]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Get the fallback chain of a locale
+     *
+     * @param tag Normalized locale tag
+     *
+     * @return Tags from the most specific to the root locale
+     */
+    public static @NotNull List<String> fallbackChain(@NotNull String tag) {
+        List<String> result = new ArrayList<>();
+        String current = tag;
+        while (!current.isEmpty()) {
+            result.add(current);
+            int separator = current.lastIndexOf('_');
+            current = separator == -1 ? "" : current.substring(0, separator);
+        }
+        result.add("");
+        return result;
+    }
+
+    /**
+     * Add a locale file
+     *
+     * @param tag      Normalized locale tag
+     * @param source   File location, used in problem messages
+     * @param messages File messages
+     */
+    public void add(@NotNull String tag, @NotNull String source, @NotNull Map<String, String> messages) {
+        if (files.containsKey(tag)) {
+            problems.add(source + ": locale '" + tag + "' is defined more than once");
+            return;
+        }
+        files.put(tag, messages);
+    }
+
+    /**
+     * Get all message keys. If the root file exists, its keys are the valid keys,
+     * otherwise all keys of all locales are used.
+     *
+     * @return Sorted keys
+     */
+    public @NotNull List<String> getKeys() {
+        Map<String, String> root = files.get("");
+        SortedSet<String> result = new TreeSet<>();
+        if (root != null) {
+            result.addAll(root.keySet());
+        } else {
+            files.values().forEach(messages -> result.addAll(messages.keySet()));
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Get all locale tags
+     *
+     * @return Sorted locale tags
+     */
+    public @NotNull List<String> getLocales() {
+        return new ArrayList<>(files.keySet());
+    }
+
+    /**
+     * Resolve all messages. Problems are collected instead of thrown.
+     *
+     * @return Messages indexed by locale position and key position
+     */
+    public @NotNull String[][] resolve() {
+        List<String> keys = getKeys();
+        List<String> locales = getLocales();
+        Set<String> validKeys = new HashSet<>(keys);
+        String[][] result = new String[locales.size()][];
+
+        for (int localeIndex = 0; localeIndex < locales.size(); localeIndex++) {
+            String tag = locales.get(localeIndex);
+            // Unknown keys
+            for (String key : new TreeSet<>(files.get(tag).keySet())) {
+                if (!validKeys.contains(key)) problems.add(describe(tag) + ": unknown key '" + key + "'");
+            }
+            // Fallback values
+            List<String> chain = fallbackChain(tag);
+            String[] values = new String[keys.size()];
+            for (int keyIndex = 0; keyIndex < keys.size(); keyIndex++) {
+                String key = keys.get(keyIndex);
+                for (String candidate : chain) {
+                    Map<String, String> messages = files.get(candidate);
+                    if (messages != null && messages.containsKey(key)) {
+                        values[keyIndex] = messages.get(key);
+                        break;
+                    }
+                }
+                if (values[keyIndex] == null) problems.add(describe(tag) + ": missing key '" + key + "'");
+            }
+            result[localeIndex] = values;
+        }
+        return result;
+    }
+
+    /**
+     * Get resolution problems
+     *
+     * @return Problem messages
+     */
+    public @NotNull List<String> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Describe a locale tag in problem messages
+     *
+     * @param tag Locale tag
+     *
+     * @return Locale description
+     */
+    private static @NotNull String describe(@NotNull String tag) {
+        return tag.isEmpty() ? "root locale" : "locale '" + tag + "'";
+    }
+
+}
@@ -12,8 +12,13 @@ import org.gradle.api.tasks.SourceSetContainer;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public final class PluginUtils {
 
@@ -32,6 +37,25 @@ public final class PluginUtils {
         JavaPlugin.class
     };
 
+    /**
+     * Used to check if constant starts with number
+     */
+    private static final Pattern startConstantPattern = Pattern.compile("^\\d");
+
+    /**
+     * All java reserved words
+     */
+    private static final String[] javaReservedWords = new String[]{
+        "abstract", "assert", "boolean", "break", "byte", "case",
+        "catch", "char", "class", "const", "continue", "default",
+        "double", "do", "else", "enum", "extends", "false", "final",
+        "finally", "float", "for", "goto", "if", "implements", "import",
+        "instanceof", "int", "interface", "long", "native", "new",
+        "null", "package", "private", "protected", "public", "return",
+        "short", "static", "strictfp", "super", "switch", "synchronized",
+        "this", "throw", "throws", "transient", "true", "try", "void", "volatile", "while"
+    };
+
     /**
      * Output java file name
      */
@@ -42,6 +66,61 @@ public final class PluginUtils {
      */
     public static final String OUTPUT_PROPERTIES_NAME = "resources.properties";
 
+    /**
+     * Output configuration java file name
+     */
+    public static final String OUTPUT_CONFIG_FILE_NAME = "ResConfig";
+
+    /**
+     * Output global index java file name
+     */
+    public static final String OUTPUT_AGGREGATE_FILE_NAME = "GlobalRes";
+
+    /**
+     * Output message bundles java file name
+     */
+    public static final String OUTPUT_MESSAGES_FILE_NAME = "ResMessages";
+
+    /**
+     * Resource ids interface name. It is written as bytecode when {@code bytecodeIds} is enabled.
+     */
+    public static final String OUTPUT_IDS_CLASS_NAME = "ResIds";
+
+    /**
+     * Constant part interfaces name prefix, written by the streaming generator
+     */
+    public static final String OUTPUT_PARTS_CLASS_NAME = "ResConstants";
+
+    /**
+     * Index manifest file name
+     */
+    public static final String OUTPUT_MANIFEST_NAME = "index-manifest.txt";
+
+    /**
+     * Resource ids file name
+     */
+    public static final String OUTPUT_IDS_NAME = "resource-ids.txt";
+
+    /**
+     * Development index file name
+     */
+    public static final String OUTPUT_DEV_INDEX_NAME = "dev-index.txt";
+
+    /**
+     * Scanned resources index file name
+     */
+    public static final String OUTPUT_SCAN_INDEX_NAME = "resource-index.txt";
+
+    /**
+     * Metrics report file name
+     */
+    public static final String OUTPUT_REPORT_NAME = "metrics.json";
+
+    /**
+     * Fingerprinted names file name
+     */
+    public static final String OUTPUT_FINGERPRINTS_NAME = "fingerprints.txt";
+
     /* ------------------------------------------------------------------
      * Methods
      * ------------------------------------------------------------------ */
@@ -116,6 +195,21 @@ public final class PluginUtils {
         return mainSet.getResources();
     }
 
+    /**
+     * Get all project resource directories
+     *
+     * @param project Target project
+     *
+     * @return Resource directories list
+     */
+    public static @NotNull List<Path> getResourceDirectories(@NotNull Project project) {
+        return getResourcesSourceSet(project)
+            .getSrcDirs()
+            .stream()
+            .map(File::toPath)
+            .collect(Collectors.toList());
+    }
+
     /**
      * Get properties output path
      *
@@ -132,6 +226,160 @@ public final class PluginUtils {
         return Path.of(buildDir.getAbsolutePath(), "src", "main", "resources", outFileName);
     }
 
+    /**
+     * Get resource ids file path
+     *
+     * @param project Target project
+     *
+     * @return Resource ids file location
+     */
+    public static @NotNull Path resolveIdsPath(@NotNull Project project) {
+        return Path.of(project.getProjectDir().getAbsolutePath(), "resgen", OUTPUT_IDS_NAME);
+    }
+
+    /**
+     * Get index manifest file path
+     *
+     * @param project Target project
+     *
+     * @return Index manifest location
+     */
+    public static @NotNull Path resolveManifestPath(@NotNull Project project) {
+        return resolveBuildPath(project).resolve(OUTPUT_MANIFEST_NAME);
+    }
+
+    /**
+     * Resolve development index location
+     *
+     * @param project Target project
+     *
+     * @return Development index file location
+     */
+    public static @NotNull Path resolveDevIndexPath(@NotNull Project project) {
+        return resolveBuildPath(project).resolve(OUTPUT_DEV_INDEX_NAME);
+    }
+
+    /**
+     * Get scanned resources index location
+     *
+     * @param project Target project
+     *
+     * @return Resource index file location
+     */
+    public static @NotNull Path resolveScanIndexPath(@NotNull Project project) {
+        return resolveBuildPath(project).resolve(OUTPUT_SCAN_INDEX_NAME);
+    }
+
+    /**
+     * Get generated resources directory. It is packaged with the project resources.
+     *
+     * @param project Target project
+     *
+     * @return Generated resources directory location
+     */
+    public static @NotNull Path resolveGeneratedResourcesPath(@NotNull Project project) {
+        File buildDir = project.getLayout().getBuildDirectory().get().getAsFile();
+        return Path.of(buildDir.getAbsolutePath(), "generated", "resources", "resgen");
+    }
+
+    /**
+     * Get minified resources directory. Its files replace the project resources with the same location.
+     *
+     * @param project Target project
+     *
+     * @return Minified resources directory location
+     */
+    public static @NotNull Path resolveMinifiedResourcesPath(@NotNull Project project) {
+        File buildDir = project.getLayout().getBuildDirectory().get().getAsFile();
+        return Path.of(buildDir.getAbsolutePath(), "generated", "resources", "resgen-minified");
+    }
+
+    /**
+     * Get fingerprinted resources directory. Its files are packaged next to the project resources.
+     *
+     * @param project Target project
+     *
+     * @return Fingerprinted resources directory location
+     */
+    public static @NotNull Path resolveFingerprintedResourcesPath(@NotNull Project project) {
+        File buildDir = project.getLayout().getBuildDirectory().get().getAsFile();
+        return Path.of(buildDir.getAbsolutePath(), "generated", "resources", "resgen-fingerprinted");
+    }
+
+    /**
+     * Get fingerprinted names file location
+     *
+     * @param project Target project
+     *
+     * @return {@code build/resgen/fingerprints.txt} location
+     */
+    public static @NotNull Path resolveFingerprintsPath(@NotNull Project project) {
+        return resolveBuildPath(project).resolve(OUTPUT_FINGERPRINTS_NAME);
+    }
+
+    /**
+     * Get generated classes directory. It is added to the main compile and runtime classpath.
+     *
+     * @param project Target project
+     *
+     * @return Generated classes directory location
+     */
+    public static @NotNull Path resolveGeneratedClassesPath(@NotNull Project project) {
+        File buildDir = project.getLayout().getBuildDirectory().get().getAsFile();
+        return Path.of(buildDir.getAbsolutePath(), "generated", "classes", "resgen");
+    }
+
+    /**
+     * Get the directory with the sources of the generated classes. They are never compiled,
+     * the IDE uses them for navigation.
+     *
+     * @param project Target project
+     *
+     * @return Generated class sources location
+     */
+    public static @NotNull Path resolveGeneratedStubsPath(@NotNull Project project) {
+        File buildDir = project.getLayout().getBuildDirectory().get().getAsFile();
+        return Path.of(buildDir.getAbsolutePath(), "generated", "sources", "resgen-stubs");
+    }
+
+    /**
+     * Get native-image configuration directory inside the generated resources
+     *
+     * @param project Target project
+     *
+     * @return {@code META-INF/native-image/<group>/<name>} location
+     */
+    public static @NotNull Path resolveNativeImagePath(@NotNull Project project) {
+        Path result = resolveGeneratedResourcesPath(project).resolve("META-INF").resolve("native-image");
+        String group = project.getGroup().toString();
+        if (!group.isBlank()) result = result.resolve(group);
+        return result.resolve(project.getName());
+    }
+
+    /**
+     * Get metrics report location
+     *
+     * @param project Target project
+     *
+     * @return {@code build/reports/resgen/metrics.json} location
+     */
+    public static @NotNull Path resolveReportPath(@NotNull Project project) {
+        File buildDir = project.getLayout().getBuildDirectory().get().getAsFile();
+        return Path.of(buildDir.getAbsolutePath(), "reports", "resgen", OUTPUT_REPORT_NAME);
+    }
+
+    /**
+     * Get plugin build directory
+     *
+     * @param project Target project
+     *
+     * @return Plugin build directory location
+     */
+    public static @NotNull Path resolveBuildPath(@NotNull Project project) {
+        File buildDir = project.getLayout().getBuildDirectory().get().getAsFile();
+        return Path.of(buildDir.getAbsolutePath(), "resgen");
+    }
+
     /**
      * Resolve project file name
      *
@@ -158,4 +406,121 @@ public final class PluginUtils {
         return group;
     }
 
+    /**
+     * Convert a relative resource path to a class loader location
+     *
+     * @param relative Path relative to the resource directory
+     *
+     * @return Resource location with "/" separators
+     */
+    public static @NotNull String toResourceLocation(@NotNull Path relative) {
+        return relative.toString()
+            .replace("\\", "/")
+            .replace("\\/", "/");
+    }
+
+    /**
+     * Escape a location for line based index files. Backslashes and line breaks are escaped
+     * with a backslash, and so is a leading {@code #}, so the line is never read as a header.
+     *
+     * @param location Resource location
+     *
+     * @return Escaped location
+     */
+    public static @NotNull String escapeLocation(@NotNull String location) {
+        StringBuilder builder = new StringBuilder(location.length() + 1);
+        if (location.startsWith("#")) builder.append('\\');
+        for (int i = 0; i < location.length(); i++) {
+            char value = location.charAt(i);
+            if (value == '\\') builder.append("\\\\");
+            else if (value == '\n') builder.append("\\n");
+            else if (value == '\r') builder.append("\\r");
+            else builder.append(value);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Restore a location escaped by {@link #escapeLocation(String)}
+     *
+     * @param text Escaped location
+     *
+     * @return Resource location
+     *
+     * @throws IOException Invalid escape sequence
+     */
+    public static @NotNull String unescapeLocation(@NotNull String text) throws IOException {
+        if (text.indexOf('\\') == -1) return text;
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char value = text.charAt(i);
+            if (value != '\\') {
+                builder.append(value);
+                continue;
+            }
+            if (++i == text.length()) throw new IOException("Invalid resource location: " + text);
+            switch (text.charAt(i)) {
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case '\\':
+                case '#':
+                    builder.append(text.charAt(i));
+                    break;
+                default:
+                    throw new IOException("Invalid resource location: " + text);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Convert a relative resource path to a valid java constant name
+     *
+     * @param relative Path relative to the resource directory
+     *
+     * @return Valid java identifier
+     */
+    public static @NotNull String toConstantName(@NotNull Path relative) {
+        return toIdentifier(relative.toString());
+    }
+
+    /**
+     * Convert any text to a valid java identifier
+     *
+     * @param text Text to convert
+     *
+     * @return Valid java identifier
+     */
+    public static @NotNull String toIdentifier(@NotNull String text) {
+        String constantName = text
+            .replace(".", "_")
+            .replace("\\", "_")
+            .replace("/", "_")
+            .replaceAll("-", "__")
+            .replaceAll("\\s", "_")
+            .toLowerCase(Locale.ROOT);
+        // Replace all invalid characters
+        StringBuilder builder = new StringBuilder(constantName.length());
+        for (char c : constantName.toCharArray()) {
+            builder.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        constantName = builder.length() == 0 ? "_" : builder.toString();
+
+        if (startConstantPattern.matcher(constantName).find())
+            constantName = "$" + constantName;
+
+        // Check if constant name is a java reserved word
+        for (String reserved : javaReservedWords) {
+            if (constantName.equals(reserved)) {
+                constantName = "$" + constantName + "$";
+                break;
+            }
+        }
+        return constantName;
+    }
+
 }
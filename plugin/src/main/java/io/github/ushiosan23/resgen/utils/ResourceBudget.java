@@ -0,0 +1,185 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Size budgets of the indexed resources. Limits lower or equal than zero are disabled.
+ * Sizes are compared with the previous index manifest, so the report shows what grew
+ * since the last generation.
+ */
+public final class ResourceBudget {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Resources listed in the report
+     */
+    public static final int REPORT_SIZE = 10;
+
+    /**
+     * Maximum size of all resources
+     */
+    private final long maxTotalBytes;
+
+    /**
+     * Maximum number of resources
+     */
+    private final long maxFileCount;
+
+    /**
+     * Maximum size of a single resource
+     */
+    private final long maxFileBytes;
+
+    /**
+     * Maximum size by directory, including its subdirectories
+     */
+    private final SortedMap<String, Long> maxDirectoryBytes;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param maxTotalBytes     Maximum size of all resources
+     * @param maxFileCount      Maximum number of resources
+     * @param maxFileBytes      Maximum size of a single resource
+     * @param maxDirectoryBytes Maximum size by directory ({@code icons} or {@code icons/})
+     */
+    public ResourceBudget(
+        long maxTotalBytes,
+        long maxFileCount,
+        long maxFileBytes,
+        @NotNull Map<String, Long> maxDirectoryBytes) {
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxFileCount = maxFileCount;
+        this.maxFileBytes = maxFileBytes;
+        this.maxDirectoryBytes = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : maxDirectoryBytes.entrySet()) {
+            String directory = entry.getKey().replaceAll("^/+|/+$", "");
+            if (!directory.isEmpty() && entry.getValue() > 0) this.maxDirectoryBytes.put(directory + "/", entry.getValue());
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Check if any limit is enabled
+     *
+     * @return {@code true} if no resource can exceed the budget
+     */
+    public boolean isEmpty() {
+        return maxTotalBytes <= 0 && maxFileCount <= 0 && maxFileBytes <= 0 && maxDirectoryBytes.isEmpty();
+    }
+
+    /**
+     * Check resources against the budget
+     *
+     * @param sizes    Resource sizes by location
+     * @param previous Resource sizes of the previous generation, {@code null} if there is none
+     *
+     * @return Report with the exceeded limits and the largest resources of them,
+     * or {@code null} if the resources are within the budget
+     */
+    public @Nullable String check(@NotNull Map<String, Long> sizes, @Nullable Map<String, Long> previous) {
+        Map<String, Long> before = previous == null ? Map.of() : previous;
+        boolean compared = previous != null;
+        List<String> violations = new ArrayList<>();
+        // Resources inside an exceeded limit, used to rank the offenders
+        Set<String> offenders = new HashSet<>();
+        long totalBytes = sum(sizes, "");
+        if (maxTotalBytes > 0 && totalBytes > maxTotalBytes) {
+            violations.add("total size " + totalBytes + " > " + maxTotalBytes + " bytes" +
+                growth(totalBytes, sum(before, ""), compared));
+            offenders.addAll(sizes.keySet());
+        }
+        if (maxFileCount > 0 && sizes.size() > maxFileCount) {
+            violations.add("file count " + sizes.size() + " > " + maxFileCount +
+                growth(sizes.size(), (long) before.size(), compared));
+            offenders.addAll(sizes.keySet());
+        }
+        for (Map.Entry<String, Long> entry : maxDirectoryBytes.entrySet()) {
+            String directory = entry.getKey();
+            long directoryBytes = sum(sizes, directory);
+            if (directoryBytes <= entry.getValue()) continue;
+            violations.add("directory " + directory + " " + directoryBytes + " > " + entry.getValue() + " bytes" +
+                growth(directoryBytes, sum(before, directory), compared));
+            for (String location : sizes.keySet()) {
+                if (location.startsWith(directory)) offenders.add(location);
+            }
+        }
+        if (maxFileBytes > 0) {
+            for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+                if (entry.getValue() <= maxFileBytes) continue;
+                violations.add("file " + entry.getKey() + " " + entry.getValue() + " > " + maxFileBytes + " bytes" +
+                    growth(entry.getValue(), before.get(entry.getKey()), compared));
+                offenders.add(entry.getKey());
+            }
+        }
+        if (violations.isEmpty()) return null;
+
+        // Largest offenders first, then by location
+        List<String> ranked = new ArrayList<>(offenders);
+        ranked.sort(Comparator.comparing((String location) -> sizes.get(location)).reversed()
+            .thenComparing(Comparator.naturalOrder()));
+        StringBuilder report = new StringBuilder("Resource budget exceeded:\n");
+        for (String violation : violations) {
+            report.append("  ").append(violation).append('\n');
+        }
+        report.append("Largest resources:\n");
+        for (int i = 0; i < Math.min(REPORT_SIZE, ranked.size()); i++) {
+            String location = ranked.get(i);
+            long size = sizes.get(location);
+            report.append(String.format(Locale.ROOT, "  %2d. %s %d bytes%s%n",
+                i + 1, location, size, growth(size, before.get(location), compared)));
+        }
+        if (ranked.size() > REPORT_SIZE) report.append("  ... ").append(ranked.size() - REPORT_SIZE).append(" more\n");
+        return report.toString();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get the size of a directory
+     *
+     * @param sizes     Resource sizes by location
+     * @param directory Directory prefix with its trailing slash, or empty for all resources
+     *
+     * @return Size in bytes
+     */
+    private static long sum(@NotNull Map<String, Long> sizes, @NotNull String directory) {
+        long result = 0;
+        for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+            if (entry.getKey().startsWith(directory)) result += entry.getValue();
+        }
+        return result;
+    }
+
+    /**
+     * Get the growth against the previous generation
+     *
+     * @param current  Current value
+     * @param previous Previous value, {@code null} if it did not exist
+     * @param compared {@code false} if there is no previous generation
+     *
+     * @return Growth text with a leading space, empty if there is no previous generation
+     */
+    private static @NotNull String growth(long current, @Nullable Long previous, boolean compared) {
+        if (!compared) return "";
+        if (previous == null) return " (new)";
+        long delta = current - previous;
+        return delta == 0 ? " (unchanged)" : String.format(Locale.ROOT, " (%+d)", delta);
+    }
+
+}
@@ -0,0 +1,130 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Include and exclude filter of resource locations. Patterns use the ant glob syntax
+ * over {@code /} separated locations: {@code *} matches inside a directory,
+ * {@code **} matches any number of directories and {@code ?} matches one character.
+ */
+public final class ResourceFilter {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Include patterns. Empty list includes everything.
+     */
+    private final List<Pattern> includes;
+
+    /**
+     * Exclude patterns
+     */
+    private final List<Pattern> excludes;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param includes Include glob patterns
+     * @param excludes Exclude glob patterns
+     */
+    public ResourceFilter(@NotNull List<String> includes, @NotNull List<String> excludes) {
+        this.includes = compile(includes);
+        this.excludes = compile(excludes);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Check if a location is indexed
+     *
+     * @param location Resource location
+     *
+     * @return Returns {@code true} if the location matches any include pattern and no exclude pattern
+     */
+    public boolean isIncluded(@NotNull String location) {
+        return (includes.isEmpty() || matchesAny(includes, location)) && !matchesAny(excludes, location);
+    }
+
+    /**
+     * Convert a glob pattern to a regular expression
+     *
+     * @param glob Glob pattern
+     *
+     * @return Regular expression
+     */
+    public static @NotNull String toRegex(@NotNull String glob) {
+        StringBuilder result = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char current = glob.charAt(i);
+            if (current == '*' && glob.startsWith("**/", i)) {
+                result.append("(?:.*/)?");
+                i += 3;
+                continue;
+            }
+            if (current == '*' && glob.startsWith("**", i)) {
+                result.append(".*");
+                i += 2;
+                continue;
+            }
+            if (current == '*') {
+                result.append("[^/]*");
+            } else if (current == '?') {
+                result.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(current) != -1) {
+                result.append('\\').append(current);
+            } else {
+                result.append(current);
+            }
+            i++;
+        }
+        return result.toString();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Compile all glob patterns
+     *
+     * @param globs Glob patterns
+     *
+     * @return Compiled patterns
+     */
+    private static @NotNull List<Pattern> compile(@NotNull List<String> globs) {
+        List<Pattern> result = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            result.add(Pattern.compile(toRegex(glob.replace('\\', '/'))));
+        }
+        return result;
+    }
+
+    /**
+     * Check if any pattern matches the location
+     *
+     * @param patterns Compiled patterns
+     * @param location Resource location
+     *
+     * @return Returns {@code true} if any pattern matches
+     */
+    private static boolean matchesAny(@NotNull List<Pattern> patterns, @NotNull String location) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(location).matches()) return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,168 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Fingerprinted names of the resources. A fingerprinted name contains the hash of the
+ * packaged content before the extension ({@code icons/icon.3f2a9c1d.svg}), so it changes
+ * only when the content changes.
+ * <p>
+ * File format, one resource per line:
+ * <pre>
+ * #resgen-fingerprints 2
+ * icons/icon.svg	icons/icon.3f2a9c1d.svg
+ * </pre>
+ * Both names are escaped with {@link PluginUtils#escapeLocation(String)}.
+ */
+public final class ResourceFingerprints {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Hash length in hexadecimal characters (32 bits)
+     */
+    public static final int HASH_LENGTH = 8;
+
+    /**
+     * Format header
+     */
+    private static final String FORMAT_HEADER = "#resgen-fingerprints 2";
+
+    /**
+     * Fingerprinted names by location
+     */
+    private final SortedMap<String, String> names;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param names Fingerprinted names by location
+     */
+    public ResourceFingerprints(@NotNull Map<String, String> names) {
+        this.names = Collections.unmodifiableSortedMap(new TreeMap<>(names));
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get fingerprinted names
+     *
+     * @return Fingerprinted names sorted by location
+     */
+    public @NotNull SortedMap<String, String> getNames() {
+        return names;
+    }
+
+    /**
+     * Get the fingerprinted name of a location
+     *
+     * @param location Resource location
+     * @param hash     Content hash
+     *
+     * @return Location with the hash before the last extension
+     */
+    public static @NotNull String fingerprint(@NotNull String location, @NotNull String hash) {
+        int nameStart = location.lastIndexOf('/') + 1;
+        int dot = location.lastIndexOf('.');
+        // Names without extension and dot files keep the hash at the end
+        if (dot <= nameStart) return location + "." + hash;
+        return location.substring(0, dot) + "." + hash + location.substring(dot);
+    }
+
+    /**
+     * Hash the content of a file
+     *
+     * @param file Target file
+     *
+     * @return First {@link #HASH_LENGTH} hexadecimal characters of the SHA-256
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @NotNull String hash(@NotNull Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder result = new StringBuilder(HASH_LENGTH);
+        byte[] hash = digest.digest();
+        for (int i = 0; i < HASH_LENGTH / 2; i++) {
+            result.append(String.format("%02x", hash[i]));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Read fingerprints file
+     *
+     * @param file Fingerprints location
+     *
+     * @return Fingerprints instance, empty if the file does not exist
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @NotNull ResourceFingerprints read(@NotNull Path file) throws IOException {
+        Map<String, String> names = new TreeMap<>();
+        if (!Files.isRegularFile(file)) return new ResourceFingerprints(names);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (!FORMAT_HEADER.equals(line))
+                throw new IOException("Unsupported fingerprints format in " + file + ": " + line);
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                int separator = line.indexOf('\t');
+                names.put(
+                    PluginUtils.unescapeLocation(line.substring(0, separator)),
+                    PluginUtils.unescapeLocation(line.substring(separator + 1)));
+            }
+        }
+        return new ResourceFingerprints(names);
+    }
+
+    /**
+     * Write fingerprints file
+     *
+     * @param file Fingerprints location
+     *
+     * @throws IOException Error to write the file
+     */
+    public void write(@NotNull Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(FORMAT_HEADER + "\n");
+            for (Map.Entry<String, String> entry : names.entrySet()) {
+                writer.write(PluginUtils.escapeLocation(entry.getKey()) + "\t" + PluginUtils.escapeLocation(entry.getValue()) + "\n");
+            }
+        }
+    }
+
+}
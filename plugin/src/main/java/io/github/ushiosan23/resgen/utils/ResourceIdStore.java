@@ -0,0 +1,188 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Persistent resource id assignment.
+ * <p>
+ * Every location keeps the same id between builds. New locations receive fresh ids and
+ * the ids of removed locations are only reused when it is configured.
+ * <p>
+ * File format, one element per line:
+ * <pre>
+ * #next 12
+ * #free 3,7
+ * 0	icons/icon.svg
+ * </pre>
+ * The {@code #free} line is only written when there are free ids.
+ */
+public final class ResourceIdStore {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Next id header
+     */
+    private static final String NEXT_HEADER = "#next ";
+
+    /**
+     * Free ids header
+     */
+    private static final String FREE_HEADER = "#free ";
+
+    /**
+     * Store file location
+     */
+    private final Path storeFile;
+
+    /**
+     * Reuse ids of removed resources
+     */
+    private final boolean reuseFreedIds;
+
+    /**
+     * Ids loaded from the store file
+     */
+    private final Map<String, Integer> previousIds = new HashMap<>();
+
+    /**
+     * Ids used in the current generation
+     */
+    private final Map<String, Integer> currentIds = new HashMap<>();
+
+    /**
+     * Ids available to reuse, sorted to always pick the lowest one
+     */
+    private final TreeSet<Integer> freeIds = new TreeSet<>();
+
+    /**
+     * Next fresh id
+     */
+    private int nextId = 0;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Private constructor
+     *
+     * @param file  Store file location
+     * @param reuse Reuse ids of removed resources
+     */
+    private ResourceIdStore(@NotNull Path file, boolean reuse) {
+        storeFile = file;
+        reuseFreedIds = reuse;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Load store file. If file not exists an empty store is returned.
+     *
+     * @param file  Store file location
+     * @param reuse Reuse ids of removed resources
+     *
+     * @return Store instance
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @NotNull ResourceIdStore load(@NotNull Path file, boolean reuse) throws IOException {
+        ResourceIdStore store = new ResourceIdStore(file, reuse);
+        if (!Files.exists(file)) return store;
+        // Read all lines
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                if (line.startsWith(NEXT_HEADER)) {
+                    store.nextId = Integer.parseInt(line.substring(NEXT_HEADER.length()).trim());
+                } else if (line.startsWith(FREE_HEADER)) {
+                    for (String id : line.substring(FREE_HEADER.length()).split(",")) {
+                        if (!id.isBlank()) store.freeIds.add(Integer.parseInt(id.trim()));
+                    }
+                } else {
+                    // Every other line is an entry, locations may start with '#'
+                    int separator = line.indexOf('\t');
+                    if (separator <= 0) throw new IOException("Invalid resource id line in " + file + ": " + line);
+                    int id = Integer.parseInt(line.substring(0, separator));
+                    store.previousIds.put(line.substring(separator + 1), id);
+                    store.nextId = Math.max(store.nextId, id + 1);
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Get resource id. Unknown locations receive a new id.
+     *
+     * @param location Resource location
+     *
+     * @return Resource id
+     */
+    public synchronized int idOf(@NotNull String location) {
+        Integer current = currentIds.get(location);
+        if (current != null) return current;
+        // Previous assignment
+        Integer id = previousIds.get(location);
+        if (id == null) {
+            id = reuseFreedIds && !freeIds.isEmpty() ? freeIds.pollFirst() : nextId++;
+        }
+        currentIds.put(location, id);
+        return id;
+    }
+
+    /**
+     * Get table size required to store all ids
+     *
+     * @return Table size
+     */
+    public synchronized int size() {
+        return nextId;
+    }
+
+    /**
+     * Save all assigned ids. Ids of removed resources are stored as free ids.
+     *
+     * @throws IOException Error to write the file
+     */
+    public synchronized void save() throws IOException {
+        // Removed resources
+        Set<Integer> usedIds = new HashSet<>(currentIds.values());
+        for (Integer id : previousIds.values()) {
+            if (!usedIds.contains(id)) freeIds.add(id);
+        }
+        freeIds.removeAll(usedIds);
+        // Sort entries by id
+        TreeMap<Integer, String> sorted = new TreeMap<>();
+        currentIds.forEach((location, id) -> sorted.put(id, location));
+
+        if (storeFile.getParent() != null) Files.createDirectories(storeFile.getParent());
+        try (Writer writer = Files.newBufferedWriter(storeFile, StandardCharsets.UTF_8)) {
+            writer.write(NEXT_HEADER + nextId + "\n");
+            // Without free ids the line is left out
+            if (!freeIds.isEmpty()) {
+                StringJoiner free = new StringJoiner(",");
+                freeIds.forEach(id -> free.add(id.toString()));
+                writer.write(FREE_HEADER + free + "\n");
+            }
+            for (Map.Entry<Integer, String> entry : sorted.entrySet()) {
+                writer.write(entry.getKey() + "\t" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,533 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Scanned resources of a project. It is written by the {@code scanResources} task and
+ * read by every emitter, so the resource directories are walked only once.
+ * <p>
+ * File format, one element per line. Statistics are the visited directories, files and bytes
+ * and the scan duration in nanoseconds. Each resource stores the index of its root and its size:
+ * <pre>
+ * #resgen-index 3
+ * #root /project/src/main/resources
+ * #stats 4 12 40960 1500000
+ * icons/icon.svg	0	512
+ * </pre>
+ * Locations are escaped with {@link PluginUtils#escapeLocation(String)}, so no resource line is read as a header.
+ * <p>
+ * A read index only keeps the headers. Resources are streamed from the file with
+ * {@link #forEach(Visitor)} and the lookup maps are loaded on first use, so only the stages
+ * that need random access keep every location in memory.
+ */
+public final class ResourceIndex {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Format header
+     */
+    private static final String FORMAT_HEADER = "#resgen-index 3";
+
+    /**
+     * Root header
+     */
+    private static final String ROOT_HEADER = "#root ";
+
+    /**
+     * Statistics header
+     */
+    private static final String STATS_HEADER = "#stats ";
+
+    /**
+     * Resource directories
+     */
+    private final List<Path> roots;
+
+    /**
+     * Index file of a read index, {@code null} for a scanned one
+     */
+    private final Path file;
+
+    /**
+     * Root index of each resource, sorted by location. Loaded on first use for a read index.
+     */
+    private SortedMap<String, Integer> rootIndexes;
+
+    /**
+     * Resource sizes by location. Loaded on first use for a read index.
+     */
+    private SortedMap<String, Long> sizes;
+
+    /**
+     * Visited directories, including not indexed ones
+     */
+    private final long directoryCount;
+
+    /**
+     * Visited files, including not indexed ones
+     */
+    private final long fileCount;
+
+    /**
+     * Size of all visited files
+     */
+    private final long totalBytes;
+
+    /**
+     * Duration of the scan that created the index
+     */
+    private final long scanNanos;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param file           Index file or {@code null} when the resources are already known
+     * @param roots          Resource directories
+     * @param rootIndexes    Root index of each resource or {@code null} to load it from the file
+     * @param sizes          Resource sizes by location or {@code null} to load it from the file
+     * @param directoryCount Visited directories
+     * @param fileCount      Visited files
+     * @param totalBytes     Size of all visited files
+     * @param scanNanos      Scan duration in nanoseconds
+     */
+    private ResourceIndex(
+        @Nullable Path file,
+        @NotNull List<Path> roots,
+        @Nullable SortedMap<String, Integer> rootIndexes,
+        @Nullable SortedMap<String, Long> sizes,
+        long directoryCount,
+        long fileCount,
+        long totalBytes,
+        long scanNanos) {
+        this.file = file;
+        this.roots = Collections.unmodifiableList(roots);
+        this.rootIndexes = rootIndexes != null ? Collections.unmodifiableSortedMap(rootIndexes) : null;
+        this.sizes = sizes != null ? Collections.unmodifiableSortedMap(sizes) : null;
+        this.directoryCount = directoryCount;
+        this.fileCount = fileCount;
+        this.totalBytes = totalBytes;
+        this.scanNanos = scanNanos;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Scan resource directories. When two directories contain the same location,
+     * the first one wins, like the class loader. All resources are kept in memory,
+     * so large trees are scanned with {@link #scan(List, Set, ResourceFilter, Path, Path)}.
+     *
+     * @param roots         Resource directories
+     * @param excludedFiles Files that are never indexed (generated files)
+     * @param filter        Include and exclude filter
+     *
+     * @return Index instance
+     *
+     * @throws IOException Error to walk any directory
+     */
+    public static @NotNull ResourceIndex scan(
+        @NotNull List<Path> roots,
+        @NotNull Set<Path> excludedFiles,
+        @NotNull ResourceFilter filter) throws IOException {
+        long start = System.nanoTime();
+        SortedMap<String, Integer> rootIndexes = new TreeMap<>();
+        SortedMap<String, Long> sizes = new TreeMap<>();
+        long[] stats = walk(roots, excludedFiles, filter, (location, rootIndex, size) -> {
+            if (rootIndexes.containsKey(location)) return;
+            rootIndexes.put(location, rootIndex);
+            sizes.put(location, size);
+        });
+        return new ResourceIndex(null, new ArrayList<>(roots), rootIndexes, sizes, stats[0], stats[1], stats[2], System.nanoTime() - start);
+    }
+
+    /**
+     * Scan resource directories and write the index file. Resources are sorted with a {@link SortedSpool},
+     * so memory does not grow with the number of resources. When two directories contain the same location,
+     * the first one wins, like the class loader.
+     *
+     * @param roots         Resource directories
+     * @param excludedFiles Files that are never indexed (generated files)
+     * @param filter        Include and exclude filter
+     * @param file          Index location
+     * @param tempDir       Directory of the temporary sort files
+     *
+     * @return Read index of the written file
+     *
+     * @throws IOException Error to walk any directory or to write the file
+     */
+    public static @NotNull ResourceIndex scan(
+        @NotNull List<Path> roots,
+        @NotNull Set<Path> excludedFiles,
+        @NotNull ResourceFilter filter,
+        @NotNull Path file,
+        @NotNull Path tempDir) throws IOException {
+        long start = System.nanoTime();
+        // Sorted by location, then by root index, so the first root is the first line of each location
+        Comparator<String> order = Comparator
+            .comparing(ResourceIndex::lineLocation)
+            .thenComparingInt(ResourceIndex::lineRootIndex);
+        try (SortedSpool spool = new SortedSpool(tempDir, order)) {
+            long[] stats = walk(roots, excludedFiles, filter, (location, rootIndex, size) ->
+                spool.add(PluginUtils.escapeLocation(location) + "\t" + rootIndex + "\t" + size));
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeHeaders(writer, roots, stats[0], stats[1], stats[2], System.nanoTime() - start);
+                String[] previous = {null};
+                spool.forEach(line -> {
+                    String location = lineLocation(line);
+                    if (location.equals(previous[0])) return;
+                    previous[0] = location;
+                    writer.write(line + "\n");
+                });
+            }
+        }
+        return read(file);
+    }
+
+    /**
+     * Get resource directories
+     *
+     * @return Resource directories in scan order
+     */
+    public @NotNull List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Get all indexed resources
+     *
+     * @return Resource sizes sorted by location
+     */
+    public @NotNull SortedMap<String, Long> getSizes() {
+        load();
+        return sizes;
+    }
+
+    /**
+     * Get all indexed resource files
+     *
+     * @return Absolute files sorted by location
+     */
+    public @NotNull SortedMap<String, Path> getFiles() {
+        load();
+        SortedMap<String, Path> result = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : rootIndexes.entrySet()) {
+            result.put(entry.getKey(), roots.get(entry.getValue()).resolve(entry.getKey()));
+        }
+        return result;
+    }
+
+    /**
+     * Get the resource directory of a resource
+     *
+     * @param location Resource location
+     *
+     * @return Resource directory
+     */
+    public @NotNull Path getRoot(@NotNull String location) {
+        load();
+        Integer rootIndex = rootIndexes.get(location);
+        if (rootIndex == null) throw new NoSuchElementException(location);
+        return roots.get(rootIndex);
+    }
+
+    /**
+     * Visit all indexed resources sorted by location. A read index streams the file line by line,
+     * so the resources are not kept in memory.
+     *
+     * @param visitor Resource visitor
+     *
+     * @throws IOException Error to read the file or thrown by the visitor
+     */
+    public void forEach(@NotNull Visitor visitor) throws IOException {
+        SortedMap<String, Integer> loadedIndexes;
+        synchronized (this) {
+            loadedIndexes = rootIndexes;
+        }
+        if (loadedIndexes != null) {
+            for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+                visitor.visit(entry.getKey(), roots.get(loadedIndexes.get(entry.getKey())), entry.getValue());
+            }
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (!FORMAT_HEADER.equals(line))
+                throw new IOException("Unsupported resource index format in " + file + ": " + line);
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith(ROOT_HEADER) || line.startsWith(STATS_HEADER)) continue;
+                int sizeSeparator = line.lastIndexOf('\t');
+                int rootSeparator = line.lastIndexOf('\t', sizeSeparator - 1);
+                if (rootSeparator <= 0)
+                    throw new IOException("Invalid resource index line in " + file + ": " + line);
+                visitor.visit(
+                    PluginUtils.unescapeLocation(line.substring(0, rootSeparator)),
+                    roots.get(Integer.parseInt(line.substring(rootSeparator + 1, sizeSeparator))),
+                    Long.parseLong(line.substring(sizeSeparator + 1)));
+            }
+        }
+    }
+
+    /**
+     * Get visited directories
+     *
+     * @return Directory count, including not indexed directories
+     */
+    public long getDirectoryCount() {
+        return directoryCount;
+    }
+
+    /**
+     * Get visited files
+     *
+     * @return File count, including not indexed files
+     */
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Get size of all visited files
+     *
+     * @return Size in bytes, including not indexed files
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Get the duration of the scan that created the index
+     *
+     * @return Duration in nanoseconds, measured by the scan task
+     */
+    public long getScanNanos() {
+        return scanNanos;
+    }
+
+    /**
+     * Read index file
+     *
+     * @param file Index location
+     *
+     * @return Index instance
+     *
+     * @throws IOException Error to read the file
+     */
+    public static @NotNull ResourceIndex read(@NotNull Path file) throws IOException {
+        List<Path> roots = new ArrayList<>();
+        long[] stats = new long[4];
+        // Headers are written before any resource
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (!FORMAT_HEADER.equals(line))
+                throw new IOException("Unsupported resource index format in " + file + ": " + line);
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(ROOT_HEADER)) {
+                    roots.add(Path.of(line.substring(ROOT_HEADER.length())));
+                } else if (line.startsWith(STATS_HEADER)) {
+                    String[] values = line.substring(STATS_HEADER.length()).split(" ");
+                    for (int i = 0; i < stats.length; i++) stats[i] = Long.parseLong(values[i]);
+                    break;
+                }
+            }
+        }
+        return new ResourceIndex(file, roots, null, null, stats[0], stats[1], stats[2], stats[3]);
+    }
+
+    /**
+     * Write index file
+     *
+     * @param file Index location
+     *
+     * @throws IOException Error to write the file
+     */
+    public void write(@NotNull Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeHeaders(writer, roots, directoryCount, fileCount, totalBytes, scanNanos);
+            forEach((location, root, size) ->
+                writer.write(PluginUtils.escapeLocation(location) + "\t" + roots.indexOf(root) + "\t" + size + "\n"));
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Walk resource directories
+     *
+     * @param roots         Resource directories
+     * @param excludedFiles Files that are never indexed
+     * @param filter        Include and exclude filter
+     * @param visitor       Visitor of each included file, in walk order
+     *
+     * @return Visited directories, files and bytes
+     *
+     * @throws IOException Error to walk any directory or thrown by the visitor
+     */
+    private static long @NotNull [] walk(
+        @NotNull List<Path> roots,
+        @NotNull Set<Path> excludedFiles,
+        @NotNull ResourceFilter filter,
+        @NotNull WalkVisitor visitor) throws IOException {
+        long[] stats = new long[3];
+        for (int rootIndex = 0; rootIndex < roots.size(); rootIndex++) {
+            Path baseDir = roots.get(rootIndex);
+            if (!Files.exists(baseDir))
+                continue;
+            try (Stream<Path> walker = Files.walk(baseDir)) {
+                for (Path file : (Iterable<Path>) walker::iterator) {
+                    if (Files.isDirectory(file)) stats[0]++;
+                    if (!Files.isRegularFile(file) || excludedFiles.contains(file)) continue;
+                    String location = PluginUtils.toResourceLocation(baseDir.relativize(file));
+                    long size = Files.size(file);
+                    stats[1]++;
+                    stats[2] += size;
+                    if (filter.isIncluded(location)) visitor.visit(location, rootIndex, size);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Write the headers of an index file
+     *
+     * @param writer         Target writer
+     * @param roots          Resource directories
+     * @param directoryCount Visited directories
+     * @param fileCount      Visited files
+     * @param totalBytes     Size of all visited files
+     * @param scanNanos      Scan duration in nanoseconds
+     *
+     * @throws IOException Error to write the headers
+     */
+    private static void writeHeaders(
+        @NotNull Writer writer,
+        @NotNull List<Path> roots,
+        long directoryCount,
+        long fileCount,
+        long totalBytes,
+        long scanNanos) throws IOException {
+        writer.write(FORMAT_HEADER + "\n");
+        for (Path root : roots) {
+            writer.write(ROOT_HEADER + root + "\n");
+        }
+        writer.write(STATS_HEADER + directoryCount + " " + fileCount + " " + totalBytes + " " + scanNanos + "\n");
+    }
+
+    /**
+     * Get the location of a resource line
+     *
+     * @param line Resource line
+     *
+     * @return Unescaped location
+     *
+     * @throws UncheckedIOException Invalid escape sequence
+     */
+    private static @NotNull String lineLocation(@NotNull String line) {
+        int rootSeparator = line.lastIndexOf('\t', line.lastIndexOf('\t') - 1);
+        try {
+            return PluginUtils.unescapeLocation(line.substring(0, rootSeparator));
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+
+    /**
+     * Get the root index of a resource line
+     *
+     * @param line Resource line
+     *
+     * @return Root index
+     */
+    private static int lineRootIndex(@NotNull String line) {
+        int sizeSeparator = line.lastIndexOf('\t');
+        int rootSeparator = line.lastIndexOf('\t', sizeSeparator - 1);
+        return Integer.parseInt(line.substring(rootSeparator + 1, sizeSeparator));
+    }
+
+    /**
+     * Load the lookup maps of a read index
+     *
+     * @throws UncheckedIOException Error to read the file
+     */
+    private synchronized void load() {
+        if (rootIndexes != null) return;
+        SortedMap<String, Integer> loadedIndexes = new TreeMap<>();
+        SortedMap<String, Long> loadedSizes = new TreeMap<>();
+        try {
+            forEach((location, root, size) -> {
+                loadedIndexes.put(location, roots.indexOf(root));
+                loadedSizes.put(location, size);
+            });
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+        sizes = Collections.unmodifiableSortedMap(loadedSizes);
+        rootIndexes = Collections.unmodifiableSortedMap(loadedIndexes);
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Walked resource visitor
+     */
+    @FunctionalInterface
+    private interface WalkVisitor {
+
+        /**
+         * Visit an included resource
+         *
+         * @param location  Resource location
+         * @param rootIndex Index of the resource directory
+         * @param size      Resource size
+         *
+         * @throws IOException Error to process the resource
+         */
+        void visit(@NotNull String location, int rootIndex, long size) throws IOException;
+
+    }
+
+    /**
+     * Indexed resource visitor
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Visit a resource
+         *
+         * @param location Resource location
+         * @param root     Resource directory
+         * @param size     Resource size
+         *
+         * @throws IOException Error to process the resource
+         */
+        void visit(@NotNull String location, @NotNull Path root, long size) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,333 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lossless minification of text resources. Only content that the format ignores is removed:
+ * whitespace outside JSON strings, markup comments and whitespace between tags. Malformed
+ * input is never modified.
+ * <p>
+ * Plain xml is not supported: without its schema, whitespace-only text may be the value of an
+ * element ({@code <entry key="sep"> </entry>}), so none of it is provably ignorable.
+ */
+public final class ResourceMinifier {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * SVG elements where whitespace is rendered
+     */
+    private static final Set<String> svgPreserveElements = Set.of("text", "tspan", "textPath");
+
+    /**
+     * HTML elements where whitespace is rendered
+     */
+    private static final Set<String> htmlPreserveElements = Set.of("pre", "textarea");
+
+    /**
+     * HTML elements with raw content
+     */
+    private static final Set<String> htmlRawElements = Set.of("script", "style");
+
+    /**
+     * HTML elements without closing tag
+     */
+    private static final Set<String> htmlVoidElements = Set.of(
+        "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "source", "track", "wbr");
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * This class cannot be instantiated
+     */
+    private ResourceMinifier() {
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Check if a location has a supported format
+     *
+     * @param location Resource location
+     *
+     * @return Returns {@code true} for json, svg and html resources
+     */
+    public static boolean isSupported(@NotNull String location) {
+        switch (extension(location)) {
+            case "json":
+            case "svg":
+            case "html":
+            case "htm":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Minify a resource depending on its extension
+     *
+     * @param location Resource location
+     * @param content  Resource content
+     *
+     * @return Minified content or {@code null} if the format is not supported or the content is malformed
+     */
+    public static @Nullable String minify(@NotNull String location, @NotNull String content) {
+        switch (extension(location)) {
+            case "json":
+                return minifyJson(content);
+            case "svg":
+                return minifyMarkup(content, svgPreserveElements, false);
+            case "html":
+            case "htm":
+                return minifyMarkup(content, htmlPreserveElements, true);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Remove the whitespace outside strings
+     *
+     * @param content JSON content
+     *
+     * @return Minified content or {@code null} if a string is not terminated
+     */
+    public static @Nullable String minifyJson(@NotNull String content) {
+        StringBuilder result = new StringBuilder(content.length());
+        boolean inString = false;
+        for (int i = 0; i < content.length(); i++) {
+            char current = content.charAt(i);
+            if (inString) {
+                result.append(current);
+                if (current == '\\' && i + 1 < content.length()) {
+                    result.append(content.charAt(++i));
+                } else if (current == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            if (current == '"') inString = true;
+            if (!isWhitespace(current)) result.append(current);
+        }
+        return inString ? null : result.toString();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Remove comments and whitespace between tags. In svg the whitespace-only text is removed,
+     * in html every whitespace run is collapsed to a single space because the browser renders it that way.
+     *
+     * @param content          Markup content
+     * @param preserveElements Elements where whitespace is kept
+     * @param html             Use html rules
+     *
+     * @return Minified content or {@code null} if a markup construction is not terminated
+     */
+    private static @Nullable String minifyMarkup(@NotNull String content, @NotNull Set<String> preserveElements, boolean html) {
+        StringBuilder result = new StringBuilder(content.length());
+        // Open elements since the first preserved element
+        Deque<String> preserved = new ArrayDeque<>();
+        int i = 0;
+        while (i < content.length()) {
+            // Text
+            if (content.charAt(i) != '<') {
+                int end = content.indexOf('<', i);
+                if (end == -1) end = content.length();
+                String text = content.substring(i, end);
+                if (!preserved.isEmpty()) {
+                    result.append(text);
+                } else if (html) {
+                    String collapsed = collapseWhitespace(text);
+                    // Leading and trailing document whitespace is not rendered
+                    if (result.length() == 0 && collapsed.startsWith(" ")) collapsed = collapsed.substring(1);
+                    if (end == content.length() && collapsed.endsWith(" ")) collapsed = collapsed.substring(0, collapsed.length() - 1);
+                    result.append(collapsed);
+                } else if (!text.chars().allMatch(c -> isWhitespace((char) c))) {
+                    result.append(text);
+                }
+                i = end;
+                continue;
+            }
+            // Comments
+            if (content.startsWith("<!--", i)) {
+                int end = content.indexOf("-->", i + 4);
+                if (end == -1) return null;
+                end += 3;
+                // Conditional comments are interpreted by old browsers
+                if (html && content.startsWith("<!--[if", i)) result.append(content, i, end);
+                i = end;
+                continue;
+            }
+            // Verbatim sections
+            if (content.startsWith("<![CDATA[", i) || content.startsWith("<?", i) || content.startsWith("<!", i)) {
+                String terminator = content.startsWith("<![CDATA[", i) ? "]]>" : content.startsWith("<?", i) ? "?>" : null;
+                int end = terminator != null ?
+                    content.indexOf(terminator, i) :
+                    declarationEnd(content, i);
+                if (end == -1) return null;
+                end += terminator != null ? terminator.length() : 1;
+                result.append(content, i, end);
+                i = end;
+                continue;
+            }
+            // Tags
+            int end = tagEnd(content, i);
+            if (end == -1) return null;
+            String tag = content.substring(i, end + 1);
+            String name = html ? tagName(tag).toLowerCase(Locale.ROOT) : tagName(tag);
+            boolean closing = tag.startsWith("</");
+            boolean selfClosing = tag.endsWith("/>") || (html && htmlVoidElements.contains(name));
+            result.append(tag);
+            i = end + 1;
+
+            if (closing) {
+                if (!preserved.isEmpty() && preserved.peek().equals(name)) preserved.pop();
+                continue;
+            }
+            if (selfClosing) continue;
+            // Raw content is copied until the closing tag
+            if (html && htmlRawElements.contains(name)) {
+                int rawEnd = content.toLowerCase(Locale.ROOT).indexOf("</" + name, i);
+                if (rawEnd == -1) return null;
+                result.append(content, i, rawEnd);
+                i = rawEnd;
+                continue;
+            }
+            boolean preserve = preserveElements.contains(name) ||
+                tag.contains("xml:space=\"preserve\"") ||
+                tag.contains("xml:space='preserve'");
+            if (preserve || !preserved.isEmpty()) preserved.push(name);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Find the end of a tag, ignoring {@code >} inside attribute values
+     *
+     * @param content Markup content
+     * @param start   Tag start
+     *
+     * @return Index of {@code >} or {@code -1}
+     */
+    private static int tagEnd(@NotNull String content, int start) {
+        char quote = 0;
+        for (int i = start + 1; i < content.length(); i++) {
+            char current = content.charAt(i);
+            if (quote != 0) {
+                if (current == quote) quote = 0;
+            } else if (current == '"' || current == '\'') {
+                quote = current;
+            } else if (current == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the end of a declaration ({@code <!DOCTYPE ...>}) including its internal subset
+     *
+     * @param content Markup content
+     * @param start   Declaration start
+     *
+     * @return Index of {@code >} or {@code -1}
+     */
+    private static int declarationEnd(@NotNull String content, int start) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = start + 2; i < content.length(); i++) {
+            char current = content.charAt(i);
+            if (quote != 0) {
+                if (current == quote) quote = 0;
+            } else if (current == '"' || current == '\'') {
+                quote = current;
+            } else if (current == '[') {
+                depth++;
+            } else if (current == ']') {
+                depth--;
+            } else if (current == '>' && depth <= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the element name of a tag
+     *
+     * @param tag Complete tag
+     *
+     * @return Element name
+     */
+    private static @NotNull String tagName(@NotNull String tag) {
+        int start = tag.startsWith("</") ? 2 : 1;
+        int end = start;
+        while (end < tag.length() && !isWhitespace(tag.charAt(end)) && tag.charAt(end) != '>' && tag.charAt(end) != '/')
+            end++;
+        return tag.substring(start, end);
+    }
+
+    /**
+     * Replace each whitespace run by a single space
+     *
+     * @param text Text content
+     *
+     * @return Collapsed text
+     */
+    private static @NotNull String collapseWhitespace(@NotNull String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean whitespace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char current = text.charAt(i);
+            if (isWhitespace(current)) {
+                if (!whitespace) result.append(' ');
+                whitespace = true;
+            } else {
+                result.append(current);
+                whitespace = false;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Check markup and json whitespace
+     *
+     * @param current Target character
+     *
+     * @return Returns {@code true} for space, tab, line feed and carriage return
+     */
+    private static boolean isWhitespace(char current) {
+        return current == ' ' || current == '\t' || current == '\n' || current == '\r';
+    }
+
+    /**
+     * Get the lower case extension of a location
+     *
+     * @param location Resource location
+     *
+     * @return Extension without the dot
+     */
+    private static @NotNull String extension(@NotNull String location) {
+        int separator = location.lastIndexOf('.');
+        if (separator == -1 || separator < location.lastIndexOf('/')) return "";
+        return location.substring(separator + 1).toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,228 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted sequence of text lines with bounded memory. Lines are buffered in chunks, each full
+ * chunk is sorted and written to a temporary file, and the files are merged when the lines are visited.
+ * <p>
+ * Lines must not contain line breaks. The spool deletes its files when it is closed.
+ */
+public final class SortedSpool implements Closeable {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default number of lines kept in memory
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 65_536;
+
+    /**
+     * Directory of the chunk files
+     */
+    private final Path tempDir;
+
+    /**
+     * Line order
+     */
+    private final Comparator<String> comparator;
+
+    /**
+     * Number of lines kept in memory
+     */
+    private final int chunkSize;
+
+    /**
+     * Lines of the current chunk
+     */
+    private final List<String> buffer = new ArrayList<>();
+
+    /**
+     * Sorted chunk files
+     */
+    private final List<Path> chunks = new ArrayList<>();
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param tempDir    Directory of the chunk files
+     * @param comparator Line order
+     * @param chunkSize  Number of lines kept in memory
+     */
+    public SortedSpool(@NotNull Path tempDir, @NotNull Comparator<String> comparator, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        this.tempDir = tempDir;
+        this.comparator = comparator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Constructor with the default chunk size
+     *
+     * @param tempDir    Directory of the chunk files
+     * @param comparator Line order
+     */
+    public SortedSpool(@NotNull Path tempDir, @NotNull Comparator<String> comparator) {
+        this(tempDir, comparator, DEFAULT_CHUNK_SIZE);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Add a line
+     *
+     * @param line Line without line breaks
+     *
+     * @throws IOException Error to write a full chunk
+     */
+    public void add(@NotNull String line) throws IOException {
+        buffer.add(line);
+        if (buffer.size() >= chunkSize) flush();
+    }
+
+    /**
+     * Visit all lines in order. Lines that are equal for the comparator are visited in insertion order
+     * when they are in the same chunk, and in chunk order otherwise.
+     *
+     * @param visitor Line visitor
+     *
+     * @throws IOException Error to read any chunk or thrown by the visitor
+     */
+    public void forEach(@NotNull LineVisitor visitor) throws IOException {
+        // A single chunk is never written
+        if (chunks.isEmpty()) {
+            buffer.sort(comparator);
+            for (String line : buffer) visitor.visit(line);
+            return;
+        }
+        flush();
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            // Ties are broken by chunk order
+            PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> {
+                int result = comparator.compare(a.line, b.line);
+                return result != 0 ? result : Integer.compare(a.chunk, b.chunk);
+            });
+            for (int i = 0; i < chunks.size(); i++) {
+                BufferedReader reader = Files.newBufferedReader(chunks.get(i), StandardCharsets.UTF_8);
+                readers.add(reader);
+                String line = reader.readLine();
+                if (line != null) heads.add(new Head(line, i));
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                visitor.visit(head.line);
+                String line = readers.get(head.chunk).readLine();
+                if (line != null) heads.add(new Head(line, head.chunk));
+            }
+        } finally {
+            for (BufferedReader reader : readers) reader.close();
+        }
+    }
+
+    /**
+     * Delete the chunk files
+     *
+     * @throws IOException Error to delete any file
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.clear();
+        for (Path chunk : chunks) Files.deleteIfExists(chunk);
+        chunks.clear();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Sort the buffered lines and write them to a new chunk file
+     *
+     * @throws IOException Error to write the file
+     */
+    private void flush() throws IOException {
+        if (buffer.isEmpty()) return;
+        buffer.sort(comparator);
+        Files.createDirectories(tempDir);
+        Path chunk = Files.createTempFile(tempDir, "spool", ".txt");
+        chunks.add(chunk);
+        try (Writer writer = Files.newBufferedWriter(chunk, StandardCharsets.UTF_8)) {
+            for (String line : buffer) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        buffer.clear();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Sorted line visitor
+     */
+    @FunctionalInterface
+    public interface LineVisitor {
+
+        /**
+         * Visit a line
+         *
+         * @param line Current line
+         *
+         * @throws IOException Error to process the line
+         */
+        void visit(@NotNull String line) throws IOException;
+
+    }
+
+    /**
+     * Next line of a chunk
+     */
+    private static final class Head {
+
+        /**
+         * Line content
+         */
+        final String line;
+
+        /**
+         * Chunk index
+         */
+        final int chunk;
+
+        /**
+         * Default constructor
+         *
+         * @param line  Line content
+         * @param chunk Chunk index
+         */
+        Head(String line, int chunk) {
+            this.line = line;
+            this.chunk = chunk;
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassFileWriterTest {
+
+    @Test
+    void constantsAreInheritedFromParts() throws Exception {
+        ClassFileWriter part = new ClassFileWriter("test/ResIds0", List.of());
+        part.addConstant("icons_icon_svg", 70000);
+        part.addConstant("$chunk$0", "a\0\uffff\u0800");
+        ClassFileWriter ids = new ClassFileWriter("test/ResIds", List.of("test/ResIds0"));
+
+        ClassLoader loader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                byte[] content;
+                if (name.equals("test.ResIds0")) content = part.toByteArray();
+                else if (name.equals("test.ResIds")) content = ids.toByteArray();
+                else throw new ClassNotFoundException(name);
+                return defineClass(name, content, 0, content.length);
+            }
+        };
+        Class<?> type = loader.loadClass("test.ResIds");
+        assertTrue(type.isInterface());
+        assertEquals(70000, type.getField("icons_icon_svg").getInt(null));
+        assertEquals("a\0\uffff\u0800", type.getField("$chunk$0").get(null));
+        assertEquals(9, ClassFileWriter.encodedLength("a\0\uffff\u0800"));
+    }
+
+}
@@ -0,0 +1,37 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConfigurationParserTest {
+
+    @Test
+    void parseIniSections() throws IOException {
+        String content = "; comment\n" +
+            "name = example\n" +
+            "[server]\n" +
+            "# comment\n" +
+            "port=8080\n" +
+            "host: \"localhost\"\n";
+        Map<String, String> result = ConfigurationParser.parseIni(new StringReader(content));
+
+        assertEquals(3, result.size());
+        assertEquals("example", result.get("name"));
+        assertEquals("8080", result.get("server.port"));
+        assertEquals("localhost", result.get("server.host"));
+    }
+
+    @Test
+    void convertKeysToIdentifiers() {
+        assertEquals("server_port", PluginUtils.toIdentifier("server.port"));
+        assertEquals("$1st_key", PluginUtils.toIdentifier("1st key"));
+        assertEquals("$class$", PluginUtils.toIdentifier("class"));
+        assertEquals("a_b", PluginUtils.toIdentifier("a:b"));
+    }
+
+}
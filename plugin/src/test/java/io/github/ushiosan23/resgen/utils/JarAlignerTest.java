@@ -0,0 +1,63 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JarAlignerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void matchingEntriesAreStoredAtAlignedOffsets() throws IOException {
+        byte[] data = "id,name\n1,first\n".repeat(500).getBytes(StandardCharsets.UTF_8);
+        Path archive = tempDir.resolve("app.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (String name : List.of("META-INF/MANIFEST.MF", "a.txt", "data/cities.csv", "data/z.csv")) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(name.endsWith(".csv") ? data : name.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        assertEquals(2, JarAligner.align(archive, new ResourceFilter(List.of("data/*.csv"), List.of())));
+        try (ZipFile zip = new ZipFile(archive.toFile());
+             FileChannel channel = FileChannel.open(archive)) {
+            assertEquals(ZipEntry.STORED, zip.getEntry("data/cities.csv").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zip.getEntry("a.txt").getMethod());
+            try (InputStream in = zip.getInputStream(zip.getEntry("a.txt"))) {
+                assertEquals("a.txt", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                zip.getInputStream(zip.getEntry(JarAligner.OFFSETS_LOCATION)), StandardCharsets.UTF_8))) {
+                assertEquals("#resgen-stored 1", reader.readLine());
+                for (int i = 0; i < 2; i++) {
+                    String[] values = reader.readLine().split("\t");
+                    long offset = Long.parseLong(values[2]);
+                    assertEquals(0, offset % JarAligner.ALIGNMENT);
+                    ByteBuffer content = ByteBuffer.allocate(Integer.parseInt(values[3]));
+                    channel.read(content, offset);
+                    assertArrayEquals(data, content.array());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LineIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void everyLineBreakStartsALine() throws IOException {
+        Path file = tempDir.resolve("data.txt");
+        Files.writeString(file, "a\r\n\nbc\rd\n");
+        LineIndex index = LineIndex.scan(file, false);
+        assertEquals(4, index.getLineCount());
+        assertEquals(0, index.getOffset(0));
+        assertEquals(3, index.getOffset(1));
+        assertEquals(4, index.getOffset(2));
+        assertEquals(7, index.getOffset(3));
+        assertEquals(9, index.getSize());
+
+        Path indexFile = tempDir.resolve("data.txt.lines");
+        index.write(indexFile);
+        LineIndex restored = LineIndex.read(indexFile);
+        assertEquals(index.getLineCount(), restored.getLineCount());
+        assertEquals(index.getOffset(3), restored.getOffset(3));
+        assertEquals(index.getSize(), restored.getSize());
+        assertEquals(LineIndex.HEADER_SIZE + 4 * Integer.BYTES, Files.size(indexFile));
+    }
+
+    @Test
+    void quotedLineBreaksArePartOfTheRecord() throws IOException {
+        Path file = tempDir.resolve("data.csv");
+        Files.writeString(file, "id,text\n1,\"two\nlines\"\n2,\"\"\"\"\n");
+        assertEquals(3, LineIndex.scan(file, true).getLineCount());
+        assertEquals(4, LineIndex.scan(file, false).getLineCount());
+        assertEquals(0, LineIndex.scan(Files.writeString(tempDir.resolve("empty.csv"), ""), true).getLineCount());
+    }
+
+}
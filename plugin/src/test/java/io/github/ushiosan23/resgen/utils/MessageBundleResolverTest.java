@@ -0,0 +1,45 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageBundleResolverTest {
+
+    @Test
+    void normalizeLocaleSuffixes() {
+        assertEquals("es_MX", MessageBundleResolver.normalizeLocale("es_mx"));
+        assertEquals("es_MX", MessageBundleResolver.normalizeLocale("es-MX"));
+        assertEquals("en", MessageBundleResolver.normalizeLocale("EN"));
+        assertNull(MessageBundleResolver.normalizeLocale("backup"));
+    }
+
+    @Test
+    void resolveFallbackChain() {
+        MessageBundleResolver resolver = new MessageBundleResolver();
+        resolver.add("", "messages.properties", Map.of("hello", "Hello", "bye", "Bye"));
+        resolver.add("es", "messages_es.properties", Map.of("hello", "Hola", "bye", "Adiós"));
+        resolver.add("es_MX", "messages_es_MX.properties", Map.of("hello", "Qué onda"));
+
+        String[][] messages = resolver.resolve();
+        assertEquals(List.of("bye", "hello"), resolver.getKeys());
+        assertEquals(List.of("", "es", "es_MX"), resolver.getLocales());
+        assertArrayEquals(new String[]{"Adiós", "Qué onda"}, messages[2]);
+        assertTrue(resolver.getProblems().isEmpty());
+    }
+
+    @Test
+    void reportMissingAndDuplicatedLocales() {
+        MessageBundleResolver resolver = new MessageBundleResolver();
+        resolver.add("es_MX", "es_mx.properties", Map.of("hello", "Hola"));
+        resolver.add("es_MX", "es-mx.properties", Map.of("hello", "Hola"));
+        resolver.add("en", "en.properties", Map.of("bye", "Bye"));
+
+        resolver.resolve();
+        assertEquals(3, resolver.getProblems().size());
+    }
+
+}
@@ -0,0 +1,35 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceBudgetTest {
+
+    private final Map<String, Long> sizes = Map.of(
+        "web/app.js", 3000L,
+        "web/app.css", 1000L,
+        "icons/icon.svg", 500L);
+
+    @Test
+    void resourcesWithinBudgetAreAccepted() {
+        assertTrue(new ResourceBudget(0, 0, 0, Map.of()).isEmpty());
+        assertNull(new ResourceBudget(4500, 3, 3000, Map.of("web", 4000L)).check(sizes, null));
+    }
+
+    @Test
+    void exceededLimitsAreRankedWithTheirGrowth() {
+        String report = new ResourceBudget(0, 0, 2000, Map.of("/web/", 3500L))
+            .check(sizes, Map.of("web/app.js", 2500L, "icons/icon.svg", 500L));
+        assertTrue(report.contains("directory web/ 4000 > 3500 bytes (+1500)"), report);
+        assertTrue(report.contains("file web/app.js 3000 > 2000 bytes (+500)"), report);
+        assertTrue(report.contains(" 1. web/app.js 3000 bytes (+500)"), report);
+        assertTrue(report.contains(" 2. web/app.css 1000 bytes (new)"), report);
+        assertFalse(report.contains("icons/icon.svg"));
+    }
+
+}
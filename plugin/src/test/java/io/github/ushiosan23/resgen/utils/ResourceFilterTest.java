@@ -0,0 +1,29 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceFilterTest {
+
+    @Test
+    void includeEverythingWithoutPatterns() {
+        ResourceFilter filter = new ResourceFilter(List.of(), List.of());
+        assertTrue(filter.isIncluded("icons/icon.svg"));
+    }
+
+    @Test
+    void matchGlobPatterns() {
+        ResourceFilter filter = new ResourceFilter(List.of("icons/**", "*.txt"), List.of("**/*.psd"));
+        assertTrue(filter.isIncluded("icons/icon.svg"));
+        assertTrue(filter.isIncluded("icons/sub/icon.svg"));
+        assertTrue(filter.isIncluded("readme.txt"));
+        assertFalse(filter.isIncluded("docs/readme.txt"));
+        assertFalse(filter.isIncluded("icons/source.psd"));
+        assertFalse(filter.isIncluded("source.psd"));
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ResourceFingerprintsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void hashIsInsertedBeforeTheLastExtension() {
+        assertEquals("icons/icon.3f2a9c1d.svg", ResourceFingerprints.fingerprint("icons/icon.svg", "3f2a9c1d"));
+        assertEquals("js/app.min.3f2a9c1d.js", ResourceFingerprints.fingerprint("js/app.min.js", "3f2a9c1d"));
+        assertEquals("v1.0/LICENSE.3f2a9c1d", ResourceFingerprints.fingerprint("v1.0/LICENSE", "3f2a9c1d"));
+        assertEquals(".htaccess.3f2a9c1d", ResourceFingerprints.fingerprint(".htaccess", "3f2a9c1d"));
+    }
+
+    @Test
+    void hashFollowsContentAndFileIsRestored() throws IOException {
+        Path file = tempDir.resolve("icon.svg");
+        Files.writeString(file, "<svg/>");
+        String first = ResourceFingerprints.hash(file);
+        Files.writeString(file, "<svg></svg>");
+        assertNotEquals(first, ResourceFingerprints.hash(file));
+        assertEquals(ResourceFingerprints.HASH_LENGTH, first.length());
+
+        ResourceFingerprints fingerprints = new ResourceFingerprints(Map.of("icon.svg", "icon." + first + ".svg"));
+        fingerprints.write(tempDir.resolve("fingerprints.txt"));
+        assertEquals(fingerprints.getNames(), ResourceFingerprints.read(tempDir.resolve("fingerprints.txt")).getNames());
+    }
+
+}
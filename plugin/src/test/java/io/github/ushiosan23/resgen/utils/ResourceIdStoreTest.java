@@ -0,0 +1,81 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResourceIdStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keepIdsWhenResourcesAreAdded() throws IOException {
+        Path file = tempDir.resolve("ids.txt");
+        ResourceIdStore first = ResourceIdStore.load(file, false);
+        assertEquals(0, first.idOf("b.txt"));
+        assertEquals(1, first.idOf("c.txt"));
+        first.save();
+
+        // New resource before the others in walk order
+        ResourceIdStore second = ResourceIdStore.load(file, false);
+        assertEquals(2, second.idOf("a.txt"));
+        assertEquals(0, second.idOf("b.txt"));
+        assertEquals(1, second.idOf("c.txt"));
+        assertEquals(3, second.size());
+    }
+
+    @Test
+    void reuseFreedIdsOnlyWhenConfigured() throws IOException {
+        Path file = tempDir.resolve("ids.txt");
+        ResourceIdStore first = ResourceIdStore.load(file, false);
+        first.idOf("a.txt");
+        first.idOf("b.txt");
+        first.save();
+        // Remove a.txt
+        ResourceIdStore second = ResourceIdStore.load(file, false);
+        second.idOf("b.txt");
+        second.save();
+
+        assertEquals(2, ResourceIdStore.load(file, false).idOf("c.txt"));
+        assertEquals(0, ResourceIdStore.load(file, true).idOf("c.txt"));
+    }
+
+    @Test
+    void savedFileRoundTrips() throws IOException {
+        Path file = tempDir.resolve("ids.txt");
+        ResourceIdStore first = ResourceIdStore.load(file, false);
+        first.idOf("a.txt");
+        first.idOf("b.txt");
+        first.idOf("c.txt");
+        first.save();
+        assertEquals("#next 3\n0\ta.txt\n1\tb.txt\n2\tc.txt\n", Files.readString(file));
+
+        // Remove a.txt
+        ResourceIdStore second = ResourceIdStore.load(file, false);
+        second.idOf("b.txt");
+        second.idOf("c.txt");
+        second.save();
+        assertEquals("#next 3\n#free 0\n1\tb.txt\n2\tc.txt\n", Files.readString(file));
+
+        // Free ids are kept while they are not reused
+        ResourceIdStore third = ResourceIdStore.load(file, false);
+        third.idOf("b.txt");
+        third.idOf("c.txt");
+        assertEquals(3, third.idOf("d.txt"));
+        third.save();
+        String expected = "#next 4\n#free 0\n1\tb.txt\n2\tc.txt\n3\td.txt\n";
+        assertEquals(expected, Files.readString(file));
+
+        ResourceIdStore fourth = ResourceIdStore.load(file, false);
+        for (String location : new String[]{"b.txt", "c.txt", "d.txt"}) fourth.idOf(location);
+        fourth.save();
+        assertEquals(expected, Files.readString(file));
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResourceIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void firstRootWinsAndIndexIsRestored() throws IOException {
+        Path main = tempDir.resolve("main");
+        Path extra = tempDir.resolve("extra");
+        Files.createDirectories(main.resolve("icons"));
+        Files.createDirectories(extra.resolve("icons"));
+        Files.writeString(main.resolve("icons/icon.svg"), "<svg/>");
+        Files.writeString(extra.resolve("icons/icon.svg"), "<svg></svg>");
+        Files.writeString(extra.resolve("icons/source.psd"), "psd");
+        Files.writeString(main.resolve("generated.properties"), "");
+
+        ResourceIndex index = ResourceIndex.scan(
+            List.of(main, extra),
+            Set.of(main.resolve("generated.properties")),
+            new ResourceFilter(List.of(), List.of("**/*.psd")));
+        assertEquals(6L, (long) index.getSizes().get("icons/icon.svg"));
+        assertEquals(main, index.getRoot("icons/icon.svg"));
+        assertEquals(1, index.getSizes().size());
+        assertEquals(3, index.getFileCount());
+
+        Path file = tempDir.resolve("resource-index.txt");
+        index.write(file);
+        ResourceIndex restored = ResourceIndex.read(file);
+        assertEquals(index.getFiles(), restored.getFiles());
+        assertEquals(index.getSizes(), restored.getSizes());
+        assertEquals(index.getTotalBytes(), restored.getTotalBytes());
+
+        List<String> streamed = new ArrayList<>();
+        ResourceIndex.read(file).forEach((location, root, size) -> streamed.add(location + " " + root + " " + size));
+        assertEquals(List.of("icons/icon.svg " + main + " 6"), streamed);
+    }
+
+    @Test
+    void locationsThatLookLikeHeadersAreRestored() throws IOException {
+        Path main = tempDir.resolve("main");
+        Files.createDirectories(main);
+        Files.writeString(main.resolve("#root notes.txt"), "a");
+        Files.writeString(main.resolve("a\\b.txt"), "b");
+        ResourceIndex index = ResourceIndex.scan(List.of(main), Set.of(), new ResourceFilter(List.of(), List.of()));
+
+        Path file = tempDir.resolve("resource-index.txt");
+        index.write(file);
+        ResourceIndex restored = ResourceIndex.read(file);
+        assertEquals(List.of(main), restored.getRoots());
+        assertEquals(index.getSizes(), restored.getSizes());
+        assertEquals(2, restored.getSizes().size());
+    }
+
+    @Test
+    void writtenScanMatchesMemoryScan() throws IOException {
+        Path main = tempDir.resolve("main");
+        Path extra = tempDir.resolve("extra");
+        Files.createDirectories(main.resolve("icons"));
+        Files.createDirectories(extra.resolve("icons"));
+        Files.writeString(main.resolve("icons/icon.svg"), "<svg/>");
+        Files.writeString(extra.resolve("icons/icon.svg"), "<svg></svg>");
+        Files.writeString(extra.resolve("#notes.txt"), "notes");
+        Files.writeString(main.resolve("a.txt"), "a");
+        List<Path> roots = List.of(main, extra);
+        ResourceFilter filter = new ResourceFilter(List.of(), List.of());
+
+        ResourceIndex memory = ResourceIndex.scan(roots, Set.of(), filter);
+        Path file = tempDir.resolve("resource-index.txt");
+        ResourceIndex written = ResourceIndex.scan(roots, Set.of(), filter, file, tempDir.resolve("tmp"));
+        assertEquals(memory.getSizes(), written.getSizes());
+        assertEquals(memory.getFiles(), written.getFiles());
+        assertEquals(main, written.getRoot("icons/icon.svg"));
+        assertEquals(memory.getFileCount(), written.getFileCount());
+    }
+
+}
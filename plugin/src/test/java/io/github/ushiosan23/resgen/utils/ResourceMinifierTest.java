@@ -0,0 +1,46 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceMinifierTest {
+
+    @Test
+    void minifyJsonOutsideStrings() {
+        assertEquals("{\"name\":\"a  b\",\"list\":[1,2]}",
+            ResourceMinifier.minify("data/config.json", "{\n  \"name\": \"a  b\",\n  \"list\": [ 1, 2 ]\n}\n"));
+        assertEquals("[\"\\\" x\"]", ResourceMinifier.minifyJson("[ \"\\\" x\" ]"));
+        assertNull(ResourceMinifier.minifyJson("{\"open"));
+    }
+
+    @Test
+    void minifyMarkupKeepsContent() {
+        String svg = "<?xml version=\"1.0\"?>\n<!-- comment -->\n<svg>\n  <desc> a b </desc>\n" +
+            "  <raw><![CDATA[ x ]]></raw>\n  <keep xml:space=\"preserve\">\n    <v/>\n  </keep>\n</svg>\n";
+        assertEquals("<?xml version=\"1.0\"?><svg><desc> a b </desc><raw><![CDATA[ x ]]></raw>" +
+            "<keep xml:space=\"preserve\">\n    <v/>\n  </keep></svg>", ResourceMinifier.minify("icons/configuration.svg", svg));
+    }
+
+    @Test
+    void plainXmlIsNotModified() {
+        assertFalse(ResourceMinifier.isSupported("xml/configuration.xml"));
+        assertNull(ResourceMinifier.minify("xml/configuration.xml", "<map>\n  <entry key=\"sep\"> </entry>\n</map>"));
+    }
+
+    @Test
+    void minifySvgKeepsTextWhitespace() {
+        String svg = "<svg>\n  <g>\n    <path d=\"M0 0\"/>\n  </g>\n  <text>a <tspan>b</tspan> c</text>\n</svg>";
+        assertEquals("<svg><g><path d=\"M0 0\"/></g><text>a <tspan>b</tspan> c</text></svg>",
+            ResourceMinifier.minify("icons/icon.svg", svg));
+    }
+
+    @Test
+    void minifyHtmlCollapsesWhitespace() {
+        String html = "<!DOCTYPE html>\n<p>\n  <b>a</b>   <i>b</i>\n</p>\n<pre>  x\n  y</pre>\n<script>if (a < b) {  }</script>\n";
+        assertEquals("<!DOCTYPE html> <p> <b>a</b> <i>b</i> </p> <pre>  x\n  y</pre> <script>if (a < b) {  }</script>",
+            ResourceMinifier.minify("index.html", html));
+        assertNull(ResourceMinifier.minify("notes.txt", "text"));
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.github.ushiosan23.resgen.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SortedSpoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void chunksAreMergedInOrder() throws IOException {
+        List<String> lines = new ArrayList<>();
+        // Ties keep the insertion order across chunks
+        Comparator<String> order = Comparator.comparing(line -> line.substring(0, 1));
+        try (SortedSpool spool = new SortedSpool(tempDir, order, 2)) {
+            for (String line : List.of("c1", "a1", "b1", "a2", "c2", "a3", "b2")) spool.add(line);
+            spool.forEach(lines::add);
+            assertEquals(4, Files.list(tempDir).count());
+        }
+        assertEquals(List.of("a1", "a2", "a3", "b1", "b2", "c1", "c2"), lines);
+        assertEquals(0, Files.list(tempDir).count());
+    }
+
+    @Test
+    void singleChunkIsNotWritten() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (SortedSpool spool = new SortedSpool(tempDir, Comparator.naturalOrder())) {
+            spool.add("b");
+            spool.add("a");
+            spool.forEach(lines::add);
+        }
+        assertEquals(List.of("a", "b"), lines);
+        assertEquals(0, Files.list(tempDir).count());
+    }
+
+}
@@ -0,0 +1,49 @@
+plugins {
+    `java-library`
+}
+
+/* ------------------------------------------------------------------
+ * Extra properties access
+ * ------------------------------------------------------------------ */
+
+val rpExtra get() = rootProject.extra
+
+group = rpExtra["project.plugin.group"] as String
+version = rpExtra["project.plugin.version"] as String
+
+base {
+    archivesName.set("resgen-server")
+}
+
+/* ------------------------------------------------------------------
+ * Testing configurations
+ * ------------------------------------------------------------------ */
+
+tasks.test {
+    // Use JUnit Platform for unit tests.
+    useJUnitPlatform()
+}
+
+// Load test harness, it is never part of `check`
+val loadTestSourceSet = sourceSets.create("loadTest") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+val loadTest by tasks.registering(JavaExec::class) {
+    description = "Runs the load test harness against a local server (-Pargs=\"--threads 16 --seconds 30\")"
+    classpath = loadTestSourceSet.runtimeClasspath
+    mainClass.set("io.github.ushiosan23.resgen.server.LoadTest")
+    args = (findProperty("args") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+}
+
+/* ------------------------------------------------------------------
+ * Server dependencies
+ * ------------------------------------------------------------------ */
+
+dependencies {
+    compileOnly("org.jetbrains:annotations:22.0.0")
+    "loadTestCompileOnly"("org.jetbrains:annotations:22.0.0")
+    // Use JUnit Jupiter for testing.
+    testImplementation("org.junit.jupiter:junit-jupiter:5.8.2")
+}
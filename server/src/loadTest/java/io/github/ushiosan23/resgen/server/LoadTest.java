@@ -0,0 +1,371 @@
+package io.github.ushiosan23.resgen.server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test harness. Without {@code --url} it generates random assets, starts a local
+ * {@link AssetHttpHandler} and measures it; with {@code --url} and {@code --manifest}
+ * it measures a running instance.
+ * <pre>
+ * --threads 16       concurrent clients (and server threads)
+ * --seconds 10       measured duration, after one second of warm-up
+ * --files 200        generated assets
+ * --size 16384       size of each generated asset
+ * --revalidate 0.5   fraction of requests sent with If-None-Match
+ * --gzip             send Accept-Encoding: gzip
+ * --url URL          base url of a running server
+ * --manifest FILE    asset manifest of the running server
+ * </pre>
+ */
+public final class LoadTest {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Command line options
+     */
+    private final Map<String, String> options;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param options Command line options
+     */
+    private LoadTest(@NotNull Map<String, String> options) {
+        this.options = options;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Entry point
+     *
+     * @param args Command line arguments
+     *
+     * @throws Exception Error to run the test
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i].replaceFirst("^--", "");
+            boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+            options.put(name, flag ? "true" : args[++i]);
+        }
+        new LoadTest(options).run();
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Run the test and print the report
+     *
+     * @throws Exception Error to run the test
+     */
+    private void run() throws Exception {
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        double revalidate = Double.parseDouble(options.getOrDefault("revalidate", "0.5"));
+        boolean gzip = options.containsKey("gzip");
+
+        HttpServer server = null;
+        URLClassLoader loader = null;
+        String baseUrl = options.get("url");
+        AssetIndex index;
+        if (baseUrl == null) {
+            Path root = generateAssets(
+                Integer.parseInt(options.getOrDefault("files", "200")),
+                Integer.parseInt(options.getOrDefault("size", "16384")));
+            loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null);
+            index = AssetIndex.load(loader);
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+            server.setExecutor(Executors.newFixedThreadPool(threads));
+            server.createContext("/assets/", new AssetHttpHandler(new AssetServer(index, loader, "max-age=3600")));
+            server.start();
+            baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/assets/";
+            System.out.println("Local server at " + baseUrl + " with assets in " + root);
+        } else {
+            String manifest = options.get("manifest");
+            if (manifest == null) throw new IllegalArgumentException("--url requires --manifest");
+            try (Reader reader = Files.newBufferedReader(Path.of(manifest), StandardCharsets.UTF_8)) {
+                index = AssetIndex.read(reader);
+            }
+        }
+        List<Asset> assets = new ArrayList<>(index.getAssets());
+        if (assets.isEmpty()) throw new IllegalStateException("No assets to request");
+
+        // Warm-up, then measure
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(threads))
+            .build();
+        String base = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        try {
+            measure(client, base, assets, threads, 1, revalidate, gzip);
+            Result result = measure(client, base, assets, threads, seconds, revalidate, gzip);
+            result.print(seconds);
+        } finally {
+            if (server != null) {
+                server.stop(0);
+                ((ExecutorService) server.getExecutor()).shutdownNow();
+            }
+            if (loader != null) loader.close();
+            ((ExecutorService) client.executor().orElseThrow()).shutdownNow();
+        }
+    }
+
+    /**
+     * Send requests from all clients during a period
+     *
+     * @param client     Http client
+     * @param base       Base url
+     * @param assets     Requested assets
+     * @param threads    Concurrent clients
+     * @param seconds    Duration
+     * @param revalidate Fraction of conditional requests
+     * @param gzip       Accept gzip variants
+     *
+     * @return Merged result
+     *
+     * @throws Exception Error of any client
+     */
+    private static @NotNull Result measure(
+        @NotNull HttpClient client,
+        @NotNull String base,
+        @NotNull List<Asset> assets,
+        int threads,
+        int seconds,
+        double revalidate,
+        boolean gzip) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(clients.submit(() -> {
+                    Result result = new Result();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Asset asset = assets.get(random.nextInt(assets.size()));
+                        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + encode(asset.getLocation())));
+                        if (random.nextDouble() < revalidate) request.header("If-None-Match", asset.getEtag());
+                        if (gzip) request.header("Accept-Encoding", "gzip");
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+                            long bytes;
+                            try (InputStream body = response.body()) {
+                                bytes = body.transferTo(OutputStream.nullOutputStream());
+                            }
+                            result.add(response.statusCode(), bytes, System.nanoTime() - start);
+                        } catch (IOException err) {
+                            result.errors++;
+                        }
+                    }
+                    return result;
+                }));
+            }
+            Result total = new Result();
+            for (Future<Result> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Encode a location as a url path
+     *
+     * @param location Resource location
+     *
+     * @return Encoded path
+     */
+    private static @NotNull String encode(@NotNull String location) {
+        try {
+            return new URI(null, null, location, null).getRawPath();
+        } catch (URISyntaxException err) {
+            throw new IllegalArgumentException(err);
+        }
+    }
+
+    /**
+     * Generate random assets and their manifest
+     *
+     * @param count Number of assets
+     * @param size  Size of each asset
+     *
+     * @return Resource directory
+     *
+     * @throws IOException Error to write the files
+     */
+    private static @NotNull Path generateAssets(int count, int size) throws IOException {
+        Path root = Files.createTempDirectory("resgen-load");
+        Files.createDirectories(root.resolve("META-INF/resgen"));
+        Random random = new Random(42);
+        byte[] content = new byte[size];
+        try (Writer manifest = Files.newBufferedWriter(root.resolve(AssetIndex.MANIFEST_LOCATION), StandardCharsets.UTF_8)) {
+            manifest.write("#resgen-assets 1\n");
+            for (int i = 0; i < count; i++) {
+                String location = "assets/" + (i % 16) + "/file-" + i + ".bin";
+                random.nextBytes(content);
+                Path file = root.resolve(location);
+                Files.createDirectories(file.getParent());
+                Files.write(file, content);
+                manifest.write(location + "\t" + size + "\t\"" + hash(content) + "\"\tapplication/octet-stream\t\n");
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Hash content like the plugin does
+     *
+     * @param content Target content
+     *
+     * @return First 128 bits of the SHA-256, in hexadecimal
+     */
+    private static @NotNull String hash(byte @NotNull [] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder result = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) result.append(String.format("%02x", hash[i]));
+            return result.toString();
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Measures of one or more clients
+     */
+    private static final class Result {
+
+        /**
+         * Latencies in nanoseconds
+         */
+        private long[] latencies = new long[1024];
+
+        /**
+         * Number of requests
+         */
+        private int count;
+
+        /**
+         * Failed requests
+         */
+        private int errors;
+
+        /**
+         * Received body bytes
+         */
+        private long bytes;
+
+        /**
+         * Responses by status
+         */
+        private final Map<Integer, Integer> statuses = new HashMap<>();
+
+        /**
+         * Add a response
+         *
+         * @param status  Response status
+         * @param size    Body bytes
+         * @param latency Latency in nanoseconds
+         */
+        void add(int status, long size, long latency) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latency;
+            bytes += size;
+            statuses.merge(status, 1, Integer::sum);
+        }
+
+        /**
+         * Merge the measures of other client
+         *
+         * @param other Other result
+         */
+        void merge(@NotNull Result other) {
+            for (int i = 0; i < other.count; i++) {
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = other.latencies[i];
+            }
+            errors += other.errors;
+            bytes += other.bytes;
+            other.statuses.forEach((status, value) -> statuses.merge(status, value, Integer::sum));
+        }
+
+        /**
+         * Print the report
+         *
+         * @param seconds Measured duration
+         */
+        void print(int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("requests   %d (%d errors), statuses %s%n", count, errors, statuses);
+            System.out.printf("throughput %.0f req/s, %.1f MB/s%n", (double) count / seconds, bytes / 1e6 / seconds);
+            if (count == 0) return;
+            System.out.printf("latency    p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), sorted[count - 1] / 1e6);
+        }
+
+        /**
+         * Get a percentile
+         *
+         * @param sorted   Sorted latencies
+         * @param fraction Percentile between 0 and 1
+         *
+         * @return Latency in milliseconds
+         */
+        private static double percentile(long @NotNull [] sorted, double fraction) {
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e6;
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.github.ushiosan23.resgen.server;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Packaged resource described by the asset manifest. Every value is computed at build time.
+ */
+public final class Asset {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Resource location
+     */
+    private final String location;
+
+    /**
+     * Size in bytes
+     */
+    private final long size;
+
+    /**
+     * Strong entity tag, with quotes
+     */
+    private final String etag;
+
+    /**
+     * Content type
+     */
+    private final String contentType;
+
+    /**
+     * Encodings of the precompressed variants, in preference order
+     */
+    private final List<String> encodings;
+
+    /**
+     * Resolved resource, {@code null} until the first request
+     */
+    volatile URL source;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param location    Resource location
+     * @param size        Size in bytes
+     * @param etag        Strong entity tag, with quotes
+     * @param contentType Content type
+     * @param encodings   Encodings of the precompressed variants
+     */
+    Asset(
+        @NotNull String location,
+        long size,
+        @NotNull String etag,
+        @NotNull String contentType,
+        @NotNull List<String> encodings) {
+        this.location = location;
+        this.size = size;
+        this.etag = etag;
+        this.contentType = contentType;
+        this.encodings = List.copyOf(encodings);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Get resource location
+     *
+     * @return Resource location
+     */
+    public @NotNull String getLocation() {
+        return location;
+    }
+
+    /**
+     * Get resource size
+     *
+     * @return Size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get entity tag
+     *
+     * @return Strong entity tag, with quotes
+     */
+    public @NotNull String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Get content type
+     *
+     * @return Content type
+     */
+    public @NotNull String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Get precompressed variant encodings
+     *
+     * @return Encodings ({@code br}, {@code gzip}) in preference order
+     */
+    public @NotNull List<String> getEncodings() {
+        return encodings;
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.github.ushiosan23.resgen.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Request and response of a single asset request. Adapt it to any server to use {@link AssetServer}.
+ */
+public interface AssetExchange {
+
+    /**
+     * Get request method
+     *
+     * @return Method name ({@code GET}, {@code HEAD})
+     */
+    @NotNull String getMethod();
+
+    /**
+     * Get requested location, relative to the served prefix and already decoded
+     *
+     * @return Resource location without the leading slash
+     */
+    @NotNull String getLocation();
+
+    /**
+     * Get a request header
+     *
+     * @param name Header name, case insensitive
+     *
+     * @return Header value or {@code null} if it is not present
+     */
+    @Nullable String getRequestHeader(@NotNull String name);
+
+    /**
+     * Set a response header. Only called before {@link #sendHeaders(int, long)}.
+     *
+     * @param name  Header name
+     * @param value Header value
+     */
+    void setResponseHeader(@NotNull String name, @NotNull String value);
+
+    /**
+     * Send status and headers
+     *
+     * @param status Status code
+     * @param length Body length or {@code -1} if there is no body
+     *
+     * @throws IOException Error to send the response
+     */
+    void sendHeaders(int status, long length) throws IOException;
+
+    /**
+     * Get response body. A socket channel allows zero-copy file transfers.
+     *
+     * @return Body channel
+     *
+     * @throws IOException Error to open the body
+     */
+    @NotNull WritableByteChannel getBody() throws IOException;
+
+}
@@ -0,0 +1,120 @@
+package io.github.ushiosan23.resgen.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * {@link AssetServer} adapter for {@code com.sun.net.httpserver}. Locations are relative to the context path:
+ * <pre>
+ * server.createContext("/assets/", new AssetHttpHandler(AssetServer.of(loader)));
+ * </pre>
+ * This server only exposes the body as a stream, so file transfers are copied by the JDK.
+ */
+public final class AssetHttpHandler implements HttpHandler {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Asset server
+     */
+    private final AssetServer server;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param server Asset server
+     */
+    public AssetHttpHandler(@NotNull AssetServer server) {
+        this.server = server;
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Answer a request
+     *
+     * @param exchange Current exchange
+     *
+     * @throws IOException Error to send the response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            server.serve(new Exchange(exchange));
+        }
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal types
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Exchange adapter
+     */
+    private static final class Exchange implements AssetExchange {
+
+        /**
+         * Current exchange
+         */
+        private final HttpExchange exchange;
+
+        /**
+         * Default constructor
+         *
+         * @param exchange Current exchange
+         */
+        Exchange(@NotNull HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public @NotNull String getMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public @NotNull String getLocation() {
+            String path = exchange.getRequestURI().getPath();
+            String context = exchange.getHttpContext().getPath();
+            String result = path.startsWith(context) ? path.substring(context.length()) : path;
+            return result.startsWith("/") ? result.substring(1) : result;
+        }
+
+        @Override
+        public @Nullable String getRequestHeader(@NotNull String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        @Override
+        public void setResponseHeader(@NotNull String name, @NotNull String value) {
+            exchange.getResponseHeaders().set(name, value);
+        }
+
+        @Override
+        public void sendHeaders(int status, long length) throws IOException {
+            // Zero means chunked for this server, -1 means no body
+            exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        }
+
+        @Override
+        public @NotNull WritableByteChannel getBody() {
+            return Channels.newChannel(exchange.getResponseBody());
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.github.ushiosan23.resgen.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assets of the manifest written by the {@code assetManifest} option of the plugin.
+ * <p>
+ * File format, one resource per line:
+ * <pre>
+ * #resgen-assets 1
+ * css/app.css	5120	"1f0c...9a"	text/css; charset=utf-8	gzip,br
+ * </pre>
+ */
+public final class AssetIndex {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Manifest location inside the packaged resources
+     */
+    public static final String MANIFEST_LOCATION = "META-INF/resgen/assets.tsv";
+
+    /**
+     * Format header
+     */
+    private static final String FORMAT_HEADER = "#resgen-assets 1";
+
+    /**
+     * Assets by location
+     */
+    private final Map<String, Asset> assets;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param assets Assets by location
+     */
+    private AssetIndex(@NotNull Map<String, Asset> assets) {
+        this.assets = Collections.unmodifiableMap(assets);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Load the manifest packaged with the resources
+     *
+     * @param loader Class loader of the resources
+     *
+     * @return Index instance
+     *
+     * @throws IOException Error to read the manifest or the manifest does not exist
+     */
+    public static @NotNull AssetIndex load(@NotNull ClassLoader loader) throws IOException {
+        InputStream in = loader.getResourceAsStream(MANIFEST_LOCATION);
+        if (in == null) throw new IOException(MANIFEST_LOCATION + " not found, enable resgen.assetManifest");
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Read a manifest
+     *
+     * @param reader Manifest content
+     *
+     * @return Index instance
+     *
+     * @throws IOException Error to read the manifest or invalid format
+     */
+    public static @NotNull AssetIndex read(@NotNull Reader reader) throws IOException {
+        Map<String, Asset> assets = new HashMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        if (!FORMAT_HEADER.equals(lines.readLine())) throw new IOException("Unknown asset manifest format");
+        String line;
+        while ((line = lines.readLine()) != null) {
+            // Only the first line is a header, locations may start with '#'
+            if (line.isEmpty()) continue;
+            String[] values = line.split("\t", -1);
+            if (values.length != 5) throw new IOException("Invalid asset manifest line: " + line);
+            List<String> encodings = values[4].isEmpty() ? List.of() : Arrays.asList(values[4].split(","));
+            assets.put(values[0], new Asset(values[0], Long.parseLong(values[1]), values[2], values[3], encodings));
+        }
+        return new AssetIndex(assets);
+    }
+
+    /**
+     * Get an asset
+     *
+     * @param location Resource location
+     *
+     * @return Asset or {@code null} if the location is not in the manifest
+     */
+    public @Nullable Asset get(@NotNull String location) {
+        return assets.get(location);
+    }
+
+    /**
+     * Get all assets
+     *
+     * @return Assets in no particular order
+     */
+    public @NotNull Collection<Asset> getAssets() {
+        return assets.values();
+    }
+
+}
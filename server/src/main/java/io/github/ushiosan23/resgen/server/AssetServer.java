@@ -0,0 +1,253 @@
+package io.github.ushiosan23.resgen.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Serves indexed resources. Status, {@code ETag}, {@code Content-Length} and {@code 304} answers
+ * only use the asset manifest. Precompressed variants are selected by {@code Accept-Encoding} and
+ * files on disk are sent with {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+ */
+public final class AssetServer {
+
+    /* ------------------------------------------------------------------
+     * Properties
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Variant suffixes by encoding
+     */
+    private static final String[][] variantSuffixes = {{"br", ".br"}, {"gzip", ".gz"}};
+
+    /**
+     * Asset manifest
+     */
+    private final AssetIndex index;
+
+    /**
+     * Class loader of the resources
+     */
+    private final ClassLoader loader;
+
+    /**
+     * Cache-Control header value, {@code null} to skip it
+     */
+    private final String cacheControl;
+
+    /* ------------------------------------------------------------------
+     * Constructors
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Default constructor
+     *
+     * @param index        Asset manifest
+     * @param loader       Class loader of the resources
+     * @param cacheControl Cache-Control header value or {@code null} to skip it
+     */
+    public AssetServer(@NotNull AssetIndex index, @NotNull ClassLoader loader, @Nullable String cacheControl) {
+        this.index = index;
+        this.loader = loader;
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Create a server with the manifest of a class loader
+     *
+     * @param loader Class loader of the resources
+     *
+     * @return Server instance without Cache-Control header
+     *
+     * @throws IOException Error to read the manifest
+     */
+    public static @NotNull AssetServer of(@NotNull ClassLoader loader) throws IOException {
+        return new AssetServer(AssetIndex.load(loader), loader, null);
+    }
+
+    /* ------------------------------------------------------------------
+     * Methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Answer a request
+     *
+     * @param exchange Request and response
+     *
+     * @throws IOException Error to send the response
+     */
+    public void serve(@NotNull AssetExchange exchange) throws IOException {
+        String method = exchange.getMethod();
+        boolean head = method.equals("HEAD");
+        if (!head && !method.equals("GET")) {
+            exchange.setResponseHeader("Allow", "GET, HEAD");
+            exchange.sendHeaders(405, -1);
+            return;
+        }
+        Asset asset = index.get(exchange.getLocation());
+        // The manifest itself is not served
+        if (asset == null || asset.getLocation().equals(AssetIndex.MANIFEST_LOCATION)) {
+            exchange.sendHeaders(404, -1);
+            return;
+        }
+
+        // Select the representation
+        Asset selected = asset;
+        String encoding = null;
+        if (!asset.getEncodings().isEmpty()) {
+            exchange.setResponseHeader("Vary", "Accept-Encoding");
+            String accepted = exchange.getRequestHeader("Accept-Encoding");
+            for (String[] variant : variantSuffixes) {
+                if (!asset.getEncodings().contains(variant[0]) || !accepts(accepted, variant[0])) continue;
+                Asset candidate = index.get(asset.getLocation() + variant[1]);
+                if (candidate == null) continue;
+                selected = candidate;
+                encoding = variant[0];
+                break;
+            }
+        }
+        exchange.setResponseHeader("ETag", selected.getEtag());
+        if (cacheControl != null) exchange.setResponseHeader("Cache-Control", cacheControl);
+        if (matches(exchange.getRequestHeader("If-None-Match"), selected.getEtag())) {
+            exchange.sendHeaders(304, -1);
+            return;
+        }
+        exchange.setResponseHeader("Content-Type", asset.getContentType());
+        if (encoding != null) exchange.setResponseHeader("Content-Encoding", encoding);
+        if (head) {
+            exchange.setResponseHeader("Content-Length", Long.toString(selected.getSize()));
+            exchange.sendHeaders(200, -1);
+            return;
+        }
+        URL source = resolve(selected);
+        if (source == null) {
+            exchange.sendHeaders(404, -1);
+            return;
+        }
+        exchange.sendHeaders(200, selected.getSize());
+        transfer(source, selected.getSize(), exchange.getBody());
+    }
+
+    /* ------------------------------------------------------------------
+     * Internal methods
+     * ------------------------------------------------------------------ */
+
+    /**
+     * Resolve an asset once
+     *
+     * @param asset Target asset
+     *
+     * @return Resource url or {@code null} if the resource is not packaged
+     */
+    private @Nullable URL resolve(@NotNull Asset asset) {
+        URL result = asset.source;
+        if (result == null) {
+            result = loader.getResource(asset.getLocation());
+            asset.source = result;
+        }
+        return result;
+    }
+
+    /**
+     * Write the resource content. Files on disk are transferred by the operating system
+     * when the body is a socket channel.
+     *
+     * @param source Resource url
+     * @param size   Size announced in the headers
+     * @param body   Response body
+     *
+     * @throws IOException Error to read the resource or to write the body
+     */
+    private static void transfer(@NotNull URL source, long size, @NotNull WritableByteChannel body) throws IOException {
+        if (source.getProtocol().equals("file")) {
+            Path file;
+            try {
+                file = Paths.get(source.toURI());
+            } catch (URISyntaxException err) {
+                throw new IOException(err);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                for (long position = 0; position < size; ) {
+                    long sent = channel.transferTo(position, size - position, body);
+                    if (sent <= 0) throw new IOException("Resource changed after the build: " + source);
+                    position += sent;
+                }
+            }
+            return;
+        }
+        // Archive entries are copied
+        try (InputStream in = source.openStream(); ReadableByteChannel channel = Channels.newChannel(in)) {
+            ByteBuffer buffer = ByteBuffer.allocate(16384);
+            long remaining = size;
+            while (remaining > 0 && channel.read(buffer) != -1) {
+                buffer.flip();
+                if (buffer.remaining() > remaining) buffer.limit((int) remaining);
+                remaining -= buffer.remaining();
+                while (buffer.hasRemaining()) body.write(buffer);
+                buffer.clear();
+            }
+            if (remaining > 0) throw new IOException("Resource changed after the build: " + source);
+        }
+    }
+
+    /**
+     * Check if an encoding is accepted
+     *
+     * @param header   Accept-Encoding value
+     * @param encoding Encoding name
+     *
+     * @return {@code true} if the encoding is listed without {@code q=0}
+     */
+    static boolean accepts(@Nullable String header, @NotNull String encoding) {
+        if (header == null) return false;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(encoding)) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException err) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check If-None-Match against an entity tag. Weak comparison, like the specification requires.
+     *
+     * @param header If-None-Match value
+     * @param etag   Current entity tag
+     *
+     * @return {@code true} if the client already has the representation
+     */
+    static boolean matches(@Nullable String header, @NotNull String etag) {
+        if (header == null) return false;
+        for (String element : header.split(",")) {
+            String tag = element.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+}
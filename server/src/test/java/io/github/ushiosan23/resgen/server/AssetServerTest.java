@@ -0,0 +1,74 @@
+package io.github.ushiosan23.resgen.server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AssetServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void servesVariantsAndValidators() throws IOException {
+        Files.createDirectories(tempDir.resolve("css"));
+        Files.createDirectories(tempDir.resolve("META-INF/resgen"));
+        Files.writeString(tempDir.resolve("css/app.css"), "body{}");
+        Files.write(tempDir.resolve("css/app.css.gz"), new byte[]{31, -117, 8});
+        Files.writeString(tempDir.resolve(AssetIndex.MANIFEST_LOCATION), "#resgen-assets 1\n" +
+            "css/app.css\t6\t\"a1\"\ttext/css; charset=utf-8\tgzip\n" +
+            "css/app.css.gz\t3\t\"b2\"\tapplication/gzip\t\n");
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, null)) {
+            server.createContext("/assets/", new AssetHttpHandler(AssetServer.of(loader)));
+            server.start();
+            String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/assets/";
+
+            HttpURLConnection plain = open(base + "css/app.css");
+            assertEquals(200, plain.getResponseCode());
+            assertEquals("\"a1\"", plain.getHeaderField("ETag"));
+            assertEquals("6", plain.getHeaderField("Content-Length"));
+            assertNull(plain.getHeaderField("Content-Encoding"));
+            try (InputStream in = plain.getInputStream()) {
+                assertEquals("body{}", new String(in.readAllBytes()));
+            }
+
+            HttpURLConnection compressed = open(base + "css/app.css");
+            compressed.setRequestProperty("Accept-Encoding", "br;q=0, gzip");
+            assertEquals(200, compressed.getResponseCode());
+            assertEquals("gzip", compressed.getHeaderField("Content-Encoding"));
+            assertEquals("text/css; charset=utf-8", compressed.getHeaderField("Content-Type"));
+            try (InputStream in = compressed.getInputStream()) {
+                assertArrayEquals(new byte[]{31, -117, 8}, in.readAllBytes());
+            }
+
+            HttpURLConnection cached = open(base + "css/app.css");
+            cached.setRequestProperty("If-None-Match", "W/\"a1\"");
+            assertEquals(304, cached.getResponseCode());
+
+            assertEquals(404, open(base + "css/missing.css").getResponseCode());
+            assertEquals(404, open(base + AssetIndex.MANIFEST_LOCATION).getResponseCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static HttpURLConnection open(String url) throws IOException {
+        return (HttpURLConnection) new URL(url).openConnection();
+    }
+
+}
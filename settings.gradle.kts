@@ -6,5 +6,5 @@ pluginManagement {
 }
 
 rootProject.name = "resourceGeneratorPlugin"
-include(":plugin", ":example")
+include(":plugin", ":server", ":example")
 